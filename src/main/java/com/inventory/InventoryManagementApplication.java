@@ -2,13 +2,19 @@ package com.inventory;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
+@EnableAsync
 public class InventoryManagementApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(InventoryManagementApplication.class, args);
+        SpringApplication application = new SpringApplication(InventoryManagementApplication.class);
+        // Record startup steps (Flyway, entity manager factory, ...) for the /startup actuator endpoint
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        application.run(args);
     }
-}
\ No newline at end of file
+}
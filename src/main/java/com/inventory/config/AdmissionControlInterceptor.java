@@ -0,0 +1,114 @@
+package com.inventory.config;
+
+import com.inventory.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits how many write requests of one operation class run at the same time
+ * A request over the limit waits in a bounded queue for up to maxWaitMs. When the queue is full or
+ * the wait times out, the request is rejected with 429 and Retry-After instead of holding a Tomcat
+ * thread and a pooled connection, so read endpoints keep their share of both.
+ */
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlInterceptor.class);
+
+    private final String operationClass;
+    private final int queueSize;
+    private final long maxWaitMs;
+    private final long retryAfterSeconds;
+
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final String admittedAttribute;
+
+    private final Counter rejected;
+    private final Timer waitTime;
+
+    public AdmissionControlInterceptor(MeterRegistry meterRegistry, String operationClass, int maxConcurrent,
+                                       int queueSize, long maxWaitMs, long retryAfterSeconds) {
+        this.operationClass = operationClass;
+        this.queueSize = queueSize;
+        this.maxWaitMs = maxWaitMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.admittedAttribute = AdmissionControlInterceptor.class.getName() + "." + operationClass;
+
+        Gauge.builder("inventory.admission.active", () -> maxConcurrent - permits.availablePermits())
+                .tag("class", operationClass)
+                .register(meterRegistry);
+        Gauge.builder("inventory.admission.queued", waiting::get)
+                .tag("class", operationClass)
+                .register(meterRegistry);
+        rejected = meterRegistry.counter("inventory.admission.rejected", "class", operationClass);
+        waitTime = meterRegistry.timer("inventory.admission.wait", "class", operationClass);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if ("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())
+                || "OPTIONS".equals(request.getMethod())) {
+            return true;
+        }
+
+        if (!permits.tryAcquire()) {
+            acquireQueued(request);
+        }
+        request.setAttribute(admittedAttribute, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(admittedAttribute) != null) {
+            request.removeAttribute(admittedAttribute);
+            permits.release();
+        }
+    }
+
+    /**
+     * Wait for a permit in the bounded queue
+     * @throws TooManyRequestsException if the queue is full or no permit frees up in time
+     */
+    private void acquireQueued(HttpServletRequest request) {
+        if (waiting.incrementAndGet() > queueSize) {
+            waiting.decrementAndGet();
+            reject(request, "queue full");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            waiting.decrementAndGet();
+            waitTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (!acquired) {
+            reject(request, "wait timed out");
+        }
+    }
+
+    private void reject(HttpServletRequest request, String reason) {
+        rejected.increment();
+        logger.warn("Rejected {} {} ({} requests, {})", request.getMethod(), request.getRequestURI(), operationClass, reason);
+        throw new TooManyRequestsException("Too many concurrent " + operationClass + " requests, please retry later",
+                retryAfterSeconds);
+    }
+}
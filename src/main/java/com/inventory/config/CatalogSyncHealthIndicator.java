@@ -0,0 +1,67 @@
+package com.inventory.config;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Health of the catalog to stock synchronization, part of the readiness group
+ * Out of service until the first sync after startup has finished; a later failed run
+ * is reported in the details but keeps the instance ready.
+ */
+@Component
+public class CatalogSyncHealthIndicator implements HealthIndicator {
+
+    enum State { PENDING, RUNNING, COMPLETED, FAILED }
+
+    private volatile State state = State.PENDING;
+    private volatile boolean completedOnce;
+    private volatile Integer lastCreated;
+    private volatile Long lastDurationMs;
+    private volatile ZonedDateTime lastCompleted;
+    private volatile String lastError;
+
+    void started() {
+        state = State.RUNNING;
+    }
+
+    void completed(int created, long durationMs) {
+        lastCreated = created;
+        lastDurationMs = durationMs;
+        lastCompleted = ZonedDateTime.now(ZoneId.of("Asia/Bangkok"));
+        lastError = null;
+        completedOnce = true;
+        state = State.COMPLETED;
+    }
+
+    void failed(Exception e) {
+        lastError = e.getMessage();
+        state = State.FAILED;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder;
+        if (completedOnce) {
+            builder = Health.up();
+        } else if (state == State.FAILED) {
+            builder = Health.down();
+        } else {
+            builder = Health.outOfService();
+        }
+
+        builder.withDetail("state", state);
+        if (lastCreated != null) {
+            builder.withDetail("created", lastCreated)
+                    .withDetail("durationMs", lastDurationMs)
+                    .withDetail("completedAt", lastCompleted.toString());
+        }
+        if (lastError != null) {
+            builder.withDetail("error", lastError);
+        }
+        return builder.build();
+    }
+}
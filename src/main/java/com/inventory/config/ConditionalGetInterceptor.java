@@ -0,0 +1,47 @@
+package com.inventory.config;
+
+import com.inventory.service.ChangeVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Answers conditional GET requests of read endpoints from the table change counters
+ * The ETag is computed before the handler runs, so a matching If-None-Match gets 304
+ * without calling the controller. Otherwise the ETag is added to the full response, whose data
+ * is then read from the primary: the counters are the primary's, and a replica body could be older.
+ */
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private final ChangeVersionService changeVersionService;
+    private final String[] groups;
+
+    public ConditionalGetInterceptor(ChangeVersionService changeVersionService, String... groups) {
+        this.changeVersionService = changeVersionService;
+        this.groups = groups;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+
+        // Clients must revalidate on every poll, which is cheap with the ETag
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        String etag = changeVersionService.etag(groups);
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return false;
+        }
+        ReplicaRoutingDataSource.readFromPrimary();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReplicaRoutingDataSource.clearReadFromPrimary();
+    }
+}
@@ -0,0 +1,85 @@
+package com.inventory.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-thread counters of the SQL statements, fetched rows and JDBC time of a unit of work
+ * A scope counts everything executed on its thread between open() and close(), including
+ * statements of nested scopes. Fed by QueryCountingDataSource.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<List<Scope>> ACTIVE = ThreadLocal.withInitial(ArrayList::new);
+
+    private QueryCounter() {
+    }
+
+    /**
+     * Start counting on the current thread
+     */
+    public static Scope open() {
+        Scope scope = new Scope();
+        ACTIVE.get().add(scope);
+        return scope;
+    }
+
+    static void statementExecuted(long nanos) {
+        List<Scope> scopes = ACTIVE.get();
+        for (int i = 0; i < scopes.size(); i++) {
+            Scope scope = scopes.get(i);
+            scope.statements++;
+            scope.jdbcNanos += nanos;
+        }
+        if (scopes.isEmpty()) {
+            ACTIVE.remove();
+        }
+    }
+
+    static void rowFetched() {
+        List<Scope> scopes = ACTIVE.get();
+        for (int i = 0; i < scopes.size(); i++) {
+            scopes.get(i).rows++;
+        }
+        if (scopes.isEmpty()) {
+            ACTIVE.remove();
+        }
+    }
+
+    /**
+     * Counters of one unit of work
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private long statements;
+        private long rows;
+        private long jdbcNanos;
+
+        private Scope() {
+        }
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getJdbcNanos() {
+            return jdbcNanos;
+        }
+
+        /**
+         * Stop counting; the counters keep their values
+         */
+        @Override
+        public void close() {
+            List<Scope> scopes = ACTIVE.get();
+            scopes.remove(this);
+            if (scopes.isEmpty()) {
+                ACTIVE.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.inventory.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Read replica support: read-only service transactions run on a replica connection pool
+ *
+ * Replaces the auto-configured DataSource with one DataSource that owns two Hikari pools: the
+ * primary, configured by spring.datasource.*, and the replica, configured by
+ * inventory.datasource.replica.*. See ReplicaRoutingDataSource for which transactions use the
+ * replica. Only enabled when inventory.datasource.replica.enabled is true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "inventory.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadReplicaConfig.class);
+
+    @Value("${inventory.datasource.replica.url}")
+    private String replicaUrl;
+
+    @Value("${inventory.datasource.replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${inventory.datasource.replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${inventory.datasource.replica.maximum-pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${inventory.datasource.replica.connection-timeout-ms:1000}")
+    private long replicaConnectionTimeoutMs;
+
+    @Value("${inventory.datasource.replica.max-lag-ms:2000}")
+    private long maxLagMs;
+
+    @Value("${inventory.datasource.replica.lag-check-ms:1000}")
+    private long lagCheckMs;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry) {
+        if (!StringUtils.hasText(replicaUrl)) {
+            throw new IllegalStateException("inventory.datasource.replica.url is required when the read replica is enabled");
+        }
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setJdbcUrl(replicaUrl);
+        replica.setUsername(replicaUsername);
+        replica.setPassword(replicaPassword);
+        replica.setMaximumPoolSize(replicaPoolSize);
+        replica.setReadOnly(true);
+        // Short, so a lost replica neither stalls the lag check on the scheduler thread nor delays reads for long
+        replica.setConnectionTimeout(replicaConnectionTimeoutMs);
+        // Start even if the replica is down; reads use the primary until the lag check succeeds
+        replica.setInitializationFailTimeout(-1);
+        replica.setMetricRegistry(meterRegistry);
+
+        // A lag check result older than a few intervals means checks stopped; do not trust it
+        routingDataSource = new ReplicaRoutingDataSource(primary, replica, meterRegistry, maxLagMs, lagCheckMs * 3);
+        routingDataSource.checkReplicaLag();
+        logger.info("Read replica routing enabled for {} (max lag {} ms)", replicaUrl, maxLagMs);
+        if (!routingDataSource.isReplicaUsable()) {
+            logger.warn("Read replica is not usable yet, reading from the primary until it is");
+        }
+
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.datasource.replica.lag-check-ms:1000}")
+    public void checkReplicaLag() {
+        if (routingDataSource != null) {
+            routingDataSource.checkReplicaLag();
+        }
+    }
+
+    @PreDestroy
+    public void closePools() {
+        if (routingDataSource != null) {
+            ((HikariDataSource) routingDataSource.getReplica()).close();
+            ((HikariDataSource) routingDataSource.getPrimary()).close();
+        }
+    }
+}
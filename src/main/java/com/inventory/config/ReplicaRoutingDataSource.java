@@ -0,0 +1,172 @@
+package com.inventory.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * DataSource sending read-only service transactions to a read replica and everything else to the primary
+ *
+ * A transaction goes to the replica when it is read-only, was started by application code
+ * (@Transactional(readOnly = true) on a com.inventory service or controller method) and does not
+ * ask for SERIALIZABLE isolation, which a hot standby does not support. Spring Data's own read-only
+ * transactions around single repository calls stay on the primary, so a read right after a write
+ * outside a service transaction still sees the write. Requests answered with an ETag also read
+ * from the primary, see {@link #readFromPrimary()}.
+ *
+ * The replica is only used while its last lag check succeeded and showed a replay lag below the
+ * limit; otherwise reads fall back to the primary until it catches up.
+ *
+ * The routing key is read when a physical connection is fetched, so this DataSource must sit behind
+ * a LazyConnectionDataSourceProxy: the transaction's read-only flag is only known after the
+ * transaction manager asked for a connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    // Replay lag in ms; 0 when the replica has replayed everything it received or is not a standby
+    private static final String LAG_QUERY = "SELECT CASE"
+            + " WHEN NOT pg_is_in_recovery() THEN 0"
+            + " WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE((EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::bigint, 0) END";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final MeterRegistry meterRegistry;
+    private final long maxLagMs;
+    private final long maxCheckAgeMs;
+
+    // Set while the current request must read the newest commits
+    private static final ThreadLocal<Boolean> primaryOnly = new ThreadLocal<>();
+
+    private volatile long replicaLagMs = -1;
+    private volatile long lastCheckMillis;
+    private volatile boolean replicaAvailable;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, MeterRegistry meterRegistry,
+                                    long maxLagMs, long maxCheckAgeMs) {
+        this.primary = primary;
+        this.replica = replica;
+        this.meterRegistry = meterRegistry;
+        this.maxLagMs = maxLagMs;
+        this.maxCheckAgeMs = maxCheckAgeMs;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        meterRegistry.gauge("inventory.datasource.replica.lag", this, routing -> routing.replicaLagMs);
+        meterRegistry.gauge("inventory.datasource.replica.available", this, routing -> routing.isReplicaUsable() ? 1 : 0);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && isReplicaEligible() && isReplicaUsable()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary.getConnection();
+        }
+        if (REPLICA.equals(determineCurrentLookupKey())) {
+            try {
+                Connection connection = replica.getConnection();
+                meterRegistry.counter("inventory.datasource.reads", "target", REPLICA).increment();
+                return connection;
+            } catch (SQLException e) {
+                // Serve the read from the primary; the next lag check decides when to return
+                replicaAvailable = false;
+                logger.warn("No read replica connection, reading from the primary: {}", e.getMessage());
+            }
+        }
+        meterRegistry.counter("inventory.datasource.reads", "target", PRIMARY).increment();
+        return primary.getConnection();
+    }
+
+    /**
+     * Keep the reads of the current request on the primary until {@link #clearReadFromPrimary()}
+     * Used by responses tagged with the primary's change counters: a body read from a lagging
+     * replica would be older than its ETag, and clients would keep the stale body as current.
+     */
+    public static void readFromPrimary() {
+        primaryOnly.set(Boolean.TRUE);
+    }
+
+    public static void clearReadFromPrimary() {
+        primaryOnly.remove();
+    }
+
+    /**
+     * Whether the current read-only transaction may run on the replica
+     */
+    static boolean isReplicaEligible() {
+        if (primaryOnly.get() != null) {
+            return false;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (name == null || !name.startsWith("com.inventory.") || name.startsWith("com.inventory.repository.")) {
+            return false;
+        }
+        Integer isolation = TransactionSynchronizationManager.getCurrentTransactionIsolationLevel();
+        return isolation == null || isolation != Connection.TRANSACTION_SERIALIZABLE;
+    }
+
+    /**
+     * Whether the replica is reachable and close enough to the primary
+     */
+    public boolean isReplicaUsable() {
+        return replicaAvailable && System.currentTimeMillis() - lastCheckMillis <= maxCheckAgeMs;
+    }
+
+    /**
+     * Measure the replica's replay lag and decide whether reads may use it
+     */
+    public void checkReplicaLag() {
+        boolean available;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            replicaLagMs = resultSet.getLong(1);
+            available = replicaLagMs <= maxLagMs;
+            if (!available && replicaAvailable) {
+                logger.warn("Read replica is {} ms behind (limit {} ms), reading from the primary", replicaLagMs, maxLagMs);
+            }
+        } catch (SQLException e) {
+            replicaLagMs = -1;
+            available = false;
+            if (replicaAvailable) {
+                logger.warn("Read replica check failed, reading from the primary: {}", e.getMessage());
+            }
+        }
+        if (available && !replicaAvailable) {
+            logger.info("Read replica is available ({} ms behind)", replicaLagMs);
+        }
+        lastCheckMillis = System.currentTimeMillis();
+        replicaAvailable = available;
+    }
+
+    DataSource getPrimary() {
+        return primary;
+    }
+
+    DataSource getReplica() {
+        return replica;
+    }
+}
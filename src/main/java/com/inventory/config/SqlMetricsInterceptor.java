@@ -0,0 +1,78 @@
+package com.inventory.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the SQL work of each API request, tagged by controller method
+ * inventory.sql.statements and inventory.sql.rows are distribution summaries per request and
+ * inventory.sql.time is the JDBC time per request. A request running more statements than the
+ * warning threshold is logged, which is how N+1 query patterns usually show up.
+ */
+public class SqlMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlMetricsInterceptor.class);
+
+    private static final String SCOPE_ATTRIBUTE = SqlMetricsInterceptor.class.getName() + ".scope";
+
+    private final MeterRegistry meterRegistry;
+    private final int warnStatements;
+
+    public SqlMetricsInterceptor(MeterRegistry meterRegistry, int warnStatements) {
+        this.meterRegistry = meterRegistry;
+        this.warnStatements = warnStatements;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && request.getAttribute(SCOPE_ATTRIBUTE) == null) {
+            request.setAttribute(SCOPE_ATTRIBUTE, QueryCounter.open());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Streaming responses continue on other threads; record what ran on the request thread
+        afterCompletion(request, response, handler, null);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object attribute = request.getAttribute(SCOPE_ATTRIBUTE);
+        if (!(attribute instanceof QueryCounter.Scope scope) || !(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        request.removeAttribute(SCOPE_ATTRIBUTE);
+        scope.close();
+
+        String name = handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName();
+        DistributionSummary.builder("inventory.sql.statements")
+                .tag("handler", name)
+                .register(meterRegistry)
+                .record(scope.getStatements());
+        DistributionSummary.builder("inventory.sql.rows")
+                .tag("handler", name)
+                .register(meterRegistry)
+                .record(scope.getRows());
+        Timer.builder("inventory.sql.time")
+                .tag("handler", name)
+                .register(meterRegistry)
+                .record(scope.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        if (scope.getStatements() > warnStatements) {
+            logger.warn("{} {} ran {} SQL statements ({} rows, {} ms JDBC) in {}", request.getMethod(),
+                    request.getRequestURI(), scope.getStatements(), scope.getRows(),
+                    TimeUnit.NANOSECONDS.toMillis(scope.getJdbcNanos()), name);
+        }
+    }
+}
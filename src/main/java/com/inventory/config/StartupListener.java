@@ -1,20 +1,53 @@
 package com.inventory.config;
 
 import com.inventory.service.SyncService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 @Component
 public class StartupListener {
     
+    private static final Logger logger = LoggerFactory.getLogger(StartupListener.class);
+    
     @Autowired
     private SyncService syncService;
     
+    @Autowired
+    private CatalogSyncHealthIndicator catalogSyncHealthIndicator;
+    
+    /**
+     * Synchronize CurrentStock with ProductCatalog on startup
+     * Runs on the task executor so it does not delay startup; readiness waits for it.
+     */
+    @Async
     @EventListener(ApplicationReadyEvent.class)
     public void onApplicationReady() {
-        // Synchronize CurrentStock with ProductCatalog on startup
-        syncService.syncCurrentStockWithCatalog();
+        runSync();
+    }
+    
+    /**
+     * Synchronize again daily at midnight
+     */
+    @Scheduled(cron = "0 0 0 * * ?")
+    public void scheduledSync() {
+        runSync();
+    }
+    
+    private void runSync() {
+        catalogSyncHealthIndicator.started();
+        long start = System.currentTimeMillis();
+        try {
+            int created = syncService.syncCurrentStockWithCatalog();
+            catalogSyncHealthIndicator.completed(created, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Error during stock synchronization: {}", e.getMessage(), e);
+            catalogSyncHealthIndicator.failed(e);
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,31 @@
+package com.inventory.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * Transaction manager configuration
+ *
+ * JPA normally flushes pending entity changes inside the commit, after the before-commit callbacks
+ * have run. Flushing first lets those callbacks (log outbox, cache invalidation, stock events) see
+ * every change of the transaction, and entity listeners fired by the flush still reach them.
+ */
+@Configuration
+public class TransactionConfig {
+
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory) {
+            @Override
+            protected void prepareForCommit(DefaultTransactionStatus status) {
+                if (status.isNewTransaction() && !status.isReadOnly()) {
+                    status.flush();
+                }
+            }
+        };
+    }
+}
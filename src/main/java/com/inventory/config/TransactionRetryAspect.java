@@ -0,0 +1,140 @@
+package com.inventory.config;
+
+import com.inventory.service.InventoryMetrics;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Re-executes transactions aborted by Postgres serialization failures and deadlocks
+ *
+ * Applies to @Transactional methods of the application that start a new transaction. The aspect
+ * runs outside the transaction interceptor, so every attempt is a fresh transaction with a fresh
+ * snapshot. Calls joining an existing transaction are not retried here: the outer transaction is
+ * already doomed and is retried as a whole by its own caller.
+ *
+ * Only SQLSTATE 40001 (serialization_failure) and 40P01 (deadlock_detected) are retried, found
+ * anywhere in the cause chain. Lock timeouts are not: the caller already waited the full timeout.
+ * Attempts are bounded and spaced by exponential backoff with jitter, so conflicting transactions
+ * do not collide again in lockstep.
+ *
+ * Retries are for genuine conflicts of SERIALIZABLE transactions, such as the barcode and box
+ * number checks, and for deadlocks. Paths that serialize on a product lock run in READ COMMITTED
+ * and must not depend on this aspect: a SERIALIZABLE snapshot is taken before the lock wait, so
+ * every waiter would fail and be retried. inventory.tx.serialization.retries should stay near
+ * zero; a rising count points to such a path.
+ *
+ * Each attempt is also the boundary at which InventoryMetrics records stock operations whose
+ * transaction did not commit, so a serialization failure raised by the commit is counted as one.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class TransactionRetryAspect {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionRetryAspect.class);
+
+    private static final Set<String> RETRYABLE_SQL_STATES = Set.of("40001", "40P01");
+
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
+
+    @Value("${inventory.tx.retry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${inventory.tx.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${inventory.tx.retry.initial-backoff-ms:25}")
+    private long initialBackoffMs;
+
+    @Value("${inventory.tx.retry.max-backoff-ms:1000}")
+    private long maxBackoffMs;
+
+    @Around("within(com.inventory..*) && (@annotation(org.springframework.transaction.annotation.Transactional)"
+            + " || @within(org.springframework.transaction.annotation.Transactional))")
+    public Object retryOnSerializationFailure(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        if (!enabled) {
+            return attempt(joinPoint);
+        }
+
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName() + "."
+                + joinPoint.getSignature().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return attempt(joinPoint);
+            } catch (Throwable e) {
+                if (!isRetryable(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    inventoryMetrics.recordSerializationRetriesExhausted(operation);
+                    logger.warn("{} failed after {} attempts on concurrent updates: {}", operation, attempt, e.getMessage());
+                    throw e;
+                }
+                inventoryMetrics.recordSerializationRetry(operation);
+                long delay = backoff(attempt);
+                logger.debug("{} aborted by a concurrent update, retrying in {} ms (attempt {} of {})",
+                        operation, delay, attempt + 1, maxAttempts);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Run one attempt inside a transaction boundary of the stock operation metrics
+     */
+    private Object attempt(ProceedingJoinPoint joinPoint) throws Throwable {
+        inventoryMetrics.startTransaction();
+        boolean conflict = false;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            conflict = isRetryable(e);
+            throw e;
+        } finally {
+            inventoryMetrics.endTransaction(conflict);
+        }
+    }
+
+    /**
+     * Delay before the next attempt: exponential backoff with equal jitter
+     */
+    long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(ceiling - half + 1);
+    }
+
+    /**
+     * Whether the error, or one of its causes, is a serialization failure or deadlock
+     */
+    static boolean isRetryable(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof SQLException sqlException && RETRYABLE_SQL_STATES.contains(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,15 +1,59 @@
 package com.inventory.config;
 
+import com.inventory.service.ChangeVersionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig {
+
+    // Write endpoints that work on whole orders or many items
+    private static final String[] BULK_WRITE_PATHS = {
+        "/api/stock/add-bulk", "/api/stock/remove-bulk", "/api/sales", "/api/lent-orders",
+        "/api/lent-orders/orders/*/process", "/api/broken", "/api/orders/create",
+        "/api/products/import"
+    };
+
+    // All write endpoints of the order and stock controllers
+    private static final String[] WRITE_PATHS = {
+        "/api/stock/**", "/api/sales/**", "/api/lent-orders/**", "/api/broken/**", "/api/orders/**"
+    };
+
+    @Value("${inventory.sql.instrumentation.enabled:true}")
+    private boolean sqlInstrumentationEnabled;
+
+    @Value("${inventory.sql.warn-statements:50}")
+    private int sqlWarnStatements;
+
+    @Value("${inventory.admission.enabled:true}")
+    private boolean admissionEnabled;
+
+    @Value("${inventory.admission.bulk.max-concurrent:2}")
+    private int bulkMaxConcurrent;
+
+    @Value("${inventory.admission.bulk.queue-size:6}")
+    private int bulkQueueSize;
+
+    @Value("${inventory.admission.write.max-concurrent:6}")
+    private int writeMaxConcurrent;
+
+    @Value("${inventory.admission.write.queue-size:32}")
+    private int writeQueueSize;
+
+    @Value("${inventory.admission.max-wait-ms:2000}")
+    private long admissionMaxWaitMs;
+
+    @Value("${inventory.admission.retry-after-seconds:2}")
+    private long admissionRetryAfterSeconds;
+
     @Bean
-    public WebMvcConfigurer corsConfigurer() {
+    public WebMvcConfigurer corsConfigurer(ChangeVersionService changeVersionService, MeterRegistry meterRegistry) {
         return new WebMvcConfigurer() {
             @Override
             public void addCorsMappings(CorsRegistry registry) {
@@ -24,6 +68,37 @@ public class WebConfig {
                     .maxAge(3600); // 1 hour
             }
 
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                // SQL statements, rows and JDBC time per request; registered first so rejected requests are recorded too
+                if (sqlInstrumentationEnabled) {
+                    registry.addInterceptor(new SqlMetricsInterceptor(meterRegistry, sqlWarnStatements))
+                            .addPathPatterns("/api/**");
+                }
+
+                // ETags of polled read endpoints, by the tables their responses are built from
+                registry.addInterceptor(new ConditionalGetInterceptor(changeVersionService,
+                                ChangeVersionService.STOCK))
+                        .addPathPatterns("/api/stock", "/api/stock/box/**");
+                registry.addInterceptor(new ConditionalGetInterceptor(changeVersionService,
+                                ChangeVersionService.STOCK, ChangeVersionService.CATALOG))
+                        .addPathPatterns("/api/stock/filter", "/api/products", "/api/products/*");
+                registry.addInterceptor(new ConditionalGetInterceptor(changeVersionService,
+                                ChangeVersionService.LENT))
+                        .addPathPatterns("/api/lent-orders/summary");
+
+                // Concurrency caps for writes, bulk operations separately from single-item ones
+                if (admissionEnabled) {
+                    registry.addInterceptor(new AdmissionControlInterceptor(meterRegistry, "bulk",
+                                    bulkMaxConcurrent, bulkQueueSize, admissionMaxWaitMs, admissionRetryAfterSeconds))
+                            .addPathPatterns(BULK_WRITE_PATHS);
+                    registry.addInterceptor(new AdmissionControlInterceptor(meterRegistry, "write",
+                                    writeMaxConcurrent, writeQueueSize, admissionMaxWaitMs, admissionRetryAfterSeconds))
+                            .addPathPatterns(WRITE_PATHS)
+                            .excludePathPatterns(BULK_WRITE_PATHS);
+                }
+            }
+
             @Override
             public void addResourceHandlers(ResourceHandlerRegistry registry) {
                 registry.addResourceHandler("/favicon.ico")
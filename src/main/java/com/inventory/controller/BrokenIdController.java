@@ -3,9 +3,13 @@ package com.inventory.controller;
 import com.inventory.model.BrokenId;
 import com.inventory.repository.BrokenIdRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -62,8 +66,9 @@ public class BrokenIdController {
     }
     
     /**
-     * Report: Get broken items count by day
+     * Report: Get broken reports count by day
      */
+    @Transactional(readOnly = true)
     @GetMapping("/report/daily-count")
     public ResponseEntity<Long> getDailyCount(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
@@ -71,15 +76,18 @@ public class BrokenIdController {
         ZonedDateTime startDateTime = date.atStartOfDay(ZoneId.of("Asia/Bangkok"));
         ZonedDateTime endDateTime = date.atTime(LocalTime.MAX).atZone(ZoneId.of("Asia/Bangkok"));
         
-        List<BrokenId> brokenItems = brokenIdRepository.findByTimestampBetween(startDateTime, endDateTime);
-        return ResponseEntity.ok((long) brokenItems.size());
+        return ResponseEntity.ok(brokenIdRepository.countByTimestampBetween(startDateTime, endDateTime));
     }
     
     /**
-     * Report: Get broken items for current month
+     * Report: Get broken reports for current month, newest first
+     * Item totals are served by /api/reports/broken/totals.
      */
+    @Transactional(readOnly = true)
     @GetMapping("/report/current-month")
-    public ResponseEntity<List<BrokenId>> getCurrentMonthBrokenItems() {
+    public ResponseEntity<Page<BrokenId>> getCurrentMonthBrokenItems(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         LocalDate today = LocalDate.now();
         LocalDate firstDayOfMonth = today.withDayOfMonth(1);
         LocalDate lastDayOfMonth = today.withDayOfMonth(today.lengthOfMonth());
@@ -87,6 +95,7 @@ public class BrokenIdController {
         ZonedDateTime startDateTime = firstDayOfMonth.atStartOfDay(ZoneId.of("Asia/Bangkok"));
         ZonedDateTime endDateTime = lastDayOfMonth.atTime(LocalTime.MAX).atZone(ZoneId.of("Asia/Bangkok"));
         
-        return ResponseEntity.ok(brokenIdRepository.findByTimestampBetween(startDateTime, endDateTime));
+        return ResponseEntity.ok(brokenIdRepository.findByTimestampBetween(startDateTime, endDateTime,
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp"))));
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
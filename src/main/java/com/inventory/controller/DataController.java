@@ -13,6 +13,7 @@ import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.ZonedDateTime;
 import java.time.ZoneId;
 
@@ -22,6 +23,7 @@ import java.time.ZoneId;
  */
 @RestController
 @RequestMapping("/api/data")
+@Transactional(readOnly = true)
 public class DataController {
 
     @Autowired private LendRepository lendRepository;
@@ -1,5 +1,7 @@
 package com.inventory.controller;
 
+import com.inventory.dto.CurrentStockView;
+import com.inventory.dto.ProductCatalogView;
 import com.inventory.model.CurrentStock;
 import com.inventory.model.ProductCatalog;
 import com.inventory.service.InventoryService;
@@ -31,7 +33,7 @@ public class InventoryController {
      * Get all products from catalog
      */
     @GetMapping("/products")
-    public ResponseEntity<List<ProductCatalog>> getAllProducts() {
+    public ResponseEntity<List<ProductCatalogView>> getAllProducts() {
         return ResponseEntity.ok(inventoryService.getAllProducts());
     }
     
@@ -39,8 +41,8 @@ public class InventoryController {
      * Get product by box barcode
      */
     @GetMapping("/products/{boxBarcode}")
-    public ResponseEntity<ProductCatalog> getProductByBoxBarcode(@PathVariable String boxBarcode) {
-        ProductCatalog product = inventoryService.getProductByBoxBarcode(boxBarcode);
+    public ResponseEntity<ProductCatalogView> getProductByBoxBarcode(@PathVariable String boxBarcode) {
+        ProductCatalogView product = inventoryService.getProductByBoxBarcode(boxBarcode);
         if (product == null) {
             return ResponseEntity.notFound().build();
         }
@@ -62,7 +64,7 @@ public class InventoryController {
      * Get all stock
      */
     @GetMapping("/stock")
-    public ResponseEntity<List<CurrentStock>> getAllStock() {
+    public ResponseEntity<List<CurrentStockView>> getAllStock() {
         return ResponseEntity.ok(inventoryService.getAllStock());
     }
     
@@ -70,7 +72,7 @@ public class InventoryController {
      * Get stock by box barcode
      */
     @GetMapping("/stock/{boxBarcode}")
-    public ResponseEntity<List<CurrentStock>> getStockByBoxBarcode(@PathVariable String boxBarcode) {
+    public ResponseEntity<List<CurrentStockView>> getStockByBoxBarcode(@PathVariable String boxBarcode) {
         return ResponseEntity.ok(inventoryService.getStockByBoxBarcode(boxBarcode));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.inventory.controller;
+
+import com.inventory.model.BulkJob;
+import com.inventory.model.BulkJobError;
+import com.inventory.service.BulkJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller for background bulk jobs
+ */
+@RestController
+@RequestMapping("/api/jobs")
+public class JobController {
+
+    @Autowired
+    private BulkJobService bulkJobService;
+
+    /**
+     * Get jobs, newest first
+     */
+    @GetMapping
+    public ResponseEntity<Page<BulkJob>> getJobs(
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(bulkJobService.getJobs(status, page, size));
+    }
+
+    /**
+     * Get the status and progress of a job
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<BulkJob> getJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(bulkJobService.getJob(jobId));
+    }
+
+    /**
+     * Get the items of a job that failed, in item order
+     */
+    @GetMapping("/{jobId}/errors")
+    public ResponseEntity<Page<BulkJobError>> getErrors(
+            @PathVariable String jobId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(bulkJobService.getErrors(jobId, page, size));
+    }
+}
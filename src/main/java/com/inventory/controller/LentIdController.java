@@ -10,6 +10,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -102,34 +103,52 @@ public class LentIdController {
     }
     
     /**
-     * Report: Get all active lent items
+     * Report: Get active lent items, newest first
      */
+    @Transactional(readOnly = true)
     @GetMapping("/report/active")
-    public ResponseEntity<List<LentId>> getActiveLentItems() {
-        return ResponseEntity.ok(lentIdRepository.findByStatus("active"));
+    public ResponseEntity<Page<LentId>> getActiveLentItems(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(lentIdRepository.findByStatus("active", newestFirst(page, size)));
     }
     
     /**
-     * Report: Get all returned lent items
+     * Report: Get returned lent items, newest first
      */
+    @Transactional(readOnly = true)
     @GetMapping("/report/returned")
-    public ResponseEntity<List<LentId>> getReturnedLentItems() {
-        return ResponseEntity.ok(lentIdRepository.findByStatus("returned"));
+    public ResponseEntity<Page<LentId>> getReturnedLentItems(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(lentIdRepository.findByStatus("returned", newestFirst(page, size)));
     }
     
     /**
-     * Report: Get active lent items by employee
+     * Report: Get active lent items by employee, newest first
      */
+    @Transactional(readOnly = true)
     @GetMapping("/report/active/employee/{employeeId}")
-    public ResponseEntity<List<LentId>> getActiveLentItemsByEmployee(@PathVariable String employeeId) {
-        return ResponseEntity.ok(lentIdRepository.findByEmployeeIdAndStatus(employeeId, "active"));
+    public ResponseEntity<Page<LentId>> getActiveLentItemsByEmployee(
+            @PathVariable String employeeId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(lentIdRepository.findByEmployeeIdAndStatus(employeeId, "active", newestFirst(page, size)));
     }
     
     /**
-     * Report: Get active lent items by shop
+     * Report: Get active lent items by shop, newest first
      */
+    @Transactional(readOnly = true)
     @GetMapping("/report/active/shop/{shopName}")
-    public ResponseEntity<List<LentId>> getActiveLentItemsByShop(@PathVariable String shopName) {
-        return ResponseEntity.ok(lentIdRepository.findByShopNameAndStatus(shopName, "active"));
+    public ResponseEntity<Page<LentId>> getActiveLentItemsByShop(
+            @PathVariable String shopName,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(lentIdRepository.findByShopNameAndStatus(shopName, "active", newestFirst(page, size)));
+    }
+    
+    private static Pageable newestFirst(int page, int size) {
+        return PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp"));
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -4,8 +4,10 @@ import com.inventory.dto.LentOrderDTO;
 import com.inventory.dto.LentItemBatchProcessDTO;
 import com.inventory.dto.OrderSummaryDTO;
 import com.inventory.exception.InvalidInputException;
+import com.inventory.model.BulkJob;
 import com.inventory.model.Lend;
 import com.inventory.model.LentId;
+import com.inventory.service.BulkJobService;
 import com.inventory.service.LentOrderService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +19,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +35,9 @@ public class LentOrderController {
     
     @Autowired
     private LentOrderService lentOrderService;
+
+    @Autowired
+    private BulkJobService bulkJobService;
     
     /**
      * Create a new lent order
@@ -123,18 +129,25 @@ public class LentOrderController {
      * 
      * @param orderId The order ID to process items for
      * @param request The request body containing items and their destinations
+     * @param async Run as a background job and return 202 with the job
      * @return Success response
      */
     @PostMapping("/orders/{orderId}/process")
     public ResponseEntity<?> processLentOrderItems(
             @PathVariable String orderId, 
-            @RequestBody LentItemBatchProcessDTO request) {
+            @RequestBody LentItemBatchProcessDTO request,
+            @RequestParam(defaultValue = "false") boolean async) {
         
         // Validate the employee ID is provided
         if (request.getEmployeeId() == null || request.getEmployeeId().trim().isEmpty()) {
             throw new InvalidInputException("Employee ID is required for processing lent items");
         }
         
+        if (async) {
+            BulkJob job = bulkJobService.submitLentProcessing(orderId, request);
+            return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getJobId())).body(job);
+        }
+        
         // Process the items based on their destinations
         lentOrderService.processBatchLentItems(orderId, request);
         
@@ -1,11 +1,21 @@
 package com.inventory.controller;
 
+import com.inventory.dto.CatalogImportResultDTO;
+import com.inventory.dto.ProductCatalogView;
+import com.inventory.exception.InvalidInputException;
 import com.inventory.model.ProductCatalog;
+import com.inventory.service.CatalogCsvService;
 import com.inventory.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -18,6 +28,9 @@ public class ProductController {
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private CatalogCsvService catalogCsvService;
+    
     /**
      * Add a new product
      */
@@ -45,15 +58,15 @@ public class ProductController {
      * Get a product by box barcode
      */
     @GetMapping("/{boxBarcode}")
-    public ResponseEntity<ProductCatalog> getProduct(@PathVariable String boxBarcode) {
-        return ResponseEntity.ok(productService.getProduct(boxBarcode));
+    public ResponseEntity<ProductCatalogView> getProduct(@PathVariable String boxBarcode) {
+        return ResponseEntity.ok(productService.getProductView(boxBarcode));
     }
     
     /**
      * Get all products with sorting and pagination
      */
     @GetMapping
-    public ResponseEntity<org.springframework.data.domain.Page<ProductCatalog>> getAllProducts(
+    public ResponseEntity<org.springframework.data.domain.Page<ProductCatalogView>> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "id") String sort,
@@ -82,4 +95,35 @@ public class ProductController {
         productService.deleteProduct(boxBarcode);
         return ResponseEntity.noContent().build();
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Import products from a CSV request body (box_barcode,product_name,number_sn)
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<CatalogImportResultDTO> importCatalog(InputStream body) {
+        return ResponseEntity.ok(catalogCsvService.importCatalog(body));
+    }
+    
+    /**
+     * Import products from an uploaded CSV file
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<CatalogImportResultDTO> importCatalogFile(@RequestParam("file") MultipartFile file) {
+        try (InputStream input = file.getInputStream()) {
+            return ResponseEntity.ok(catalogCsvService.importCatalog(input));
+        } catch (IOException e) {
+            throw new InvalidInputException("Could not read uploaded file: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Export the product catalog as CSV, in the format accepted by /import
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCatalog() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv;charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=product_catalog.csv")
+                .body(catalogCsvService::exportCatalog);
+    }
+}
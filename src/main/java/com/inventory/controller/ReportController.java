@@ -2,16 +2,27 @@ package com.inventory.controller;
 
 import com.inventory.dto.CurrentInventoryDTO;
 import com.inventory.dto.InventoryMovementDTO;
+import com.inventory.dto.PageResponseDTO;
+import com.inventory.dto.ReportTotalsDTO;
+import com.inventory.dto.ReportTrendDTO;
+import com.inventory.dto.StockAgingDTO;
+import com.inventory.dto.StockAsOfDTO;
+import com.inventory.model.StockSnapshot;
 import com.inventory.exception.InvalidInputException;
+import com.inventory.service.ReportCubeService;
 import com.inventory.service.ReportService;
+import com.inventory.service.StockSnapshotService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.time.ZoneId;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -20,6 +31,12 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
     
+    @Autowired
+    private StockSnapshotService stockSnapshotService;
+    
+    @Autowired
+    private ReportCubeService reportCubeService;
+    
     /**
      * Get current inventory levels
      */
@@ -51,4 +68,99 @@ public class ReportController {
         
         return ResponseEntity.ok(reportService.getInventoryMovementAnalysis(startDate, endDate, boxBarcode));
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Get the stock aging report: units per product bucketed by days in stock
+     */
+    @GetMapping("/inventory/aging")
+    public ResponseEntity<PageResponseDTO<StockAgingDTO>> getStockAging(
+            @RequestParam(required = false) String boxBarcode,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "oldestAddedTimestamp") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDirection) {
+        return ResponseEntity.ok(reportService.getStockAging(boxBarcode, page, size, sortBy, sortDirection));
+    }
+    
+    /**
+     * Get inventory as of a point in time, replayed from the nearest earlier snapshot
+     */
+    @GetMapping("/inventory/as-of")
+    public ResponseEntity<StockAsOfDTO> getInventoryAsOf(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) ZonedDateTime timestamp,
+            @RequestParam(required = false) String boxBarcode,
+            @RequestParam(required = false, defaultValue = "false") boolean includeUnits) {
+        return ResponseEntity.ok(stockSnapshotService.getStockAsOf(timestamp, boxBarcode, includeUnits));
+    }
+    
+    /**
+     * Take an inventory snapshot now, in addition to the daily one
+     */
+    @PostMapping("/inventory/snapshots")
+    public ResponseEntity<StockSnapshot> createSnapshot() {
+        return ResponseEntity.ok(stockSnapshotService.createSnapshot());
+    }
+    
+    /**
+     * Get daily, weekly or monthly sales, lent or broken totals from the reporting cube
+     */
+    @GetMapping("/{operation:sales|lent|broken}/{period:daily|weekly|monthly}")
+    public ResponseEntity<List<ReportTrendDTO>> getTrend(
+            @PathVariable String operation,
+            @PathVariable String period,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String shopName,
+            @RequestParam(required = false) String employeeId,
+            @RequestParam(required = false) String boxBarcode) {
+        return ResponseEntity.ok(reportCubeService.getTrend(operation, period, startDate, endDate, shopName, employeeId, boxBarcode));
+    }
+    
+    /**
+     * Get the line count and quantity of an operation over a date range from the reporting cube
+     */
+    @GetMapping("/{operation:sales|lent|broken}/totals")
+    public ResponseEntity<ReportTotalsDTO> getTotals(
+            @PathVariable String operation,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String shopName,
+            @RequestParam(required = false) String employeeId,
+            @RequestParam(required = false) String boxBarcode) {
+        return ResponseEntity.ok(reportCubeService.getTotals(operation, startDate, endDate, shopName, employeeId, boxBarcode));
+    }
+    
+    /**
+     * Get the top products, shops or employees of an operation from the reporting cube
+     */
+    @GetMapping("/{operation:sales|lent|broken}/top")
+    public ResponseEntity<List<ReportTotalsDTO>> getTop(
+            @PathVariable String operation,
+            @RequestParam(defaultValue = "product") String groupBy,
+            @RequestParam(defaultValue = "quantity") String orderBy,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String shopName,
+            @RequestParam(required = false) String employeeId,
+            @RequestParam(required = false) String boxBarcode) {
+        return ResponseEntity.ok(reportCubeService.getTop(operation, groupBy, orderBy, limit,
+                startDate, endDate, shopName, employeeId, boxBarcode));
+    }
+    
+    /**
+     * Recompute the daily sales, lent and broken rollups of a date range from the sales table and the logs
+     */
+    @PostMapping("/daily/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildDailyRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        int rows = reportCubeService.rebuild(startDate, endDate);
+        Map<String, Object> response = new HashMap<>();
+        response.put("startDate", startDate);
+        response.put("endDate", endDate);
+        response.put("rebuilt", rows >= 0);
+        response.put("rows", Math.max(rows, 0));
+        return ResponseEntity.ok(response);
+    }
+}
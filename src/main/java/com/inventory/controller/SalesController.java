@@ -5,6 +5,7 @@ import com.inventory.model.Sales;
 import com.inventory.model.Invoice;
 import com.inventory.repository.SalesRepository;
 import com.inventory.repository.InvoiceRepository;
+import com.inventory.service.ReportCubeService;
 import com.inventory.service.SalesService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +18,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -43,6 +45,9 @@ public class SalesController {
     @Autowired
     private SalesService salesService;
     
+    @Autowired
+    private ReportCubeService reportCubeService;
+    
     /**
      * Get all sales orders with pagination
      */
@@ -136,8 +141,7 @@ public class SalesController {
     @GetMapping("/report/daily-count")
     public ResponseEntity<Long> getDailyCount(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        ZonedDateTime dateTime = date.atStartOfDay(ZoneId.of("Asia/Bangkok"));
-        return ResponseEntity.ok(salesRepository.countByDay(dateTime));
+        return ResponseEntity.ok(reportCubeService.getTotals(ReportCubeService.SALES, date, date, null, null, null).getCount());
     }
     
     /**
@@ -146,49 +150,58 @@ public class SalesController {
     @GetMapping("/report/daily-quantity")
     public ResponseEntity<Integer> getDailyQuantity(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
-        ZonedDateTime dateTime = date.atStartOfDay(ZoneId.of("Asia/Bangkok"));
-        Integer quantity = salesRepository.sumQuantityByDay(dateTime);
-        return ResponseEntity.ok(quantity != null ? quantity : 0);
+        return ResponseEntity.ok((int) reportCubeService.getTotals(ReportCubeService.SALES, date, date, null, null, null).getQuantity());
     }
     
     /**
-     * Report: Get sales for current month
+     * Report: Get sales for current month, newest first
+     * Totals are served by /api/reports/sales/totals.
      */
+    @Transactional(readOnly = true)
     @GetMapping("/report/current-month")
-    public ResponseEntity<List<Sales>> getCurrentMonthSales() {
+    public ResponseEntity<Page<Sales>> getCurrentMonthSales(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         LocalDate today = LocalDate.now();
         LocalDate firstDayOfMonth = today.withDayOfMonth(1);
         LocalDate lastDayOfMonth = today.withDayOfMonth(today.lengthOfMonth());
         ZonedDateTime startDateTime = firstDayOfMonth.atStartOfDay(ZoneId.of("Asia/Bangkok"));
         ZonedDateTime endDateTime = lastDayOfMonth.atTime(LocalTime.MAX).atZone(ZoneId.of("Asia/Bangkok"));
-        return ResponseEntity.ok(salesRepository.findByTimestampBetween(startDateTime, endDateTime));
+        return ResponseEntity.ok(salesRepository.findByTimestampBetween(startDateTime, endDateTime,
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp"))));
     }
     
     /**
-     * Report: Get sales by employee for date range
+     * Report: Get sales by employee for date range, newest first
      */
+    @Transactional(readOnly = true)
     @GetMapping("/report/employee/{employeeId}/date-range")
-    public ResponseEntity<List<Sales>> getEmployeeSalesByDateRange(
+    public ResponseEntity<Page<Sales>> getEmployeeSalesByDateRange(
             @PathVariable String employeeId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         ZonedDateTime startDateTime = startDate.atStartOfDay(ZoneId.of("Asia/Bangkok"));
         ZonedDateTime endDateTime = endDate.atTime(LocalTime.MAX).atZone(ZoneId.of("Asia/Bangkok"));
         return ResponseEntity.ok(salesRepository.findByEmployeeIdAndTimestampBetween(
-                employeeId, startDateTime, endDateTime));
+                employeeId, startDateTime, endDateTime, PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp"))));
     }
     
     /**
-     * Report: Get sales by shop for date range
+     * Report: Get sales by shop for date range, newest first
      */
+    @Transactional(readOnly = true)
     @GetMapping("/report/shop/{shopName}/date-range")
-    public ResponseEntity<List<Sales>> getShopSalesByDateRange(
+    public ResponseEntity<Page<Sales>> getShopSalesByDateRange(
             @PathVariable String shopName,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         ZonedDateTime startDateTime = startDate.atStartOfDay(ZoneId.of("Asia/Bangkok"));
         ZonedDateTime endDateTime = endDate.atTime(LocalTime.MAX).atZone(ZoneId.of("Asia/Bangkok"));
         return ResponseEntity.ok(salesRepository.findByShopNameAndTimestampBetween(
-                shopName, startDateTime, endDateTime));
+                shopName, startDateTime, endDateTime, PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp"))));
     }
 } 
\ No newline at end of file
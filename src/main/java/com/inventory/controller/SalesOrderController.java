@@ -4,11 +4,14 @@ import com.inventory.dto.SalesOrderDTO;
 import com.inventory.dto.OrderItemDTO;
 import com.inventory.dto.OrderNoteDTO;
 import com.inventory.exception.InvalidInputException;
+import com.inventory.model.BulkJob;
+import com.inventory.service.BulkJobService;
 import com.inventory.service.SalesOrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -22,6 +25,9 @@ public class SalesOrderController {
     @Autowired
     private SalesOrderService salesOrderService;
     
+    @Autowired
+    private BulkJobService bulkJobService;
+    
     /**
      * Create a new sales order
      * 
@@ -50,9 +56,12 @@ public class SalesOrderController {
      * }
      * 
      * This allows splitting some pairs while keeping others together in the same order.
+     * 
+     * With async=true the order is processed as a background job and 202 is returned with the job.
      */
     @PostMapping
-    public ResponseEntity<?> createSalesOrder(@RequestBody SalesOrderDTO salesOrderDTO) {
+    public ResponseEntity<?> createSalesOrder(@RequestBody SalesOrderDTO salesOrderDTO,
+                                              @RequestParam(defaultValue = "false") boolean async) {
         // Validate required fields
         if (salesOrderDTO.getShopName() == null || salesOrderDTO.getShopName().trim().isEmpty()) {
             throw new InvalidInputException("Shop name is required for sales orders");
@@ -62,6 +71,12 @@ public class SalesOrderController {
             throw new InvalidInputException("Order ID is required for sales orders");
         }
         
+        // Large orders can run as a background job
+        if (async) {
+            BulkJob job = bulkJobService.submitSalesOrder(salesOrderDTO);
+            return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getJobId())).body(job);
+        }
+        
         // Process the sales order
         salesOrderService.processSalesOrder(salesOrderDTO);
         
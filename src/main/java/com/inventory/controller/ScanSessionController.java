@@ -0,0 +1,70 @@
+package com.inventory.controller;
+
+import com.inventory.dto.ScanAckDTO;
+import com.inventory.dto.ScanDTO;
+import com.inventory.dto.ScanSessionDTO;
+import com.inventory.dto.ScanSessionStatusDTO;
+import com.inventory.service.ScanSessionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller for continuous scanning sessions
+ *
+ * Example flow:
+ * POST /api/scan-sessions                     {"mode": "sale", "shopName": "Main Store", "employeeId": "EMP101"}
+ * POST /api/scan-sessions/{sessionId}/scans   [{"seq": 1, "barcode": "SN0001"}, {"seq": 2, "barcode": "BOX001:5"}]
+ * GET  /api/scan-sessions/{sessionId}         Acknowledgement state of every scan
+ * POST /api/scan-sessions/{sessionId}/close   Commits the remaining scans
+ */
+@RestController
+@RequestMapping("/api/scan-sessions")
+public class ScanSessionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScanSessionController.class);
+
+    @Autowired
+    private ScanSessionService scanSessionService;
+
+    /**
+     * Open a scan session
+     */
+    @PostMapping
+    public ResponseEntity<ScanSessionStatusDTO> openSession(@RequestBody ScanSessionDTO request) {
+        logger.info("Opening scan session in mode: {}", request.getMode());
+        return ResponseEntity.ok(scanSessionService.openSession(request));
+    }
+
+    /**
+     * Submit scans to a session
+     * Each scan is acknowledged immediately as ACCEPTED or REJECTED
+     */
+    @PostMapping("/{sessionId}/scans")
+    public ResponseEntity<List<ScanAckDTO>> submitScans(
+            @PathVariable String sessionId,
+            @RequestBody List<ScanDTO> scans) {
+        return ResponseEntity.ok(scanSessionService.submitScans(sessionId, scans));
+    }
+
+    /**
+     * Get the state of a session
+     */
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<ScanSessionStatusDTO> getSession(@PathVariable String sessionId) {
+        return ResponseEntity.ok(scanSessionService.getSession(sessionId));
+    }
+
+    /**
+     * Close a session
+     */
+    @PostMapping("/{sessionId}/close")
+    public ResponseEntity<ScanSessionStatusDTO> closeSession(@PathVariable String sessionId) {
+        logger.info("Closing scan session: {}", sessionId);
+        return ResponseEntity.ok(scanSessionService.closeSession(sessionId));
+    }
+}
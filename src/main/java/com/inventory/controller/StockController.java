@@ -2,15 +2,22 @@ package com.inventory.controller;
 
 import com.inventory.dto.StockAdditionDTO;
 import com.inventory.dto.BulkRemoveDTO;
+import com.inventory.dto.CurrentStockView;
 import com.inventory.exception.InvalidInputException;
 import com.inventory.model.CurrentStock;
 import com.inventory.model.BoxNumber;
+import com.inventory.model.BulkJob;
+import com.inventory.service.BulkJobService;
+import com.inventory.service.StockEventService;
 import com.inventory.service.StockService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +35,22 @@ public class StockController {
     @Autowired
     private com.inventory.repository.BoxNumberRepository boxNumberRepository;
     
+    @Autowired
+    private StockEventService stockEventService;
+
+    @Autowired
+    private BulkJobService bulkJobService;
+    
+    /**
+     * Stream live stock changes as Server-Sent Events
+     * Event "resync": reload the stock lists; event "stock": one change as JSON.
+     * Authenticate with the Authorization header (use a fetch-based EventSource client).
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStockEvents(@RequestParam(required = false) List<String> boxBarcode) {
+        return stockEventService.subscribe(boxBarcode);
+    }
+    
     /**
      * Add stock (single item)
      */
@@ -43,9 +66,15 @@ public class StockController {
     
     /**
      * Add stock in bulk
+     * @param async Run as a background job and return 202 with the job
      */
     @PostMapping("/add-bulk")
-    public ResponseEntity<?> addStockBulk(@RequestBody StockAdditionDTO request) {
+    public ResponseEntity<?> addStockBulk(@RequestBody StockAdditionDTO request,
+                                          @RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            BulkJob job = bulkJobService.submitStockAddition(request);
+            return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getJobId())).body(job);
+        }
         try {
             List<CurrentStock> results = stockService.addStockBulk(request);
             
@@ -79,9 +108,15 @@ public class StockController {
     
     /**
      * Remove stock in bulk
+     * @param async Run as a background job and return 202 with the job
      */
     @PostMapping("/remove-bulk")
-    public ResponseEntity<?> removeStockBulk(@RequestBody BulkRemoveDTO request) {
+    public ResponseEntity<?> removeStockBulk(@RequestBody BulkRemoveDTO request,
+                                             @RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            BulkJob job = bulkJobService.submitStockRemoval(request);
+            return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.getJobId())).body(job);
+        }
         try {
             List<CurrentStock> results = stockService.removeStockBulk(request);
             
@@ -104,7 +139,7 @@ public class StockController {
      * Get all stock
      */
     @GetMapping
-    public ResponseEntity<List<CurrentStock>> getAllStock() {
+    public ResponseEntity<List<CurrentStockView>> getAllStock() {
         return ResponseEntity.ok(stockService.getAllStock());
     }
     
@@ -112,7 +147,7 @@ public class StockController {
      * Get stock by box barcode
      */
     @GetMapping("/box/{boxBarcode}")
-    public ResponseEntity<List<CurrentStock>> getStockByBoxBarcode(@PathVariable String boxBarcode) {
+    public ResponseEntity<List<CurrentStockView>> getStockByBoxBarcode(@PathVariable String boxBarcode) {
         return ResponseEntity.ok(stockService.getStockByBoxBarcode(boxBarcode));
     }
     
@@ -120,7 +155,7 @@ public class StockController {
      * Get stock by box barcode and product name
      */
     @GetMapping("/box/{boxBarcode}/product/{productName}")
-    public ResponseEntity<CurrentStock> getStockByBoxBarcodeAndProductName(
+    public ResponseEntity<CurrentStockView> getStockByBoxBarcodeAndProductName(
             @PathVariable String boxBarcode,
             @PathVariable String productName) {
         
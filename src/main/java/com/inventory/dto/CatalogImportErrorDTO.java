@@ -0,0 +1,21 @@
+package com.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a CSV row that was not imported into the product catalog
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogImportErrorDTO {
+
+    // Line of the file the row starts on, counting the header as line 1
+    private long line;
+
+    private String boxBarcode;
+
+    private String message;
+}
@@ -0,0 +1,32 @@
+package com.inventory.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO for the outcome of a product catalog CSV import
+ */
+@Data
+public class CatalogImportResultDTO {
+
+    // Data rows read from the file, not counting the header and blank lines
+    private long rows;
+
+    // New products, each with a zero-quantity current_stock row
+    private long inserted;
+
+    // Existing products whose name or number_sn changed
+    private long updated;
+
+    // Existing products that already matched the file
+    private long unchanged;
+
+    private long failed;
+
+    // Rows that were not imported; capped, see errorsTruncated
+    private List<CatalogImportErrorDTO> errors = new ArrayList<>();
+
+    private boolean errorsTruncated;
+}
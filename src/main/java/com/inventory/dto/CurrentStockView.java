@@ -0,0 +1,22 @@
+package com.inventory.dto;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Projection of current_stock for read endpoints
+ * Selects only these columns and never loads the product catalog association.
+ */
+public interface CurrentStockView {
+    
+    Long getStockId();
+    
+    String getBoxBarcode();
+    
+    String getProductName();
+    
+    Integer getQuantity();
+    
+    ZonedDateTime getLastUpdated();
+    
+    Integer getBoxNumber();
+}
@@ -0,0 +1,13 @@
+package com.inventory.dto;
+
+/**
+ * Projection of product_catalog for read endpoints, without the stock association
+ */
+public interface ProductCatalogView {
+    
+    String getBoxBarcode();
+    
+    String getProductName();
+    
+    Integer getNumberSn();
+}
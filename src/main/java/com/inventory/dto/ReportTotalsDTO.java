@@ -0,0 +1,27 @@
+package com.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the totals of one operation over a date range, overall or per product, shop or employee
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReportTotalsDTO {
+
+    // Box barcode, shop name or employee ID of the group; null for overall totals
+    private String key;
+
+    // Product name when grouped by product
+    private String name;
+
+    // Number of transaction lines
+    private long count;
+
+    private long quantity;
+}
@@ -0,0 +1,23 @@
+package com.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+/**
+ * DTO for the totals of one operation in one day, week or month
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportTrendDTO {
+
+    // First day of the period (Monday for weeks)
+    private LocalDate periodStart;
+
+    // Number of transaction lines
+    private long count;
+
+    private long quantity;
+}
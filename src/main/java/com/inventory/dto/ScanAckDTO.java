@@ -0,0 +1,26 @@
+package com.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the acknowledgement of a single scan
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanAckDTO {
+    
+    private Long seq;
+    
+    private String barcode;
+    
+    /**
+     * ACCEPTED (validated, waiting for commit), REJECTED (failed validation),
+     * COMMITTED (written to the database) or FAILED (rejected when committing)
+     */
+    private String status;
+    
+    private String message;
+}
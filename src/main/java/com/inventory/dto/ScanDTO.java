@@ -0,0 +1,21 @@
+package com.inventory.dto;
+
+import lombok.Data;
+
+/**
+ * DTO for a single scan sent to a scan session
+ */
+@Data
+public class ScanDTO {
+    
+    /**
+     * Client sequence number, echoed back in the acknowledgement
+     * Assigned by the server if not provided
+     */
+    private Long seq;
+    
+    /**
+     * Scanned product barcode, or BOX001:5 for non-serialized products
+     */
+    private String barcode;
+}
@@ -0,0 +1,46 @@
+package com.inventory.dto;
+
+import lombok.Data;
+
+/**
+ * DTO for opening a scan session
+ */
+@Data
+public class ScanSessionDTO {
+    
+    /**
+     * Session mode: "add", "sale", "lent-return" or "broken"
+     */
+    private String mode;
+    
+    /**
+     * Box barcode of the product being received (required for "add")
+     */
+    private String boxBarcode;
+    
+    /**
+     * Order ID for "sale", "broken" (generated if not provided) and "lent-return" (lent order to return items from)
+     */
+    private String orderId;
+    
+    /**
+     * Add the scans to an existing "sale" or "broken" order; without it an existing order ID is rejected
+     */
+    private Boolean appendToOrder = false;
+    
+    private String employeeId;
+    
+    /**
+     * Shop name (required for "sale")
+     */
+    private String shopName;
+    
+    /**
+     * Condition of the items (required for "broken")
+     */
+    private String condition;
+    
+    private String note;
+    
+    private Boolean isDirectSales = true;
+}
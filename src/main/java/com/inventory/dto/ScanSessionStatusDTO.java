@@ -0,0 +1,35 @@
+package com.inventory.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * DTO for the state of a scan session
+ */
+@Data
+public class ScanSessionStatusDTO {
+    
+    private String sessionId;
+    
+    private String mode;
+    
+    private String orderId;
+    
+    /**
+     * OPEN or CLOSED
+     */
+    private String status;
+    
+    private int pending;
+    
+    private int committed;
+    
+    private int rejected;
+    
+    private int failed;
+    
+    /**
+     * Acknowledgements of every scan in the session, in scan order
+     */
+    private List<ScanAckDTO> acks;
+}
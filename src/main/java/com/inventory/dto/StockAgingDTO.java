@@ -0,0 +1,35 @@
+package com.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+import java.time.ZonedDateTime;
+
+/**
+ * DTO for the age distribution of the serialized units of one product
+ * Age is the number of days since the unit was added to stock.
+ */
+@Data
+public class StockAgingDTO {
+    
+    private String boxBarcode;
+    
+    private String productName;
+    
+    private long totalUnits;
+    
+    private long days0To30;
+    
+    private long days31To90;
+    
+    private long days91To180;
+    
+    /**
+     * Units older than 180 days, including units without an added timestamp
+     */
+    private long daysOver180;
+    
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ssXXX", timezone = "Asia/Bangkok")
+    private ZonedDateTime oldestAddedTimestamp;
+    
+    private Long oldestDays;
+}
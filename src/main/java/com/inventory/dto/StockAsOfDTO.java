@@ -0,0 +1,34 @@
+package com.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * DTO for inventory as of a point in time
+ */
+@Data
+public class StockAsOfDTO {
+    
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ssXXX", timezone = "Asia/Bangkok")
+    private ZonedDateTime asOf;
+    
+    /**
+     * Time of the snapshot the result was replayed from, or null if replayed from the first log
+     */
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ssXXX", timezone = "Asia/Bangkok")
+    private ZonedDateTime snapshotTime;
+    
+    /**
+     * Number of log entries replayed on top of the snapshot
+     */
+    private int replayedLogs;
+    
+    private List<StockAsOfItemDTO> items;
+    
+    /**
+     * Serialized units in stock or lent, only filled when units are requested
+     */
+    private List<StockAsOfUnitDTO> units;
+}
@@ -0,0 +1,20 @@
+package com.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the on-hand quantity of one product at a point in time
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAsOfItemDTO {
+    
+    private String boxBarcode;
+    
+    private String productName;
+    
+    private int quantity;
+}
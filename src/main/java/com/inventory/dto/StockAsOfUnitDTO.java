@@ -0,0 +1,25 @@
+package com.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the location of one serialized unit at a point in time
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAsOfUnitDTO {
+    
+    private String productBarcode;
+    
+    private String boxBarcode;
+    
+    private String productName;
+    
+    /**
+     * in_stock or lent
+     */
+    private String location;
+}
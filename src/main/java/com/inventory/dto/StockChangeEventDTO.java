@@ -0,0 +1,31 @@
+package com.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one stock change pushed to event stream subscribers
+ * Fields that do not apply to the change are left out of the JSON.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockChangeEventDTO {
+    
+    private String boxBarcode;
+    
+    private String productName;
+    
+    // On-hand quantity of the product after the change
+    private Integer quantity;
+    
+    // Serialized unit that moved, if any
+    private String productBarcode;
+    
+    private String operation;
+    
+    private String orderId;
+}
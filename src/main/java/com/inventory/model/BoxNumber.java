@@ -2,6 +2,7 @@ package com.inventory.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import com.inventory.util.BarcodePairUtils;
 import java.time.ZonedDateTime;
 
 /**
@@ -10,7 +11,9 @@ import java.time.ZonedDateTime;
  */
 @Data
 @Entity
-@Table(name = "box_number")
+@Table(name = "box_number", indexes = {
+    @Index(name = "idx_box_number_box_barcode_pair_key", columnList = "box_barcode, pair_key")
+})
 public class BoxNumber {
     
     @Id
@@ -30,6 +33,12 @@ public class BoxNumber {
     @Column(name = "box_number", nullable = false)
     private Integer boxNumber;
     
+    /**
+     * Normalized number used for SN=2 pair detection, derived from productBarcode
+     */
+    @Column(name = "pair_key", length = 20)
+    private String pairKey;
+    
     @Column(name = "last_updated")
     private ZonedDateTime lastUpdated;
     
@@ -73,4 +82,13 @@ public class BoxNumber {
     public void setLastUpdated(ZonedDateTime lastUpdated) {
         this.lastUpdated = lastUpdated;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Keep the pair key in sync with the product barcode
+     */
+    @PrePersist
+    @PreUpdate
+    private void updatePairKey() {
+        this.pairKey = BarcodePairUtils.pairKey(productBarcode);
+    }
+}
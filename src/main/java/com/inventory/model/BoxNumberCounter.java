@@ -0,0 +1,35 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.ZonedDateTime;
+
+/**
+ * Entity class for box_number_counter table
+ * Holds the last allocated box number per product (box barcode + product name),
+ * so new box numbers are reserved with one atomic statement instead of MAX(box_number) + 1
+ */
+@Data
+@Entity
+@Table(name = "box_number_counter", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_box_number_counter_product", columnNames = {"box_barcode", "product_name"})
+})
+public class BoxNumberCounter {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "box_barcode", nullable = false)
+    private String boxBarcode;
+    
+    @Column(name = "product_name", nullable = false)
+    private String productName;
+    
+    @Column(name = "last_box_number", nullable = false)
+    private Integer lastBoxNumber;
+    
+    @Column(name = "last_updated")
+    private ZonedDateTime lastUpdated;
+}
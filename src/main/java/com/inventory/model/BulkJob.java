@@ -0,0 +1,74 @@
+package com.inventory.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.ZonedDateTime;
+
+/**
+ * Entity class for bulk_job table
+ * A long-running bulk operation executed in the background in chunked transactions.
+ * processedItems is the checkpoint: items before it are committed or recorded as failed.
+ */
+@Data
+@Entity
+@Table(name = "bulk_job", indexes = {
+    @Index(name = "idx_bulk_job_status", columnList = "status")
+})
+public class BulkJob {
+
+    @Id
+    @Column(name = "job_id")
+    private String jobId;
+
+    // "stock-add", "stock-remove", "sales-order" or "lent-process"
+    @Column(name = "type", nullable = false)
+    private String type;
+
+    // QUEUED, RUNNING, COMPLETED or FAILED
+    @Column(name = "status", nullable = false)
+    private String status;
+
+    // Order the job works on, if any
+    @Column(name = "order_id")
+    private String orderId;
+
+    // Submitted request as JSON
+    @JsonIgnore
+    @Column(name = "request", nullable = false, columnDefinition = "TEXT")
+    private String request;
+
+    @Column(name = "total_items", nullable = false)
+    private Integer totalItems;
+
+    @Column(name = "processed_items", nullable = false)
+    private Integer processedItems;
+
+    @Column(name = "failed_items", nullable = false)
+    private Integer failedItems;
+
+    // Job-level failure, e.g. the request no longer being valid
+    @Column(name = "error", columnDefinition = "TEXT")
+    private String error;
+
+    // Summary of the outcome as JSON
+    @Column(name = "result", columnDefinition = "TEXT")
+    private String result;
+
+    @Column(name = "created_by")
+    private String createdBy;
+
+    @Column(name = "created_at", nullable = false)
+    private ZonedDateTime createdAt;
+
+    @Column(name = "started_at")
+    private ZonedDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private ZonedDateTime finishedAt;
+
+    // Renewed by the executing instance; a stale heartbeat lets another instance resume the job
+    @JsonIgnore
+    @Column(name = "heartbeat_at")
+    private ZonedDateTime heartbeatAt;
+}
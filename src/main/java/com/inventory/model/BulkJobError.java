@@ -0,0 +1,38 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.ZonedDateTime;
+
+/**
+ * Entity class for bulk_job_error table
+ * One item of a bulk job that failed, with the reason
+ */
+@Data
+@Entity
+@Table(name = "bulk_job_error", indexes = {
+    @Index(name = "idx_bulk_job_error_job_id", columnList = "job_id, item_index")
+})
+public class BulkJobError {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private String jobId;
+
+    // Position of the item in the submitted request
+    @Column(name = "item_index", nullable = false)
+    private Integer itemIndex;
+
+    @Column(name = "item", nullable = false)
+    private String item;
+
+    @Column(name = "message", columnDefinition = "TEXT")
+    private String message;
+
+    @Column(name = "timestamp", nullable = false)
+    private ZonedDateTime timestamp;
+}
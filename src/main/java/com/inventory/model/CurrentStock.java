@@ -2,8 +2,10 @@ package com.inventory.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.time.ZonedDateTime;
-import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
  * Entity class for current_stock table
@@ -22,8 +24,10 @@ public class CurrentStock {
     @Column(name = "box_barcode", nullable = false)
     private String boxBarcode;
     
-    @JsonBackReference
-    @ManyToOne
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "box_barcode", insertable = false, updatable = false)
     private ProductCatalog productCatalog;
     
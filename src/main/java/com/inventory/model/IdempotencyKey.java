@@ -0,0 +1,55 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.ZonedDateTime;
+
+/**
+ * Entity class for idempotency_key table
+ * The outcome of a request submitted with an Idempotency-Key header, replayed to retries of it.
+ */
+@Data
+@Entity
+@Table(name = "idempotency_key", indexes = {
+    @Index(name = "idx_idempotency_key_expires_at", columnList = "expires_at")
+})
+public class IdempotencyKey {
+
+    // Username and client key, "user:key"
+    @Id
+    @Column(name = "idempotency_key", length = 512)
+    private String idempotencyKey;
+
+    @Column(name = "request_path", nullable = false)
+    private String requestPath;
+
+    // SHA-256 of the request body, set when the request completes
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+
+    // IN_PROGRESS or COMPLETED
+    @Column(name = "status", nullable = false, length = 32)
+    private String status;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "location", length = 1024)
+    private String location;
+
+    @Column(name = "created_at", nullable = false)
+    private ZonedDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private ZonedDateTime expiresAt;
+
+    // End of the lease of the request holding an IN_PROGRESS key; null once completed
+    @Column(name = "locked_until")
+    private ZonedDateTime lockedUntil;
+}
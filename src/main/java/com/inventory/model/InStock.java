@@ -12,7 +12,9 @@ import java.time.ZonedDateTime;
  * Entity for in_stock table
  */
 @Entity
-@Table(name = "in_stock")
+@Table(name = "in_stock", indexes = {
+    @Index(name = "idx_in_stock_box_barcode_added", columnList = "box_barcode, added_timestamp")
+})
 @Data
 @Builder
 @NoArgsConstructor
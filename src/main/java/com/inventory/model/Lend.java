@@ -9,7 +9,9 @@ import java.time.ZonedDateTime;
  */
 @Data
 @Entity
-@Table(name = "lent")
+@Table(name = "lent", indexes = {
+    @Index(name = "idx_lent_order_id", columnList = "order_id")
+})
 public class Lend {
     
     @Id
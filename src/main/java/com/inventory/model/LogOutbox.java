@@ -0,0 +1,68 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.ZonedDateTime;
+
+/**
+ * Entity class for logs_outbox table
+ * Log entries are written here in the same transaction as the business change
+ * and moved to the logs table in batches by LogOutboxService
+ */
+@Data
+@Entity
+@Table(name = "logs_outbox", indexes = {
+    @Index(name = "idx_logs_outbox_product_barcode", columnList = "product_barcode"),
+    @Index(name = "idx_logs_outbox_box_barcode_order_id", columnList = "box_barcode, order_id")
+})
+public class LogOutbox {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "outbox_id")
+    private Long outboxId;
+    
+    @Column(name = "box_barcode", nullable = false)
+    private String boxBarcode;
+    
+    @Column(name = "product_name", nullable = false)
+    private String productName;
+    
+    @Column(name = "product_barcode")
+    private String productBarcode;
+    
+    @Column(name = "operation", nullable = false)
+    private String operation;
+    
+    @Column(name = "timestamp")
+    private ZonedDateTime timestamp;
+    
+    @Column(name = "note")
+    private String note;
+    
+    @Column(name = "box_number")
+    private Integer boxNumber;
+    
+    @Column(name = "order_id")
+    private String orderId;
+    
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity = 1;
+    
+    /**
+     * Convert to a log entry that has not been assigned a logs_id yet
+     */
+    public Logs toLogs() {
+        Logs log = new Logs();
+        log.setBoxBarcode(boxBarcode);
+        log.setProductName(productName);
+        log.setProductBarcode(productBarcode);
+        log.setOperation(operation);
+        log.setTimestamp(timestamp);
+        log.setNote(note);
+        log.setBoxNumber(boxNumber);
+        log.setOrderId(orderId);
+        log.setQuantity(quantity);
+        return log;
+    }
+}
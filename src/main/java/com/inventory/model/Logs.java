@@ -10,7 +10,11 @@ import java.time.ZonedDateTime;
  */
 @Data
 @Entity
-@Table(name = "logs")
+@Table(name = "logs", indexes = {
+    @Index(name = "idx_logs_timestamp", columnList = "timestamp"),
+    @Index(name = "idx_logs_product_barcode", columnList = "product_barcode"),
+    @Index(name = "idx_logs_order_id", columnList = "order_id")
+})
 public class Logs {
     
     @Id
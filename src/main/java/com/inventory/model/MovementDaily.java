@@ -0,0 +1,55 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+
+/**
+ * Entity class for movement_daily table
+ * Lent and broken totals per day (Asia/Bangkok), operation, shop, employee and product,
+ * kept up to date with every lent and broken line so reports never scan the logs.
+ * Shop and employee are empty strings where the operation does not record them.
+ */
+@Data
+@Entity
+@Table(name = "movement_daily", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_movement_daily_key",
+            columnNames = {"movement_date", "operation", "shop_name", "employee_id", "box_barcode", "product_name"})
+})
+public class MovementDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "movement_date", nullable = false)
+    private LocalDate movementDate;
+
+    // "lent" or "broken"
+    @Column(name = "operation", nullable = false)
+    private String operation;
+
+    @Column(name = "shop_name", nullable = false)
+    private String shopName;
+
+    @Column(name = "employee_id", nullable = false)
+    private String employeeId;
+
+    @Column(name = "box_barcode", nullable = false)
+    private String boxBarcode;
+
+    @Column(name = "product_name", nullable = false)
+    private String productName;
+
+    // Number of log lines
+    @Column(name = "line_count", nullable = false)
+    private Long lineCount;
+
+    @Column(name = "quantity", nullable = false)
+    private Long quantity;
+
+    @Column(name = "last_updated")
+    private ZonedDateTime lastUpdated;
+}
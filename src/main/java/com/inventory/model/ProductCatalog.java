@@ -7,8 +7,10 @@ import jakarta.persistence.Table;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.CascadeType;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.util.List;
-import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 /**
  * Entity class for product_catalog table
@@ -29,7 +31,9 @@ public class ProductCatalog {
     @Column(name = "number_sn", nullable = false)
     private Integer numberSn;
     
-    @JsonManagedReference
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "productCatalog", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CurrentStock> currentStocks;
     
@@ -10,7 +10,10 @@ import java.time.ZonedDateTime;
  */
 @Data
 @Entity
-@Table(name = "sales")
+@Table(name = "sales", indexes = {
+    @Index(name = "idx_sales_timestamp", columnList = "timestamp"),
+    @Index(name = "idx_sales_order_id", columnList = "order_id")
+})
 public class Sales {
     
     @Id
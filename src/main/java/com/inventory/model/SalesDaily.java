@@ -0,0 +1,50 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+
+/**
+ * Entity class for sales_daily table
+ * Sales totals per day (Asia/Bangkok), shop, employee and product,
+ * kept up to date with every sales line so reports never scan the sales table
+ */
+@Data
+@Entity
+@Table(name = "sales_daily", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_sales_daily_key",
+            columnNames = {"sales_date", "shop_name", "employee_id", "box_barcode", "product_name"})
+})
+public class SalesDaily {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+    
+    @Column(name = "shop_name", nullable = false)
+    private String shopName;
+    
+    @Column(name = "employee_id", nullable = false)
+    private String employeeId;
+    
+    @Column(name = "box_barcode", nullable = false)
+    private String boxBarcode;
+    
+    @Column(name = "product_name", nullable = false)
+    private String productName;
+    
+    // Number of sales lines
+    @Column(name = "sales_count", nullable = false)
+    private Long salesCount;
+    
+    @Column(name = "quantity", nullable = false)
+    private Long quantity;
+    
+    @Column(name = "last_updated")
+    private ZonedDateTime lastUpdated;
+}
@@ -0,0 +1,40 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.ZonedDateTime;
+
+/**
+ * Entity class for stock_snapshot table
+ * Header of a point-in-time inventory snapshot. The per-product quantities and per-unit
+ * locations are stored in stock_snapshot_quantity and stock_snapshot_unit.
+ */
+@Data
+@Entity
+@Table(name = "stock_snapshot", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_stock_snapshot_time", columnNames = {"snapshot_time"})
+})
+public class StockSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "snapshot_id")
+    private Long snapshotId;
+    
+    @Column(name = "snapshot_time", nullable = false)
+    private ZonedDateTime snapshotTime;
+    
+    // Postgres transaction snapshot the copies were read with (pg_current_snapshot)
+    // Logs written by transactions visible in it are reflected in the snapshot
+    @Column(name = "tx_snapshot")
+    private String txSnapshot;
+    
+    @Column(name = "created_at")
+    private ZonedDateTime createdAt;
+    
+    @Column(name = "product_count")
+    private Integer productCount;
+    
+    @Column(name = "unit_count")
+    private Integer unitCount;
+}
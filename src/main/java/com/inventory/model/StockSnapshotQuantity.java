@@ -0,0 +1,34 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Entity class for stock_snapshot_quantity table
+ * On-hand quantity of one product at the time of a snapshot
+ * Rows are written with COPY by StockSnapshotService
+ */
+@Data
+@Entity
+@Table(name = "stock_snapshot_quantity", indexes = {
+    @Index(name = "idx_stock_snapshot_quantity_snapshot", columnList = "snapshot_id, box_barcode")
+})
+public class StockSnapshotQuantity {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "snapshot_id", nullable = false)
+    private Long snapshotId;
+    
+    @Column(name = "box_barcode", nullable = false)
+    private String boxBarcode;
+    
+    @Column(name = "product_name", nullable = false)
+    private String productName;
+    
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+}
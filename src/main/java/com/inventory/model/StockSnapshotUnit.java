@@ -0,0 +1,37 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Entity class for stock_snapshot_unit table
+ * Location (in_stock or lent) of one serialized unit at the time of a snapshot
+ * Rows are written with COPY by StockSnapshotService
+ */
+@Data
+@Entity
+@Table(name = "stock_snapshot_unit", indexes = {
+    @Index(name = "idx_stock_snapshot_unit_snapshot", columnList = "snapshot_id, box_barcode")
+})
+public class StockSnapshotUnit {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+    
+    @Column(name = "snapshot_id", nullable = false)
+    private Long snapshotId;
+    
+    @Column(name = "product_barcode", nullable = false)
+    private String productBarcode;
+    
+    @Column(name = "box_barcode", nullable = false)
+    private String boxBarcode;
+    
+    @Column(name = "product_name", nullable = false)
+    private String productName;
+    
+    @Column(name = "location", nullable = false)
+    private String location;
+}
@@ -0,0 +1,21 @@
+package com.inventory.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Entity class for table_version table
+ * Change counter of one table, bumped by a trigger in every transaction that writes the table.
+ */
+@Data
+@Entity
+@Table(name = "table_version")
+public class TableVersion {
+
+    @Id
+    @Column(name = "table_name", length = 64)
+    private String tableName;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
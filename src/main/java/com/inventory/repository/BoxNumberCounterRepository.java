@@ -0,0 +1,39 @@
+package com.inventory.repository;
+
+import com.inventory.model.BoxNumberCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Optional;
+
+/**
+ * Repository interface for BoxNumberCounter entity
+ */
+@Repository
+public interface BoxNumberCounterRepository extends JpaRepository<BoxNumberCounter, Long> {
+    
+    /**
+     * Find the counter for a product
+     */
+    Optional<BoxNumberCounter> findByBoxBarcodeAndProductName(String boxBarcode, String productName);
+    
+    /**
+     * Atomically reserve a block of box numbers for a product and return the last number of the block
+     * The first call for a product seeds the counter from the existing box_number rows.
+     * The row lock taken by the upsert keeps allocation correct across app instances.
+     */
+    @Transactional
+    @Query(value = "INSERT INTO box_number_counter (box_barcode, product_name, last_box_number, last_updated) " +
+           "VALUES (:boxBarcode, :productName, " +
+           "COALESCE((SELECT MAX(b.box_number) FROM box_number b " +
+           "WHERE b.box_barcode = :boxBarcode AND b.product_name = :productName), 0) + :count, CURRENT_TIMESTAMP) " +
+           "ON CONFLICT (box_barcode, product_name) DO UPDATE " +
+           "SET last_box_number = box_number_counter.last_box_number + :count, last_updated = CURRENT_TIMESTAMP " +
+           "RETURNING last_box_number",
+           nativeQuery = true)
+    Integer allocateBoxNumbers(@Param("boxBarcode") String boxBarcode,
+                               @Param("productName") String productName,
+                               @Param("count") int count);
+}
@@ -51,6 +51,17 @@ public interface BoxNumberRepository extends JpaRepository<BoxNumber, Long> {
     @Query("SELECT COUNT(b) > 0 FROM BoxNumber b WHERE b.productBarcode = ?1")
     boolean existsByProductBarcode(String productBarcode);
     
+    /**
+     * Find the first box number with the given pair key for a box barcode
+     * Used for constant-time pair detection on paired products (SN=2)
+     */
+    Optional<BoxNumber> findFirstByBoxBarcodeAndPairKey(String boxBarcode, String pairKey);
+    
+    /**
+     * Find box number by box barcode and product barcode
+     */
+    Optional<BoxNumber> findFirstByBoxBarcodeAndProductBarcode(String boxBarcode, String productBarcode);
+    
     /**
      * Find box numbers by box barcode and box number
      */
@@ -1,6 +1,8 @@
 package com.inventory.repository;
 
 import com.inventory.model.BrokenId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -16,6 +18,16 @@ public interface BrokenIdRepository extends JpaRepository<BrokenId, String> {
      */
     List<BrokenId> findByTimestampBetween(ZonedDateTime startTime, ZonedDateTime endTime);
     
+    /**
+     * Find broken IDs by timestamp between start and end time with pagination
+     */
+    Page<BrokenId> findByTimestampBetween(ZonedDateTime startTime, ZonedDateTime endTime, Pageable pageable);
+    
+    /**
+     * Count broken IDs by timestamp between start and end time
+     */
+    long countByTimestampBetween(ZonedDateTime startTime, ZonedDateTime endTime);
+    
     /**
      * Find broken IDs containing note
      */
@@ -0,0 +1,19 @@
+package com.inventory.repository;
+
+import com.inventory.model.BulkJobError;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for BulkJobError entity
+ */
+@Repository
+public interface BulkJobErrorRepository extends JpaRepository<BulkJobError, Long> {
+
+    /**
+     * Find the failed items of a job in request order
+     */
+    Page<BulkJobError> findByJobIdOrderByItemIndex(String jobId, Pageable pageable);
+}
@@ -0,0 +1,53 @@
+package com.inventory.repository;
+
+import com.inventory.model.BulkJob;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for BulkJob entity
+ */
+@Repository
+public interface BulkJobRepository extends JpaRepository<BulkJob, String> {
+
+    /**
+     * Find jobs by status with pagination
+     */
+    Page<BulkJob> findByStatus(String status, Pageable pageable);
+
+    /**
+     * Find jobs waiting for a worker: queued, or running on an instance that stopped renewing its heartbeat
+     */
+    @Query("SELECT j.jobId FROM BulkJob j WHERE j.status = 'QUEUED' " +
+           "OR (j.status = 'RUNNING' AND j.heartbeatAt < :staleBefore) ORDER BY j.createdAt")
+    List<String> findRunnableJobIds(@Param("staleBefore") ZonedDateTime staleBefore, Pageable pageable);
+
+    /**
+     * Take a runnable job; only one instance succeeds
+     * @return 1 if the job was taken
+     */
+    @Modifying
+    @Query("UPDATE BulkJob j SET j.status = 'RUNNING', j.heartbeatAt = :now, j.startedAt = COALESCE(j.startedAt, :now) " +
+           "WHERE j.jobId = :jobId AND (j.status = 'QUEUED' OR (j.status = 'RUNNING' AND j.heartbeatAt < :staleBefore))")
+    int claim(@Param("jobId") String jobId, @Param("now") ZonedDateTime now, @Param("staleBefore") ZonedDateTime staleBefore);
+
+    /**
+     * Move the checkpoint of a running job from one item position to the next
+     * Runs first in each chunk transaction: the row lock makes a second executor of the same chunk wait,
+     * then find the checkpoint moved and update nothing.
+     * @return 1 if the checkpoint was still at the expected position
+     */
+    @Modifying
+    @Query("UPDATE BulkJob j SET j.processedItems = :to, j.failedItems = j.failedItems + :failed, j.heartbeatAt = :now " +
+           "WHERE j.jobId = :jobId AND j.status = 'RUNNING' AND j.processedItems = :from")
+    int checkpoint(@Param("jobId") String jobId, @Param("from") int from, @Param("to") int to,
+                   @Param("failed") int failed, @Param("now") ZonedDateTime now);
+}
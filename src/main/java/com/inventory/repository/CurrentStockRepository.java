@@ -1,10 +1,13 @@
 package com.inventory.repository;
 
+import com.inventory.dto.CurrentStockView;
 import com.inventory.model.CurrentStock;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -26,6 +29,21 @@ public interface CurrentStockRepository extends JpaRepository<CurrentStock, Long
      */
     Optional<CurrentStock> findByBoxBarcodeAndProductName(String boxBarcode, String productName);
     
+    /**
+     * Find all stock as read projections
+     */
+    List<CurrentStockView> findAllProjectedBy();
+    
+    /**
+     * Find stock by box barcode as read projections
+     */
+    List<CurrentStockView> findProjectedByBoxBarcode(String boxBarcode);
+    
+    /**
+     * Find stock by box barcode and product name as a read projection
+     */
+    Optional<CurrentStockView> findProjectedByBoxBarcodeAndProductName(String boxBarcode, String productName);
+    
     /**
      * Find stock by box barcode with pagination
      */
@@ -55,4 +73,14 @@ public interface CurrentStockRepository extends JpaRepository<CurrentStock, Long
      * Find stock by quantity between
      */
     Page<CurrentStock> findByQuantityBetween(Integer minQuantity, Integer maxQuantity, Pageable pageable);
+    
+    /**
+     * Find stock for the inventory levels report
+     * @param category Optional product name substring
+     * @param includeZeroQuantity Whether to include products with zero quantity
+     */
+    @Query("SELECT c FROM CurrentStock c WHERE (:includeZeroQuantity = true OR c.quantity > 0) " +
+           "AND (:category IS NULL OR c.productName LIKE CONCAT('%', :category, '%'))")
+    List<CurrentStock> findInventoryLevels(@Param("category") String category,
+                                           @Param("includeZeroQuantity") boolean includeZeroQuantity);
 } 
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.inventory.repository;
+
+import com.inventory.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Repository interface for IdempotencyKey entity
+ */
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * Reserve a key for a new request
+     * An expired entry under the same key is replaced, and so is an IN_PROGRESS entry whose lease ran out.
+     * @return 1 if the key was reserved, 0 if a live entry exists
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_key (idempotency_key, request_path, status, created_at, expires_at, locked_until) " +
+           "VALUES (:key, :path, 'IN_PROGRESS', :now, :expiresAt, :lockedUntil) " +
+           "ON CONFLICT (idempotency_key) DO UPDATE SET request_path = EXCLUDED.request_path, " +
+           "request_hash = NULL, status = 'IN_PROGRESS', response_status = NULL, response_body = NULL, " +
+           "content_type = NULL, location = NULL, created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at, " +
+           "locked_until = EXCLUDED.locked_until " +
+           "WHERE idempotency_key.expires_at < :now " +
+           "OR (idempotency_key.status = 'IN_PROGRESS' AND idempotency_key.locked_until < :now)",
+           nativeQuery = true)
+    int reserve(@Param("key") String key, @Param("path") String path, @Param("now") ZonedDateTime now,
+                @Param("expiresAt") ZonedDateTime expiresAt, @Param("lockedUntil") ZonedDateTime lockedUntil);
+
+    /**
+     * Delete entries past their expiry
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") ZonedDateTime now);
+}
@@ -40,11 +40,21 @@ public interface LentIdRepository extends JpaRepository<LentId, String> {
      */
     List<LentId> findByEmployeeIdAndStatus(String employeeId, String status);
     
+    /**
+     * Find lent IDs by employee ID and status with pagination
+     */
+    Page<LentId> findByEmployeeIdAndStatus(String employeeId, String status, Pageable pageable);
+    
     /**
      * Find lent IDs by shop name and status
      */
     List<LentId> findByShopNameAndStatus(String shopName, String status);
     
+    /**
+     * Find lent IDs by shop name and status with pagination
+     */
+    Page<LentId> findByShopNameAndStatus(String shopName, String status, Pageable pageable);
+    
     /**
      * Find lent IDs by timestamp between start and end time
      */
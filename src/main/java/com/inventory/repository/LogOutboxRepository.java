@@ -0,0 +1,46 @@
+package com.inventory.repository;
+
+import com.inventory.model.LogOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.List;
+
+/**
+ * Repository interface for LogOutbox entity
+ */
+@Repository
+public interface LogOutboxRepository extends JpaRepository<LogOutbox, Long> {
+    
+    /**
+     * Find pending log entries by product barcode
+     */
+    List<LogOutbox> findByProductBarcode(String productBarcode);
+    
+    /**
+     * Find pending log entries by box barcode and order ID
+     */
+    List<LogOutbox> findByBoxBarcodeAndOrderId(String boxBarcode, String orderId);
+    
+    /**
+     * Move the oldest pending entries to the logs table with one multi-row insert
+     * Delete and insert run in one statement, so an entry is never lost or copied twice.
+     * SKIP LOCKED lets several app instances drain the outbox at the same time.
+     * The id of the transaction that wrote each entry is kept, for the stock snapshot replay.
+     * @return The number of entries moved
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "WITH moved AS (" +
+           "DELETE FROM logs_outbox WHERE outbox_id IN (" +
+           "SELECT outbox_id FROM logs_outbox ORDER BY outbox_id LIMIT :batchSize FOR UPDATE SKIP LOCKED) " +
+           "RETURNING outbox_id, box_barcode, product_name, product_barcode, operation, timestamp, note, box_number, order_id, quantity, xid) " +
+           "INSERT INTO logs (box_barcode, product_name, product_barcode, operation, timestamp, note, box_number, order_id, quantity, xid) " +
+           "SELECT box_barcode, product_name, product_barcode, operation, timestamp, note, box_number, order_id, quantity, xid " +
+           "FROM moved ORDER BY outbox_id",
+           nativeQuery = true)
+    int moveBatchToLogs(@Param("batchSize") int batchSize);
+}
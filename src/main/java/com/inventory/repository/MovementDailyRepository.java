@@ -0,0 +1,67 @@
+package com.inventory.repository;
+
+import com.inventory.model.MovementDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+/**
+ * Repository interface for MovementDaily entity
+ */
+@Repository
+public interface MovementDailyRepository extends JpaRepository<MovementDaily, Long> {
+
+    /**
+     * Add lines to the totals of a day, creating the row on first use
+     * The row lock taken by the upsert serializes concurrent updates.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO movement_daily (movement_date, operation, shop_name, employee_id, box_barcode, product_name, " +
+           "line_count, quantity, last_updated) " +
+           "VALUES (:movementDate, :operation, :shopName, :employeeId, :boxBarcode, :productName, :lineCount, :quantity, CURRENT_TIMESTAMP) " +
+           "ON CONFLICT (movement_date, operation, shop_name, employee_id, box_barcode, product_name) DO UPDATE " +
+           "SET line_count = movement_daily.line_count + :lineCount, " +
+           "quantity = movement_daily.quantity + :quantity, last_updated = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    int addLines(@Param("movementDate") LocalDate movementDate,
+                 @Param("operation") String operation,
+                 @Param("shopName") String shopName,
+                 @Param("employeeId") String employeeId,
+                 @Param("boxBarcode") String boxBarcode,
+                 @Param("productName") String productName,
+                 @Param("lineCount") long lineCount,
+                 @Param("quantity") long quantity);
+
+    /**
+     * Delete the totals of a date range
+     */
+    @Modifying
+    @Query(value = "DELETE FROM movement_daily WHERE movement_date BETWEEN :startDate AND :endDate", nativeQuery = true)
+    int deleteByDateRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Recompute the totals of a date range from the log entries
+     * Entries still in the outbox are included. Lent lines take shop and employee from their lent_id order.
+     * The range bounds are Bangkok midnights, the same days the totals are grouped by.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO movement_daily (movement_date, operation, shop_name, employee_id, box_barcode, product_name, " +
+           "line_count, quantity, last_updated) " +
+           "SELECT CAST(l.timestamp AT TIME ZONE 'Asia/Bangkok' AS DATE), l.operation, " +
+           "COALESCE(li.shop_name, ''), COALESCE(li.employee_id, ''), l.box_barcode, l.product_name, " +
+           "COUNT(*), COALESCE(SUM(l.quantity), 0), CURRENT_TIMESTAMP " +
+           "FROM (SELECT operation, timestamp, box_barcode, product_name, order_id, quantity FROM logs " +
+           "      UNION ALL " +
+           "      SELECT operation, timestamp, box_barcode, product_name, order_id, quantity FROM logs_outbox) l " +
+           "LEFT JOIN lent_id li ON l.operation = 'lent' AND li.lent_id = l.order_id " +
+           "WHERE l.operation IN ('lent', 'broken') " +
+           "AND l.timestamp >= CAST(CAST(:startDate AS DATE) AS TIMESTAMP) AT TIME ZONE 'Asia/Bangkok' " +
+           "AND l.timestamp < CAST(CAST(:endDate AS DATE) + 1 AS TIMESTAMP) AT TIME ZONE 'Asia/Bangkok' " +
+           "GROUP BY 1, l.operation, 3, 4, l.box_barcode, l.product_name",
+           nativeQuery = true)
+    int insertFromLogs(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
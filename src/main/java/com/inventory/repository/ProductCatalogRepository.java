@@ -1,5 +1,6 @@
 package com.inventory.repository;
 
+import com.inventory.dto.ProductCatalogView;
 import com.inventory.model.ProductCatalog;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,6 +9,10 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository interface for ProductCatalog entity
  */
@@ -18,6 +23,35 @@ public interface ProductCatalogRepository extends JpaRepository<ProductCatalog,
            "LOWER(p.boxBarcode) LIKE LOWER(CONCAT('%', :search, '%'))")
     Page<ProductCatalog> searchProducts(@Param("search") String search, Pageable pageable);
 
+    @Query(value = "SELECT p.boxBarcode AS boxBarcode, p.productName AS productName, p.numberSn AS numberSn " +
+           "FROM ProductCatalog p WHERE " +
+           "LOWER(p.productName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(p.boxBarcode) LIKE LOWER(CONCAT('%', :search, '%'))",
+           countQuery = "SELECT COUNT(p) FROM ProductCatalog p WHERE " +
+           "LOWER(p.productName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(p.boxBarcode) LIKE LOWER(CONCAT('%', :search, '%'))")
+    Page<ProductCatalogView> searchProductViews(@Param("search") String search, Pageable pageable);
+
+    /**
+     * Find all products as read projections
+     */
+    Page<ProductCatalogView> findProjectedBy(Pageable pageable);
+
+    /**
+     * Find all products as read projections
+     */
+    List<ProductCatalogView> findAllProjectedBy();
+
+    /**
+     * Find a product as a read projection
+     */
+    Optional<ProductCatalogView> findProjectedByBoxBarcode(String boxBarcode);
+
+    /**
+     * Find the products of a set of box barcodes as read projections, in one query
+     */
+    List<ProductCatalogView> findProjectedByBoxBarcodeIn(Collection<String> boxBarcodes);
+
     boolean existsByProductNameIgnoreCase(String productName);
 
     // Custom query methods can be added here
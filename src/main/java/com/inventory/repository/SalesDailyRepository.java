@@ -0,0 +1,61 @@
+package com.inventory.repository;
+
+import com.inventory.model.SalesDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+/**
+ * Repository interface for SalesDaily entity
+ */
+@Repository
+public interface SalesDailyRepository extends JpaRepository<SalesDaily, Long> {
+    
+    /**
+     * Add sales lines to the totals of a day, creating the row on first use
+     * Negative values remove lines. The row lock taken by the upsert serializes concurrent sales.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO sales_daily (sales_date, shop_name, employee_id, box_barcode, product_name, " +
+           "sales_count, quantity, last_updated) " +
+           "VALUES (:salesDate, :shopName, :employeeId, :boxBarcode, :productName, :salesCount, :quantity, CURRENT_TIMESTAMP) " +
+           "ON CONFLICT (sales_date, shop_name, employee_id, box_barcode, product_name) DO UPDATE " +
+           "SET sales_count = sales_daily.sales_count + :salesCount, " +
+           "quantity = sales_daily.quantity + :quantity, last_updated = CURRENT_TIMESTAMP",
+           nativeQuery = true)
+    int addSales(@Param("salesDate") LocalDate salesDate,
+                 @Param("shopName") String shopName,
+                 @Param("employeeId") String employeeId,
+                 @Param("boxBarcode") String boxBarcode,
+                 @Param("productName") String productName,
+                 @Param("salesCount") long salesCount,
+                 @Param("quantity") long quantity);
+    
+    /**
+     * Delete the totals of a date range
+     */
+    @Modifying
+    @Query(value = "DELETE FROM sales_daily WHERE sales_date BETWEEN :startDate AND :endDate", nativeQuery = true)
+    int deleteByDateRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    /**
+     * Recompute the totals of a date range from the sales table
+     * The range is matched on the timestamp so the index on sales.timestamp is used.
+     * Its bounds are Bangkok midnights, the same days the totals are grouped by.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO sales_daily (sales_date, shop_name, employee_id, box_barcode, product_name, " +
+           "sales_count, quantity, last_updated) " +
+           "SELECT CAST(s.timestamp AT TIME ZONE 'Asia/Bangkok' AS DATE), s.shop_name, s.employee_id, " +
+           "s.box_barcode, s.product_name, COUNT(*), COALESCE(SUM(s.quantity), 0), CURRENT_TIMESTAMP " +
+           "FROM sales s " +
+           "WHERE s.timestamp >= CAST(CAST(:startDate AS DATE) AS TIMESTAMP) AT TIME ZONE 'Asia/Bangkok' " +
+           "AND s.timestamp < CAST(CAST(:endDate AS DATE) + 1 AS TIMESTAMP) AT TIME ZONE 'Asia/Bangkok' " +
+           "GROUP BY 1, s.shop_name, s.employee_id, s.box_barcode, s.product_name",
+           nativeQuery = true)
+    int insertFromSales(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+}
@@ -5,7 +5,6 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
-import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.ZonedDateTime;
@@ -53,18 +52,6 @@ public interface SalesRepository extends JpaRepository<Sales, Long>, JpaSpecific
      */
     List<Sales> findByTimestampBetween(ZonedDateTime startTime, ZonedDateTime endTime);
     
-    /**
-     * Get total sales count by day
-     */
-    @Query("SELECT COUNT(s) FROM Sales s WHERE DATE(s.timestamp) = DATE(?1)")
-    Long countByDay(ZonedDateTime date);
-    
-    /**
-     * Get total sales quantity by day
-     */
-    @Query("SELECT SUM(s.quantity) FROM Sales s WHERE DATE(s.timestamp) = DATE(?1)")
-    Integer sumQuantityByDay(ZonedDateTime date);
-    
     /**
      * Get sales by employee ID and date range
      */
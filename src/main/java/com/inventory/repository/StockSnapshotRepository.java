@@ -0,0 +1,24 @@
+package com.inventory.repository;
+
+import com.inventory.model.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for StockSnapshot entity
+ */
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+    
+    /**
+     * Find the latest snapshot taken at or before a point in time
+     */
+    Optional<StockSnapshot> findTopBySnapshotTimeLessThanEqualOrderBySnapshotTimeDesc(ZonedDateTime time);
+    
+    /**
+     * Find the latest snapshot
+     */
+    Optional<StockSnapshot> findTopByOrderBySnapshotTimeDesc();
+}
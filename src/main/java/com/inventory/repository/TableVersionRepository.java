@@ -0,0 +1,12 @@
+package com.inventory.repository;
+
+import com.inventory.model.TableVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for TableVersion entity
+ */
+@Repository
+public interface TableVersionRepository extends JpaRepository<TableVersion, String> {
+}
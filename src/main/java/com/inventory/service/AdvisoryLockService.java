@@ -0,0 +1,166 @@
+package com.inventory.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for cluster-wide locks based on Postgres transaction-level advisory locks
+ *
+ * Locks are keyed by a 64-bit hash of a namespace and a value (a product barcode or a box barcode),
+ * are held by the database session of the current transaction and are released automatically
+ * when the transaction commits or rolls back. Every app instance sharing the database therefore
+ * sees the same locks, and a crashed instance can never leave a lock behind.
+ *
+ * All methods must be called inside a transaction.
+ */
+@Service
+public class AdvisoryLockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdvisoryLockService.class);
+
+    static final String BARCODE_NAMESPACE = "barcode";
+    static final String PRODUCT_NAMESPACE = "product";
+    static final String JOB_NAMESPACE = "job";
+
+    @Value("${inventory.lock.timeout-ms:5000}")
+    private long lockTimeoutMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Try to lock a set of product barcodes in one round trip without waiting
+     * Barcodes that were locked stay locked until the end of the transaction, even if others failed.
+     * @param barcodes The product barcodes to lock
+     * @return The barcodes that are locked by another transaction
+     */
+    public List<String> tryLockBarcodes(Collection<String> barcodes) {
+        requireTransaction();
+
+        Map<Long, String> barcodesByKey = new HashMap<>();
+        for (String barcode : new LinkedHashSet<>(barcodes)) {
+            if (barcode != null && !barcode.isEmpty()) {
+                barcodesByKey.put(lockKey(BARCODE_NAMESPACE, barcode), barcode);
+            }
+        }
+        if (barcodesByKey.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Long[] keys = barcodesByKey.keySet().toArray(new Long[0]);
+
+        // Every key is tried, so the result lists all barcodes held elsewhere
+        List<Long> contendedKeys = jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(
+                    "SELECT k.lock_key FROM unnest(?) AS k(lock_key) WHERE NOT pg_try_advisory_xact_lock(k.lock_key)");
+            Array array = connection.createArrayOf("bigint", keys);
+            statement.setArray(1, array);
+            return statement;
+        }, (rs, rowNum) -> rs.getLong(1));
+
+        List<String> contended = new ArrayList<>();
+        for (Long key : contendedKeys) {
+            contended.add(barcodesByKey.get(key));
+        }
+
+        meterRegistry.counter("inventory.lock.acquired", "type", BARCODE_NAMESPACE)
+                .increment(keys.length - contended.size());
+        if (!contended.isEmpty()) {
+            meterRegistry.counter("inventory.lock.contended", "type", BARCODE_NAMESPACE).increment(contended.size());
+            logger.info("Barcodes locked by another transaction: {}", contended);
+        }
+
+        return contended;
+    }
+
+    /**
+     * Lock a product (box barcode) for the rest of the transaction, waiting up to the configured timeout
+     * Serializes stock changes of one product across threads and app instances.
+     * @param boxBarcode The box barcode of the product
+     * @throws DataAccessException if the lock is not acquired within the timeout
+     */
+    public void lockProduct(String boxBarcode) {
+        requireTransaction();
+
+        long key = lockKey(PRODUCT_NAMESPACE, boxBarcode);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            // Fast path: no waiting and no lock_timeout change when the lock is free
+            Boolean acquired = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, key);
+            if (!Boolean.TRUE.equals(acquired)) {
+                meterRegistry.counter("inventory.lock.contended", "type", PRODUCT_NAMESPACE).increment();
+
+                // lock_timeout applies to advisory locks too; SET LOCAL ends with the transaction
+                jdbcTemplate.execute("SET LOCAL lock_timeout = '" + lockTimeoutMs + "ms'");
+                try {
+                    jdbcTemplate.queryForObject("SELECT 1 FROM pg_advisory_xact_lock(?)", Integer.class, key);
+                } catch (DataAccessException e) {
+                    // The transaction is aborted at this point and will be rolled back
+                    meterRegistry.counter("inventory.lock.timeouts", "type", PRODUCT_NAMESPACE).increment();
+                    logger.warn("Timed out after {} ms waiting for the lock on product {}", lockTimeoutMs, boxBarcode);
+                    throw e;
+                }
+                jdbcTemplate.execute("SET LOCAL lock_timeout = DEFAULT");
+            }
+            meterRegistry.counter("inventory.lock.acquired", "type", PRODUCT_NAMESPACE).increment();
+        } finally {
+            sample.stop(meterRegistry.timer("inventory.lock.wait", "type", PRODUCT_NAMESPACE));
+        }
+    }
+
+    /**
+     * Try to lock a background job for the rest of the transaction without waiting
+     * Keeps a job that runs on every instance from running on several at once.
+     * @param jobName The job name
+     * @return Whether the lock was acquired
+     */
+    public boolean tryLockJob(String jobName) {
+        requireTransaction();
+        
+        Boolean acquired = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+                lockKey(JOB_NAMESPACE, jobName));
+        return Boolean.TRUE.equals(acquired);
+    }
+
+    /**
+     * Compute the advisory lock key for a namespace and a value
+     * 64-bit FNV-1a over "namespace:value", so keys are stable across instances and JVM versions
+     */
+    static long lockKey(String namespace, String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : (namespace + ":" + value).getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Transaction-level locks taken outside a transaction would be released immediately
+     */
+    private void requireTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Advisory locks must be acquired inside a transaction");
+        }
+    }
+}
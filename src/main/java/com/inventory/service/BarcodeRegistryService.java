@@ -7,38 +7,40 @@ import com.inventory.repository.LogsRepository;
 import com.inventory.repository.BoxNumberRepository;
 import com.inventory.repository.CurrentStockRepository;
 import com.inventory.repository.InStockRepository;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
-import java.util.HashSet;
-import java.util.concurrent.locks.ReentrantLock;
-import java.util.ArrayList;
 
 /**
  * Centralized service for managing product barcode lifecycle
+ *
+ * Barcodes being processed are reserved with Postgres advisory locks, so a reservation is visible
+ * to every app instance and is released automatically when the reserving transaction ends.
  */
 @Service
 public class BarcodeRegistryService {
     
     private static final Logger logger = LoggerFactory.getLogger(BarcodeRegistryService.class);
     
-    // Use a lock for critical sections to prevent race conditions
-    private final ReentrantLock barcodeLock = new ReentrantLock();
-    
-    // Set of barcodes currently being processed
-    private final Set<String> processingBarcodes = new HashSet<>();
-    
     @Autowired
     private LogsRepository logsRepository;
     
+    @Autowired
+    private AdvisoryLockService advisoryLockService;
+
+    @Autowired
+    private LogOutboxService logOutboxService;
+    
     @Autowired
     private BoxNumberRepository boxNumberRepository;
     
@@ -47,64 +49,43 @@ public class BarcodeRegistryService {
     
     @Autowired
     private InStockRepository inStockRepository;
+
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
     
     /**
      * Check if a barcode is available for use and lock it for processing
-     * This method is thread-safe and prevents race conditions
+     * The lock is held until the current transaction ends
      * 
      * @param barcode The barcode to check
      * @return true if the barcode is available and has been locked for processing
      */
+    @Transactional(propagation = Propagation.MANDATORY)
     public boolean checkAndLockBarcode(String barcode) {
         if (barcode == null || barcode.isEmpty()) {
             logger.debug("Barcode is null or empty");
             return false;
         }
         
-        barcodeLock.lock();
-        try {
-            logger.debug("Checking and locking barcode: {}", barcode);
-            
-            // If the barcode is already being processed, it's not available
-            if (processingBarcodes.contains(barcode)) {
-                logger.info("Barcode {} is already being processed", barcode);
-                return false;
-            }
-            
-            // Check if the barcode is available
-            if (!isBarcodeAvailable(barcode)) {
-                logger.info("Barcode {} is not available", barcode);
-                return false;
-            }
-            
-            // Lock the barcode for processing
-            processingBarcodes.add(barcode);
-            logger.info("Barcode {} is available and has been locked for processing", barcode);
-            return true;
-        } finally {
-            barcodeLock.unlock();
-        }
-    }
-    
-    /**
-     * Release a barcode that was locked for processing
-     * 
-     * @param barcode The barcode to release
-     * @param wasSuccessful Whether the processing was successful
-     */
-    public void releaseBarcode(String barcode, boolean wasSuccessful) {
-        if (barcode == null || barcode.isEmpty()) {
-            return;
+        logger.debug("Checking and locking barcode: {}", barcode);
+        
+        // If the barcode is already being processed, it's not available
+        Timer.Sample lockSample = inventoryMetrics.startBarcodeLock();
+        boolean contended = !advisoryLockService.tryLockBarcodes(Collections.singletonList(barcode)).isEmpty();
+        inventoryMetrics.stopBarcodeLock(lockSample, "single", contended ? "contended" : "locked");
+        if (contended) {
+            logger.info("Barcode {} is already being processed", barcode);
+            return false;
         }
         
-        barcodeLock.lock();
-        try {
-            logger.debug("Releasing barcode: {}", barcode);
-            processingBarcodes.remove(barcode);
-            logger.info("Barcode {} has been released", barcode);
-        } finally {
-            barcodeLock.unlock();
+        // Check if the barcode is available
+        if (!isBarcodeAvailable(barcode)) {
+            logger.info("Barcode {} is not available", barcode);
+            return false;
         }
+        
+        logger.info("Barcode {} is available and has been locked for processing", barcode);
+        return true;
     }
     
     /**
@@ -121,7 +102,7 @@ public class BarcodeRegistryService {
             logger.debug("Barcode {} exists in box_number", barcode);
             
             // If it exists in box_number, check its status in logs
-            List<Logs> logs = logsRepository.findByProductBarcode(barcode);
+            List<Logs> logs = logOutboxService.findByProductBarcode(barcode);
             if (logs.isEmpty()) {
                 // If it exists in box_number but has no logs, it's not available
                 logger.info("Barcode {} exists in box_number but has no logs, not available", barcode);
@@ -173,7 +154,7 @@ public class BarcodeRegistryService {
         }
         
         // Check if barcode exists in logs
-        List<Logs> logs = logsRepository.findByProductBarcode(barcode);
+        List<Logs> logs = logOutboxService.findByProductBarcode(barcode);
         if (!logs.isEmpty()) {
             // Get the most recent log entry
             Logs latestLog = logs.stream()
@@ -213,89 +194,38 @@ public class BarcodeRegistryService {
     
     /**
      * Check if multiple barcodes are available and lock them for processing
+     * All barcodes are locked in one round trip and stay locked until the current transaction ends
      * 
      * @param barcodes The barcodes to check
      * @return A list of barcodes that are not available
      */
+    @Transactional(propagation = Propagation.MANDATORY)
     public List<String> checkAndLockBarcodes(List<String> barcodes) {
-        List<String> unavailableBarcodes = new ArrayList<>();
+        // Lock first, so the availability check below cannot race with another instance
+        Timer.Sample lockSample = inventoryMetrics.startBarcodeLock();
+        List<String> unavailableBarcodes = advisoryLockService.tryLockBarcodes(barcodes);
+        inventoryMetrics.stopBarcodeLock(lockSample, "batch", unavailableBarcodes.isEmpty() ? "locked" : "contended");
+        
+        // If any barcodes are being processed elsewhere, return them
+        if (!unavailableBarcodes.isEmpty()) {
+            return unavailableBarcodes;
+        }
         
-        // First check if any barcodes are already in use in the database
+        // Check if any barcodes are already in use in the database
         for (String barcode : barcodes) {
             if (barcode == null || barcode.isEmpty()) {
                 continue;
             }
             
-            // Check directly in the database without locking
             if (!isBarcodeAvailableInDatabase(barcode)) {
                 logger.info("Barcode {} is not available in database", barcode);
                 unavailableBarcodes.add(barcode);
             }
         }
         
-        // If any barcodes are unavailable, return them without locking anything
-        if (!unavailableBarcodes.isEmpty()) {
-            return unavailableBarcodes;
-        }
-        
-        // Now try to lock all barcodes
-        barcodeLock.lock();
-        try {
-            // Check again if any barcodes are already being processed
-            for (String barcode : barcodes) {
-                if (barcode == null || barcode.isEmpty()) {
-                    continue;
-                }
-                
-                // If the barcode is already being processed, it's not available
-                if (processingBarcodes.contains(barcode)) {
-                    logger.info("Barcode {} is already being processed", barcode);
-                    unavailableBarcodes.add(barcode);
-                }
-            }
-            
-            // If any barcodes are unavailable, return them without locking anything
-            if (!unavailableBarcodes.isEmpty()) {
-                return unavailableBarcodes;
-            }
-            
-            // All barcodes are available, lock them all
-            for (String barcode : barcodes) {
-                if (barcode == null || barcode.isEmpty()) {
-                    continue;
-                }
-                
-                processingBarcodes.add(barcode);
-                logger.info("Barcode {} is available and has been locked for processing", barcode);
-            }
-        } finally {
-            barcodeLock.unlock();
-        }
-        
         return unavailableBarcodes;
     }
     
-    /**
-     * Release multiple barcodes that were locked for processing
-     * 
-     * @param barcodes The barcodes to release
-     */
-    public void releaseBarcodes(List<String> barcodes) {
-        barcodeLock.lock();
-        try {
-            for (String barcode : barcodes) {
-                if (barcode == null || barcode.isEmpty()) {
-                    continue;
-                }
-                
-                processingBarcodes.remove(barcode);
-                logger.info("Barcode {} has been released", barcode);
-            }
-        } finally {
-            barcodeLock.unlock();
-        }
-    }
-    
     /**
      * Check if a barcode is available in the database without locking
      * This is a direct database check without any caching or locking
@@ -306,7 +236,7 @@ public class BarcodeRegistryService {
         Optional<BoxNumber> boxNumber = boxNumberRepository.findByProductBarcode(barcode);
         if (boxNumber.isPresent()) {
             // If it exists in box_number, check its status in logs
-            List<Logs> logs = logsRepository.findByProductBarcode(barcode);
+            List<Logs> logs = logOutboxService.findByProductBarcode(barcode);
             if (logs.isEmpty()) {
                 // If it exists in box_number but has no logs, it's not available
                 return false;
@@ -344,7 +274,7 @@ public class BarcodeRegistryService {
         }
         
         // Check if barcode exists in logs
-        List<Logs> logs = logsRepository.findByProductBarcode(barcode);
+        List<Logs> logs = logOutboxService.findByProductBarcode(barcode);
         if (!logs.isEmpty()) {
             // Get the most recent log entry
             Logs latestLog = logs.stream()
@@ -2,24 +2,32 @@ package com.inventory.service;
 
 import java.time.ZonedDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.inventory.exception.ResourceNotFoundException;
 import com.inventory.exception.InvalidInputException;
 import com.inventory.model.BoxNumber;
+import com.inventory.model.BoxNumberCounter;
 import com.inventory.model.Logs;
 import com.inventory.model.ProductCatalog;
 import com.inventory.model.CurrentStock;
 import com.inventory.model.Lend;
 import com.inventory.repository.BoxNumberRepository;
+import com.inventory.repository.BoxNumberCounterRepository;
 import com.inventory.repository.LogsRepository;
 import com.inventory.repository.ProductCatalogRepository;
 import com.inventory.repository.CurrentStockRepository;
 import com.inventory.repository.LendRepository;
+import com.inventory.util.BarcodePairUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -38,11 +46,17 @@ public class BoxNumberService {
     @Autowired
     private BoxNumberRepository boxNumberRepository;
     
+    @Autowired
+    private BoxNumberCounterRepository boxNumberCounterRepository;
+    
     @Autowired
     private ProductCatalogRepository productCatalogRepository;
     
     @Autowired
     private LogsRepository logsRepository;
+
+    @Autowired
+    private LogOutboxService logOutboxService;
     
     @Autowired
     private CurrentStockRepository currentStockRepository;
@@ -60,8 +74,14 @@ public class BoxNumberService {
     
     /**
      * Get the next available box number for a given box barcode and product name
+     * Reads the per-product counter, falling back to the highest box number for products without one
      */
     public Integer getNextBoxNumber(String boxBarcode, String productName) {
+        Optional<BoxNumberCounter> counter = boxNumberCounterRepository.findByBoxBarcodeAndProductName(boxBarcode, productName);
+        if (counter.isPresent()) {
+            return counter.get().getLastBoxNumber() + 1;
+        }
+        
         Integer highestBoxNumber = getHighestBoxNumber(boxBarcode, productName);
         return highestBoxNumber + 1;
     }
@@ -78,8 +98,8 @@ public class BoxNumberService {
             productName = product.getProductName();
         }
         
-        // Get the next box number
-        Integer nextBoxNumber = getNextBoxNumber(boxBarcode, productName);
+        // Reserve the next box number from the per-product counter
+        Integer nextBoxNumber = boxNumberCounterRepository.allocateBoxNumbers(boxBarcode, productName, 1);
         
         // Create a new box number entry
         BoxNumber boxNumber = new BoxNumber();
@@ -93,9 +113,11 @@ public class BoxNumberService {
     
     /**
      * Create a box number entry if it doesn't already exist or if the existing one is inactive
+     * Allocation goes through the per-product counter row, so concurrent calls only wait on
+     * each other when they add the same product, also across multiple app instances
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public synchronized BoxNumber createBoxNumberIfNeeded(String boxBarcode, String productName, String productBarcode) {
+    @Transactional
+    public BoxNumber createBoxNumberIfNeeded(String boxBarcode, String productName, String productBarcode) {
         logger.info("Creating box number if needed: boxBarcode={}, productName={}, productBarcode={}", 
                    boxBarcode, productName, productBarcode);
         
@@ -104,6 +126,74 @@ public class BoxNumberService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + boxBarcode));
         
         // For serialized products, validate product barcode
+        validateProductBarcode(product, productBarcode);
+        
+        // Create new box number
+        return createNewBoxNumber(boxBarcode, productName != null ? productName : product.getProductName(), productBarcode);
+    }
+    
+    /**
+     * Create box number entries for a batch of product barcodes
+     * All barcodes are validated first, then the whole block of box numbers is reserved with one statement
+     * 
+     * @return The created box numbers in the same order as the product barcodes
+     */
+    @Transactional
+    public List<BoxNumber> createBoxNumbersIfNeeded(String boxBarcode, String productName, List<String> productBarcodes) {
+        if (productBarcodes == null || productBarcodes.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        logger.info("Creating {} box numbers: boxBarcode={}, productName={}", 
+                   productBarcodes.size(), boxBarcode, productName);
+        
+        // Get product to check if it's a serialized product
+        ProductCatalog product = productCatalogRepository.findById(boxBarcode)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + boxBarcode));
+        String resolvedProductName = productName != null ? productName : product.getProductName();
+        
+        // Validate every barcode before reserving any numbers
+        Set<String> batchBarcodes = new HashSet<>();
+        Map<String, String> batchPairKeys = new HashMap<>();
+        for (String productBarcode : productBarcodes) {
+            validateProductBarcode(product, productBarcode);
+            
+            if (product.getNumberSn() > 0) {
+                // The same barcode cannot be added twice in one batch
+                if (!batchBarcodes.add(productBarcode)) {
+                    throw new InvalidInputException("Product barcode already exists and is not available for reuse: " + productBarcode);
+                }
+                
+                // For paired products (SN=2), barcodes in the batch cannot be pairs of each other
+                if (product.getNumberSn() == 2) {
+                    validatePairedBarcodeInBatch(batchPairKeys, productBarcode);
+                }
+            }
+        }
+        
+        // Reserve the whole block of box numbers in one statement
+        int lastBoxNumber = boxNumberCounterRepository.allocateBoxNumbers(boxBarcode, resolvedProductName, productBarcodes.size());
+        int nextBoxNumber = lastBoxNumber - productBarcodes.size() + 1;
+        
+        ZonedDateTime now = ZonedDateTime.now(ZoneId.of("Asia/Bangkok"));
+        List<BoxNumber> boxNumbers = new ArrayList<>();
+        for (String productBarcode : productBarcodes) {
+            BoxNumber boxNumber = new BoxNumber();
+            boxNumber.setBoxBarcode(boxBarcode);
+            boxNumber.setProductName(resolvedProductName);
+            boxNumber.setProductBarcode(productBarcode);
+            boxNumber.setBoxNumber(nextBoxNumber++);
+            boxNumber.setLastUpdated(now);
+            boxNumbers.add(boxNumber);
+        }
+        
+        return boxNumberRepository.saveAll(boxNumbers);
+    }
+    
+    /**
+     * Validate a product barcode before creating a box number for it
+     */
+    private void validateProductBarcode(ProductCatalog product, String productBarcode) {
         if (product.getNumberSn() > 0) {
             // Require product barcode for serialized products
             if (productBarcode == null || productBarcode.isEmpty()) {
@@ -118,126 +208,77 @@ public class BoxNumberService {
             
             // For paired products (SN=2), perform additional validation
             if (product.getNumberSn() == 2) {
-                validatePairedBarcode(boxBarcode, productBarcode);
+                validatePairedBarcode(product.getBoxBarcode(), productBarcode);
             }
         }
-        
-        // Create new box number
-        return createNewBoxNumber(boxBarcode, productName, productBarcode);
     }
     
     /**
-     * Validate a barcode for a paired product (SN=2)
+     * Validate that a barcode is not paired with a barcode earlier in the same batch
+     * The batch map holds the pair key (or the barcode itself when it has no usable number) of each accepted barcode
      */
-    private void validatePairedBarcode(String boxBarcode, String productBarcode) {
-        // Get all box numbers for this box barcode
-        List<BoxNumber> existingBoxNumbers = boxNumberRepository.findByBoxBarcode(boxBarcode);
-        
-        for (BoxNumber existing : existingBoxNumbers) {
-            if (existing.getProductBarcode() != null && !existing.getProductBarcode().isEmpty()) {
-                // Check if they appear to be a pair
-                if (arePotentialPairs(existing.getProductBarcode(), productBarcode)) {
-                    throw new InvalidInputException("Potential duplicate barcode detected: " + 
-                                                  productBarcode + " appears to be paired with existing barcode " + 
-                                                  existing.getProductBarcode());
-                }
-            }
+    private void validatePairedBarcodeInBatch(Map<String, String> batchPairKeys, String productBarcode) {
+        String pairKey = BarcodePairUtils.pairKey(productBarcode);
+        String partnerKey;
+        if (pairKey != null) {
+            String partnerPairKey = BarcodePairUtils.partnerPairKey(productBarcode);
+            partnerKey = partnerPairKey != null ? "N:" + partnerPairKey : null;
+        } else {
+            String partnerBarcode = BarcodePairUtils.fallbackPartnerBarcode(productBarcode);
+            partnerKey = partnerBarcode != null ? "B:" + partnerBarcode : null;
         }
-    }
-    
-    /**
-     * Check if two barcodes are potential pairs
-     */
-    private boolean arePotentialPairs(String barcode1, String barcode2) {
-        try {
-            // Try to extract numbers from the barcodes
-            String num1Str = extractNumberFromBarcode(barcode1);
-            String num2Str = extractNumberFromBarcode(barcode2);
-            int num1 = Integer.parseInt(num1Str);
-            int num2 = Integer.parseInt(num2Str);
-            
-            // Check if they follow the pairing rule:
-            // odd pairs with odd+1, even pairs with even-1
-            if ((num1 % 2 != 0 && num2 == num1 + 1) || // odd pairs with odd+1
-                (num1 % 2 == 0 && num2 == num1 - 1)) { // even pairs with even-1
-                return true;
-            }
-            
-            return false;
-        } catch (Exception e) {
-            // If we can't extract numbers or there's an error, fall back to character-by-character comparison
-            // If they're the same length and differ by only 1-2 characters
-            if (barcode1.length() == barcode2.length()) {
-                int differences = 0;
-                int diffPosition = -1;
-                
-                for (int i = 0; i < barcode1.length(); i++) {
-                    if (barcode1.charAt(i) != barcode2.charAt(i)) {
-                        differences++;
-                        diffPosition = i;
-                    }
-                }
-                
-                // If they differ by only 1 character
-                if (differences == 1) {
-                    // Check if the difference is at the end and is a common pair pattern
-                    if (diffPosition == barcode1.length() - 1) {
-                        char c1 = barcode1.charAt(diffPosition);
-                        char c2 = barcode2.charAt(diffPosition);
-                        
-                        // Check for common pair patterns: A/B, 1/2
-                        return (c1 == 'A' && c2 == 'B') || (c1 == 'B' && c2 == 'A') ||
-                               (c1 == '1' && c2 == '2') || (c1 == '2' && c2 == '1');
-                    }
-                }
-            }
-            
-            return false;
+        
+        if (partnerKey != null && batchPairKeys.containsKey(partnerKey)) {
+            throw new InvalidInputException("Potential duplicate barcode detected: " + 
+                                          productBarcode + " appears to be paired with existing barcode " + 
+                                          batchPairKeys.get(partnerKey));
         }
+        
+        batchPairKeys.put(pairKey != null ? "N:" + pairKey : "B:" + productBarcode, productBarcode);
     }
     
     /**
-     * Extract a number from a barcode
+     * Validate a barcode for a paired product (SN=2)
+     * Looks up the partner by pair key instead of scanning every box number of the product
      */
-    private String extractNumberFromBarcode(String barcode) {
-        // If the barcode ends with a number, extract it
-        if (barcode.matches(".*\\d+$")) {
-            String numberPart = barcode.replaceAll("^.*?(?=(\\d+)$)", "");
-            return numberPart;  // Return as string to preserve leading zeros
-        } else if (barcode.matches(".*\\d+.*")) {
-            // If there are numbers in the middle, extract the last one
-            String[] parts = barcode.split("(?<=\\D)(?=\\d)|(?<=\\d)(?=\\D)");
-            for (int i = parts.length - 1; i >= 0; i--) {
-                if (parts[i].matches("\\d+")) {
-                    return parts[i];  // Return as string to preserve leading zeros
-                }
-            }
+    private void validatePairedBarcode(String boxBarcode, String productBarcode) {
+        Optional<BoxNumber> existingPair;
+        
+        String partnerPairKey = BarcodePairUtils.partnerPairKey(productBarcode);
+        if (partnerPairKey != null) {
+            // Barcode has a number, find the unit following the odd/even rule
+            existingPair = boxNumberRepository.findFirstByBoxBarcodeAndPairKey(boxBarcode, partnerPairKey);
+        } else if (BarcodePairUtils.pairKey(productBarcode) == null) {
+            // No usable number, fall back to the A/B and 1/2 suffix rule
+            String partnerBarcode = BarcodePairUtils.fallbackPartnerBarcode(productBarcode);
+            existingPair = partnerBarcode != null
+                    ? boxNumberRepository.findFirstByBoxBarcodeAndProductBarcode(boxBarcode, partnerBarcode)
+                    : Optional.empty();
+        } else {
+            // Number has no partner (e.g. 0)
+            existingPair = Optional.empty();
         }
         
-        // No number found
-        throw new NumberFormatException("No number found in barcode: " + barcode);
+        if (existingPair.isPresent()) {
+            throw new InvalidInputException("Potential duplicate barcode detected: " + 
+                                          productBarcode + " appears to be paired with existing barcode " + 
+                                          existingPair.get().getProductBarcode());
+        }
     }
     
     /**
      * Create a new box number
      */
     private BoxNumber createNewBoxNumber(String boxBarcode, String productName, String productBarcode) {
-        // If productName is null, retrieve it from the database
-        if (productName == null) {
-            ProductCatalog product = productCatalogRepository.findById(boxBarcode)
-                    .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + boxBarcode));
-            productName = product.getProductName();
-        }
-        
-        // Get the highest box number for this product
-        Integer highestBoxNumber = getHighestBoxNumber(boxBarcode, productName);
+        // Reserve the next box number from the per-product counter
+        Integer nextBoxNumber = boxNumberCounterRepository.allocateBoxNumbers(boxBarcode, productName, 1);
         
         // Create new box number
         BoxNumber boxNumber = new BoxNumber();
         boxNumber.setBoxBarcode(boxBarcode);
         boxNumber.setProductName(productName);
         boxNumber.setProductBarcode(productBarcode);
-        boxNumber.setBoxNumber(highestBoxNumber + 1);
+        boxNumber.setBoxNumber(nextBoxNumber);
         boxNumber.setLastUpdated(ZonedDateTime.now(ZoneId.of("Asia/Bangkok")));
         
         return boxNumberRepository.save(boxNumber);
@@ -306,7 +347,7 @@ public class BoxNumberService {
         }
         
         // Check logs for this product barcode
-        List<Logs> logs = logsRepository.findByProductBarcode(productBarcode);
+        List<Logs> logs = logOutboxService.findByProductBarcode(productBarcode);
         
         // If no logs found, the barcode has never been used and is available
         if (logs.isEmpty()) {
@@ -35,6 +35,9 @@ public class BrokenOrderService {
     
     @Autowired
     private LogsRepository logsRepository;
+
+    @Autowired
+    private LogOutboxService logOutboxService;
     
     @Autowired
     private BrokenIdRepository brokenIdRepository;
@@ -180,7 +183,7 @@ public class BrokenOrderService {
      */
     private String findBoxBarcodeForProductBarcode(String productBarcode) {
         // Query the logs to find the most recent entry for this product barcode
-        return logsRepository.findBoxBarcodeByProductBarcode(productBarcode)
+        return logOutboxService.findBoxBarcodeByProductBarcode(productBarcode)
                 .orElseThrow(() -> new ResourceNotFoundException("Product barcode not found: " + productBarcode));
     }
 } 
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.inventory.model.Broken;
 import com.inventory.model.BrokenId;
 import com.inventory.repository.BrokenRepository;
 import com.inventory.repository.BrokenIdRepository;
+import com.inventory.util.InventoryUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -115,7 +116,7 @@ public class BrokenService {
      * Generate a default order ID for broken items if none provided
      */
     private String generateDefaultOrderId() {
-        return "BROKEN-" + System.currentTimeMillis();
+        return InventoryUtils.generateOrderId("BROKEN");
     }
 
     /**
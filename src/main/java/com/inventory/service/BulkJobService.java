@@ -0,0 +1,656 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.dto.BulkRemoveDTO;
+import com.inventory.dto.LentItemBatchProcessDTO;
+import com.inventory.dto.ProductIdentifierDTO;
+import com.inventory.dto.SalesOrderDTO;
+import com.inventory.dto.StockAdditionDTO;
+import com.inventory.exception.InvalidInputException;
+import com.inventory.exception.ResourceNotFoundException;
+import com.inventory.model.BulkJob;
+import com.inventory.model.BulkJobError;
+import com.inventory.model.ProductCatalog;
+import com.inventory.repository.BulkJobErrorRepository;
+import com.inventory.repository.BulkJobRepository;
+import com.inventory.repository.CurrentStockRepository;
+import com.inventory.repository.InvoiceRepository;
+import com.inventory.repository.ProductCatalogRepository;
+import com.inventory.util.InventoryUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Service for background bulk jobs
+ *
+ * A bulk request is stored as a job and answered with its ID right away. A small worker pool runs
+ * the jobs: the request is split into items (barcodes, identifiers) that are committed in chunks
+ * through the same service methods as the synchronous endpoints, one transaction per chunk. The
+ * chunk transaction also moves the job's checkpoint, so a chunk is applied exactly once. When a
+ * chunk fails, its items are retried one by one (the two barcodes of a pair together) and only the
+ * failing items are recorded as errors.
+ *
+ * Jobs are claimed through the database with a heartbeat, so a job left behind by a stopped
+ * instance is resumed from its checkpoint by any other instance.
+ */
+@Service
+public class BulkJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkJobService.class);
+
+    public static final String STOCK_ADD = "stock-add";
+    public static final String STOCK_REMOVE = "stock-remove";
+    public static final String SALES_ORDER = "sales-order";
+    public static final String LENT_PROCESS = "lent-process";
+
+    static final String QUEUED = "QUEUED";
+    static final String RUNNING = "RUNNING";
+    static final String COMPLETED = "COMPLETED";
+    static final String FAILED = "FAILED";
+
+    @Value("${inventory.jobs.workers:2}")
+    private int workers;
+
+    @Value("${inventory.jobs.chunk-size:50}")
+    private int chunkSize;
+
+    @Value("${inventory.jobs.lease-ms:300000}")
+    private long leaseMs;
+
+    @Autowired
+    private BulkJobRepository bulkJobRepository;
+
+    @Autowired
+    private BulkJobErrorRepository bulkJobErrorRepository;
+
+    @Autowired
+    private ProductCatalogRepository productCatalogRepository;
+
+    @Autowired
+    private CurrentStockRepository currentStockRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private SalesOrderService salesOrderService;
+
+    @Autowired
+    private LentOrderService lentOrderService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ExecutorService executor;
+
+    // Jobs executing on this instance
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-job-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        // Interrupted jobs keep their checkpoint and are resumed once their heartbeat is stale
+        executor.shutdownNow();
+    }
+
+    /**
+     * Submit a bulk stock addition
+     */
+    public BulkJob submitStockAddition(StockAdditionDTO request) {
+        ProductCatalog product = findProduct(request.getBoxBarcode());
+        if (product.getNumberSn() > 0) {
+            if (request.getProductBarcodes() == null || request.getProductBarcodes().isEmpty()) {
+                throw new InvalidInputException("Product barcodes are required for serialized products");
+            }
+            if (request.getQuantity() == null || request.getQuantity() != request.getProductBarcodes().size()) {
+                throw new InvalidInputException("Quantity must match the number of product barcodes for serialized products");
+            }
+            if (product.getNumberSn() == 2) {
+                // Keep the barcodes of a pair next to each other so a pair never spans two chunks
+                request.setProductBarcodes(groupPairs(request.getProductBarcodes()));
+            }
+        } else if (request.getQuantity() == null || request.getQuantity() <= 0) {
+            throw new InvalidInputException("Quantity must be greater than zero for non-serialized products");
+        }
+        return submit(STOCK_ADD, null, request);
+    }
+
+    /**
+     * Submit a bulk stock removal
+     */
+    public BulkJob submitStockRemoval(BulkRemoveDTO request) {
+        ProductCatalog product = findProduct(request.getBoxBarcode());
+        if (request.getQuantity() == null || request.getQuantity() <= 0) {
+            throw new InvalidInputException("Quantity must be greater than zero");
+        }
+        if (product.getNumberSn() > 0) {
+            if (request.getProductBarcodes() == null || request.getProductBarcodes().isEmpty()) {
+                throw new InvalidInputException("Product barcodes are required for serialized products");
+            }
+            if (request.getQuantity() != request.getProductBarcodes().size()) {
+                throw new InvalidInputException("Quantity must match the number of product barcodes for serialized products");
+            }
+        } else if (request.getProductBarcodes() != null && !request.getProductBarcodes().isEmpty()) {
+            throw new InvalidInputException("Product barcodes should not be provided for non-serialized products");
+        }
+        return submit(STOCK_REMOVE, null, request);
+    }
+
+    /**
+     * Submit a sales order
+     * The invoice is created with the first chunk; later chunks add to the same order.
+     */
+    public BulkJob submitSalesOrder(SalesOrderDTO request) {
+        InventoryUtils.validateRequired(request.getShopName(), "Shop name");
+        InventoryUtils.validateRequired(request.getOrderId(), "Order ID");
+        if (!invoiceRepository.findByInvoice(request.getOrderId()).isEmpty()) {
+            throw new InvalidInputException("Sales order ID already exists: " + request.getOrderId());
+        }
+
+        // Store the merged product list so items keep their position
+        SalesOrderDTO stored = copySalesOrder(request, request.getAllProducts());
+        if (stored.getProducts().isEmpty()) {
+            throw new InvalidInputException("No products specified in the order");
+        }
+        return submit(SALES_ORDER, request.getOrderId(), stored);
+    }
+
+    /**
+     * Submit the processing of lent items of an order
+     */
+    public BulkJob submitLentProcessing(String orderId, LentItemBatchProcessDTO request) {
+        InventoryUtils.validateRequired(orderId, "Order ID");
+        InventoryUtils.validateRequired(request.getEmployeeId(), "Employee ID");
+        return submit(LENT_PROCESS, orderId, request);
+    }
+
+    /**
+     * Get a job
+     */
+    public BulkJob getJob(String jobId) {
+        return bulkJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Job not found: " + jobId));
+    }
+
+    /**
+     * Get jobs, newest first
+     * @param status Optional status filter
+     */
+    public Page<BulkJob> getJobs(String status, int page, int size) {
+        PageRequest pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
+        return status != null && !status.isEmpty()
+                ? bulkJobRepository.findByStatus(status.toUpperCase(), pageable)
+                : bulkJobRepository.findAll(pageable);
+    }
+
+    /**
+     * Get the failed items of a job
+     */
+    public Page<BulkJobError> getErrors(String jobId, int page, int size) {
+        getJob(jobId);
+        return bulkJobErrorRepository.findByJobIdOrderByItemIndex(jobId, PageRequest.of(page, size));
+    }
+
+    /**
+     * Start waiting jobs while this instance has free workers
+     */
+    @Scheduled(fixedDelayString = "${inventory.jobs.poll-ms:1000}")
+    public void dispatch() {
+        int free = workers - running.size();
+        if (free <= 0) {
+            return;
+        }
+
+        try {
+            ZonedDateTime now = now();
+            ZonedDateTime staleBefore = now.minusNanos(leaseMs * 1_000_000);
+            for (String jobId : bulkJobRepository.findRunnableJobIds(staleBefore, PageRequest.of(0, free))) {
+                if (running.contains(jobId)) {
+                    continue;
+                }
+                Integer claimed = transactionTemplate.execute(status -> bulkJobRepository.claim(jobId, now, staleBefore));
+                if (claimed != null && claimed == 1) {
+                    running.add(jobId);
+                    executor.execute(() -> run(jobId));
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error dispatching bulk jobs: {}", e.getMessage(), e);
+        }
+    }
+
+    private BulkJob submit(String type, String orderId, Object request) {
+        BulkJob job = new BulkJob();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setType(type);
+        job.setStatus(QUEUED);
+        job.setOrderId(orderId);
+        job.setRequest(toJson(request));
+        job.setTotalItems(items(type, request).size());
+        job.setProcessedItems(0);
+        job.setFailedItems(0);
+        job.setCreatedBy(currentUser());
+        job.setCreatedAt(now());
+
+        if (job.getTotalItems() == 0) {
+            throw new InvalidInputException("No items to process");
+        }
+
+        BulkJob saved = bulkJobRepository.save(job);
+        logger.info("Submitted {} job {} with {} items", type, saved.getJobId(), saved.getTotalItems());
+
+        // Start right away if a worker is free
+        dispatch();
+        return saved;
+    }
+
+    /**
+     * Execute a claimed job from its checkpoint to the end
+     */
+    private void run(String jobId) {
+        try {
+            BulkJob job = getJob(jobId);
+            Object request = objectMapper.readValue(job.getRequest(), requestType(job.getType()));
+            List<String> items = items(job.getType(), request);
+            boolean pairs = STOCK_ADD.equals(job.getType())
+                    && findProduct(((StockAdditionDTO) request).getBoxBarcode()).getNumberSn() == 2;
+
+            int from = job.getProcessedItems();
+            if (from > 0) {
+                logger.info("Resuming {} job {} at item {} of {}", job.getType(), jobId, from, items.size());
+            }
+            while (from < items.size()) {
+                int to = chunkEnd(items, pairs, from);
+                executeChunk(job, request, items, pairs, from, to);
+                from = to;
+            }
+
+            String result = toJson(summarize(job, request));
+            transactionTemplate.executeWithoutResult(status -> {
+                BulkJob finished = getJob(jobId);
+                finished.setStatus(COMPLETED);
+                finished.setResult(result);
+                finished.setFinishedAt(now());
+                bulkJobRepository.save(finished);
+            });
+            logger.info("Completed job {}", jobId);
+        } catch (JobTakenOverException e) {
+            logger.warn("Job {} was taken over by another instance", jobId);
+        } catch (Exception e) {
+            logger.error("Job {} failed: {}", jobId, e.getMessage(), e);
+            markFailed(jobId, e.getMessage());
+        } finally {
+            running.remove(jobId);
+        }
+    }
+
+    /**
+     * Commit items [from, to) in one transaction, or unit by unit if that fails
+     * A unit is one item, or the two barcodes of a pair: retried alone, a barcode would be
+     * added as half of a pair and its real partner would then fail as a duplicate.
+     */
+    private void executeChunk(BulkJob job, Object request, List<String> items, boolean pairs, int from, int to) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                moveCheckpoint(job.getJobId(), from, to, 0);
+                commitItems(job, request, items, from, to);
+            });
+            return;
+        } catch (JobTakenOverException e) {
+            throw e;
+        } catch (Exception e) {
+            if (unitEnd(items, pairs, from, to) == to) {
+                recordFailure(job, items, from, to, e);
+                return;
+            }
+            logger.warn("Chunk {}-{} of job {} failed, retrying its items one by one: {}", from, to, job.getJobId(), e.getMessage());
+        }
+
+        int unitFrom = from;
+        while (unitFrom < to) {
+            int start = unitFrom;
+            int end = unitEnd(items, pairs, start, to);
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    moveCheckpoint(job.getJobId(), start, end, 0);
+                    commitItems(job, request, items, start, end);
+                });
+            } catch (JobTakenOverException e) {
+                throw e;
+            } catch (Exception unitError) {
+                recordFailure(job, items, start, end, unitError);
+            }
+            unitFrom = end;
+        }
+    }
+
+    private void moveCheckpoint(String jobId, int from, int to, int failed) {
+        if (bulkJobRepository.checkpoint(jobId, from, to, failed, now()) != 1) {
+            throw new JobTakenOverException();
+        }
+    }
+
+    /**
+     * Record items [from, to) as failed and move the checkpoint past them
+     */
+    private void recordFailure(BulkJob job, List<String> items, int from, int to, Exception e) {
+        transactionTemplate.executeWithoutResult(status -> {
+            moveCheckpoint(job.getJobId(), from, to, to - from);
+            for (int index = from; index < to; index++) {
+                BulkJobError error = new BulkJobError();
+                error.setJobId(job.getJobId());
+                error.setItemIndex(index);
+                error.setItem(items.get(index));
+                error.setMessage(e.getMessage());
+                error.setTimestamp(now());
+                bulkJobErrorRepository.save(error);
+            }
+        });
+    }
+
+    private void markFailed(String jobId, String message) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> bulkJobRepository.findById(jobId).ifPresent(job -> {
+                job.setStatus(FAILED);
+                job.setError(message);
+                job.setFinishedAt(now());
+                bulkJobRepository.save(job);
+            }));
+        } catch (Exception e) {
+            logger.error("Could not mark job {} as failed: {}", jobId, e.getMessage());
+        }
+    }
+
+    /**
+     * Split a request into its items
+     * Must return the same list for the same request, since the checkpoint is an item position.
+     */
+    private List<String> items(String type, Object request) {
+        switch (type) {
+            case STOCK_ADD: {
+                StockAdditionDTO addition = (StockAdditionDTO) request;
+                return addition.getProductBarcodes() != null && !addition.getProductBarcodes().isEmpty()
+                        ? addition.getProductBarcodes()
+                        : List.of(addition.getBoxBarcode() + ":" + addition.getQuantity());
+            }
+            case STOCK_REMOVE: {
+                BulkRemoveDTO removal = (BulkRemoveDTO) request;
+                return removal.getProductBarcodes() != null && !removal.getProductBarcodes().isEmpty()
+                        ? removal.getProductBarcodes()
+                        : List.of(removal.getBoxBarcode() + ":" + removal.getQuantity());
+            }
+            case SALES_ORDER:
+                return ((SalesOrderDTO) request).getProducts().stream()
+                        .map(ProductIdentifierDTO::getIdentifier)
+                        .collect(Collectors.toList());
+            case LENT_PROCESS: {
+                // Same order as the synchronous processing: splits, returns, sales, broken
+                LentItemBatchProcessDTO lentRequest = (LentItemBatchProcessDTO) request;
+                List<String> items = new ArrayList<>();
+                if (lentRequest.getSplitDestinations() != null) {
+                    lentRequest.getSplitDestinations().keySet().forEach(identifier -> items.add("split:" + identifier));
+                }
+                addPrefixed(items, "return", lentRequest.getReturnToStock());
+                addPrefixed(items, "sales", lentRequest.getMoveToSales());
+                addPrefixed(items, "broken", lentRequest.getMarkAsBroken());
+                return items;
+            }
+            default:
+                throw new InvalidInputException("Unsupported job type: " + type);
+        }
+    }
+
+    /**
+     * Get the end of the chunk starting at an item position
+     */
+    private int chunkEnd(List<String> items, boolean pairs, int from) {
+        int to = Math.min(from + chunkSize, items.size());
+        // The barcodes of a pair were grouped at submit; keep the pair in one chunk
+        if (pairs && to < items.size() && isPairOfPrevious(items, to)) {
+            to++;
+        }
+        return to;
+    }
+
+    /**
+     * Get the end of the retry unit starting at an item position, within a chunk ending at to
+     */
+    private int unitEnd(List<String> items, boolean pairs, int from, int to) {
+        return pairs && from + 1 < to && isPairOfPrevious(items, from + 1) ? from + 2 : from + 1;
+    }
+
+    private boolean isPairOfPrevious(List<String> items, int index) {
+        return items.get(index).equals(stockService.findPairBarcode(items.get(index - 1)));
+    }
+
+    /**
+     * Commit items [from, to) through the service method of the job type
+     */
+    private void commitItems(BulkJob job, Object request, List<String> items, int from, int to) {
+        List<String> chunk = items.subList(from, to);
+        switch (job.getType()) {
+            case STOCK_ADD: {
+                StockAdditionDTO addition = (StockAdditionDTO) request;
+                if (addition.getProductBarcodes() == null || addition.getProductBarcodes().isEmpty()) {
+                    stockService.addStockBulk(addition);
+                    return;
+                }
+                StockAdditionDTO part = new StockAdditionDTO();
+                part.setBoxBarcode(addition.getBoxBarcode());
+                part.setProductBarcodes(chunk);
+                part.setQuantity(chunk.size());
+                part.setNote(addition.getNote());
+                stockService.addStockBulk(part);
+                return;
+            }
+            case STOCK_REMOVE: {
+                BulkRemoveDTO removal = (BulkRemoveDTO) request;
+                if (removal.getProductBarcodes() == null || removal.getProductBarcodes().isEmpty()) {
+                    stockService.removeStockBulk(removal);
+                    return;
+                }
+                BulkRemoveDTO part = new BulkRemoveDTO();
+                part.setBoxBarcode(removal.getBoxBarcode());
+                part.setProductBarcodes(chunk);
+                part.setQuantity(chunk.size());
+                part.setNote(removal.getNote());
+                stockService.removeStockBulk(part);
+                return;
+            }
+            case SALES_ORDER: {
+                SalesOrderDTO order = (SalesOrderDTO) request;
+                salesOrderService.processScannedSalesItems(copySalesOrder(order, order.getProducts().subList(from, to)));
+                return;
+            }
+            case LENT_PROCESS:
+                lentOrderService.processBatchLentItems(job.getOrderId(), lentPart((LentItemBatchProcessDTO) request, chunk));
+                return;
+            default:
+                throw new InvalidInputException("Unsupported job type: " + job.getType());
+        }
+    }
+
+    /**
+     * Build the lent processing request for some items of the original one
+     */
+    private static LentItemBatchProcessDTO lentPart(LentItemBatchProcessDTO request, List<String> chunk) {
+        LentItemBatchProcessDTO part = new LentItemBatchProcessDTO();
+        part.setEmployeeId(request.getEmployeeId());
+        part.setShopName(request.getShopName());
+        part.setNote(request.getNote());
+        part.setSalesOrderId(request.getSalesOrderId());
+        part.setCondition(request.getCondition());
+        part.setSplitPairs(request.isSplitPairs());
+        part.setIsDirectSales(request.getIsDirectSales());
+
+        Map<String, Map<String, Integer>> splits = new LinkedHashMap<>();
+        Map<String, List<String>> lists = new HashMap<>();
+        for (String item : chunk) {
+            int separator = item.indexOf(':');
+            String destination = item.substring(0, separator);
+            String identifier = item.substring(separator + 1);
+            if ("split".equals(destination)) {
+                splits.put(identifier, request.getSplitDestinations().get(identifier));
+            } else {
+                lists.computeIfAbsent(destination, k -> new ArrayList<>()).add(identifier);
+            }
+        }
+        part.setSplitDestinations(splits);
+        part.setReturnToStock(lists.get("return"));
+        part.setMoveToSales(lists.get("sales"));
+        part.setMarkAsBroken(lists.get("broken"));
+        return part;
+    }
+
+    /**
+     * Summarize the outcome of a finished job
+     */
+    private Map<String, Object> summarize(BulkJob job, Object request) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        switch (job.getType()) {
+            case STOCK_ADD:
+            case STOCK_REMOVE: {
+                String boxBarcode = request instanceof StockAdditionDTO
+                        ? ((StockAdditionDTO) request).getBoxBarcode()
+                        : ((BulkRemoveDTO) request).getBoxBarcode();
+                summary.put("boxBarcode", boxBarcode);
+                summary.put("quantity", currentStockRepository.findByBoxBarcode(boxBarcode).stream()
+                        .mapToLong(stock -> stock.getQuantity() != null ? stock.getQuantity() : 0)
+                        .sum());
+                break;
+            }
+            default:
+                summary.put("orderId", job.getOrderId());
+                break;
+        }
+        return summary;
+    }
+
+    private static Class<?> requestType(String type) {
+        switch (type) {
+            case STOCK_ADD:
+                return StockAdditionDTO.class;
+            case STOCK_REMOVE:
+                return BulkRemoveDTO.class;
+            case SALES_ORDER:
+                return SalesOrderDTO.class;
+            case LENT_PROCESS:
+                return LentItemBatchProcessDTO.class;
+            default:
+                throw new InvalidInputException("Unsupported job type: " + type);
+        }
+    }
+
+    private static SalesOrderDTO copySalesOrder(SalesOrderDTO order, List<ProductIdentifierDTO> products) {
+        SalesOrderDTO copy = new SalesOrderDTO();
+        copy.setOrderId(order.getOrderId());
+        copy.setEmployeeId(order.getEmployeeId());
+        copy.setShopName(order.getShopName());
+        copy.setNote(order.getNote());
+        copy.setIsDirectSales(order.getIsDirectSales());
+        copy.setSplitPair(order.getSplitPair());
+        copy.setProducts(products);
+        return copy;
+    }
+
+    /**
+     * Reorder barcodes so each one is followed by its pair, if the pair is in the request
+     */
+    private List<String> groupPairs(List<String> barcodes) {
+        Set<String> remaining = new LinkedHashSet<>(barcodes);
+        List<String> grouped = new ArrayList<>(barcodes.size());
+        for (String barcode : barcodes) {
+            if (remaining.remove(barcode)) {
+                grouped.add(barcode);
+                String pairBarcode = stockService.findPairBarcode(barcode);
+                if (remaining.remove(pairBarcode)) {
+                    grouped.add(pairBarcode);
+                }
+            }
+        }
+        return grouped;
+    }
+
+    private static void addPrefixed(List<String> items, String prefix, List<String> identifiers) {
+        if (identifiers != null) {
+            identifiers.forEach(identifier -> items.add(prefix + ":" + identifier));
+        }
+    }
+
+    private ProductCatalog findProduct(String boxBarcode) {
+        InventoryUtils.validateRequired(boxBarcode, "Box barcode");
+        return productCatalogRepository.findById(boxBarcode)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with box barcode: " + boxBarcode));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new InvalidInputException("Invalid job request: " + e.getMessage());
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private static ZonedDateTime now() {
+        return ZonedDateTime.now(ZoneId.of("Asia/Bangkok"));
+    }
+
+    /**
+     * The checkpoint moved on without this executor: another instance resumed the job
+     */
+    private static class JobTakenOverException extends RuntimeException {
+    }
+}
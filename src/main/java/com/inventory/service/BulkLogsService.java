@@ -96,6 +96,7 @@ public class BulkLogsService {
     /**
      * Get bulk logs by date
      */
+    @Transactional(readOnly = true)
     public List<BulkLogs> getBulkLogsByDate(LocalDate date) {
         return bulkLogsRepository.findByDate(date);
     }
@@ -103,6 +104,7 @@ public class BulkLogsService {
     /**
      * Get bulk logs by date range
      */
+    @Transactional(readOnly = true)
     public List<BulkLogs> getBulkLogsByDateRange(LocalDate startDate, LocalDate endDate) {
         return bulkLogsRepository.findByDateBetween(startDate, endDate);
     }
@@ -110,6 +112,7 @@ public class BulkLogsService {
     /**
      * Get bulk logs by box barcode
      */
+    @Transactional(readOnly = true)
     public List<BulkLogs> getBulkLogsByBoxBarcode(String boxBarcode) {
         return bulkLogsRepository.findByBoxBarcode(boxBarcode);
     }
@@ -117,6 +120,7 @@ public class BulkLogsService {
     /**
      * Get bulk logs by product name
      */
+    @Transactional(readOnly = true)
     public List<BulkLogs> getBulkLogsByProductName(String productName) {
         return bulkLogsRepository.findByProductName(productName);
     }
@@ -124,6 +128,7 @@ public class BulkLogsService {
     /**
      * Get bulk logs by operation
      */
+    @Transactional(readOnly = true)
     public List<BulkLogs> getBulkLogsByOperation(String operation) {
         return bulkLogsRepository.findByOperation(operation);
     }
@@ -0,0 +1,331 @@
+package com.inventory.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Service for invalidating in-process caches on every app instance
+ *
+ * Write paths publish the cache name and key of what they changed. The messages are sent with
+ * Postgres NOTIFY inside the writing transaction, so they are delivered only if it commits.
+ * Every instance listens on a dedicated connection and evicts the key from the caches registered
+ * under that name. After a lost listener connection the registered caches are cleared completely,
+ * since messages sent while disconnected are not replayed.
+ */
+@Service
+public class CacheInvalidationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationService.class);
+
+    public static final String CATALOG = "catalog";
+    public static final String INVOICE = "invoice";
+
+    private static final String CHANNEL = "inventory_cache_invalidation";
+
+    // Shown in pg_stat_activity for the listener connection
+    static final String LISTENER_APPLICATION_NAME = "inventory-cache-listener";
+
+    // Evicts every key of a cache
+    public static final String ALL_KEYS = "*";
+
+    // A half-open connection does not fail on its own, so it is checked with a query at this interval
+    private static final long KEEPALIVE_INTERVAL_MS = 30_000;
+
+    @Value("${cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.invalidation.poll-interval-ms:500}")
+    private int pollIntervalMs;
+
+    @Value("${cache.invalidation.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    private final Map<String, List<CacheRegistration>> registrations = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    /**
+     * Register a cache for invalidation messages
+     * @param cache The cache name (CATALOG, INVOICE)
+     * @param evictKey Evicts one key from the cache
+     * @param evictAll Clears the cache
+     */
+    public void register(String cache, Consumer<String> evictKey, Runnable evictAll) {
+        registrations.computeIfAbsent(cache, k -> new CopyOnWriteArrayList<>())
+                .add(new CacheRegistration(evictKey, evictAll));
+    }
+
+    /**
+     * Publish that a cached key has changed
+     * Inside a transaction the message is sent on commit and dropped on rollback.
+     */
+    public void publish(String cache, String key) {
+        if (key == null) {
+            return;
+        }
+        String message = cache + ":" + key;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictLocally(message);
+            notifyInstances(Set.of(message));
+            return;
+        }
+
+        InvalidationBuffer buffer = null;
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof InvalidationBuffer) {
+                buffer = (InvalidationBuffer) synchronization;
+            }
+        }
+        if (buffer == null) {
+            buffer = new InvalidationBuffer();
+            TransactionSynchronizationManager.registerSynchronization(buffer);
+        }
+        buffer.messages.add(message);
+    }
+
+    /**
+     * Send messages to the registrations of every instance, including this one, if the current transaction commits
+     * Unlike publish, the sending instance receives them only through its own listener, so each
+     * instance handles each message exactly once. NOTIFY is transactional, so it is sent right away
+     * and still delivered only on commit. Without Postgres the messages are handled locally after commit.
+     */
+    public void broadcast(String cache, List<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<String> messages = keys.stream().map(key -> cache + ":" + key).toList();
+
+        if (enabled && isPostgres()) {
+            notifyInstances(messages);
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    messages.forEach(CacheInvalidationService.this::evictLocally);
+                }
+            });
+        } else {
+            messages.forEach(this::evictLocally);
+        }
+    }
+
+    /**
+     * Start listening for invalidation messages from other instances
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled || !isPostgres()) {
+            logger.info("Cross-instance cache invalidation is disabled");
+            return;
+        }
+
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    /**
+     * Stop the listener
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    /**
+     * Listen on a dedicated connection, reconnecting and resynchronizing when it is lost
+     */
+    private void listen() {
+        boolean needsResync = false;
+
+        while (running) {
+            try (Connection connection = openListenerConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                logger.info("Listening for cache invalidation messages on channel {}", CHANNEL);
+
+                // Messages sent while disconnected are lost, so drop everything cached
+                if (needsResync) {
+                    resync();
+                    needsResync = false;
+                }
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                long lastKeepalive = System.currentTimeMillis();
+                while (running) {
+                    // Blocks until a message arrives or the poll interval ends; throws if the connection is broken
+                    PGNotification[] notifications = pgConnection.getNotifications(pollIntervalMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            evictLocally(notification.getParameter());
+                        }
+                    }
+
+                    if (System.currentTimeMillis() - lastKeepalive > KEEPALIVE_INTERVAL_MS) {
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                        lastKeepalive = System.currentTimeMillis();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                needsResync = true;
+                logger.warn("Cache invalidation listener lost its connection: {}. Reconnecting in {} ms",
+                        e.getMessage(), reconnectDelayMs);
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Open the listener connection outside the pool, so it never holds a pooled connection
+     */
+    private Connection openListenerConnection() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", dataSourceProperties.determineUsername());
+        if (dataSourceProperties.determinePassword() != null) {
+            properties.setProperty("password", dataSourceProperties.determinePassword());
+        }
+        properties.setProperty("ApplicationName", LISTENER_APPLICATION_NAME);
+        return DriverManager.getConnection(dataSourceProperties.determineUrl(), properties);
+    }
+
+    /**
+     * Clear every registered cache
+     */
+    void resync() {
+        logger.info("Clearing {} registered caches after listener reconnect", registrations.size());
+        registrations.values().forEach(list -> list.forEach(registration -> registration.evictAll.run()));
+    }
+
+    /**
+     * Evict the key of a "cache:key" message from the local caches
+     */
+    void evictLocally(String message) {
+        int separator = message != null ? message.indexOf(':') : -1;
+        if (separator < 0) {
+            logger.warn("Ignoring malformed cache invalidation message: {}", message);
+            return;
+        }
+
+        String cache = message.substring(0, separator);
+        String key = message.substring(separator + 1);
+        for (CacheRegistration registration : registrations.getOrDefault(cache, List.of())) {
+            try {
+                if (ALL_KEYS.equals(key)) {
+                    registration.evictAll.run();
+                } else {
+                    registration.evictKey.accept(key);
+                }
+            } catch (Exception e) {
+                logger.error("Error evicting {} from cache {}: {}", key, cache, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Send messages to all instances with one NOTIFY round trip
+     */
+    private void notifyInstances(Collection<String> messages) {
+        if (!enabled || !isPostgres() || messages.isEmpty()) {
+            return;
+        }
+
+        String[] payloads = messages.toArray(new String[0]);
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement("SELECT pg_notify(?, m) FROM unnest(?) AS t(m)");
+            Array array = connection.createArrayOf("text", payloads);
+            statement.setString(1, CHANNEL);
+            statement.setArray(2, array);
+            return statement;
+        }, rs -> null);
+    }
+
+    private boolean isPostgres() {
+        String url = dataSourceProperties.determineUrl();
+        return url != null && url.startsWith("jdbc:postgresql:");
+    }
+
+    /**
+     * Eviction callbacks of one registered cache
+     */
+    private static class CacheRegistration {
+        private final Consumer<String> evictKey;
+        private final Runnable evictAll;
+
+        private CacheRegistration(Consumer<String> evictKey, Runnable evictAll) {
+            this.evictKey = evictKey;
+            this.evictAll = evictAll;
+        }
+    }
+
+    /**
+     * Messages of one transaction, sent before it commits and evicted locally after it commits
+     */
+    private class InvalidationBuffer implements TransactionSynchronization {
+        private final Set<String> messages = new LinkedHashSet<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // NOTIFY is transactional: other instances receive it only once the commit succeeds
+            notifyInstances(messages);
+        }
+
+        @Override
+        public void afterCommit() {
+            messages.forEach(CacheInvalidationService.this::evictLocally);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            messages.clear();
+        }
+    }
+}
@@ -0,0 +1,360 @@
+package com.inventory.service;
+
+import com.inventory.dto.CatalogImportErrorDTO;
+import com.inventory.dto.CatalogImportResultDTO;
+import com.inventory.exception.InvalidInputException;
+import com.inventory.util.CsvReader;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Service for importing and exporting the product catalog as CSV
+ *
+ * The import streams the file and works in batches. Each batch is staged in a temporary table
+ * with one statement, checked against the catalog with set-based queries, and upserted into
+ * product_catalog together with the zero-quantity current_stock rows of new products. A batch
+ * takes a fixed handful of round trips instead of several per product. Rows that fail validation
+ * are reported by line and do not stop the import.
+ *
+ * Columns are box_barcode, product_name and number_sn; the export writes the same format.
+ */
+@Service
+public class CatalogCsvService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCsvService.class);
+
+    static final String[] COLUMNS = {"box_barcode", "product_name", "number_sn"};
+
+    private static final int MAX_LENGTH = 255;
+
+    // Dropped at the end of each batch transaction
+    private static final String CREATE_STAGING =
+            "CREATE TEMP TABLE IF NOT EXISTS catalog_import (" +
+            "line_no BIGINT PRIMARY KEY, box_barcode VARCHAR(255) NOT NULL, " +
+            "product_name VARCHAR(255) NOT NULL, number_sn INTEGER NOT NULL) ON COMMIT DROP";
+
+    private static final String STAGE_ROWS =
+            "INSERT INTO catalog_import (line_no, box_barcode, product_name, number_sn) " +
+            "SELECT * FROM unnest(?::bigint[], ?::varchar[], ?::varchar[], ?::integer[])";
+
+    // Product names are unique regardless of case, like in ProductService.addProduct
+    private static final String REJECT_NAME_CONFLICTS =
+            "DELETE FROM catalog_import s USING product_catalog pc " +
+            "WHERE lower(pc.product_name) = lower(s.product_name) AND pc.box_barcode <> s.box_barcode " +
+            "RETURNING s.line_no, s.box_barcode, pc.box_barcode";
+
+    // xmax is 0 for inserted rows; unchanged products are not touched and not returned
+    private static final String UPSERT_CATALOG =
+            "INSERT INTO product_catalog (box_barcode, product_name, number_sn) " +
+            "SELECT box_barcode, product_name, number_sn FROM catalog_import " +
+            "ON CONFLICT (box_barcode) DO UPDATE " +
+            "SET product_name = EXCLUDED.product_name, number_sn = EXCLUDED.number_sn " +
+            "WHERE product_catalog.product_name <> EXCLUDED.product_name " +
+            "OR product_catalog.number_sn <> EXCLUDED.number_sn " +
+            "RETURNING (xmax = 0)";
+
+    // Same stock row as SyncService creates for a catalog product without one
+    private static final String INSERT_MISSING_STOCK =
+            "INSERT INTO current_stock (box_barcode, product_name, quantity, last_updated, box_number) " +
+            "SELECT s.box_barcode, s.product_name, 0, ?, " +
+            "COALESCE((SELECT MAX(bn.box_number) FROM box_number bn " +
+            "WHERE bn.box_barcode = s.box_barcode AND bn.product_name = s.product_name), 0) " +
+            "FROM catalog_import s " +
+            "WHERE NOT EXISTS (SELECT 1 FROM current_stock cs WHERE cs.box_barcode = s.box_barcode)";
+
+    private static final String EXPORT_CATALOG =
+            "SELECT box_barcode, product_name, number_sn FROM product_catalog ORDER BY box_barcode";
+
+    @Value("${inventory.catalog.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${inventory.catalog.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Value("${inventory.catalog.export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private TransactionTemplate exportTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        exportTemplate = new TransactionTemplate(transactionManager);
+        exportTemplate.setReadOnly(true);
+        // Named like a @Transactional service method, so the export can run on a read replica
+        exportTemplate.setName(CatalogCsvService.class.getName() + ".exportCatalog");
+    }
+
+    /**
+     * Import products from a CSV stream
+     * A header row naming the columns is required; other columns are ignored. Existing products are
+     * updated like ProductService.updateProduct; new products get a current_stock row.
+     * @param input CSV in UTF-8
+     * @return Row counts and the rows that were not imported
+     */
+    public CatalogImportResultDTO importCatalog(InputStream input) {
+        CatalogImportResultDTO result = new CatalogImportResultDTO();
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+        try {
+            int[] columns = readHeader(reader.next());
+
+            // Seen in earlier rows of the file: box barcode -> line, lower-case name -> box barcode
+            Map<String, Long> barcodeLines = new HashMap<>();
+            Map<String, String> nameBarcodes = new HashMap<>();
+
+            List<CatalogRow> batch = new ArrayList<>(batchSize);
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                result.setRows(result.getRows() + 1);
+
+                CatalogRow row = parseRow(reader.getRecordLine(), record, columns, result);
+                if (row == null) {
+                    continue;
+                }
+                Long firstLine = barcodeLines.putIfAbsent(row.boxBarcode, row.line);
+                if (firstLine != null) {
+                    addError(result, row.line, row.boxBarcode, "Duplicate box barcode, first on line " + firstLine);
+                    continue;
+                }
+                String nameKey = row.productName.toLowerCase(Locale.ROOT);
+                String otherBarcode = nameBarcodes.putIfAbsent(nameKey, row.boxBarcode);
+                if (otherBarcode != null) {
+                    addError(result, row.line, row.boxBarcode, "Duplicate product name, also used for " + otherBarcode);
+                    continue;
+                }
+
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    importBatch(batch, result);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                importBatch(batch, result);
+            }
+        } catch (IOException e) {
+            throw new InvalidInputException("Could not read CSV: " + e.getMessage());
+        }
+
+        logger.info("Catalog import: {} rows, {} inserted, {} updated, {} unchanged, {} failed",
+                result.getRows(), result.getInserted(), result.getUpdated(), result.getUnchanged(), result.getFailed());
+        return result;
+    }
+
+    /**
+     * Write the product catalog as CSV, ordered by box barcode
+     * Rows are streamed from a database cursor, so memory use does not grow with the catalog.
+     */
+    public void exportCatalog(OutputStream output) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        exportTemplate.executeWithoutResult(status -> {
+            try {
+                writer.write(String.join(",", COLUMNS));
+                writer.write("\r\n");
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(EXPORT_CATALOG);
+                    statement.setFetchSize(exportFetchSize);
+                    return statement;
+                }, rs -> {
+                    try {
+                        writer.write(CsvReader.escape(rs.getString(1)));
+                        writer.write(',');
+                        writer.write(CsvReader.escape(rs.getString(2)));
+                        writer.write(',');
+                        writer.write(String.valueOf(rs.getInt(3)));
+                        writer.write("\r\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Stage, check and upsert one batch in its own transaction
+     */
+    private void importBatch(List<CatalogRow> batch, CatalogImportResultDTO result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute(CREATE_STAGING);
+                stageRows(batch);
+
+                List<CatalogImportErrorDTO> conflicts = jdbcTemplate.query(REJECT_NAME_CONFLICTS, (rs, rowNum) ->
+                        new CatalogImportErrorDTO(rs.getLong(1), rs.getString(2),
+                                "Product name is already used by " + rs.getString(3)));
+
+                List<Boolean> upserted = jdbcTemplate.queryForList(UPSERT_CATALOG, Boolean.class);
+                jdbcTemplate.update(INSERT_MISSING_STOCK, Timestamp.from(Instant.now()));
+
+                long inserted = upserted.stream().filter(Boolean.TRUE::equals).count();
+                long updated = upserted.size() - inserted;
+                result.setInserted(result.getInserted() + inserted);
+                result.setUpdated(result.getUpdated() + updated);
+                result.setUnchanged(result.getUnchanged() + batch.size() - conflicts.size() - upserted.size());
+                conflicts.forEach(error -> addError(result, error.getLine(), error.getBoxBarcode(), error.getMessage()));
+
+                // Rows written with SQL bypass the cache eviction of the catalog services
+                if (!upserted.isEmpty()) {
+                    cacheInvalidationService.publish(CacheInvalidationService.CATALOG, CacheInvalidationService.ALL_KEYS);
+                }
+            });
+        } catch (DataAccessException e) {
+            logger.warn("Catalog import batch of {} rows starting on line {} failed: {}",
+                    batch.size(), batch.get(0).line, e.getMessage());
+            for (CatalogRow row : batch) {
+                addError(result, row.line, row.boxBarcode, "Batch failed: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private void stageRows(List<CatalogRow> batch) {
+        Long[] lines = new Long[batch.size()];
+        String[] barcodes = new String[batch.size()];
+        String[] names = new String[batch.size()];
+        Integer[] numberSns = new Integer[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            CatalogRow row = batch.get(i);
+            lines[i] = row.line;
+            barcodes[i] = row.boxBarcode;
+            names[i] = row.productName;
+            numberSns[i] = row.numberSn;
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(STAGE_ROWS);
+            Array lineArray = connection.createArrayOf("bigint", lines);
+            Array barcodeArray = connection.createArrayOf("varchar", barcodes);
+            Array nameArray = connection.createArrayOf("varchar", names);
+            Array numberSnArray = connection.createArrayOf("integer", numberSns);
+            statement.setArray(1, lineArray);
+            statement.setArray(2, barcodeArray);
+            statement.setArray(3, nameArray);
+            statement.setArray(4, numberSnArray);
+            return statement;
+        });
+    }
+
+    /**
+     * Find the required columns in the header row
+     * Names are matched ignoring case, spaces and underscores, so boxBarcode and Box Barcode also work.
+     */
+    private static int[] readHeader(List<String> header) {
+        if (header == null) {
+            throw new InvalidInputException("CSV file is empty");
+        }
+        int[] columns = new int[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            columns[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (normalize(header.get(j)).equals(normalize(COLUMNS[i]))) {
+                    columns[i] = j;
+                    break;
+                }
+            }
+            if (columns[i] < 0) {
+                throw new InvalidInputException("CSV header must contain the columns " + String.join(", ", COLUMNS)
+                        + "; missing " + COLUMNS[i]);
+            }
+        }
+        return columns;
+    }
+
+    private static String normalize(String column) {
+        return column.replaceAll("[\\s_]", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Validate one record; invalid rows are added to the result and return null
+     */
+    private CatalogRow parseRow(long line, List<String> record, int[] columns, CatalogImportResultDTO result) {
+        String boxBarcode = field(record, columns[0]);
+        String productName = field(record, columns[1]);
+        String numberSnText = field(record, columns[2]);
+
+        String error = null;
+        Integer numberSn = null;
+        if (boxBarcode.isEmpty()) {
+            error = "Box barcode cannot be blank";
+        } else if (productName.isEmpty()) {
+            error = "Product name cannot be blank";
+        } else if (boxBarcode.length() > MAX_LENGTH || productName.length() > MAX_LENGTH) {
+            error = "Box barcode and product name must be at most " + MAX_LENGTH + " characters";
+        } else {
+            try {
+                numberSn = Integer.parseInt(numberSnText);
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+            if (numberSn == null || numberSn < 0 || numberSn > 2) {
+                error = "Invalid number_sn value: " + numberSnText + ". Must be 0, 1, or 2.";
+            }
+        }
+
+        if (error != null) {
+            addError(result, line, boxBarcode.isEmpty() ? null : boxBarcode, error);
+            return null;
+        }
+        return new CatalogRow(line, boxBarcode, productName, numberSn);
+    }
+
+    private static String field(List<String> record, int index) {
+        return index < record.size() ? record.get(index).trim() : "";
+    }
+
+    private void addError(CatalogImportResultDTO result, long line, String boxBarcode, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new CatalogImportErrorDTO(line, boxBarcode, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private record CatalogRow(long line, String boxBarcode, String productName, int numberSn) {
+    }
+}
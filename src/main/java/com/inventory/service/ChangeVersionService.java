@@ -0,0 +1,56 @@
+package com.inventory.service;
+
+import com.inventory.model.TableVersion;
+import com.inventory.repository.TableVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Service for per-table change counters used as ETags of read endpoints
+ *
+ * The counters live in the table_version table. A deferred trigger on each table bumps its
+ * counter once in every transaction that writes it, so JPA, bulk and native SQL writes are all
+ * covered, and a change is visible together with its counter. Every instance reads the same
+ * counters, so an ETag issued by one instance matches on the others and survives restarts.
+ *
+ * A read endpoint whose ETag still matches the current counters can answer 304 without running
+ * the endpoint's own queries.
+ */
+@Service
+public class ChangeVersionService {
+
+    public static final String STOCK = "stock";
+    public static final String CATALOG = "catalog";
+    public static final String LENT = "lent";
+
+    // Tables of each group, in ETag order
+    private static final Map<String, List<String>> TABLES = Map.of(
+            STOCK, List.of("current_stock", "in_stock"),
+            CATALOG, List.of("product_catalog"),
+            LENT, List.of("lent", "lent_id"));
+
+    @Autowired
+    private TableVersionRepository tableVersionRepository;
+
+    /**
+     * Build a weak ETag from the counters of the tables in the given groups
+     * Weak, so the servlet container may still compress the response. Read on the primary before
+     * the response is built, so the response is never older than its ETag.
+     */
+    public String etag(String... groups) {
+        Map<String, Long> versions = tableVersionRepository.findAll().stream()
+                .collect(Collectors.toMap(TableVersion::getTableName, TableVersion::getVersion));
+
+        StringBuilder etag = new StringBuilder("W/\"v");
+        for (String group : groups) {
+            for (String table : TABLES.get(group)) {
+                etag.append('-').append(versions.getOrDefault(table, 0L));
+            }
+        }
+        return etag.append('"').toString();
+    }
+}
@@ -2,8 +2,8 @@ package com.inventory.service;
 
 import com.inventory.dto.CurrentStockFilterDTO;
 import com.inventory.dto.CurrentStockWithSnDTO;
+import com.inventory.dto.ProductCatalogView;
 import com.inventory.model.CurrentStock;
-import com.inventory.model.ProductCatalog;
 import com.inventory.repository.CurrentStockRepository;
 import com.inventory.repository.ProductCatalogRepository;
 import com.inventory.util.PageableBuilder;
@@ -14,8 +14,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -33,6 +35,7 @@ public class CurrentStockFilterService {
     /**
      * Find current stock with filtering and pagination
      */
+    @Transactional(readOnly = true)
     public Page<CurrentStock> findCurrentStock(CurrentStockFilterDTO filter) {
         Pageable pageable = PageableBuilder.build(
             filter.getPage(), 
@@ -78,6 +81,7 @@ public class CurrentStockFilterService {
     /**
      * Find current stock with filtering and pagination, enriched with SN type
      */
+    @Transactional(readOnly = true)
     public Page<CurrentStockWithSnDTO> findCurrentStockWithSn(CurrentStockFilterDTO filter) {
         Pageable pageable = PageableBuilder.build(
             filter.getPage(),
@@ -89,6 +93,13 @@ public class CurrentStockFilterService {
         Specification<CurrentStock> spec = buildSpecification(filter);
         Page<CurrentStock> stockPage = currentStockRepository.findAll(spec, pageable);
 
+        // SN types of all products on the page in one query
+        Map<String, Integer> numberSnByBoxBarcode = productCatalogRepository.findProjectedByBoxBarcodeIn(
+                stockPage.getContent().stream().map(CurrentStock::getBoxBarcode).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ProductCatalogView::getBoxBarcode,
+                        view -> view.getNumberSn() != null ? view.getNumberSn() : 0, (a, b) -> a));
+
         List<CurrentStockWithSnDTO> dtoList = stockPage.getContent().stream().map(stock -> {
             CurrentStockWithSnDTO dto = new CurrentStockWithSnDTO();
             dto.setStockId(stock.getStockId());
@@ -97,9 +108,7 @@ public class CurrentStockFilterService {
             dto.setTotalQuantity(stock.getQuantity());
             dto.setLastUpdated(stock.getLastUpdated());
             dto.setBoxNumber(stock.getBoxNumber());
-            // Fetch numberSn from ProductCatalog
-            ProductCatalog catalog = productCatalogRepository.findById(stock.getBoxBarcode()).orElse(null);
-            dto.setNumberSn(catalog != null ? catalog.getNumberSn() : 0);
+            dto.setNumberSn(numberSnByBoxBarcode.getOrDefault(stock.getBoxBarcode(), 0));
             return dto;
         }).collect(Collectors.toList());
 
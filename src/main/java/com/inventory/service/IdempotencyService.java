@@ -0,0 +1,106 @@
+package com.inventory.service;
+
+import com.inventory.model.IdempotencyKey;
+import com.inventory.repository.IdempotencyKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+/**
+ * Service for idempotency keys of order submissions
+ *
+ * A request carrying an Idempotency-Key header reserves the key before any inventory work. The
+ * response is stored when the request completes, and retries with the same key get the stored
+ * response from a primary key lookup instead of running the order again. Entries expire after
+ * the configured TTL and are deleted periodically.
+ *
+ * A reservation is a lease: if the request crashes without storing or releasing its outcome,
+ * a retry may take the key over once the lease has run out, instead of getting 409 until the
+ * entry expires. The lease must be longer than the slowest order submission.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+    public static final String COMPLETED = "COMPLETED";
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Bangkok");
+
+    @Value("${inventory.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${inventory.idempotency.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    /**
+     * Reserve a key for a new request, taking over an abandoned reservation
+     * @return true if the request should run, false if the key is already in use
+     */
+    @Transactional
+    public boolean reserve(String key, String path) {
+        ZonedDateTime now = ZonedDateTime.now(ZONE);
+        return idempotencyKeyRepository.reserve(key, path, now, now.plusHours(ttlHours), now.plusSeconds(leaseSeconds)) == 1;
+    }
+
+    /**
+     * Get the entry of a key
+     */
+    public Optional<IdempotencyKey> find(String key) {
+        return idempotencyKeyRepository.findById(key);
+    }
+
+    /**
+     * Store the response of a completed request
+     */
+    @Transactional
+    public void complete(String key, String requestHash, int responseStatus, String responseBody,
+                         String contentType, String location) {
+        idempotencyKeyRepository.findById(key).ifPresent(entry -> {
+            entry.setStatus(COMPLETED);
+            entry.setRequestHash(requestHash);
+            entry.setResponseStatus(responseStatus);
+            entry.setResponseBody(responseBody);
+            entry.setContentType(contentType);
+            entry.setLocation(location);
+            entry.setLockedUntil(null);
+            idempotencyKeyRepository.save(entry);
+        });
+    }
+
+    /**
+     * Free a key whose request did not produce a final outcome, so a retry runs it again
+     */
+    @Transactional
+    public void release(String key) {
+        idempotencyKeyRepository.deleteById(key);
+    }
+
+    /**
+     * Delete expired entries
+     */
+    @Scheduled(fixedDelayString = "${inventory.idempotency.cleanup-ms:3600000}")
+    @Transactional
+    public void deleteExpired() {
+        try {
+            int deleted = idempotencyKeyRepository.deleteExpired(ZonedDateTime.now(ZONE));
+            if (deleted > 0) {
+                logger.info("Deleted {} expired idempotency keys", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("Error deleting expired idempotency keys: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.inventory.service;
+
+import com.inventory.exception.InvalidInputException;
+import com.inventory.exception.ResourceNotFoundException;
+import com.inventory.model.ProductCatalog;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Business-level metrics of stock movements and orders
+ *
+ * inventory.stock.operation   timer per stock operation, tagged operation, sku and outcome
+ * inventory.stock.units       units moved by successful operations, tagged operation and sku
+ * inventory.order.size        lines per order, tagged type
+ * inventory.barcode.lock      time to lock and check product barcodes, tagged mode and outcome
+ * inventory.tx.serialization.failures  operations aborted by a serialization or lock conflict,
+ *                             tagged operation and sku
+ * inventory.tx.serialization.retries    transactions re-executed after a serialization failure or
+ *                             deadlock, tagged operation (service method)
+ * inventory.tx.serialization.exhausted  transactions that still failed after the last attempt
+ *
+ * The sku tag is the product's serial number class: non-serialized, serialized or paired. It is set
+ * by the operation once it has loaded the product, so no extra query is needed.
+ * Stock operations run in a transaction and are recorded once it ends: success and units only after
+ * commit, so the meters never count stock that was not saved. An operation that returned but whose
+ * transaction did not commit is recorded by the transaction boundary with the error that ended the
+ * transaction: conflict for a serialization failure or deadlock, also one raised by the commit
+ * itself, otherwise rolled-back. The boundary is TransactionRetryAspect, which runs outside the
+ * transaction; transactions started elsewhere record such operations as rolled-back.
+ */
+@Component
+public class InventoryMetrics {
+
+    private static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry meterRegistry;
+
+    // Stock operations running on this thread; operations can nest
+    private final ThreadLocal<Deque<String[]>> skuClasses = ThreadLocal.withInitial(ArrayDeque::new);
+
+    // Rolled-back stock operations of the transaction boundaries open on this thread, waiting for their outcome
+    private final ThreadLocal<Deque<List<Consumer<String>>>> pendingFailures = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public InventoryMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Time a stock operation and count the units it moved
+     * Without a transaction the operation is recorded as soon as it returns.
+     */
+    public <T> T recordStockOperation(String operation, int quantity, Supplier<T> work) {
+        Deque<String[]> stack = skuClasses.get();
+        String[] skuClass = {UNKNOWN};
+        stack.push(skuClass);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            T result = work.get();
+            afterTransaction(() -> recordSuccess(sample, operation, skuClass[0], quantity),
+                    () -> deferFailure(outcome -> recordFailure(sample, operation, skuClass[0], outcome)));
+            return result;
+        } catch (RuntimeException e) {
+            String outcome = outcome(e);
+            afterTransaction(null, () -> recordFailure(sample, operation, skuClass[0], outcome));
+            throw e;
+        } finally {
+            stack.pop();
+            if (stack.isEmpty()) {
+                skuClasses.remove();
+            }
+        }
+    }
+
+    /**
+     * Open a transaction boundary, before the transaction begins
+     * Stock operations rolled back by the transaction wait for {@link #endTransaction(boolean)}.
+     */
+    public void startTransaction() {
+        pendingFailures.get().push(new ArrayList<>());
+    }
+
+    /**
+     * Close the innermost transaction boundary, after the transaction ended
+     * @param conflict whether the transaction failed on a serialization failure or deadlock,
+     *                 including one raised at commit
+     */
+    public void endTransaction(boolean conflict) {
+        Deque<List<Consumer<String>>> stack = pendingFailures.get();
+        List<Consumer<String>> failures = stack.pop();
+        if (stack.isEmpty()) {
+            pendingFailures.remove();
+        }
+        String outcome = conflict ? "conflict" : "rolled-back";
+        failures.forEach(failure -> failure.accept(outcome));
+    }
+
+    /**
+     * Record a rolled-back operation when its transaction boundary closes, or now without one
+     */
+    private void deferFailure(Consumer<String> failure) {
+        Deque<List<Consumer<String>>> stack = pendingFailures.get();
+        if (stack.isEmpty()) {
+            pendingFailures.remove();
+            failure.accept("rolled-back");
+            return;
+        }
+        stack.peek().add(failure);
+    }
+
+    /**
+     * Run onCommit after the current transaction commits, or onFailure when it ends otherwise
+     * A null onCommit runs onFailure whatever the outcome, for operations that already failed.
+     */
+    private static void afterTransaction(Runnable onCommit, Runnable onFailure) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            (onCommit != null ? onCommit : onFailure).run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (onCommit != null) {
+                    onCommit.run();
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (onCommit == null || status != STATUS_COMMITTED) {
+                    onFailure.run();
+                }
+            }
+        });
+    }
+
+    private void recordSuccess(Timer.Sample sample, String operation, String skuClass, int quantity) {
+        stopOperation(sample, operation, skuClass, "success");
+        meterRegistry.counter("inventory.stock.units", "operation", operation, "sku", skuClass)
+                .increment(quantity);
+    }
+
+    private void recordFailure(Timer.Sample sample, String operation, String skuClass, String outcome) {
+        if ("conflict".equals(outcome)) {
+            meterRegistry.counter("inventory.tx.serialization.failures",
+                    "operation", operation, "sku", skuClass).increment();
+        }
+        stopOperation(sample, operation, skuClass, outcome);
+    }
+
+    private void stopOperation(Timer.Sample sample, String operation, String skuClass, String outcome) {
+        sample.stop(Timer.builder("inventory.stock.operation")
+                .tag("operation", operation)
+                .tag("sku", skuClass)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    /**
+     * Set the SKU class of the stock operation running on this thread
+     */
+    public void skuClass(ProductCatalog product) {
+        String[] current = skuClasses.get().peek();
+        if (current == null) {
+            skuClasses.remove();
+            return;
+        }
+        current[0] = skuClass(product.getNumberSn());
+    }
+
+    /**
+     * Record the number of lines of a submitted order
+     * @param type sales, lent or broken
+     */
+    public void recordOrderSize(String type, int lines) {
+        DistributionSummary.builder("inventory.order.size")
+                .baseUnit("lines")
+                .tag("type", type)
+                .register(meterRegistry)
+                .record(lines);
+    }
+
+    /**
+     * Count a transaction re-executed after a serialization failure or deadlock
+     * @param operation the transactional service method, e.g. StockService.addStock
+     */
+    public void recordSerializationRetry(String operation) {
+        meterRegistry.counter("inventory.tx.serialization.retries", "operation", operation).increment();
+    }
+
+    /**
+     * Count a transaction that gave up after its last attempt
+     */
+    public void recordSerializationRetriesExhausted(String operation) {
+        meterRegistry.counter("inventory.tx.serialization.exhausted", "operation", operation).increment();
+    }
+
+    /**
+     * Start timing a barcode lock
+     */
+    public Timer.Sample startBarcodeLock() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Stop timing a barcode lock
+     * @param mode single or batch
+     * @param outcome locked, contended or unavailable
+     */
+    public void stopBarcodeLock(Timer.Sample sample, String mode, String outcome) {
+        sample.stop(meterRegistry.timer("inventory.barcode.lock", "mode", mode, "outcome", outcome));
+    }
+
+    static String skuClass(Integer numberSn) {
+        if (numberSn == null) {
+            return UNKNOWN;
+        }
+        switch (numberSn) {
+            case 0:
+                return "non-serialized";
+            case 1:
+                return "serialized";
+            case 2:
+                return "paired";
+            default:
+                return UNKNOWN;
+        }
+    }
+
+    private static String outcome(RuntimeException e) {
+        if (e instanceof InvalidInputException) {
+            return "invalid";
+        }
+        if (e instanceof ResourceNotFoundException) {
+            return "not-found";
+        }
+        if (e instanceof ConcurrencyFailureException) {
+            return "conflict";
+        }
+        return "error";
+    }
+}
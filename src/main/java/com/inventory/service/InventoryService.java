@@ -1,5 +1,7 @@
 package com.inventory.service;
 
+import com.inventory.dto.CurrentStockView;
+import com.inventory.dto.ProductCatalogView;
 import com.inventory.model.CurrentStock;
 import com.inventory.model.ProductCatalog;
 import com.inventory.repository.CurrentStockRepository;
@@ -34,15 +36,15 @@ public class InventoryService {
     /**
      * Get all products from catalog
      */
-    public List<ProductCatalog> getAllProducts() {
-        return productCatalogRepository.findAll();
+    public List<ProductCatalogView> getAllProducts() {
+        return productCatalogRepository.findAllProjectedBy();
     }
     
     /**
      * Get product by box barcode
      */
-    public ProductCatalog getProductByBoxBarcode(String boxBarcode) {
-        return productCatalogRepository.findById(boxBarcode).orElse(null);
+    public ProductCatalogView getProductByBoxBarcode(String boxBarcode) {
+        return productCatalogRepository.findProjectedByBoxBarcode(boxBarcode).orElse(null);
     }
     
     /**
@@ -76,14 +78,14 @@ public class InventoryService {
     /**
      * Get current stock for all products
      */
-    public List<CurrentStock> getAllStock() {
-        return currentStockRepository.findAll();
+    public List<CurrentStockView> getAllStock() {
+        return currentStockRepository.findAllProjectedBy();
     }
     
     /**
      * Get stock by box barcode
      */
-    public List<CurrentStock> getStockByBoxBarcode(String boxBarcode) {
-        return currentStockRepository.findByBoxBarcode(boxBarcode);
+    public List<CurrentStockView> getStockByBoxBarcode(String boxBarcode) {
+        return currentStockRepository.findProjectedByBoxBarcode(boxBarcode);
     }
 } 
\ No newline at end of file
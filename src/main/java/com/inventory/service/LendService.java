@@ -2,6 +2,7 @@ package com.inventory.service;
 
 import com.inventory.model.Lend;
 import com.inventory.repository.LendRepository;
+import com.inventory.util.InventoryUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -96,7 +97,7 @@ public class LendService {
      * Generate a default order ID for lent items if none provided
      */
     private String generateDefaultOrderId() {
-        return "LENT-" + System.currentTimeMillis();
+        return InventoryUtils.generateOrderId("LENT");
     }
 
     /**
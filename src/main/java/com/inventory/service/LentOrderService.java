@@ -63,6 +63,9 @@ public class LentOrderService {
     
     @Autowired
     private LogsRepository logsRepository;
+
+    @Autowired
+    private LogOutboxService logOutboxService;
     
     @Autowired
     private LendRepository lendRepository;
@@ -84,6 +87,9 @@ public class LentOrderService {
     
     @Autowired
     private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
     
     /**
      * Process a lent order with mixed product types
@@ -95,6 +101,7 @@ public class LentOrderService {
         if (allProducts.isEmpty()) {
             throw new InvalidInputException("No products specified in the lent order");
         }
+        inventoryMetrics.recordOrderSize("lent", allProducts.size());
         
         // Validate shopName is provided
         if (orderDTO.getShopName() == null || orderDTO.getShopName().isEmpty()) {
@@ -353,7 +360,7 @@ public class LentOrderService {
      */
     private String findBoxBarcodeForProductBarcode(String productBarcode) {
         // Query the logs to find the most recent entry for this product barcode
-        return logsRepository.findBoxBarcodeByProductBarcode(productBarcode)
+        return logOutboxService.findBoxBarcodeByProductBarcode(productBarcode)
                 .orElseThrow(() -> new ResourceNotFoundException("Product barcode not found: " + productBarcode));
     }
     
@@ -835,7 +842,7 @@ public class LentOrderService {
                         "Original lent item not found with box barcode: " + boxBarcode + " and order ID: " + orderId));
 
         // Get the initial quantity from the logs table
-        List<Logs> logs = logsRepository.findByBoxBarcodeAndOrderId(boxBarcode, orderId);
+        List<Logs> logs = logOutboxService.findByBoxBarcodeAndOrderId(boxBarcode, orderId);
         int initialQuantity = logs.stream()
                 .filter(log -> "lent".equals(log.getOperation()))
                 .mapToInt(Logs::getQuantity)
@@ -897,7 +904,7 @@ public class LentOrderService {
         saleLog.setNote("Moved from lent order: " + orderId);
         saleLog.setOrderId(salesOrderId);
         saleLog.setTimestamp(ZonedDateTime.now(ZoneId.of("Asia/Bangkok")));
-        logsRepository.save(saleLog);
+        logsService.save(saleLog);
 
         // Create record for sold portion
         Lend soldPortion = new Lend();
@@ -0,0 +1,250 @@
+package com.inventory.service;
+
+import com.inventory.model.LogOutbox;
+import com.inventory.model.Logs;
+import com.inventory.repository.LogOutboxRepository;
+import com.inventory.repository.LogsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Service for write-behind of log entries
+ *
+ * Log entries created inside a transaction are collected in memory and written to logs_outbox
+ * with one multi-row insert just before the transaction commits, so they are stored together
+ * with the business change or not at all. A scheduled job moves committed entries from
+ * logs_outbox to logs in batches.
+ *
+ * Until an entry has been moved it is not in the logs table. Checks that decide on a barcode's
+ * availability must use the lookups of this service, which also return pending entries.
+ */
+@Service
+public class LogOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogOutboxService.class);
+
+    // Rows per INSERT statement when writing the buffer to the outbox
+    private static final int INSERT_CHUNK_SIZE = 500;
+
+    private static final String INSERT_PREFIX = "INSERT INTO logs_outbox (box_barcode, product_name, product_barcode, " +
+            "operation, timestamp, note, box_number, order_id, quantity) VALUES ";
+
+    @Value("${logs.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${logs.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Autowired
+    private LogOutboxRepository logOutboxRepository;
+
+    @Autowired
+    private LogsRepository logsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StockEventService stockEventService;
+
+    @Autowired
+    private ReportCubeService reportCubeService;
+
+    /**
+     * Record a log entry
+     * Inside a transaction the entry is buffered and written to the outbox on commit.
+     * Entries that already have a logs_id, or are recorded without a transaction, are saved directly.
+     * Recording an entry that is already buffered is a no-op, since the buffer holds the same instance.
+     * Only a new entry is counted in the report rollups and published as a stock event; saving an
+     * entry again after changing it (e.g. setting the box number) is not a second movement.
+     */
+    public Logs record(Logs log) {
+        if (!enabled || log.getLogsId() != null
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            boolean inserted = log.getLogsId() == null;
+            Logs saved = logsRepository.save(log);
+            if (inserted) {
+                reportCubeService.recordLogs(List.of(saved));
+                stockEventService.publish(List.of(saved));
+            }
+            return saved;
+        }
+
+        OutboxBuffer buffer = currentBuffer();
+        if (buffer == null) {
+            buffer = new OutboxBuffer();
+            TransactionSynchronizationManager.registerSynchronization(buffer);
+        }
+
+        if (buffer.entries.stream().noneMatch(entry -> entry == log)) {
+            buffer.entries.add(log);
+        }
+        return log;
+    }
+
+    /**
+     * Find logs by product barcode, including entries that have not been moved to logs yet
+     */
+    public List<Logs> findByProductBarcode(String productBarcode) {
+        // Read the outbox first: an entry moved in between is then seen twice rather than missed
+        List<Logs> logs = logOutboxRepository.findByProductBarcode(productBarcode).stream()
+                .map(LogOutbox::toLogs)
+                .collect(Collectors.toList());
+        logs.addAll(logsRepository.findByProductBarcode(productBarcode));
+        logs.addAll(buffered(log -> Objects.equals(productBarcode, log.getProductBarcode())));
+        return logs;
+    }
+
+    /**
+     * Find logs by box barcode and order ID, including entries that have not been moved to logs yet
+     */
+    public List<Logs> findByBoxBarcodeAndOrderId(String boxBarcode, String orderId) {
+        List<Logs> logs = logOutboxRepository.findByBoxBarcodeAndOrderId(boxBarcode, orderId).stream()
+                .map(LogOutbox::toLogs)
+                .collect(Collectors.toList());
+        logs.addAll(logsRepository.findByBoxBarcodeAndOrderId(boxBarcode, orderId));
+        logs.addAll(buffered(log -> Objects.equals(boxBarcode, log.getBoxBarcode())
+                && Objects.equals(orderId, log.getOrderId())));
+        return logs;
+    }
+
+    /**
+     * Find the box barcode of the most recent log entry for a product barcode,
+     * including entries that have not been moved to logs yet
+     */
+    public Optional<String> findBoxBarcodeByProductBarcode(String productBarcode) {
+        List<Logs> pending = logOutboxRepository.findByProductBarcode(productBarcode).stream()
+                .map(LogOutbox::toLogs)
+                .collect(Collectors.toList());
+        pending.addAll(buffered(log -> Objects.equals(productBarcode, log.getProductBarcode())));
+
+        if (pending.isEmpty()) {
+            return logsRepository.findBoxBarcodeByProductBarcode(productBarcode);
+        }
+
+        // Pending entries are newer than anything already moved to logs
+        return pending.stream()
+                .filter(log -> log.getTimestamp() != null)
+                .max(Comparator.comparing(Logs::getTimestamp))
+                .or(() -> pending.stream().findFirst())
+                .map(Logs::getBoxBarcode);
+    }
+
+    /**
+     * Move committed outbox entries to the logs table
+     * Does nothing while the outbox is disabled, since entries are then saved to logs directly.
+     */
+    @Scheduled(fixedDelayString = "${logs.outbox.flush-interval-ms:200}")
+    public void drainOutbox() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int moved;
+            int total = 0;
+            do {
+                moved = logOutboxRepository.moveBatchToLogs(batchSize);
+                total += moved;
+            } while (moved >= batchSize);
+
+            if (total > 0) {
+                logger.debug("Moved {} log entries from outbox to logs", total);
+            }
+        } catch (Exception e) {
+            // Entries stay in the outbox and are retried on the next run
+            logger.error("Error moving log entries from outbox: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get buffered entries of the current transaction that match a filter
+     */
+    private List<Logs> buffered(Predicate<Logs> filter) {
+        OutboxBuffer buffer = currentBuffer();
+        if (buffer == null) {
+            return new ArrayList<>();
+        }
+        return buffer.entries.stream().filter(filter).collect(Collectors.toList());
+    }
+
+    /**
+     * Get the buffer registered with the current transaction
+     * Synchronizations are suspended with their transaction, so a REQUIRES_NEW transaction gets its own buffer
+     */
+    private OutboxBuffer currentBuffer() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof OutboxBuffer) {
+                return (OutboxBuffer) synchronization;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Write buffered entries to the outbox with multi-row inserts
+     */
+    private void writeToOutbox(List<Logs> entries) {
+        for (int start = 0; start < entries.size(); start += INSERT_CHUNK_SIZE) {
+            List<Logs> chunk = entries.subList(start, Math.min(start + INSERT_CHUNK_SIZE, entries.size()));
+
+            StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+            List<Object> args = new ArrayList<>(chunk.size() * 9);
+            for (int i = 0; i < chunk.size(); i++) {
+                Logs log = chunk.get(i);
+                sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?, ?, ?)");
+                args.add(log.getBoxBarcode());
+                args.add(log.getProductName());
+                args.add(log.getProductBarcode());
+                args.add(log.getOperation());
+                args.add(log.getTimestamp() != null ? log.getTimestamp().toOffsetDateTime() : null);
+                args.add(log.getNote());
+                args.add(log.getBoxNumber());
+                args.add(log.getOrderId());
+                args.add(log.getQuantity() != null ? log.getQuantity() : 1);
+            }
+
+            jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+    }
+
+    /**
+     * Log entries of one transaction, written to the outbox before it commits
+     */
+    private class OutboxBuffer implements TransactionSynchronization {
+        private final List<Logs> entries = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!entries.isEmpty()) {
+                writeToOutbox(entries);
+                reportCubeService.recordLogs(entries);
+                stockEventService.publish(entries);
+                entries.clear();
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            entries.clear();
+        }
+    }
+}
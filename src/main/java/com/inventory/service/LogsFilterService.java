@@ -10,6 +10,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service for filtering and paginating logs
@@ -23,6 +24,7 @@ public class LogsFilterService {
     /**
      * Find logs with filtering and pagination
      */
+    @Transactional(readOnly = true)
     public Page<Logs> findLogs(LogsFilterDTO filter) {
         Pageable pageable = PageableBuilder.build(
             filter.getPage(), 
@@ -22,8 +22,12 @@ public class LogsService {
     @Autowired
     private BarcodeRegistryService barcodeRegistryService;
     
+    @Autowired
+    private LogOutboxService logOutboxService;
+    
     /**
      * Create a new log entry with all possible parameters
+     * The entry is written through the outbox when the surrounding transaction commits
      */
     @Transactional
     public Logs createLog(String boxBarcode, String productName, String productBarcode, String operation, 
@@ -39,14 +43,7 @@ public class LogsService {
         log.setQuantity(quantity != null ? quantity : 1);
         log.setOrderId(orderId);
         
-        // Notify the BarcodeRegistryService
-        if (productBarcode != null && !productBarcode.isEmpty()) {
-            // We don't need to do anything here anymore, as the BarcodeRegistryService
-            // now uses a different approach with checkAndLockBarcode and releaseBarcode
-            // The StockService will handle locking and releasing barcodes directly
-        }
-        
-        return logsRepository.save(log);
+        return logOutboxService.record(log);
     }
     
     /**
@@ -85,10 +82,11 @@ public class LogsService {
     
     /**
      * Save a log entry
+     * Changes to an entry returned by createLog are picked up when it is written to the outbox
      */
     @Transactional
     public Logs save(Logs log) {
-        return logsRepository.save(log);
+        return logOutboxService.record(log);
     }
     
     /**
@@ -106,10 +104,10 @@ public class LogsService {
     }
     
     /**
-     * Get logs by product barcode
+     * Get logs by product barcode, including entries still in the outbox
      */
     public List<Logs> getLogsByProductBarcode(String productBarcode) {
-        return logsRepository.findByProductBarcode(productBarcode);
+        return logOutboxService.findByProductBarcode(productBarcode);
     }
     
     /**
@@ -159,9 +157,9 @@ public class LogsService {
     }
 
     /**
-     * Find logs by product barcode
+     * Find logs by product barcode, including entries still in the outbox
      */
     public List<Logs> findByProductBarcode(String productBarcode) {
-        return logsRepository.findByProductBarcode(productBarcode);
+        return logOutboxService.findByProductBarcode(productBarcode);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.inventory.service;
+
+import com.inventory.util.OrderIdGenerator;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service assigning the node ID of the order ID generator
+ *
+ * A configured inventory.node-id (INVENTORY_NODE_ID) is used as is; each instance must then be
+ * given its own. Otherwise the instance leases a free node ID from the order_node_lease table at
+ * startup and renews the lease while it runs. A lease is never released early: it runs out on its
+ * own, so an instance restarted on a host whose clock is behind cannot reuse a node ID for
+ * milliseconds the previous holder already issued IDs in. The app does not start without a node ID.
+ */
+@Service
+public class OrderNodeLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderNodeLeaseService.class);
+
+    private static final String ACQUIRE = "UPDATE order_node_lease SET instance_id = ?, " +
+            "leased_until = now() + make_interval(secs => ?) " +
+            "WHERE node_id = (SELECT node_id FROM order_node_lease WHERE leased_until < now() " +
+            "ORDER BY node_id LIMIT 1 FOR UPDATE SKIP LOCKED) " +
+            "RETURNING node_id";
+
+    private static final String RENEW = "UPDATE order_node_lease SET leased_until = now() + make_interval(secs => ?) " +
+            "WHERE node_id = ? AND instance_id = ? AND leased_until >= now()";
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Value("${inventory.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${inventory.node-lease.seconds:300}")
+    private long leaseSeconds;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Leased node ID, -1 when configured or not held
+    private volatile long leasedNodeId = -1;
+
+    @PostConstruct
+    public void assignNodeId() {
+        if (configuredNodeId != null && !configuredNodeId.isBlank()) {
+            long nodeId;
+            try {
+                nodeId = Long.parseLong(configuredNodeId.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Invalid inventory.node-id: " + configuredNodeId);
+            }
+            OrderIdGenerator.useNodeId(nodeId, Long.MAX_VALUE);
+            logger.info("Using configured node ID {} for order IDs", nodeId);
+            return;
+        }
+        acquire();
+    }
+
+    /**
+     * Renew the lease well before it runs out, or lease a new node ID if it was lost
+     */
+    @Scheduled(fixedDelayString = "${inventory.node-lease.renew-ms:60000}",
+            initialDelayString = "${inventory.node-lease.renew-ms:60000}")
+    public void renewLease() {
+        if (leasedNodeId < 0) {
+            return;
+        }
+        try {
+            // Counted from before the statement, so the local lease never outlasts the database one
+            long validUntil = System.currentTimeMillis() + leaseSeconds * 1000;
+            if (jdbcTemplate.update(RENEW, leaseSeconds, leasedNodeId, instanceId) == 1) {
+                OrderIdGenerator.useNodeId(leasedNodeId, validUntil);
+                return;
+            }
+            logger.warn("Lease of node ID {} ran out, leasing a new node ID for order IDs", leasedNodeId);
+            acquire();
+        } catch (Exception e) {
+            // Order IDs stay available until the current lease runs out
+            logger.error("Error renewing the lease of node ID {}: {}", leasedNodeId, e.getMessage(), e);
+        }
+    }
+
+    private void acquire() {
+        long validUntil = System.currentTimeMillis() + leaseSeconds * 1000;
+        List<Long> nodeIds = jdbcTemplate.queryForList(ACQUIRE, Long.class, instanceId, leaseSeconds);
+        if (nodeIds.isEmpty()) {
+            throw new IllegalStateException("No free node ID for order IDs; all 1024 are leased");
+        }
+        leasedNodeId = nodeIds.get(0);
+        OrderIdGenerator.useNodeId(leasedNodeId, validUntil);
+        logger.info("Leased node ID {} for order IDs", leasedNodeId);
+    }
+}
@@ -12,6 +12,7 @@ import com.inventory.repository.LogsRepository;
 import com.inventory.repository.LentIdRepository;
 import com.inventory.repository.BrokenIdRepository;
 import com.inventory.repository.InvoiceRepository;
+import com.inventory.util.InventoryUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -19,10 +20,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.ZonedDateTime;
 import java.time.ZoneId;
-import java.util.Random;
 
 /**
  * Service for order operations
@@ -38,6 +37,9 @@ public class OrderService {
     
     @Autowired
     private LogsRepository logsRepository;
+
+    @Autowired
+    private LogOutboxService logOutboxService;
     
     @Autowired
     private LentIdRepository lentIdRepository;
@@ -103,11 +105,7 @@ public class OrderService {
      * Generate a unique ID for broken items
      */
     private String generateBrokenItemId() {
-        String prefix = "DMG";
-        String timestamp = ZonedDateTime.now(ZoneId.of("Asia/Bangkok")).format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String random = String.format("%04d", new Random().nextInt(10000));
-        
-        return prefix + "-" + timestamp + "-" + random;
+        return InventoryUtils.generateOrderId("DMG");
     }
     
     /**
@@ -215,7 +213,7 @@ public class OrderService {
      */
     private String findBoxBarcodeForProductBarcode(String productBarcode) {
         // Query the logs to find the most recent entry for this product barcode
-        return logsRepository.findBoxBarcodeByProductBarcode(productBarcode)
+        return logOutboxService.findBoxBarcodeByProductBarcode(productBarcode)
                 .orElseThrow(() -> new ResourceNotFoundException("Product barcode not found: " + productBarcode));
     }
     
@@ -1,5 +1,6 @@
 package com.inventory.service;
 
+import com.inventory.dto.ProductCatalogView;
 import com.inventory.exception.ResourceNotFoundException;
 import com.inventory.exception.InvalidInputException;
 import com.inventory.model.ProductCatalog;
@@ -31,6 +32,12 @@ public class ProductService {
     @Autowired
     private SyncService syncService;
     
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+    
+    // Note on the "add" logs written when a product is created; they do not add stock
+    public static final String PRODUCT_CREATED_NOTE = "Product created";
+    
     // Valid values for numberSn
     private static final List<Integer> VALID_SN_VALUES = Arrays.asList(0, 1, 2);
     
@@ -67,6 +74,7 @@ public class ProductService {
         product.setNumberSn(numberSn);
         
         ProductCatalog savedProduct = productCatalogRepository.save(product);
+        cacheInvalidationService.publish(CacheInvalidationService.CATALOG, boxBarcode);
         
         // Create corresponding stock entry with zero quantity
         syncService.createOrUpdateStock(boxBarcode, productName);
@@ -89,22 +97,23 @@ public class ProductService {
         
         // Save the product to catalog
         ProductCatalog savedProduct = productCatalogRepository.save(product);
+        cacheInvalidationService.publish(CacheInvalidationService.CATALOG, product.getBoxBarcode());
         
         // Create logs based on number_sn
         switch (product.getNumberSn()) {
             case 0:
                 // For products with no serial number, use "StP" as barcode
-                logsService.createLog(product.getBoxBarcode(), product.getProductName(), "StP", "add");
+                logsService.createLog(product.getBoxBarcode(), product.getProductName(), "StP", "add", PRODUCT_CREATED_NOTE);
                 break;
                 
             case 1:
                 // For products with one serial number, use the actual barcode
-                logsService.createLog(product.getBoxBarcode(), product.getProductName(), productBarcode, "add");
+                logsService.createLog(product.getBoxBarcode(), product.getProductName(), productBarcode, "add", PRODUCT_CREATED_NOTE);
                 break;
                 
             case 2:
                 // For products with two serial numbers, create two logs
-                logsService.createLog(product.getBoxBarcode(), product.getProductName(), productBarcode, "add");
+                logsService.createLog(product.getBoxBarcode(), product.getProductName(), productBarcode, "add", PRODUCT_CREATED_NOTE);
                 
                 // Create second log with modified barcode
                 String secondBarcode;
@@ -117,10 +126,10 @@ public class ProductService {
                         // Odd barcode, add 1
                         secondBarcode = String.valueOf(barcodeValue + 1);
                     }
-                    logsService.createLog(product.getBoxBarcode(), product.getProductName(), secondBarcode, "add");
+                    logsService.createLog(product.getBoxBarcode(), product.getProductName(), secondBarcode, "add", PRODUCT_CREATED_NOTE);
                 } catch (NumberFormatException e) {
                     // If barcode is not a number, just use the original
-                    logsService.createLog(product.getBoxBarcode(), product.getProductName(), productBarcode, "add");
+                    logsService.createLog(product.getBoxBarcode(), product.getProductName(), productBarcode, "add", PRODUCT_CREATED_NOTE);
                 }
                 break;
         }
@@ -136,6 +145,14 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with box barcode: " + boxBarcode));
     }
     
+    /**
+     * Get a product as a read projection
+     */
+    public ProductCatalogView getProductView(String boxBarcode) {
+        return productCatalogRepository.findProjectedByBoxBarcode(boxBarcode)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with box barcode: " + boxBarcode));
+    }
+    
     /**
      * Get all products with sorting and pagination
      */
@@ -158,7 +175,7 @@ public class ProductService {
     /**
      * Get all products with sorting and pagination
      */
-    public org.springframework.data.domain.Page<ProductCatalog> getAllProductsPage(int page, int size, String sort, String direction, String search) {
+    public org.springframework.data.domain.Page<ProductCatalogView> getAllProductsPage(int page, int size, String sort, String direction, String search) {
         org.springframework.data.domain.Sort.Direction sortDirection = 
             direction.equalsIgnoreCase("desc") ? 
             org.springframework.data.domain.Sort.Direction.DESC : 
@@ -170,9 +187,9 @@ public class ProductService {
                 org.springframework.data.domain.Sort.by(sortDirection, sort)
             );
         if (search != null && !search.trim().isEmpty()) {
-            return productCatalogRepository.searchProducts(search, pageable);
+            return productCatalogRepository.searchProductViews(search, pageable);
         } else {
-            return productCatalogRepository.findAll(pageable);
+            return productCatalogRepository.findProjectedBy(pageable);
         }
     }
     
@@ -196,7 +213,9 @@ public class ProductService {
             product.setNumberSn(numberSn);
         }
         
-        return productCatalogRepository.save(product);
+        ProductCatalog savedProduct = productCatalogRepository.save(product);
+        cacheInvalidationService.publish(CacheInvalidationService.CATALOG, boxBarcode);
+        return savedProduct;
     }
     
     /**
@@ -206,6 +225,7 @@ public class ProductService {
     public void deleteProduct(String boxBarcode) {
         ProductCatalog product = getProduct(boxBarcode);
         productCatalogRepository.delete(product);
+        cacheInvalidationService.publish(CacheInvalidationService.CATALOG, boxBarcode);
     }
     
     /**
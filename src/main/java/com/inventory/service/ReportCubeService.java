@@ -0,0 +1,349 @@
+package com.inventory.service;
+
+import com.inventory.dto.ReportTotalsDTO;
+import com.inventory.dto.ReportTrendDTO;
+import com.inventory.exception.InvalidInputException;
+import com.inventory.model.LentId;
+import com.inventory.model.Logs;
+import com.inventory.model.Sales;
+import com.inventory.repository.LentIdRepository;
+import com.inventory.repository.MovementDailyRepository;
+import com.inventory.repository.SalesDailyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service for the reporting cube
+ *
+ * The cube is made of two daily rollups with the same shape: sales_daily, which holds sales line
+ * counts and quantities per day, shop, employee and product, and movement_daily, which holds the
+ * same for lent and broken lines per operation. Every sales line adds to its sales_daily row in the
+ * same transaction, and removing the line subtracts it again. Lent and broken lines are added from
+ * their log entries just before the transaction commits. Count, sum, top-N and trend reports read
+ * only the rollups. A nightly job recomputes the recent days of both rollups from the sales table
+ * and the logs to correct any drift.
+ */
+@Service
+public class ReportCubeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportCubeService.class);
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Bangkok");
+
+    private static final String REBUILD_JOB = "report-cube-rebuild";
+
+    public static final String SALES = "sales";
+    public static final String LENT = "lent";
+    public static final String BROKEN = "broken";
+
+    // Operation to the rollup that holds it
+    private static final Map<String, Rollup> ROLLUPS = Map.of(
+            SALES, new Rollup("sales_daily", "sales_date", "sales_count", false),
+            LENT, new Rollup("movement_daily", "movement_date", "line_count", true),
+            BROKEN, new Rollup("movement_daily", "movement_date", "line_count", true));
+
+    // Operations counted from log entries
+    private static final Set<String> LOG_OPERATIONS = Set.of(LENT, BROKEN);
+
+    // Trend period to date_trunc unit
+    private static final Map<String, String> PERIOD_UNITS = Map.of(
+            "daily", "day",
+            "weekly", "week",
+            "monthly", "month");
+
+    // Top-N dimension to grouping columns
+    private static final Map<String, String> TOP_GROUPS = Map.of(
+            "product", "box_barcode, product_name",
+            "shop", "shop_name",
+            "employee", "employee_id");
+
+    private static final int MAX_TOP_LIMIT = 100;
+
+    @Value("${inventory.report-cube.rebuild-days:7}")
+    private int rebuildDays;
+
+    @Autowired
+    private SalesDailyRepository salesDailyRepository;
+
+    @Autowired
+    private MovementDailyRepository movementDailyRepository;
+
+    @Autowired
+    private LentIdRepository lentIdRepository;
+
+    @Autowired
+    private AdvisoryLockService advisoryLockService;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Add a new sales line to the cube
+     */
+    @Transactional
+    public void recordSale(Sales sales) {
+        applySale(sales, 1);
+    }
+
+    /**
+     * Remove a deleted sales line from the cube
+     */
+    @Transactional
+    public void removeSale(Sales sales) {
+        applySale(sales, -1);
+    }
+
+    private void applySale(Sales sales, int direction) {
+        // Lines without a timestamp never belonged to a day
+        if (sales.getTimestamp() == null) {
+            return;
+        }
+        LocalDate salesDate = sales.getTimestamp().withZoneSameInstant(ZONE).toLocalDate();
+        long quantity = sales.getQuantity() != null ? sales.getQuantity() : 0;
+        salesDailyRepository.addSales(salesDate, sales.getShopName(), sales.getEmployeeId(),
+                sales.getBoxBarcode(), sales.getProductName(), direction, direction * quantity);
+    }
+
+    /**
+     * Add the lent and broken lines of log entries to the cube
+     * Called with the entries of a transaction just before it commits; other operations are ignored.
+     */
+    @Transactional
+    public void recordLogs(List<Logs> entries) {
+        List<Logs> lines = entries.stream()
+                .filter(entry -> LOG_OPERATIONS.contains(entry.getOperation()) && entry.getTimestamp() != null)
+                .collect(Collectors.toList());
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        // Lent lines are reported under the shop and employee of their order
+        Set<String> lentOrderIds = lines.stream()
+                .filter(entry -> LENT.equals(entry.getOperation()) && entry.getOrderId() != null)
+                .map(Logs::getOrderId)
+                .collect(Collectors.toSet());
+        Map<String, LentId> lentOrders = new HashMap<>();
+        if (!lentOrderIds.isEmpty()) {
+            lentIdRepository.findAllById(lentOrderIds).forEach(order -> lentOrders.put(order.getLentId(), order));
+        }
+
+        // One upsert per cube row
+        Map<List<Object>, long[]> totals = new LinkedHashMap<>();
+        for (Logs entry : lines) {
+            LentId order = LENT.equals(entry.getOperation()) ? lentOrders.get(entry.getOrderId()) : null;
+            List<Object> key = List.of(
+                    entry.getTimestamp().withZoneSameInstant(ZONE).toLocalDate(),
+                    entry.getOperation(),
+                    order != null ? order.getShopName() : "",
+                    order != null ? order.getEmployeeId() : "",
+                    entry.getBoxBarcode(),
+                    entry.getProductName());
+            long[] total = totals.computeIfAbsent(key, k -> new long[2]);
+            total[0]++;
+            total[1] += entry.getQuantity() != null ? entry.getQuantity() : 1;
+        }
+        totals.forEach((key, total) -> movementDailyRepository.addLines((LocalDate) key.get(0), (String) key.get(1),
+                (String) key.get(2), (String) key.get(3), (String) key.get(4), (String) key.get(5), total[0], total[1]));
+    }
+
+    /**
+     * Rebuild the recent days of the cube
+     */
+    @Scheduled(cron = "${inventory.report-cube.rebuild-cron:0 15 1 * * ?}", zone = "Asia/Bangkok")
+    public void scheduledRebuild() {
+        LocalDate today = LocalDate.now(ZONE);
+        try {
+            rebuild(today.minusDays(rebuildDays), today);
+        } catch (Exception e) {
+            logger.error("Error rebuilding the report cube: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recompute both rollups of a date range from the sales table and the logs
+     * Lines committed while the rebuild runs wait on the rollup rows and are added after it.
+     * @return The number of cube rows written, or -1 if another instance is rebuilding
+     */
+    @Transactional
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        validateRange(startDate, endDate);
+        if (!advisoryLockService.tryLockJob(REBUILD_JOB)) {
+            logger.info("Report cube rebuild is already running on another instance");
+            return -1;
+        }
+
+        int deleted = salesDailyRepository.deleteByDateRange(startDate, endDate)
+                + movementDailyRepository.deleteByDateRange(startDate, endDate);
+        int written = salesDailyRepository.insertFromSales(startDate, endDate)
+                + movementDailyRepository.insertFromLogs(startDate, endDate);
+        logger.info("Rebuilt the report cube from {} to {}: {} rows replaced by {}", startDate, endDate, deleted, written);
+        return written;
+    }
+
+    /**
+     * Get the totals of one operation over a date range
+     */
+    @Transactional(readOnly = true)
+    public ReportTotalsDTO getTotals(String operation, LocalDate startDate, LocalDate endDate,
+                                     String shopName, String employeeId, String boxBarcode) {
+        Rollup rollup = rollup(operation);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = buildWhere(rollup, operation, startDate, endDate, shopName, employeeId, boxBarcode, params);
+        return namedParameterJdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(" + rollup.countColumn + "), 0) AS line_count, COALESCE(SUM(quantity), 0) AS quantity " +
+                "FROM " + rollup.table + where,
+                params, (rs, rowNum) -> new ReportTotalsDTO(null, null, rs.getLong("line_count"), rs.getLong("quantity")));
+    }
+
+    /**
+     * Get the totals of one operation per day, week or month
+     * @param period daily, weekly (weeks start on Monday) or monthly
+     * @param shopName Optional shop filter
+     * @param employeeId Optional employee filter
+     * @param boxBarcode Optional product filter
+     */
+    @Transactional(readOnly = true)
+    public List<ReportTrendDTO> getTrend(String operation, String period, LocalDate startDate, LocalDate endDate,
+                                         String shopName, String employeeId, String boxBarcode) {
+        String unit = period != null ? PERIOD_UNITS.get(period.toLowerCase()) : null;
+        if (unit == null) {
+            throw new InvalidInputException("Period must be one of " + PERIOD_UNITS.keySet());
+        }
+        Rollup rollup = rollup(operation);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = buildWhere(rollup, operation, startDate, endDate, shopName, employeeId, boxBarcode, params);
+
+        return namedParameterJdbcTemplate.query(
+                "SELECT CAST(date_trunc('" + unit + "', " + rollup.dateColumn + ") AS DATE) AS period_start, " +
+                "SUM(" + rollup.countColumn + ") AS line_count, SUM(quantity) AS quantity " +
+                "FROM " + rollup.table + where + " GROUP BY 1 ORDER BY 1",
+                params, (rs, rowNum) -> new ReportTrendDTO(
+                        rs.getDate("period_start").toLocalDate(),
+                        rs.getLong("line_count"),
+                        rs.getLong("quantity")));
+    }
+
+    /**
+     * Get the products, shops or employees with the highest totals of one operation
+     * @param groupBy product, shop or employee
+     * @param orderBy quantity or count
+     * @param limit Number of groups, at most 100
+     */
+    @Transactional(readOnly = true)
+    public List<ReportTotalsDTO> getTop(String operation, String groupBy, String orderBy, int limit,
+                                        LocalDate startDate, LocalDate endDate,
+                                        String shopName, String employeeId, String boxBarcode) {
+        String groupColumns = groupBy != null ? TOP_GROUPS.get(groupBy.toLowerCase()) : null;
+        if (groupColumns == null) {
+            throw new InvalidInputException("Group must be one of " + TOP_GROUPS.keySet());
+        }
+        if (!"quantity".equalsIgnoreCase(orderBy) && !"count".equalsIgnoreCase(orderBy)) {
+            throw new InvalidInputException("Order must be quantity or count");
+        }
+        if (limit < 1 || limit > MAX_TOP_LIMIT) {
+            throw new InvalidInputException("Limit must be between 1 and " + MAX_TOP_LIMIT);
+        }
+        Rollup rollup = rollup(operation);
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = buildWhere(rollup, operation, startDate, endDate, shopName, employeeId, boxBarcode, params);
+        params.addValue("limit", limit);
+
+        boolean byProduct = "product".equalsIgnoreCase(groupBy);
+        String orderColumn = "count".equalsIgnoreCase(orderBy) ? "line_count" : "quantity";
+        return namedParameterJdbcTemplate.query(
+                "SELECT " + groupColumns + ", SUM(" + rollup.countColumn + ") AS line_count, SUM(quantity) AS quantity " +
+                "FROM " + rollup.table + where + " GROUP BY " + groupColumns +
+                " ORDER BY " + orderColumn + " DESC, 1 LIMIT :limit",
+                params, (rs, rowNum) -> new ReportTotalsDTO(
+                        rs.getString(1),
+                        byProduct ? rs.getString("product_name") : null,
+                        rs.getLong("line_count"),
+                        rs.getLong("quantity")));
+    }
+
+    /**
+     * Get the rollup that holds an operation
+     */
+    private static Rollup rollup(String operation) {
+        Rollup rollup = operation != null ? ROLLUPS.get(operation.toLowerCase()) : null;
+        if (rollup == null) {
+            throw new InvalidInputException("Operation must be one of " + ROLLUPS.keySet());
+        }
+        return rollup;
+    }
+
+    /**
+     * Build the WHERE clause shared by the cube queries
+     */
+    private static String buildWhere(Rollup rollup, String operation, LocalDate startDate, LocalDate endDate,
+                                     String shopName, String employeeId, String boxBarcode,
+                                     MapSqlParameterSource params) {
+        validateRange(startDate, endDate);
+
+        StringBuilder where = new StringBuilder(" WHERE " + rollup.dateColumn + " BETWEEN :startDate AND :endDate");
+        params.addValue("startDate", startDate)
+                .addValue("endDate", endDate);
+        if (rollup.byOperation) {
+            where.append(" AND operation = :operation");
+            params.addValue("operation", operation.toLowerCase());
+        }
+        if (shopName != null && !shopName.isEmpty()) {
+            where.append(" AND shop_name = :shopName");
+            params.addValue("shopName", shopName);
+        }
+        if (employeeId != null && !employeeId.isEmpty()) {
+            where.append(" AND employee_id = :employeeId");
+            params.addValue("employeeId", employeeId);
+        }
+        if (boxBarcode != null && !boxBarcode.isEmpty()) {
+            where.append(" AND box_barcode = :boxBarcode");
+            params.addValue("boxBarcode", boxBarcode);
+        }
+        return where.toString();
+    }
+
+    private static void validateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new InvalidInputException("Start date and end date are required");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new InvalidInputException("Start date must be before end date");
+        }
+    }
+
+    /**
+     * Table and columns of one daily rollup
+     */
+    private static final class Rollup {
+
+        private final String table;
+        private final String dateColumn;
+        private final String countColumn;
+
+        // Whether the table holds several operations in an operation column
+        private final boolean byOperation;
+
+        private Rollup(String table, String dateColumn, String countColumn, boolean byOperation) {
+            this.table = table;
+            this.dateColumn = dateColumn;
+            this.countColumn = countColumn;
+            this.byOperation = byOperation;
+        }
+    }
+}
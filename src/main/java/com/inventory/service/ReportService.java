@@ -2,6 +2,9 @@ package com.inventory.service;
 
 import com.inventory.dto.CurrentInventoryDTO;
 import com.inventory.dto.InventoryMovementDTO;
+import com.inventory.dto.PageResponseDTO;
+import com.inventory.dto.StockAgingDTO;
+import com.inventory.exception.InvalidInputException;
 import com.inventory.model.CurrentStock;
 import com.inventory.model.Logs;
 import com.inventory.repository.CurrentStockRepository;
@@ -9,8 +12,15 @@ import com.inventory.repository.LogsRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
@@ -25,6 +35,22 @@ public class ReportService {
 
     private static final Logger logger = LoggerFactory.getLogger(ReportService.class);
 
+    private static final ZoneId ZONE = ZoneId.of("Asia/Bangkok");
+
+    // Sortable fields of the aging report and their result columns
+    private static final Map<String, String> AGING_SORT_COLUMNS = Map.of(
+            "boxBarcode", "a.box_barcode",
+            "productName", "product_name",
+            "totalUnits", "a.total_units",
+            "days0To30", "a.days_0_30",
+            "days31To90", "a.days_31_90",
+            "days91To180", "a.days_91_180",
+            "daysOver180", "a.days_over_180",
+            "oldestAddedTimestamp", "a.oldest_added");
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
     @Autowired
     private CurrentStockRepository currentStockRepository;
     
@@ -36,6 +62,7 @@ public class ReportService {
      * @param categoryFilter Optional category filter
      * @return List of current inventory items with quantities
      */
+    @Transactional(readOnly = true)
     public List<CurrentInventoryDTO> getCurrentInventoryLevels(String categoryFilter) {
         logger.info("Fetching current inventory levels with category filter: {}", categoryFilter);
         
@@ -83,6 +110,7 @@ public class ReportService {
      * @param boxBarcode Optional box barcode filter
      * @return Movement analysis data
      */
+    @Transactional(readOnly = true)
     public List<InventoryMovementDTO> getInventoryMovementAnalysis(
             ZonedDateTime startDate, ZonedDateTime endDate, String boxBarcode) {
         
@@ -150,12 +178,12 @@ public class ReportService {
     /**
      * Get current inventory levels, optionally filtering out zero-quantity items
      */
+    @Transactional(readOnly = true)
     public List<CurrentInventoryDTO> getCurrentInventoryLevels(String category, boolean includeZeroQuantity) {
-        List<CurrentStock> allStock = currentStockRepository.findAll();
+        String categoryFilter = category != null && !category.isEmpty() ? category : null;
+        List<CurrentStock> levels = currentStockRepository.findInventoryLevels(categoryFilter, includeZeroQuantity);
         
-        return allStock.stream()
-                .filter(stock -> includeZeroQuantity || stock.getQuantity() > 0)
-                .filter(stock -> category == null || stock.getProductName().contains(category))
+        return levels.stream()
                 .map(stock -> {
                     CurrentInventoryDTO dto = new CurrentInventoryDTO();
                     dto.setBoxBarcode(stock.getBoxBarcode());
@@ -174,4 +202,88 @@ public class ReportService {
                 })
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Get the stock aging report
+     * Buckets the serialized units in stock by days since they were added, per product,
+     * with one aggregate query over in_stock.
+     * @param boxBarcode Optional box barcode filter
+     * @param page Page number
+     * @param size Page size
+     * @param sortBy Field to sort by
+     * @param sortDirection asc or desc
+     */
+    @Transactional(readOnly = true)
+    public PageResponseDTO<StockAgingDTO> getStockAging(String boxBarcode, int page, int size,
+                                                        String sortBy, String sortDirection) {
+        String sortColumn = AGING_SORT_COLUMNS.get(sortBy);
+        if (sortColumn == null) {
+            throw new InvalidInputException("Invalid sort field: " + sortBy + ". Allowed: " + AGING_SORT_COLUMNS.keySet());
+        }
+        if (page < 0 || size < 1) {
+            throw new InvalidInputException("Page must be >= 0 and size must be >= 1");
+        }
+        String direction = "desc".equalsIgnoreCase(sortDirection) ? "DESC" : "ASC";
+        boolean filtered = boxBarcode != null && !boxBarcode.isEmpty();
+
+        // Age is counted in calendar days, so each bucket starts at midnight
+        LocalDate today = ZonedDateTime.now(ZONE).toLocalDate();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("cutoff30", startOfDay(today.minusDays(30)))
+                .addValue("cutoff90", startOfDay(today.minusDays(90)))
+                .addValue("cutoff180", startOfDay(today.minusDays(180)))
+                .addValue("boxBarcode", boxBarcode)
+                .addValue("limit", size)
+                .addValue("offset", (long) page * size);
+
+        // Aggregate by box barcode only, so the index on (box_barcode, added_timestamp) covers the scan
+        String sql = "SELECT a.box_barcode, COALESCE(pc.product_name, a.product_name) AS product_name, " +
+                "a.total_units, a.days_0_30, a.days_31_90, a.days_91_180, a.days_over_180, a.oldest_added, " +
+                "COUNT(*) OVER () AS total_rows " +
+                "FROM (SELECT box_barcode, MIN(product_name) AS product_name, COUNT(*) AS total_units, " +
+                "SUM(CASE WHEN added_timestamp >= :cutoff30 THEN 1 ELSE 0 END) AS days_0_30, " +
+                "SUM(CASE WHEN added_timestamp >= :cutoff90 AND added_timestamp < :cutoff30 THEN 1 ELSE 0 END) AS days_31_90, " +
+                "SUM(CASE WHEN added_timestamp >= :cutoff180 AND added_timestamp < :cutoff90 THEN 1 ELSE 0 END) AS days_91_180, " +
+                "SUM(CASE WHEN added_timestamp IS NULL OR added_timestamp < :cutoff180 THEN 1 ELSE 0 END) AS days_over_180, " +
+                "MIN(added_timestamp) AS oldest_added " +
+                "FROM in_stock " +
+                (filtered ? "WHERE box_barcode = :boxBarcode " : "") +
+                "GROUP BY box_barcode) a " +
+                "LEFT JOIN product_catalog pc ON pc.box_barcode = a.box_barcode " +
+                "ORDER BY " + sortColumn + " " + direction + ", a.box_barcode " +
+                "LIMIT :limit OFFSET :offset";
+
+        long[] total = {0};
+        List<StockAgingDTO> content = namedParameterJdbcTemplate.query(sql, params, (rs, rowNum) -> {
+            total[0] = rs.getLong("total_rows");
+            StockAgingDTO dto = new StockAgingDTO();
+            dto.setBoxBarcode(rs.getString("box_barcode"));
+            dto.setProductName(rs.getString("product_name"));
+            dto.setTotalUnits(rs.getLong("total_units"));
+            dto.setDays0To30(rs.getLong("days_0_30"));
+            dto.setDays31To90(rs.getLong("days_31_90"));
+            dto.setDays91To180(rs.getLong("days_91_180"));
+            dto.setDaysOver180(rs.getLong("days_over_180"));
+            Timestamp oldest = rs.getTimestamp("oldest_added");
+            if (oldest != null) {
+                dto.setOldestAddedTimestamp(oldest.toInstant().atZone(ZONE));
+                dto.setOldestDays(ChronoUnit.DAYS.between(dto.getOldestAddedTimestamp().toLocalDate(), today));
+            }
+            return dto;
+        });
+
+        // A page past the end has no rows to carry the total
+        if (content.isEmpty() && page > 0) {
+            total[0] = namedParameterJdbcTemplate.queryForObject(
+                    "SELECT COUNT(DISTINCT box_barcode) FROM in_stock" + (filtered ? " WHERE box_barcode = :boxBarcode" : ""),
+                    params, Long.class);
+        }
+
+        logger.debug("Stock aging page {} with {} of {} products", page, content.size(), total[0]);
+        return PageResponseDTO.from(new PageImpl<>(content, PageRequest.of(page, size), total[0]));
+    }
+
+    private static Timestamp startOfDay(LocalDate date) {
+        return Timestamp.from(date.atStartOfDay(ZONE).toInstant());
+    }
 } 
\ No newline at end of file
@@ -10,6 +10,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service for filtering and paginating sales
@@ -23,6 +24,7 @@ public class SalesFilterService {
     /**
      * Find sales with filtering and pagination
      */
+    @Transactional(readOnly = true)
     public Page<Sales> findSales(SalesFilterDTO filter) {
         Pageable pageable = PageableBuilder.build(
             filter.getPage(), 
@@ -42,6 +42,12 @@ public class SalesOrderService {
     @Autowired
     private LogsRepository logsRepository;
 
+    @Autowired
+    private LogOutboxService logOutboxService;
+    
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
     @Autowired
     private InStockService inStockService;
 
@@ -51,6 +57,12 @@ public class SalesOrderService {
     @Autowired
     private SalesRepository salesRepository;
     
+    @Autowired
+    private ReportCubeService reportCubeService;
+
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
+    
     /**
      * Process a sales order with mixed product types
      */
@@ -61,6 +73,7 @@ public class SalesOrderService {
         if (allProducts.isEmpty()) {
             throw new InvalidInputException("No products specified in the order");
         }
+        inventoryMetrics.recordOrderSize("sales", allProducts.size());
         
         // Validate shopName is provided
         if (orderDTO.getShopName() == null || orderDTO.getShopName().isEmpty()) {
@@ -77,18 +90,8 @@ public class SalesOrderService {
             throw new InvalidInputException("Sales order ID already exists: " + orderDTO.getOrderId());
         }
 
-        // --- NEW: Create and save Invoice with note ---
-        Invoice invoice = new Invoice();
-        invoice.setInvoice(orderDTO.getOrderId());
-        invoice.setEmployeeId(orderDTO.getEmployeeId());
-        invoice.setShopName(orderDTO.getShopName());
-        invoice.setTimestamp(ZonedDateTime.now(ZoneId.of("Asia/Bangkok")));
-        invoice.setLastModified(ZonedDateTime.now(ZoneId.of("Asia/Bangkok")));
-        invoice.setNote(orderDTO.getNote());
-        invoice.setEditCount(0);
-        invoice.setEditHistory(null);
-        invoiceRepository.save(invoice);
-        // --- END NEW ---
+        // Create and save Invoice with note
+        createInvoice(orderDTO);
         
         // Process each product identifier
         for (ProductIdentifierDTO product : allProducts) {
@@ -100,6 +103,49 @@ public class SalesOrderService {
         }
     }
     
+    /**
+     * Process one micro-batch of scanned items for a sales order
+     * The invoice is created with the first batch, later batches are added to the same order
+     */
+    @Transactional
+    public void processScannedSalesItems(SalesOrderDTO orderDTO) {
+        List<ProductIdentifierDTO> allProducts = orderDTO.getAllProducts();
+        
+        if (allProducts.isEmpty()) {
+            return;
+        }
+        
+        // Create the invoice on the first batch only
+        if (invoiceRepository.findByInvoice(orderDTO.getOrderId()).isEmpty()) {
+            createInvoice(orderDTO);
+        }
+        
+        // Process each product identifier
+        for (ProductIdentifierDTO product : allProducts) {
+            if (product.getIdentifier() == null || product.getIdentifier().isEmpty()) {
+                throw new InvalidInputException("Product identifier cannot be empty");
+            }
+            
+            processProductIdentifier(product, orderDTO);
+        }
+    }
+    
+    /**
+     * Create and save the invoice for a new sales order
+     */
+    private Invoice createInvoice(SalesOrderDTO orderDTO) {
+        Invoice invoice = new Invoice();
+        invoice.setInvoice(orderDTO.getOrderId());
+        invoice.setEmployeeId(orderDTO.getEmployeeId());
+        invoice.setShopName(orderDTO.getShopName());
+        invoice.setTimestamp(ZonedDateTime.now(ZoneId.of("Asia/Bangkok")));
+        invoice.setLastModified(ZonedDateTime.now(ZoneId.of("Asia/Bangkok")));
+        invoice.setNote(orderDTO.getNote());
+        invoice.setEditCount(0);
+        invoice.setEditHistory(null);
+        return invoiceRepository.save(invoice);
+    }
+    
     /**
      * Process a single product identifier
      */
@@ -206,7 +252,7 @@ public class SalesOrderService {
      */
     private String findBoxBarcodeForProductBarcode(String productBarcode) {
         // Query the logs to find the most recent entry for this product barcode
-        return logsRepository.findBoxBarcodeByProductBarcode(productBarcode)
+        return logOutboxService.findBoxBarcodeByProductBarcode(productBarcode)
                 .orElseThrow(() -> new ResourceNotFoundException("Product barcode not found: " + productBarcode));
     }
 
@@ -248,6 +294,7 @@ public class SalesOrderService {
         }
         invoice.addEditHistory("ADD_ITEMS", editDetails.toString().replaceAll(", $", ""));
         invoiceRepository.save(invoice);
+        cacheInvalidationService.publish(CacheInvalidationService.INVOICE, invoice.getInvoice());
 
         // Process each product using the dedicated edit method
         for (ProductIdentifierDTO product : itemDTO.getProducts()) {
@@ -297,6 +344,7 @@ public class SalesOrderService {
                     ", Product: " + salesRecord.getProductBarcode() : 
                     ", Quantity: " + salesRecord.getQuantity()));
         invoiceRepository.save(invoice);
+        cacheInvalidationService.publish(CacheInvalidationService.INVOICE, invoice.getInvoice());
 
         // Move the item back to stock
         stockService.returnSalesItemToStock(
@@ -307,6 +355,7 @@ public class SalesOrderService {
         );
 
         // Delete the sales record
+        reportCubeService.removeSale(salesRecord);
         salesRepository.delete(salesRecord);
     }
 
@@ -330,6 +379,7 @@ public class SalesOrderService {
         String newNote = (oldNote != null && !oldNote.isEmpty()) ? oldNote + "\n" + noteWithTimestamp : noteWithTimestamp;
         invoice.setNote(newNote);
         invoiceRepository.save(invoice);
+        cacheInvalidationService.publish(CacheInvalidationService.INVOICE, invoice.getInvoice());
 
         // Update notes for all sales records in this order
         List<Sales> salesRecords = salesRepository.findByOrderId(orderId);
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.annotation.Propagation;
 import com.inventory.dto.OrderSummaryDTO;
+import com.inventory.util.InventoryUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -32,6 +33,9 @@ public class SalesService extends BaseServiceImpl<Sales, Long, SalesRepository>
     @Autowired
     private InvoiceRepository invoiceRepository;
     
+    @Autowired
+    private ReportCubeService reportCubeService;
+    
     public SalesService(SalesRepository repository) {
         super(repository);
     }
@@ -73,7 +77,7 @@ public class SalesService extends BaseServiceImpl<Sales, Long, SalesRepository>
                 logger.info("Using default shop name: DEFAULT");
             }
             if (orderId == null || orderId.trim().isEmpty()) {
-                orderId = "ORDER-" + System.currentTimeMillis();  // Generate a random order ID
+                orderId = InventoryUtils.generateOrderId("ORDER");
                 logger.info("Generated order ID: {}", orderId);
             }
             if (quantity == null || quantity <= 0) {
@@ -104,6 +108,7 @@ public class SalesService extends BaseServiceImpl<Sales, Long, SalesRepository>
             
             Sales savedSales = salesRepository.save(sales);
             logger.info("Saved sales record with ID: {}", savedSales.getSalesId());
+            reportCubeService.recordSale(savedSales);
             
             // Force flush to ensure immediate persistence
             salesRepository.flush();
@@ -142,7 +147,7 @@ public class SalesService extends BaseServiceImpl<Sales, Long, SalesRepository>
                 // Create new invoice
                 invoice = new Invoice();
                 String finalInvoiceNumber = orderId != null && !orderId.isEmpty() ? 
-                                          orderId : "INV-" + System.currentTimeMillis();
+                                          orderId : InventoryUtils.generateOrderId("INV");
                 invoice.setInvoice(finalInvoiceNumber);
                 invoice.setEmployeeId(employeeId != null ? employeeId : "SYSTEM");
                 invoice.setShopName(shopName != null ? shopName : "DEFAULT");
@@ -239,7 +244,11 @@ public class SalesService extends BaseServiceImpl<Sales, Long, SalesRepository>
         logger.info("SalesService.save - Final isDirectSales value: {} (from initial: {})", 
             sales.getIsDirectSales(), initialIsDirectSales);
         
+        boolean isNew = sales.getSalesId() == null;
         Sales savedSales = salesRepository.save(sales);
+        if (isNew) {
+            reportCubeService.recordSale(savedSales);
+        }
         
         // Verify the saved value matches what we expected
         logger.info("After save operation - isDirectSales value: {}", savedSales.getIsDirectSales());
@@ -288,6 +297,7 @@ public class SalesService extends BaseServiceImpl<Sales, Long, SalesRepository>
         sales.setInvoiceId(invoice.getInvoiceId());
         
         Sales savedSales = salesRepository.save(sales);
+        reportCubeService.recordSale(savedSales);
         logger.info("After save operation - isDirectSales value: {}", savedSales.getIsDirectSales());
         
         return savedSales;
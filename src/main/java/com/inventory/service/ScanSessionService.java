@@ -0,0 +1,711 @@
+package com.inventory.service;
+
+import com.inventory.dto.BrokenOrderDTO;
+import com.inventory.dto.LentItemBatchProcessDTO;
+import com.inventory.dto.SalesOrderDTO;
+import com.inventory.dto.ScanAckDTO;
+import com.inventory.dto.ScanDTO;
+import com.inventory.dto.ScanSessionDTO;
+import com.inventory.dto.ScanSessionStatusDTO;
+import com.inventory.dto.StockAdditionDTO;
+import com.inventory.exception.InvalidInputException;
+import com.inventory.exception.ResourceNotFoundException;
+import com.inventory.model.Lend;
+import com.inventory.model.ProductCatalog;
+import com.inventory.repository.BrokenIdRepository;
+import com.inventory.repository.InvoiceRepository;
+import com.inventory.repository.LendRepository;
+import com.inventory.repository.ProductCatalogRepository;
+import com.inventory.util.InventoryUtils;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Service for continuous barcode scanning sessions
+ *
+ * A session is opened for one mode (add, sale, lent-return, broken). Every scan is validated
+ * immediately against the session's in-memory state and acknowledged as ACCEPTED or REJECTED.
+ * Accepted scans are committed in micro-batches through the existing bulk paths, either when
+ * the batch size is reached or when the oldest pending scan has waited for the flush interval.
+ * When adding a product with two serial numbers, both barcodes of a pair are committed together,
+ * so the pair is counted once. A barcode waits for its pair for at most the pair wait, then it is
+ * committed alone.
+ *
+ * Sessions live in memory on the instance that opened them, so clients must keep talking to
+ * the same instance (sticky sessions) when running more than one replica.
+ */
+@Service
+public class ScanSessionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScanSessionService.class);
+
+    private static final List<String> MODES = Arrays.asList("add", "sale", "lent-return", "broken");
+
+    @Value("${scan.session.batch-size:10}")
+    private int batchSize;
+
+    @Value("${scan.session.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${scan.session.pair-wait-ms:30000}")
+    private long pairWaitMs;
+
+    @Value("${scan.session.idle-timeout-minutes:30}")
+    private long idleTimeoutMinutes;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private SalesOrderService salesOrderService;
+
+    @Autowired
+    private BrokenOrderService brokenOrderService;
+
+    @Autowired
+    private LentOrderService lentOrderService;
+
+    @Autowired
+    private InStockService inStockService;
+
+    @Autowired
+    private ProductCatalogRepository productCatalogRepository;
+
+    @Autowired
+    private LendRepository lendRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private BrokenIdRepository brokenIdRepository;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    // Open sessions by session ID
+    private final Map<String, ScanSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Drop catalog entries cached by open sessions when a product changes on any instance
+     */
+    @PostConstruct
+    public void registerCaches() {
+        cacheInvalidationService.register(CacheInvalidationService.CATALOG,
+                boxBarcode -> sessions.values().forEach(session -> evictCatalog(session, boxBarcode)),
+                () -> sessions.values().forEach(session -> evictCatalog(session, null)));
+    }
+
+    /**
+     * Open a new scan session
+     */
+    public ScanSessionStatusDTO openSession(ScanSessionDTO request) {
+        String mode = request.getMode();
+        if (mode == null || !MODES.contains(mode)) {
+            throw new InvalidInputException("Mode must be one of: " + String.join(", ", MODES));
+        }
+
+        ScanSession session = new ScanSession(UUID.randomUUID().toString(), request);
+
+        switch (mode) {
+            case "add":
+                InventoryUtils.validateRequired(request.getBoxBarcode(), "Box barcode");
+                ProductCatalog product = productCatalogRepository.findById(request.getBoxBarcode())
+                        .orElseThrow(() -> new ResourceNotFoundException("Product not found with box barcode: " + request.getBoxBarcode()));
+                if (product.getNumberSn() == 0) {
+                    throw new InvalidInputException("Scan sessions only support adding serialized products");
+                }
+                session.pairs = product.getNumberSn() == 2;
+                break;
+            case "sale":
+                InventoryUtils.validateRequired(request.getShopName(), "Shop name");
+                session.orderId = request.getOrderId() != null && !request.getOrderId().isEmpty()
+                        ? request.getOrderId() : InventoryUtils.generateOrderId("SALES");
+                checkOrderId(session, !invoiceRepository.findByInvoice(session.orderId).isEmpty());
+                break;
+            case "broken":
+                InventoryUtils.validateRequired(request.getCondition(), "Condition");
+                session.orderId = request.getOrderId() != null && !request.getOrderId().isEmpty()
+                        ? request.getOrderId() : InventoryUtils.generateOrderId("BROKEN");
+                checkOrderId(session, brokenIdRepository.existsById(session.orderId));
+                break;
+            case "lent-return":
+                InventoryUtils.validateRequired(request.getOrderId(), "Order ID");
+                InventoryUtils.validateRequired(request.getEmployeeId(), "Employee ID");
+                // Preload the outstanding lent items so scans can be checked in memory
+                for (Lend lend : lendRepository.findByOrderId(request.getOrderId())) {
+                    if ("lent".equals(lend.getStatus())) {
+                        session.lentIdentifiers.add(lend.getProductBarcode() != null
+                                ? lend.getProductBarcode() : lend.getBoxBarcode());
+                    }
+                }
+                if (session.lentIdentifiers.isEmpty()) {
+                    throw new InvalidInputException("No outstanding lent items for order: " + request.getOrderId());
+                }
+                break;
+            default:
+                break;
+        }
+
+        sessions.put(session.sessionId, session);
+        logger.info("Opened scan session {} in mode {} (order: {})", session.sessionId, mode, session.orderId);
+
+        return toStatus(session);
+    }
+
+    /**
+     * Reject an order ID that is already in use unless the client asked to add to that order
+     */
+    private void checkOrderId(ScanSession session, boolean orderExists) {
+        if (Boolean.TRUE.equals(session.request.getAppendToOrder())) {
+            return;
+        }
+        boolean inOpenSession = sessions.values().stream()
+                .anyMatch(other -> other.mode.equals(session.mode) && session.orderId.equals(other.orderId));
+        if (orderExists || inOpenSession) {
+            throw new InvalidInputException("Order ID already exists: " + session.orderId
+                    + ". Set appendToOrder to add the scans to this order");
+        }
+    }
+
+    /**
+     * Validate and acknowledge scans for a session
+     * Accepted scans are committed later by the micro-batch flush
+     */
+    public List<ScanAckDTO> submitScans(String sessionId, List<ScanDTO> scans) {
+        ScanSession session = getOpenSession(sessionId);
+        List<ScanAckDTO> acks = new ArrayList<>();
+
+        // Pair barcodes are worked out before taking the session lock
+        List<String> pairBarcodes = new ArrayList<>(scans.size());
+        for (ScanDTO scan : scans) {
+            pairBarcodes.add(session.pairs && scan.getBarcode() != null && !scan.getBarcode().trim().isEmpty()
+                    ? stockService.findPairBarcode(scan.getBarcode().trim()) : null);
+        }
+
+        session.lock.lock();
+        try {
+            if (session.closed) {
+                throw new InvalidInputException("Scan session is closed: " + sessionId);
+            }
+
+            for (int i = 0; i < scans.size(); i++) {
+                ScanDTO scan = scans.get(i);
+                ScanRecord record = new ScanRecord();
+                record.seq = scan.getSeq() != null ? scan.getSeq() : ++session.lastSeq;
+                session.lastSeq = Math.max(session.lastSeq, record.seq);
+                record.barcode = scan.getBarcode() != null ? scan.getBarcode().trim() : null;
+
+                String rejection = validateScan(session, record.barcode);
+                if (rejection != null) {
+                    record.status = "REJECTED";
+                    record.message = rejection;
+                } else {
+                    record.status = "ACCEPTED";
+                    record.pairBarcode = pairBarcodes.get(i);
+                    record.acceptedAt = System.currentTimeMillis();
+                    session.activeBarcodes.add(record.barcode);
+                    addPending(session, record);
+                }
+
+                session.records.add(record);
+                acks.add(record.toAck());
+            }
+
+            session.lastActivityAt = System.currentTimeMillis();
+        } finally {
+            session.lock.unlock();
+        }
+
+        return acks;
+    }
+
+    /**
+     * Get the state of a session
+     */
+    public ScanSessionStatusDTO getSession(String sessionId) {
+        ScanSession session = sessions.get(sessionId);
+        if (session == null) {
+            throw new ResourceNotFoundException("Scan session not found: " + sessionId);
+        }
+        return toStatus(session);
+    }
+
+    /**
+     * Close a session, committing any scans that are still pending
+     */
+    public ScanSessionStatusDTO closeSession(String sessionId) {
+        ScanSession session = getOpenSession(sessionId);
+
+        session.lock.lock();
+        try {
+            session.closed = true;
+        } finally {
+            session.lock.unlock();
+        }
+
+        // Wait for a running flush, then commit whatever is left
+        session.flushLock.lock();
+        try {
+            while (hasPending(session)) {
+                flush(session);
+            }
+        } finally {
+            session.flushLock.unlock();
+        }
+
+        sessions.remove(sessionId);
+        logger.info("Closed scan session {}", sessionId);
+
+        return toStatus(session);
+    }
+
+    /**
+     * Commit due micro-batches and close idle sessions
+     */
+    @Scheduled(fixedDelayString = "${scan.session.tick-ms:100}")
+    public void flushDueSessions() {
+        long now = System.currentTimeMillis();
+
+        for (ScanSession session : sessions.values()) {
+            boolean due;
+            session.lock.lock();
+            try {
+                due = session.pending.size() - session.waitingForPair >= batchSize
+                        || (session.dueAt != 0 && now >= session.dueAt);
+            } finally {
+                session.lock.unlock();
+            }
+
+            if (due && session.flushLock.tryLock()) {
+                try {
+                    flush(session);
+                } finally {
+                    session.flushLock.unlock();
+                }
+            }
+
+            // Close sessions the client has abandoned
+            if (!session.closed && now - session.lastActivityAt > idleTimeoutMinutes * 60_000L) {
+                logger.warn("Scan session {} has been idle for {} minutes, closing it", session.sessionId, idleTimeoutMinutes);
+                closeSession(session.sessionId);
+            }
+        }
+    }
+
+    /**
+     * Validate a scan against the session state
+     * @return The rejection reason, or null if the scan is accepted
+     */
+    private String validateScan(ScanSession session, String barcode) {
+        if (barcode == null || barcode.isEmpty()) {
+            return "Barcode cannot be empty";
+        }
+
+        if (session.activeBarcodes.contains(barcode)) {
+            return "Barcode already scanned in this session: " + barcode;
+        }
+
+        boolean quantityFormat = barcode.contains(":");
+
+        switch (session.mode) {
+            case "add":
+                if (quantityFormat) {
+                    return "Quantity format is not supported when adding stock";
+                }
+                if (inStockService.isInStock(barcode)) {
+                    return "Product barcode already exists in stock: " + barcode;
+                }
+                return null;
+            case "sale":
+            case "broken":
+                if (quantityFormat) {
+                    return validateQuantityScan(session, barcode);
+                }
+                if (!inStockService.isInStock(barcode)) {
+                    return "Product barcode " + barcode + " is not in stock";
+                }
+                return null;
+            case "lent-return":
+                String identifier = quantityFormat ? barcode.split(":")[0] : barcode;
+                if (!session.lentIdentifiers.contains(identifier)) {
+                    return "Item is not lent in order " + session.orderId + ": " + identifier;
+                }
+                return null;
+            default:
+                return "Unsupported mode: " + session.mode;
+        }
+    }
+
+    /**
+     * Validate a non-serialized scan in BOX001:5 format
+     */
+    private String validateQuantityScan(ScanSession session, String barcode) {
+        String[] parts = barcode.split(":");
+        if (parts.length != 2) {
+            return "Invalid format for non-serialized product: " + barcode;
+        }
+
+        try {
+            if (Integer.parseInt(parts[1]) <= 0) {
+                return "Quantity must be greater than zero";
+            }
+        } catch (NumberFormatException e) {
+            return "Invalid quantity in: " + barcode;
+        }
+
+        // Catalog entries are cached for the lifetime of the session
+        ProductCatalog product = session.catalog.computeIfAbsent(parts[0],
+                boxBarcode -> productCatalogRepository.findById(boxBarcode).orElse(null));
+        if (product == null) {
+            return "Product not found with box barcode: " + parts[0];
+        }
+        if (product.getNumberSn() != 0) {
+            return "Quantity format only valid for non-serialized products: " + parts[0];
+        }
+        return null;
+    }
+
+    /**
+     * Commit the next micro-batch of a session
+     * Must be called while holding the session's flush lock
+     */
+    private void flush(ScanSession session) {
+        List<List<ScanRecord>> units;
+        session.lock.lock();
+        try {
+            units = takeBatch(session, System.currentTimeMillis());
+            session.dueAt = 0;
+            for (ScanRecord record : session.pending.values()) {
+                scheduleFlush(session, record);
+            }
+        } finally {
+            session.lock.unlock();
+        }
+
+        if (units.isEmpty()) {
+            return;
+        }
+
+        List<ScanRecord> batch = units.stream().flatMap(List::stream).collect(Collectors.toList());
+        try {
+            commitBatch(session, batch);
+        } catch (Exception e) {
+            logger.warn("Micro-batch of {} scans failed for session {}: {}", batch.size(), session.sessionId, e.getMessage());
+
+            if (units.size() == 1) {
+                batch.forEach(record -> markFailed(session, record, e.getMessage()));
+            } else {
+                // Commit the scans one by one, a pair as one, so only the offending scan fails
+                for (List<ScanRecord> unit : units) {
+                    try {
+                        commitBatch(session, unit);
+                    } catch (Exception itemError) {
+                        unit.forEach(record -> markFailed(session, record, itemError.getMessage()));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Add an accepted scan to the pending scans, pairing it with its pair if that is pending
+     * Must be called while holding the session lock
+     */
+    private void addPending(ScanSession session, ScanRecord record) {
+        if (record.pairBarcode != null) {
+            ScanRecord pair = session.pending.get(record.pairBarcode);
+            if (pair != null && pair.waitingForPair) {
+                pair.waitingForPair = false;
+                session.waitingForPair--;
+            } else {
+                record.waitingForPair = true;
+                session.waitingForPair++;
+            }
+        }
+        session.pending.put(record.barcode, record);
+        scheduleFlush(session, record);
+    }
+
+    /**
+     * Bring the next flush forward to when a pending scan is due
+     * A scan is due after the flush interval, or after the pair wait while it waits for its pair.
+     */
+    private void scheduleFlush(ScanSession session, ScanRecord record) {
+        long due = record.acceptedAt + (record.waitingForPair ? pairWaitMs : flushIntervalMs);
+        session.dueAt = session.dueAt == 0 ? due : Math.min(session.dueAt, due);
+    }
+
+    /**
+     * Take the next micro-batch off the pending scans, split into the units it is retried in
+     * Each unit is one scan, or both barcodes of a pair. A barcode whose pair has not been scanned
+     * stays pending until the pair wait is over or the session closes. A batch can exceed the
+     * batch size by one to keep a pair together.
+     * Must be called while holding the session lock
+     */
+    private List<List<ScanRecord>> takeBatch(ScanSession session, long now) {
+        List<List<ScanRecord>> units = new ArrayList<>();
+        List<ScanRecord> taken = new ArrayList<>();
+
+        for (ScanRecord record : session.pending.values()) {
+            if (taken.size() >= batchSize) {
+                break;
+            }
+            if (record.taken) {
+                continue;
+            }
+            if (record.waitingForPair && !session.closed && now - record.acceptedAt < pairWaitMs) {
+                continue;
+            }
+
+            ScanRecord pair = record.pairBarcode != null && !record.waitingForPair
+                    ? session.pending.get(record.pairBarcode) : null;
+            if (pair != null) {
+                units.add(Arrays.asList(record, pair));
+                pair.taken = true;
+                taken.add(pair);
+            } else {
+                units.add(Collections.singletonList(record));
+            }
+            record.taken = true;
+            taken.add(record);
+        }
+
+        for (ScanRecord record : taken) {
+            session.pending.remove(record.barcode);
+            if (record.waitingForPair) {
+                record.waitingForPair = false;
+                session.waitingForPair--;
+            }
+        }
+        return units;
+    }
+
+    /**
+     * Commit a batch of scans through the bulk path of the session's mode
+     */
+    private void commitBatch(ScanSession session, List<ScanRecord> batch) {
+        List<String> barcodes = batch.stream().map(record -> record.barcode).collect(Collectors.toList());
+        ScanSessionDTO request = session.request;
+
+        switch (session.mode) {
+            case "add":
+                StockAdditionDTO addition = new StockAdditionDTO();
+                addition.setBoxBarcode(request.getBoxBarcode());
+                addition.setProductBarcodes(barcodes);
+                addition.setQuantity(barcodes.size());
+                addition.setNote(request.getNote());
+                stockService.addStockBulk(addition);
+                break;
+            case "sale":
+                SalesOrderDTO salesOrder = new SalesOrderDTO();
+                salesOrder.setOrderId(session.orderId);
+                salesOrder.setEmployeeId(request.getEmployeeId());
+                salesOrder.setShopName(request.getShopName());
+                salesOrder.setNote(request.getNote());
+                salesOrder.setIsDirectSales(request.getIsDirectSales() != null ? request.getIsDirectSales() : true);
+                salesOrder.setProductIdentifiers(barcodes);
+                salesOrderService.processScannedSalesItems(salesOrder);
+                break;
+            case "broken":
+                BrokenOrderDTO brokenOrder = new BrokenOrderDTO();
+                brokenOrder.setOrderId(session.orderId);
+                brokenOrder.setEmployeeId(request.getEmployeeId());
+                brokenOrder.setCondition(request.getCondition());
+                brokenOrder.setNote(request.getNote());
+                brokenOrder.setProductIdentifiers(barcodes);
+                brokenOrderService.processBrokenOrder(brokenOrder);
+                break;
+            case "lent-return":
+                LentItemBatchProcessDTO lentReturn = new LentItemBatchProcessDTO();
+                lentReturn.setEmployeeId(request.getEmployeeId());
+                lentReturn.setNote(request.getNote());
+                lentReturn.setReturnToStock(barcodes);
+                lentOrderService.processBatchLentItems(session.orderId, lentReturn);
+                verifyLentReturns(session, batch);
+                return;
+            default:
+                throw new InvalidInputException("Unsupported mode: " + session.mode);
+        }
+
+        markCommitted(session, batch);
+    }
+
+    /**
+     * Lent returns skip items that fail, so check the lent records to acknowledge each scan
+     */
+    private void verifyLentReturns(ScanSession session, List<ScanRecord> batch) {
+        Set<String> stillLent = new HashSet<>();
+        for (Lend lend : lendRepository.findByOrderId(session.orderId)) {
+            if ("lent".equals(lend.getStatus())) {
+                stillLent.add(lend.getProductBarcode() != null ? lend.getProductBarcode() : lend.getBoxBarcode());
+            }
+        }
+
+        for (ScanRecord record : batch) {
+            String identifier = record.barcode.contains(":") ? record.barcode.split(":")[0] : record.barcode;
+            // Non-serialized items can be partly returned, so only serialized items are checked
+            if (!record.barcode.contains(":") && stillLent.contains(identifier)) {
+                markFailed(session, record, "Item could not be returned to stock: " + identifier);
+            } else {
+                markCommitted(session, Collections.singletonList(record));
+            }
+        }
+    }
+
+    private void markCommitted(ScanSession session, List<ScanRecord> batch) {
+        session.lock.lock();
+        try {
+            for (ScanRecord record : batch) {
+                record.status = "COMMITTED";
+                record.message = null;
+            }
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    private void markFailed(ScanSession session, ScanRecord record, String message) {
+        session.lock.lock();
+        try {
+            record.status = "FAILED";
+            record.message = message;
+            // A failed barcode can be scanned again
+            session.activeBarcodes.remove(record.barcode);
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Evict one product, or all products if boxBarcode is null, from a session's catalog cache
+     */
+    private void evictCatalog(ScanSession session, String boxBarcode) {
+        session.lock.lock();
+        try {
+            if (boxBarcode == null) {
+                session.catalog.clear();
+            } else {
+                session.catalog.remove(boxBarcode);
+            }
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    private boolean hasPending(ScanSession session) {
+        session.lock.lock();
+        try {
+            return !session.pending.isEmpty();
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    private ScanSession getOpenSession(String sessionId) {
+        ScanSession session = sessions.get(sessionId);
+        if (session == null) {
+            throw new ResourceNotFoundException("Scan session not found: " + sessionId);
+        }
+        return session;
+    }
+
+    /**
+     * Build the status DTO of a session
+     */
+    private ScanSessionStatusDTO toStatus(ScanSession session) {
+        session.lock.lock();
+        try {
+            ScanSessionStatusDTO status = new ScanSessionStatusDTO();
+            status.setSessionId(session.sessionId);
+            status.setMode(session.mode);
+            status.setOrderId(session.orderId);
+            status.setStatus(session.closed ? "CLOSED" : "OPEN");
+            status.setPending(session.pending.size());
+            status.setCommitted((int) session.records.stream().filter(r -> "COMMITTED".equals(r.status)).count());
+            status.setRejected((int) session.records.stream().filter(r -> "REJECTED".equals(r.status)).count());
+            status.setFailed((int) session.records.stream().filter(r -> "FAILED".equals(r.status)).count());
+            status.setAcks(session.records.stream().map(ScanRecord::toAck).collect(Collectors.toList()));
+            return status;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * In-memory state of one scan session
+     */
+    private static class ScanSession {
+        private final String sessionId;
+        private final String mode;
+        private final ScanSessionDTO request;
+        private String orderId;
+        // Adding a product whose barcodes come in pairs
+        private boolean pairs = false;
+
+        // Guards the session state
+        private final ReentrantLock lock = new ReentrantLock();
+        // Only one micro-batch of a session is committed at a time
+        private final ReentrantLock flushLock = new ReentrantLock();
+
+        private final List<ScanRecord> records = new ArrayList<>();
+        // Accepted scans not committed yet, by barcode in scan order
+        private final Map<String, ScanRecord> pending = new LinkedHashMap<>();
+        private final Set<String> activeBarcodes = new HashSet<>();
+        private final Set<String> lentIdentifiers = new HashSet<>();
+        private final Map<String, ProductCatalog> catalog = new HashMap<>();
+
+        private long lastSeq = 0;
+        // Pending scans whose pair has not been scanned yet
+        private int waitingForPair = 0;
+        // When the next micro-batch is due, 0 if nothing is pending
+        private long dueAt = 0;
+        private long lastActivityAt = System.currentTimeMillis();
+        private volatile boolean closed = false;
+
+        private ScanSession(String sessionId, ScanSessionDTO request) {
+            this.sessionId = sessionId;
+            this.mode = request.getMode();
+            this.request = request;
+            this.orderId = request.getOrderId();
+        }
+    }
+
+    /**
+     * A single scan and its acknowledgement state
+     */
+    private static class ScanRecord {
+        private long seq;
+        private String barcode;
+        private String status;
+        private String message;
+        // The other barcode of the pair, when adding a product with two serial numbers
+        private String pairBarcode;
+        private long acceptedAt;
+        private boolean waitingForPair = false;
+        private boolean taken = false;
+
+        private ScanAckDTO toAck() {
+            return new ScanAckDTO(seq, barcode, status, message);
+        }
+    }
+}
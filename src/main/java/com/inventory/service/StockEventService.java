@@ -0,0 +1,245 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.dto.StockChangeEventDTO;
+import com.inventory.model.Logs;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service for the live stock change stream (Server-Sent Events)
+ *
+ * Every stock and order operation writes log entries; when the transaction commits, one event per
+ * entry is broadcast to all instances (see CacheInvalidationService.broadcast) together with the
+ * product's new on-hand quantity. Each instance pushes the events to its subscribers, optionally
+ * filtered by box barcode.
+ *
+ * Every subscriber has a bounded queue drained by a small sender pool, so a slow client never
+ * holds up the others. When its queue overflows, the queued events are replaced by one "resync"
+ * event and the client reloads its lists, just as after connecting or a lost listener connection.
+ */
+@Service
+public class StockEventService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockEventService.class);
+
+    // Invalidation channel name; the message key is the event JSON
+    static final String STOCK_EVENTS = "stockevents";
+
+    static final String EVENT_STOCK = "stock";
+    static final String EVENT_RESYNC = "resync";
+
+    // Placeholder barcode logged for non-serialized products
+    private static final String NON_SERIALIZED_BARCODE = "StP";
+
+    @Value("${inventory.events.enabled:true}")
+    private boolean enabled;
+
+    @Value("${inventory.events.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${inventory.events.max-subscribers:500}")
+    private int maxSubscribers;
+
+    @Value("${inventory.events.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${inventory.events.sender-threads:2}")
+    private int senderThreads;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService sender;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "stock-event-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        cacheInvalidationService.register(STOCK_EVENTS, this::deliver, this::resyncAll);
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        sender.shutdownNow();
+    }
+
+    /**
+     * Open an event stream
+     * The stream starts with a "resync" event: the client loads its lists, then applies "stock" events.
+     * @param boxBarcodes Only send changes of these products; all products if empty
+     */
+    public SseEmitter subscribe(Collection<String> boxBarcodes) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many stock event subscribers");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, boxBarcodes != null ? new LinkedHashSet<>(boxBarcodes) : Set.of());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        subscriber.enqueue(SseEmitter.event().name(EVENT_RESYNC).data(""));
+        logger.debug("Stock event subscriber added, {} open", subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Broadcast the changes recorded by log entries of the committing transaction
+     * Called just before commit, so the quantities read here are the ones being committed.
+     */
+    public void publish(List<Logs> entries) {
+        if (!enabled || entries.isEmpty()) {
+            return;
+        }
+
+        Set<String> boxBarcodes = new LinkedHashSet<>();
+        entries.forEach(entry -> boxBarcodes.add(entry.getBoxBarcode()));
+        Map<String, Integer> quantities = new HashMap<>();
+        namedParameterJdbcTemplate.query("SELECT box_barcode, quantity FROM current_stock WHERE box_barcode IN (:boxBarcodes)",
+                new MapSqlParameterSource("boxBarcodes", boxBarcodes),
+                (RowCallbackHandler) rs -> quantities.put(rs.getString("box_barcode"), rs.getInt("quantity")));
+
+        List<String> events = new ArrayList<>(entries.size());
+        for (Logs entry : entries) {
+            String productBarcode = NON_SERIALIZED_BARCODE.equals(entry.getProductBarcode()) ? null : entry.getProductBarcode();
+            StockChangeEventDTO event = new StockChangeEventDTO(entry.getBoxBarcode(), entry.getProductName(),
+                    quantities.get(entry.getBoxBarcode()), productBarcode, entry.getOperation(), entry.getOrderId());
+            try {
+                events.add(objectMapper.writeValueAsString(event));
+            } catch (JsonProcessingException e) {
+                logger.error("Error serializing stock event for {}: {}", entry.getBoxBarcode(), e.getMessage());
+            }
+        }
+        cacheInvalidationService.broadcast(STOCK_EVENTS, events);
+    }
+
+    /**
+     * Push a broadcast event to the matching subscribers of this instance
+     */
+    void deliver(String json) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String boxBarcode;
+        try {
+            boxBarcode = objectMapper.readValue(json, StockChangeEventDTO.class).getBoxBarcode();
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed stock event: {}", json);
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.boxBarcodes.isEmpty() || subscriber.boxBarcodes.contains(boxBarcode)) {
+                subscriber.enqueue(SseEmitter.event().name(EVENT_STOCK).data(json));
+            }
+        }
+    }
+
+    /**
+     * Events may have been missed, so every subscriber reloads
+     */
+    void resyncAll() {
+        subscribers.forEach(subscriber -> subscriber.enqueue(SseEmitter.event().name(EVENT_RESYNC).data("")));
+    }
+
+    /**
+     * Keep idle streams open through proxies and detect closed clients
+     */
+    @Scheduled(fixedDelayString = "${inventory.events.heartbeat-ms:20000}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> subscriber.enqueue(SseEmitter.event().comment("keepalive")));
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * One open stream with its pending events
+     */
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<String> boxBarcodes;
+        private final ArrayBlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, Set<String> boxBarcodes) {
+            this.emitter = emitter;
+            this.boxBarcodes = boxBarcodes;
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            if (!queue.offer(event)) {
+                // The client fell behind: drop what it has not received and make it reload
+                queue.clear();
+                queue.offer(SseEmitter.event().name(EVENT_RESYNC).data(""));
+                logger.debug("Stock event buffer of a subscriber overflowed, sending resync");
+            }
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (Exception e) {
+                // The client is gone
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                queue.clear();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // An event may have arrived after the last poll and before the flag was cleared
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+    }
+}
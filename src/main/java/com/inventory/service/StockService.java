@@ -2,6 +2,7 @@ package com.inventory.service;
 
 import com.inventory.dto.StockAdditionDTO;
 import com.inventory.dto.BulkRemoveDTO;
+import com.inventory.dto.CurrentStockView;
 import com.inventory.exception.InvalidInputException;
 import com.inventory.exception.ResourceNotFoundException;
 import com.inventory.model.CurrentStock;
@@ -30,9 +31,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.annotation.Isolation;
 import com.inventory.util.InventoryUtils;
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import org.springframework.transaction.annotation.Propagation;
-import jakarta.persistence.LockModeType;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -42,6 +45,7 @@ import java.util.Optional;
 import java.util.Comparator;
 import java.util.stream.Collectors;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.HashMap;
 import java.util.Set;
 import java.util.HashSet;
@@ -59,9 +63,6 @@ public class StockService {
     
     private static final Logger logger = LoggerFactory.getLogger(StockService.class);
     
-    // Add a static lock object for synchronization
-    private static final Object STOCK_LOCK = new Object();
-    
     @Autowired
     private CurrentStockRepository currentStockRepository;
     
@@ -103,6 +104,15 @@ public class StockService {
     
     @Autowired
     private LogsRepository logsRepository;
+
+    @Autowired
+    private LogOutboxService logOutboxService;
+    
+    @Autowired
+    private AdvisoryLockService advisoryLockService;
+
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
     
     @Autowired
     private BarcodeStatusService barcodeStatusService;
@@ -119,123 +129,157 @@ public class StockService {
     @Autowired
     private InvoiceRepository invoiceRepository;
     
-    private Map<String, Invoice> invoiceCache = new HashMap<>();
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+    
+    private Map<String, Invoice> invoiceCache = new ConcurrentHashMap<>();
     
+    /**
+     * Drop cached invoices when they change on any instance
+     */
+    @PostConstruct
+    public void registerCaches() {
+        cacheInvalidationService.register(CacheInvalidationService.INVOICE, invoiceCache::remove, invoiceCache::clear);
+    }
+    
+    /**
+     * Find or create the invoice of an order
+     * The invoice is cached only once its transaction commits, so an attempt that rolls back,
+     * such as one retried after a serialization failure, never leaves an unsaved invoice in the cache.
+     */
     private Invoice getOrCreateInvoice(String orderId, String employeeId, String shopName) {
-        return invoiceCache.computeIfAbsent(orderId, k -> {
-            // Check if invoice already exists
-            List<Invoice> existingInvoices = invoiceRepository.findByInvoice(orderId);
-            if (!existingInvoices.isEmpty()) {
-                return existingInvoices.get(0);
-            }
-            
+        Invoice cached = invoiceCache.get(orderId);
+        if (cached != null) {
+            return cached;
+        }
+        
+        // Check if invoice already exists
+        List<Invoice> existingInvoices = invoiceRepository.findByInvoice(orderId);
+        Invoice invoice;
+        if (!existingInvoices.isEmpty()) {
+            invoice = existingInvoices.get(0);
+        } else {
             // Create new invoice if not exists
-            Invoice invoice = new Invoice();
+            invoice = new Invoice();
             invoice.setInvoice(orderId);
             invoice.setEmployeeId(employeeId);
             invoice.setShopName(shopName);
             invoice.setTimestamp(ZonedDateTime.now(ZoneId.of("Asia/Bangkok")));
-            return invoiceRepository.save(invoice);
-        });
+            invoice = invoiceRepository.save(invoice);
+        }
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Invoice saved = invoice;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invoiceCache.putIfAbsent(orderId, saved);
+                }
+            });
+        } else {
+            invoiceCache.putIfAbsent(orderId, invoice);
+        }
+        return invoice;
     }
     
     /**
-     * Add stock with SERIALIZABLE isolation to prevent race conditions
+     * Add stock, serialized per product by an advisory lock taken before any read
+     * Runs in READ COMMITTED: a SERIALIZABLE snapshot would be taken before the lock wait,
+     * so every waiter would read stale rows and fail with a serialization error.
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public synchronized CurrentStock addStock(String boxBarcode, String productBarcode, int quantity, String note) {
-        synchronized(STOCK_LOCK) {
+    @Transactional
+    public CurrentStock addStock(String boxBarcode, String productBarcode, int quantity, String note) {
+        return inventoryMetrics.recordStockOperation("add", quantity,
+                () -> addStockImpl(boxBarcode, productBarcode, quantity, note));
+    }
+
+    private CurrentStock addStockImpl(String boxBarcode, String productBarcode, int quantity, String note) {
+        // Validate quantity
+        if (quantity <= 0) {
+            throw new InvalidInputException("Quantity must be greater than zero");
+        }
+        
+        logger.info("Adding stock: boxBarcode={}, productBarcode={}, quantity={}", 
+                   boxBarcode, productBarcode, quantity);
+        
+        // Lock the product first so additions of the same product run one at a time, on any instance,
+        // and every read below sees the rows committed by the previous holder
+        advisoryLockService.lockProduct(boxBarcode);
+        
+        // Find product in catalog
+        ProductCatalog product = productCatalogRepository.findById(boxBarcode)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with box barcode: " + boxBarcode));
+        inventoryMetrics.skuClass(product);
+        
+        // For serialized products, validate product barcode
+        if (product.getNumberSn() > 0) {
+            if (productBarcode == null || productBarcode.isEmpty()) {
+                throw new InvalidInputException("Product barcode is required for serialized products");
+            }
+            
+            // Check if product barcode already exists in stock
+            if (inStockService.isInStock(productBarcode)) {
+                throw new InvalidInputException("Product barcode already exists in stock: " + productBarcode);
+            }
+        }
+        
+        BoxNumber boxNumber = boxNumberService.createBoxNumberIfNeeded(boxBarcode, product.getProductName(), productBarcode);
+        logger.info("Created box number: {} for barcode: {}", boxNumber.getBoxNumber(), productBarcode);
+        
+        // Explicitly flush to ensure the box number is written to the database
+        entityManager.flush();
+        
+        // Find or create stock
+        Optional<CurrentStock> stockOpt = currentStockRepository.findByBoxBarcodeAndProductName(
+                boxBarcode, product.getProductName());
+        
+        CurrentStock stock;
+        if (stockOpt.isPresent()) {
+            stock = stockOpt.get();
+            stock.setQuantity(stock.getQuantity() + quantity);
+        } else {
+            stock = new CurrentStock();
+            stock.setBoxBarcode(boxBarcode);
+            stock.setProductName(product.getProductName());
+            stock.setQuantity(quantity);
+        }
+        
+        // Set box number
+        stock.setBoxNumber(boxNumber.getBoxNumber());
+        
+        stock.setLastUpdated(ZonedDateTime.now(ZoneId.of("Asia/Bangkok")));
+        
+        // Save and then explicitly refresh from the database
+        // (flush first, or the refresh discards the new quantity of an existing row)
+        CurrentStock savedStock = currentStockRepository.save(stock);
+        entityManager.flush();
+        entityManager.refresh(savedStock);
+        
+        // Create log entry
+        if (product.getNumberSn() == 0) {
+            // For non-serialized products, create one log entry with quantity
+            logsService.createLog(boxBarcode, product.getProductName(), null, "add", note, boxNumber.getBoxNumber(), quantity);
+        } else {
+            // For serialized products, create log entry with quantity=1
+            logsService.createLog(boxBarcode, product.getProductName(), productBarcode, "add", note, boxNumber.getBoxNumber(), 1);
+        }
+        
+        // Add to in_stock table for serialized products
+        if (product.getNumberSn() > 0 && productBarcode != null && !productBarcode.isEmpty()) {
             try {
-                // Add delay between operations to prevent race conditions
-                Thread.sleep(100);
+                inStockService.addToStock(boxBarcode, productBarcode, product.getProductName(), boxNumber.getBoxNumber());
+                logger.info("Added to in_stock table: {}", productBarcode);
                 
-                // Validate quantity
-                if (quantity <= 0) {
-                    throw new InvalidInputException("Quantity must be greater than zero");
-                }
-                
-                logger.info("Adding stock: boxBarcode={}, productBarcode={}, quantity={}", 
-                           boxBarcode, productBarcode, quantity);
-                
-                // Find product in catalog with lock
-                ProductCatalog product = productCatalogRepository.findById(boxBarcode)
-                        .orElseThrow(() -> new ResourceNotFoundException("Product not found with box barcode: " + boxBarcode));
-                
-                // Explicitly lock the product catalog entry
-                entityManager.lock(product, LockModeType.PESSIMISTIC_WRITE);
-                
-                // For serialized products, validate product barcode
-                if (product.getNumberSn() > 0) {
-                    if (productBarcode == null || productBarcode.isEmpty()) {
-                        throw new InvalidInputException("Product barcode is required for serialized products");
-                    }
-                    
-                    // Check if product barcode already exists in stock
-                    if (inStockService.isInStock(productBarcode)) {
-                        throw new InvalidInputException("Product barcode already exists in stock: " + productBarcode);
-                    }
-                }
-                
-                BoxNumber boxNumber = boxNumberService.createBoxNumberIfNeeded(boxBarcode, product.getProductName(), productBarcode);
-                logger.info("Created box number: {} for barcode: {}", boxNumber.getBoxNumber(), productBarcode);
-                
-                // Explicitly flush to ensure the box number is written to the database
-                entityManager.flush();
-                
-                // Find or create stock
-                Optional<CurrentStock> stockOpt = currentStockRepository.findByBoxBarcodeAndProductName(
-                        boxBarcode, product.getProductName());
-                
-                CurrentStock stock;
-                if (stockOpt.isPresent()) {
-                    stock = stockOpt.get();
-                    stock.setQuantity(stock.getQuantity() + quantity);
-                } else {
-                    stock = new CurrentStock();
-                    stock.setBoxBarcode(boxBarcode);
-                    stock.setProductName(product.getProductName());
-                    stock.setQuantity(quantity);
-                }
-                
-                // Set box number
-                stock.setBoxNumber(boxNumber.getBoxNumber());
-                
-                stock.setLastUpdated(ZonedDateTime.now(ZoneId.of("Asia/Bangkok")));
-                
-                // Save and then explicitly refresh from the database
-                CurrentStock savedStock = currentStockRepository.save(stock);
-                entityManager.refresh(savedStock);
-                
-                // Create log entry
-                if (product.getNumberSn() == 0) {
-                    // For non-serialized products, create one log entry with quantity
-                    logsService.createLog(boxBarcode, product.getProductName(), null, "add", note, boxNumber.getBoxNumber(), quantity);
-                } else {
-                    // For serialized products, create log entry with quantity=1
-                    logsService.createLog(boxBarcode, product.getProductName(), productBarcode, "add", note, boxNumber.getBoxNumber(), 1);
-                }
-                
-                // Add to in_stock table for serialized products
-                if (product.getNumberSn() > 0 && productBarcode != null && !productBarcode.isEmpty()) {
-                    try {
-                        inStockService.addToStock(boxBarcode, productBarcode, product.getProductName(), boxNumber.getBoxNumber());
-                        logger.info("Added to in_stock table: {}", productBarcode);
-                        
-                        // Sync CurrentStock with InStock after adding to in_stock table
-                        syncCurrentStockWithInStock(boxBarcode, product.getProductName());
-                    } catch (Exception e) {
-                        logger.error("Failed to add to in_stock table: {}", e.getMessage(), e);
-                        // Don't throw the exception, as we want to continue with the stock addition
-                        // The in_stock table is a secondary tracking mechanism
-                    }
-                }
-                
-                return savedStock;
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("Operation interrupted", e);
+                // Sync CurrentStock with InStock after adding to in_stock table
+                syncCurrentStockWithInStock(boxBarcode, product.getProductName());
+            } catch (Exception e) {
+                logger.error("Failed to add to in_stock table: {}", e.getMessage(), e);
+                // Don't throw the exception, as we want to continue with the stock addition
+                // The in_stock table is a secondary tracking mechanism
             }
         }
+        
+        return savedStock;
     }
     
     /**
@@ -307,77 +351,30 @@ public class StockService {
         return false;
     }
     
-    /**
-     * Check for potential paired barcodes to prevent duplicates
-     */
-    private void checkForPairedBarcodes(String boxBarcode, String productBarcode) {
-        // Get all product barcodes from in_stock for this box barcode
-        List<InStock> inStockItems = inStockService.getInStockByBoxBarcode(boxBarcode);
-        
-        for (InStock inStockItem : inStockItems) {
-            String existingBarcode = inStockItem.getProductBarcode();
-            if (existingBarcode != null && !existingBarcode.isEmpty()) {
-                // Check for common patterns (A/B, 1/2 suffixes)
-                if (arePotentialPairs(existingBarcode, productBarcode)) {
-                    throw new InvalidInputException("Potential duplicate barcode detected: " + 
-                                                  productBarcode + " appears to be paired with existing barcode " + 
-                                                  existingBarcode);
-                }
-            }
-        }
-    }
-    
-    /**
-     * Check if two barcodes are potential pairs
-     */
-    public boolean arePotentialPairs(String barcode1, String barcode2) {
-        // If they're the same length and differ by only 1-2 characters
-        if (barcode1.length() == barcode2.length()) {
-            int differences = 0;
-            int diffPosition = -1;
-            
-            for (int i = 0; i < barcode1.length(); i++) {
-                if (barcode1.charAt(i) != barcode2.charAt(i)) {
-                    differences++;
-                    diffPosition = i;
-                }
-            }
-            
-            // If they differ by only 1 character
-            if (differences == 1) {
-                // Check if the difference is at the end and is a common pair pattern
-                if (diffPosition == barcode1.length() - 1) {
-                    char c1 = barcode1.charAt(diffPosition);
-                    char c2 = barcode2.charAt(diffPosition);
-                    
-                    // Check for common pair patterns: A/B, 1/2
-                    return (c1 == 'A' && c2 == 'B') || (c1 == 'B' && c2 == 'A') ||
-                           (c1 == '1' && c2 == '2') || (c1 == '2' && c2 == '1');
-                }
-            }
-            
-            // If they differ by 2 characters but are very similar
-            return differences <= 2;
-        }
-        
-        return false;
-    }
-    
     /**
      * Simplified method to remove stock using only boxBarcode
      * This method retrieves the productName from the database
-     * Uses SERIALIZABLE isolation to prevent race conditions
+     * Serialized per product by an advisory lock, in READ COMMITTED like addStock
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public synchronized CurrentStock removeStock(String boxBarcode, String productBarcode, int quantity, String note) {
+    @Transactional
+    public CurrentStock removeStock(String boxBarcode, String productBarcode, int quantity, String note) {
+        return inventoryMetrics.recordStockOperation("remove", quantity,
+                () -> removeStockImpl(boxBarcode, productBarcode, quantity, note));
+    }
+
+    private CurrentStock removeStockImpl(String boxBarcode, String productBarcode, int quantity, String note) {
         // Validate quantity
         if (quantity <= 0) {
             throw new InvalidInputException("Quantity must be greater than zero");
         }
         
+        // Lock the product first so removals of the same product run one at a time, on any instance
+        advisoryLockService.lockProduct(boxBarcode);
+        
         // Retrieve product from catalog
         ProductCatalog product = productCatalogRepository.findById(boxBarcode)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with box barcode: " + boxBarcode));
+        inventoryMetrics.skuClass(product);
         
         String productName = product.getProductName();
         
@@ -448,6 +445,7 @@ public class StockService {
             
             // Create log entry
             Logs log = logsService.createLog(boxBarcode, productName, productBarcode, "remove", note);
+            log.setQuantity(quantity);
             
             // Set box number in log if available
             if (stock.getBoxNumber() != null) {
@@ -463,28 +461,29 @@ public class StockService {
     /**
      * Get all stock
      */
-    public List<CurrentStock> getAllStock() {
-        return currentStockRepository.findAll();
+    public List<CurrentStockView> getAllStock() {
+        return currentStockRepository.findAllProjectedBy();
     }
     
     /**
      * Get stock by box barcode
      */
-    public List<CurrentStock> getStockByBoxBarcode(String boxBarcode) {
-        return currentStockRepository.findByBoxBarcode(boxBarcode);
+    public List<CurrentStockView> getStockByBoxBarcode(String boxBarcode) {
+        return currentStockRepository.findProjectedByBoxBarcode(boxBarcode);
     }
     
     /**
      * Get stock by box barcode and product name
      */
-    public CurrentStock getStockByBoxBarcodeAndProductName(String boxBarcode, String productName) {
-        return currentStockRepository.findByBoxBarcodeAndProductName(boxBarcode, productName)
+    public CurrentStockView getStockByBoxBarcodeAndProductName(String boxBarcode, String productName) {
+        return currentStockRepository.findProjectedByBoxBarcodeAndProductName(boxBarcode, productName)
                 .orElseThrow(() -> new ResourceNotFoundException("Stock not found for box barcode: " + boxBarcode + " and product name: " + productName));
     }
     
     /**
      * Move stock to another destination (sales, lent, broken)
-     * Uses SERIALIZABLE isolation to prevent race conditions
+     * Runs in READ COMMITTED: the product's catalog row is locked before anything is read, so
+     * concurrent moves of one product queue on the lock and each sees the previous one's rows
      */
     @Transactional
     public void moveStock(String boxBarcode, String productBarcode, int quantity, 
@@ -598,7 +597,6 @@ public class StockService {
                 
                 lentLog.setOrderId(newSalesOrderId); // Use the new sales order ID
                 logsService.save(lentLog);
-                logger.info("SAVED LOG: id={}, operation={}", lentLog.getLogsId(), lentLog.getOperation());
                 
                 // Get or create invoice
                 Invoice invoice = getOrCreateInvoice(newSalesOrderId, employeeId, shopName);
@@ -658,7 +656,6 @@ public class StockService {
     /**
      * Main implementation of stock movement
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     private CurrentStock moveStockImpl(String boxBarcode, String productBarcode, int quantity,
                                      String destination, String employeeId, String shopName,
                                      String condition, String note, String orderId, boolean splitPair,
@@ -671,11 +668,21 @@ public class StockService {
      * Main implementation of stock movement
      * @param lentOrderId - Optional parameter used to identify a specific lent record when moving from lent to sales
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     private CurrentStock moveStockImpl(String boxBarcode, String productBarcode, int quantity,
                                      String destination, String employeeId, String shopName,
                                      String condition, String note, String orderId, boolean splitPair,
                                      Boolean isDirectSales, String lentOrderId) {
+        String operation = destination != null && Set.of("sales", "lent", "broken").contains(destination.toLowerCase())
+                ? "move-" + destination.toLowerCase() : "move-other";
+        return inventoryMetrics.recordStockOperation(operation, quantity,
+                () -> moveStockOperation(boxBarcode, productBarcode, quantity, destination, employeeId, shopName,
+                        condition, note, orderId, splitPair, isDirectSales, lentOrderId));
+    }
+
+    private CurrentStock moveStockOperation(String boxBarcode, String productBarcode, int quantity,
+                                          String destination, String employeeId, String shopName,
+                                          String condition, String note, String orderId, boolean splitPair,
+                                          Boolean isDirectSales, String lentOrderId) {
         // Lock the product catalog row to prevent concurrent modifications
         entityManager.createNativeQuery("select box_barcode from product_catalog where box_barcode = ? for update")
                 .setParameter(1, boxBarcode)
@@ -687,6 +694,7 @@ public class StockService {
         // Get product from catalog
         ProductCatalog product = productCatalogRepository.findById(boxBarcode)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + boxBarcode));
+        inventoryMetrics.skuClass(product);
         
         String productName = product.getProductName();
         
@@ -1104,7 +1112,9 @@ public class StockService {
                     productName,
                     productBarcode,
                     "broken",
-                    note
+                    note,
+                    isSerializedProduct ? boxNumber : null,
+                    quantity
                 );
                 brokenLog.setBoxNumber(isSerializedProduct ? boxNumber : null); // Set boxNumber to null for non-serialized products
                 brokenLog.setOrderId(orderId);
@@ -1131,6 +1141,11 @@ public class StockService {
      */
     @Transactional
     public CurrentStock returnLentItem(String boxBarcode, String productBarcode, String note, String lentId, Integer quantity) {
+        return inventoryMetrics.recordStockOperation("return-lent", quantity != null ? quantity : 1,
+                () -> returnLentItemImpl(boxBarcode, productBarcode, note, lentId, quantity));
+    }
+
+    private CurrentStock returnLentItemImpl(String boxBarcode, String productBarcode, String note, String lentId, Integer quantity) {
         // Validate box barcode is provided
         if (boxBarcode == null || boxBarcode.isEmpty()) {
             throw new InvalidInputException("Box barcode is required for returning lent items");
@@ -1139,6 +1154,7 @@ public class StockService {
         // Retrieve product from catalog
         ProductCatalog product = productCatalogRepository.findById(boxBarcode)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with box barcode: " + boxBarcode));
+        inventoryMetrics.skuClass(product);
         
         String productName = product.getProductName();
         
@@ -1238,9 +1254,15 @@ public class StockService {
      */
     @Transactional
     public List<CurrentStock> addStockBulk(StockAdditionDTO request) {
+        return inventoryMetrics.recordStockOperation("add-bulk", bulkQuantity(request.getQuantity(), request.getProductBarcodes()),
+                () -> addStockBulkImpl(request));
+    }
+
+    private List<CurrentStock> addStockBulkImpl(StockAdditionDTO request) {
         // Retrieve product from catalog
         ProductCatalog product = productCatalogRepository.findById(request.getBoxBarcode())
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with box barcode: " + request.getBoxBarcode()));
+        inventoryMetrics.skuClass(product);
         
         String productName = product.getProductName();
         
@@ -1263,22 +1285,7 @@ public class StockService {
 
             for (String barcode : barcodes) {
                 if (processed.contains(barcode)) continue;
-                String pairBarcode = null;
-                try {
-                    String numberStr = extractNumber(barcode);
-                    long number = Long.parseLong(numberStr);  // Parse only for odd/even check
-                    String prefix = barcode.replaceAll("\\d+$", "");
-                    if (number % 2 == 0) {
-                        String newNumber = String.format("%0" + numberStr.length() + "d", number - 1);
-                        pairBarcode = prefix + newNumber;
-                    } else {
-                        String newNumber = String.format("%0" + numberStr.length() + "d", number + 1);
-                        pairBarcode = prefix + newNumber;
-                    }
-                } catch (Exception e) {
-                    // Fallback: use generatePairedBarcode
-                    pairBarcode = generatePairedBarcode(barcode);
-                }
+                String pairBarcode = findPairBarcode(barcode);
                 if (barcodeSet.contains(pairBarcode)) {
                     // Both barcodes are present, pair them
                     if (!processed.contains(pairBarcode)) {
@@ -1316,12 +1323,16 @@ public class StockService {
             stock = currentStockRepository.save(stock);
             results.add(stock);
 
+            // Reserve one box number per pair in a single allocation
+            List<String> firstBarcodes = pairs.stream().map(pair -> pair[0]).collect(Collectors.toList());
+            List<BoxNumber> pairBoxNumbers = boxNumberService.createBoxNumbersIfNeeded(request.getBoxBarcode(), productName, firstBarcodes);
+
             // Process barcodes in pairs for box number assignment and logging
-            for (String[] pair : pairs) {
-                String barcode1 = pair[0];
-                String barcode2 = pair[1];
-                // Get or create a box number for this pair
-                BoxNumber boxNumber = boxNumberService.createBoxNumberIfNeeded(request.getBoxBarcode(), productName, barcode1);
+            for (int i = 0; i < pairs.size(); i++) {
+                String barcode1 = pairs.get(i)[0];
+                String barcode2 = pairs.get(i)[1];
+                // Box number reserved for this pair
+                BoxNumber boxNumber = pairBoxNumbers.get(i);
                 Integer boxNumberValue = boxNumber != null ? boxNumber.getBoxNumber() : null;
                 logger.info("Assigned box number {} to pair", boxNumberValue);
                 // Process first barcode in pair (log only)
@@ -1379,10 +1390,15 @@ public class StockService {
             stock = currentStockRepository.save(stock);
             results.add(stock);
             
+            // Reserve a box number for every barcode in a single allocation
+            List<BoxNumber> boxNumbers = boxNumberService.createBoxNumbersIfNeeded(
+                    request.getBoxBarcode(), productName, request.getProductBarcodes());
+            
             // Log each barcode individually with a box number
-            for (String barcode : request.getProductBarcodes()) {
-                // Get or create a box number for each barcode
-                BoxNumber boxNumber = boxNumberService.createBoxNumberIfNeeded(request.getBoxBarcode(), productName, barcode);
+            for (int i = 0; i < request.getProductBarcodes().size(); i++) {
+                String barcode = request.getProductBarcodes().get(i);
+                // Box number reserved for this barcode
+                BoxNumber boxNumber = boxNumbers.get(i);
                 Integer boxNumberValue = boxNumber != null ? boxNumber.getBoxNumber() : null;
                 
                 // Update the stock's box number if it's not set yet
@@ -1528,9 +1544,15 @@ public class StockService {
      */
     @Transactional
     public List<CurrentStock> removeStockBulk(BulkRemoveDTO request) {
+        return inventoryMetrics.recordStockOperation("remove-bulk", bulkQuantity(request.getQuantity(), request.getProductBarcodes()),
+                () -> removeStockBulkImpl(request));
+    }
+
+    private List<CurrentStock> removeStockBulkImpl(BulkRemoveDTO request) {
         // Retrieve product from catalog
         ProductCatalog product = productCatalogRepository.findById(request.getBoxBarcode())
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with box barcode: " + request.getBoxBarcode()));
+        inventoryMetrics.skuClass(product);
         
         String productName = product.getProductName();
         
@@ -1577,6 +1599,38 @@ public class StockService {
         return results;
     }
 
+    /**
+     * Get the barcode that forms a pair with the given one when adding SN=2 products
+     * Odd numbers pair with the next number, even numbers with the previous one.
+     */
+    String findPairBarcode(String barcode) {
+        try {
+            String numberStr = extractNumber(barcode);
+            long number = Long.parseLong(numberStr);  // Parse only for odd/even check
+            String prefix = barcode.replaceAll("\\d+$", "");
+            if (number % 2 == 0) {
+                String newNumber = String.format("%0" + numberStr.length() + "d", number - 1);
+                return prefix + newNumber;
+            } else {
+                String newNumber = String.format("%0" + numberStr.length() + "d", number + 1);
+                return prefix + newNumber;
+            }
+        } catch (Exception e) {
+            // Fallback: use generatePairedBarcode
+            return generatePairedBarcode(barcode);
+        }
+    }
+
+    /**
+     * Units of a bulk request: the quantity, or the number of barcodes if no quantity is given
+     */
+    private static int bulkQuantity(Integer quantity, List<String> productBarcodes) {
+        if (quantity != null) {
+            return quantity;
+        }
+        return productBarcodes != null ? productBarcodes.size() : 0;
+    }
+    
     /**
      * Validate bulk removal request
      */
@@ -1639,15 +1693,10 @@ public class StockService {
     }
 
     /**
-     * Process bulk addition of stock with SERIALIZABLE isolation to prevent race conditions
+     * Process bulk addition of stock, serialized per product by an advisory lock in READ COMMITTED like addStock
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public synchronized void processBulkAddition(StockAdditionDTO request) {
-        synchronized(STOCK_LOCK) {
-            try {
-                // Add delay between operations to prevent race conditions
-                Thread.sleep(100);
-                
+    @Transactional
+    public void processBulkAddition(StockAdditionDTO request) {
         // Validate request
         if (request.getBoxBarcode() == null || request.getBoxBarcode().isEmpty()) {
             throw new InvalidInputException("Box barcode is required");
@@ -1657,83 +1706,64 @@ public class StockService {
             throw new InvalidInputException("Product barcodes are required");
         }
         
+        // Lock the product first so bulk additions of the same product run one at a time, on any instance
+        advisoryLockService.lockProduct(request.getBoxBarcode());
+        
         // Retrieve product from catalog to check if it's serialized
         ProductCatalog product = productCatalogRepository.findById(request.getBoxBarcode())
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with box barcode: " + request.getBoxBarcode()));
         
-        List<String> lockedBarcodes = new ArrayList<>();
-        try {
-            // For serialized products, check for duplicates
-            if (product.getNumberSn() > 0) {
-                // First, check for duplicates within the request itself
-                List<String> duplicatesInRequest = findDuplicatesInList(request.getProductBarcodes());
-                if (!duplicatesInRequest.isEmpty()) {
-                    throw new InvalidInputException("Duplicate product barcodes in request: " + 
-                            String.join(", ", duplicatesInRequest));
-                }
-                
-                // Then check for duplicates in the system and lock the barcodes
-                List<String> unavailableBarcodes = barcodeRegistryService.checkAndLockBarcodes(request.getProductBarcodes());
-                
-                // If unavailable barcodes found, throw exception
-                if (!unavailableBarcodes.isEmpty()) {
-                    throw new InvalidInputException("The following product barcodes are already in use: " + 
-                            String.join(", ", unavailableBarcodes));
-                }
-                
-                // Keep track of locked barcodes
-                lockedBarcodes.addAll(request.getProductBarcodes());
-                
-                // Double-check that all barcodes are still available
-                for (String barcode : request.getProductBarcodes()) {
-                    // Check directly with repositories to be absolutely sure
-                    boolean existsInBoxNumber = boxNumberRepository.findByProductBarcode(barcode).isPresent();
-                    List<Logs> logs = logsRepository.findByProductBarcode(barcode);
-                    boolean hasActiveLog = false;
-                    if (!logs.isEmpty()) {
-                        Logs latestLog = logs.stream()
-                                .max(Comparator.comparing(Logs::getTimestamp))
-                                .orElse(null);
-                        if (latestLog != null && "add".equals(latestLog.getOperation())) {
-                            hasActiveLog = true;
-                        }
-                    }
-                    
-                    if (existsInBoxNumber || hasActiveLog) {
-                        // Release all locks and throw exception
-                        barcodeRegistryService.releaseBarcodes(lockedBarcodes);
-                        throw new InvalidInputException("Product barcode " + barcode + " became unavailable during processing");
-                    }
-                }
+        // For serialized products, check for duplicates
+        if (product.getNumberSn() > 0) {
+            // First, check for duplicates within the request itself
+            List<String> duplicatesInRequest = findDuplicatesInList(request.getProductBarcodes());
+            if (!duplicatesInRequest.isEmpty()) {
+                throw new InvalidInputException("Duplicate product barcodes in request: " + 
+                        String.join(", ", duplicatesInRequest));
             }
             
-            // Process each product barcode one by one
-            for (String productBarcode : request.getProductBarcodes()) {
-                try {
-                    addStock(request.getBoxBarcode(), productBarcode, 1, request.getNote());
-                    // Remove from lockedBarcodes as it's been successfully processed
-                    lockedBarcodes.remove(productBarcode);
-                } catch (Exception e) {
-                    logger.error("Error processing barcode {}: {}", productBarcode, e.getMessage(), e);
-                    // Don't release this barcode's lock yet, as we'll release all remaining locks in the finally block
-                    throw e; // Re-throw to trigger transaction rollback
-                }
+            // Then check for duplicates in the system and lock the barcodes until the transaction ends
+            List<String> unavailableBarcodes = barcodeRegistryService.checkAndLockBarcodes(request.getProductBarcodes());
+            
+            // If unavailable barcodes found, throw exception
+            if (!unavailableBarcodes.isEmpty()) {
+                throw new InvalidInputException("The following product barcodes are already in use: " + 
+                        String.join(", ", unavailableBarcodes));
             }
-        } finally {
-            // Always release any remaining barcode locks
-            if (!lockedBarcodes.isEmpty()) {
-                logger.info("Releasing {} remaining locked barcodes", lockedBarcodes.size());
-                barcodeRegistryService.releaseBarcodes(lockedBarcodes);
+            
+            // Double-check that all barcodes are still available
+            for (String barcode : request.getProductBarcodes()) {
+                // Check directly with repositories to be absolutely sure
+                boolean existsInBoxNumber = boxNumberRepository.findByProductBarcode(barcode).isPresent();
+                List<Logs> logs = logOutboxService.findByProductBarcode(barcode);
+                boolean hasActiveLog = false;
+                if (!logs.isEmpty()) {
+                    Logs latestLog = logs.stream()
+                            .max(Comparator.comparing(Logs::getTimestamp))
+                            .orElse(null);
+                    if (latestLog != null && "add".equals(latestLog.getOperation())) {
+                        hasActiveLog = true;
                     }
                 }
                 
-                // Explicitly flush all changes
-                entityManager.flush();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("Operation interrupted", e);
+                if (existsInBoxNumber || hasActiveLog) {
+                    throw new InvalidInputException("Product barcode " + barcode + " became unavailable during processing");
+                }
             }
         }
+        
+        // Process each product barcode one by one
+        for (String productBarcode : request.getProductBarcodes()) {
+            try {
+                addStock(request.getBoxBarcode(), productBarcode, 1, request.getNote());
+            } catch (Exception e) {
+                logger.error("Error processing barcode {}: {}", productBarcode, e.getMessage(), e);
+                throw e; // Re-throw to trigger transaction rollback
+            }
+        }
+        
+        // Explicitly flush all changes
+        entityManager.flush();
     }
 
     /**
@@ -1817,6 +1847,11 @@ public class StockService {
      */
     @Transactional
     public CurrentStock recombineItems(String targetBoxBarcode, String productBarcode1, String productBarcode2, String note) {
+        return inventoryMetrics.recordStockOperation("recombine", 2,
+                () -> recombineItemsImpl(targetBoxBarcode, productBarcode1, productBarcode2, note));
+    }
+
+    private CurrentStock recombineItemsImpl(String targetBoxBarcode, String productBarcode1, String productBarcode2, String note) {
         logger.info("Recombining items: targetBoxBarcode={}, productBarcode1={}, productBarcode2={}", 
                    targetBoxBarcode, productBarcode1, productBarcode2);
         
@@ -1836,6 +1871,7 @@ public class StockService {
         // Get product to check if it's a paired product (SN=2)
         ProductCatalog product = productCatalogRepository.findById(targetBoxBarcode)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + targetBoxBarcode));
+        inventoryMetrics.skuClass(product);
         
         // Ensure this is a paired product (SN=2)
         if (product.getNumberSn() != 2) {
@@ -0,0 +1,335 @@
+package com.inventory.service;
+
+import com.inventory.dto.StockAsOfDTO;
+import com.inventory.dto.StockAsOfItemDTO;
+import com.inventory.dto.StockAsOfUnitDTO;
+import com.inventory.exception.InvalidInputException;
+import com.inventory.model.StockSnapshot;
+import com.inventory.repository.StockSnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service for point-in-time inventory snapshots
+ *
+ * A daily snapshot copies the on-hand quantity of every product and the location of every
+ * serialized unit in stock or lent. Inventory as of any time is answered by loading the latest
+ * snapshot taken at or before that time and replaying only the logs it does not reflect.
+ */
+@Service
+public class StockSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockSnapshotService.class);
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Bangkok");
+
+    public static final String IN_STOCK = "in_stock";
+    public static final String LENT = "lent";
+
+    // Operations that put units back on hand
+    private static final List<String> IN_OPERATIONS = Arrays.asList("add", "returned", "return_from_sales");
+
+    // Operations that take units out of stock for good
+    private static final List<String> OUT_OPERATIONS = Arrays.asList("remove", "sold", "broken", "move_to_sales", "move_to_broken");
+
+    // Operations that take units out of stock to a lent order
+    private static final List<String> LENT_OPERATIONS = Arrays.asList("lent", "move_to_lent");
+
+    // Lent units that are sold; they already left the stock when they were lent
+    private static final List<String> LENT_OUT_OPERATIONS = Arrays.asList("moved_from_lent_to_sales");
+
+    // Placeholder barcode logged for non-serialized products
+    private static final String NON_SERIALIZED_BARCODE = "StP";
+
+    @Autowired
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Take the daily snapshot
+     */
+    @Scheduled(cron = "${inventory.snapshot.cron:0 30 0 * * ?}", zone = "Asia/Bangkok")
+    public void scheduledSnapshot() {
+        try {
+            createSnapshot();
+        } catch (Exception e) {
+            logger.error("Error creating stock snapshot: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Copy the current quantities and unit locations into a new snapshot
+     * REPEATABLE READ makes all copies see the same committed state.
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public StockSnapshot createSnapshot() {
+        StockSnapshot snapshot = new StockSnapshot();
+        snapshot.setSnapshotTime(ZonedDateTime.now(ZONE));
+        snapshot.setCreatedAt(snapshot.getSnapshotTime());
+        snapshot = stockSnapshotRepository.saveAndFlush(snapshot);
+        Long snapshotId = snapshot.getSnapshotId();
+
+        // Transactions visible to the copies below; replay skips logs they wrote
+        snapshot.setTxSnapshot(jdbcTemplate.queryForObject("SELECT CAST(pg_current_snapshot() AS TEXT)", String.class));
+
+        // Server-side bulk copies, no rows travel through the application
+        int products = jdbcTemplate.update(
+                "INSERT INTO stock_snapshot_quantity (snapshot_id, box_barcode, product_name, quantity) " +
+                "SELECT ?, box_barcode, product_name, quantity FROM current_stock", snapshotId);
+
+        int units = jdbcTemplate.update(
+                "INSERT INTO stock_snapshot_unit (snapshot_id, product_barcode, box_barcode, product_name, location) " +
+                "SELECT ?, product_barcode, box_barcode, product_name, '" + IN_STOCK + "' FROM in_stock " +
+                "WHERE product_barcode IS NOT NULL", snapshotId);
+
+        units += jdbcTemplate.update(
+                "INSERT INTO stock_snapshot_unit (snapshot_id, product_barcode, box_barcode, product_name, location) " +
+                "SELECT DISTINCT ON (product_barcode) ?, product_barcode, box_barcode, product_name, '" + LENT + "' FROM lent " +
+                "WHERE status = 'lent' AND product_barcode IS NOT NULL", snapshotId);
+
+        snapshot.setProductCount(products);
+        snapshot.setUnitCount(units);
+        snapshot = stockSnapshotRepository.save(snapshot);
+
+        logger.info("Created stock snapshot {} at {} with {} products and {} units",
+                snapshotId, snapshot.getSnapshotTime(), products, units);
+        return snapshot;
+    }
+
+    /**
+     * Get inventory as of a point in time
+     * @param asOf The point in time
+     * @param boxBarcode Optional box barcode filter
+     * @param includeUnits Whether to include serialized unit locations
+     */
+    @Transactional(readOnly = true)
+    public StockAsOfDTO getStockAsOf(ZonedDateTime asOf, String boxBarcode, boolean includeUnits) {
+        if (asOf == null) {
+            throw new InvalidInputException("Point in time is required");
+        }
+        if (asOf.isAfter(ZonedDateTime.now(ZONE))) {
+            throw new InvalidInputException("Point in time cannot be in the future");
+        }
+
+        boolean filtered = boxBarcode != null && !boxBarcode.isEmpty();
+        StockSnapshot snapshot = stockSnapshotRepository
+                .findTopBySnapshotTimeLessThanEqualOrderBySnapshotTimeDesc(asOf)
+                .orElse(null);
+
+        Set<String> pairedProducts = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT box_barcode FROM product_catalog WHERE number_sn = 2", String.class));
+        Replay replay = new Replay(pairedProducts, includeUnits);
+
+        // Start from the snapshot, or from an empty inventory before the first snapshot
+        if (snapshot != null) {
+            loadSnapshot(snapshot.getSnapshotId(), filtered ? boxBarcode : null, includeUnits, replay);
+        }
+
+        // Replay the logs not reflected in the snapshot, including those not yet moved out of the outbox.
+        // Log timestamps are set before commit, so a transaction that committed after the snapshot can
+        // carry an earlier timestamp; the snapshot's transaction ids decide which logs it already saw.
+        int[] replayed = {0};
+        StringBuilder sql = new StringBuilder(
+                "SELECT box_barcode, product_name, product_barcode, operation, note, quantity FROM (" +
+                "SELECT box_barcode, product_name, product_barcode, operation, note, quantity, timestamp, xid, 0 AS source, logs_id AS seq FROM logs " +
+                "UNION ALL " +
+                "SELECT box_barcode, product_name, product_barcode, operation, note, quantity, timestamp, xid, 1 AS source, outbox_id AS seq FROM logs_outbox" +
+                ") l WHERE timestamp <= ?");
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.from(asOf.toInstant()));
+        if (snapshot != null) {
+            sql.append(" AND xid >= pg_snapshot_xmin(CAST(? AS pg_snapshot))" +
+                    " AND NOT pg_visible_in_snapshot(xid, CAST(? AS pg_snapshot))");
+            args.add(snapshot.getTxSnapshot());
+            args.add(snapshot.getTxSnapshot());
+        }
+        if (filtered) {
+            sql.append(" AND box_barcode = ?");
+            args.add(boxBarcode);
+        }
+        sql.append(" ORDER BY timestamp, source, seq");
+
+        jdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs -> {
+            replay.apply(rs.getString("box_barcode"), rs.getString("product_name"), rs.getString("product_barcode"),
+                    rs.getString("operation"), rs.getString("note"), rs.getInt("quantity"));
+            replayed[0]++;
+        }, args.toArray());
+
+        StockAsOfDTO result = new StockAsOfDTO();
+        result.setAsOf(asOf);
+        result.setSnapshotTime(snapshot != null ? snapshot.getSnapshotTime() : null);
+        result.setReplayedLogs(replayed[0]);
+        result.setItems(replay.getItems());
+        if (includeUnits) {
+            result.setUnits(replay.getUnits());
+        }
+
+        logger.debug("Inventory as of {} from snapshot {} with {} replayed logs",
+                asOf, snapshot != null ? snapshot.getSnapshotId() : null, replayed[0]);
+        return result;
+    }
+
+    /**
+     * Load the quantities and units of a snapshot
+     */
+    private void loadSnapshot(Long snapshotId, String boxBarcode, boolean includeUnits, Replay replay) {
+        String filter = boxBarcode != null ? " AND box_barcode = ?" : "";
+        Object[] args = boxBarcode != null ? new Object[]{snapshotId, boxBarcode} : new Object[]{snapshotId};
+
+        jdbcTemplate.query("SELECT box_barcode, product_name, quantity FROM stock_snapshot_quantity WHERE snapshot_id = ?" + filter,
+                (RowCallbackHandler) rs -> replay.addQuantity(rs.getString("box_barcode"), rs.getString("product_name"),
+                        rs.getInt("quantity")), args);
+
+        // Pair products are replayed by unit, starting from their in-stock unit count
+        jdbcTemplate.query("SELECT box_barcode, product_name, COUNT(*) AS units FROM stock_snapshot_unit " +
+                        "WHERE snapshot_id = ? AND location = '" + IN_STOCK + "'" + filter +
+                        " AND box_barcode IN (SELECT box_barcode FROM product_catalog WHERE number_sn = 2) " +
+                        "GROUP BY box_barcode, product_name",
+                (RowCallbackHandler) rs -> replay.addPairUnits(rs.getString("box_barcode"), rs.getString("product_name"),
+                        rs.getInt("units")), args);
+
+        if (includeUnits) {
+            jdbcTemplate.query("SELECT product_barcode, box_barcode, product_name, location FROM stock_snapshot_unit WHERE snapshot_id = ?" + filter,
+                    (RowCallbackHandler) rs -> replay.addUnit(rs.getString("product_barcode"), rs.getString("box_barcode"),
+                            rs.getString("product_name"), rs.getString("location")), args);
+        }
+    }
+
+    /**
+     * Inventory being replayed from a snapshot and the logs after it
+     *
+     * Products with two serial numbers log one entry per unit, while their quantity counts pairs
+     * (half the in-stock units, rounded up). Their in-stock units are counted instead and turned
+     * into pairs at the end.
+     */
+    static class Replay {
+
+        private final Set<String> pairedProducts;
+        private final boolean includeUnits;
+        private final Map<String, StockAsOfItemDTO> items = new HashMap<>();
+        private final Map<String, StockAsOfUnitDTO> units = new HashMap<>();
+
+        // In-stock unit counts of pair products: {at the snapshot, after the replayed logs}
+        private final Map<String, int[]> pairUnits = new HashMap<>();
+
+        Replay(Set<String> pairedProducts, boolean includeUnits) {
+            this.pairedProducts = pairedProducts;
+            this.includeUnits = includeUnits;
+        }
+
+        void addQuantity(String boxBarcode, String productName, int quantity) {
+            item(boxBarcode, productName).setQuantity(quantity);
+        }
+
+        void addPairUnits(String boxBarcode, String productName, int count) {
+            item(boxBarcode, productName);
+            pairUnits.put(itemKey(boxBarcode, productName), new int[]{count, count});
+        }
+
+        void addUnit(String productBarcode, String boxBarcode, String productName, String location) {
+            units.put(productBarcode, new StockAsOfUnitDTO(productBarcode, boxBarcode, productName, location));
+        }
+
+        /**
+         * Apply one log entry
+         */
+        void apply(String boxBarcode, String productName, String productBarcode, String operation, String note, int quantity) {
+            // Logs written when the product was created do not put anything in stock
+            if ("add".equals(operation) && ProductService.PRODUCT_CREATED_NOTE.equals(note)) {
+                return;
+            }
+
+            int direction;
+            String location;
+            if (IN_OPERATIONS.contains(operation)) {
+                direction = 1;
+                location = IN_STOCK;
+            } else if (LENT_OPERATIONS.contains(operation)) {
+                direction = -1;
+                location = LENT;
+            } else if (OUT_OPERATIONS.contains(operation)) {
+                direction = -1;
+                location = null;
+            } else if (LENT_OUT_OPERATIONS.contains(operation)) {
+                direction = 0;
+                location = null;
+            } else {
+                // Unknown operations do not move stock
+                return;
+            }
+
+            StockAsOfItemDTO item = item(boxBarcode, productName);
+            if (pairedProducts.contains(boxBarcode)) {
+                pairUnits.computeIfAbsent(itemKey(boxBarcode, productName), key -> new int[2])[1] += direction;
+            } else {
+                int amount = quantity > 0 ? quantity : 1;
+                item.setQuantity(item.getQuantity() + direction * amount);
+            }
+
+            if (includeUnits && productBarcode != null && !productBarcode.isEmpty()
+                    && !NON_SERIALIZED_BARCODE.equals(productBarcode)) {
+                if (location != null) {
+                    units.put(productBarcode, new StockAsOfUnitDTO(productBarcode, boxBarcode, productName, location));
+                } else {
+                    units.remove(productBarcode);
+                }
+            }
+        }
+
+        /**
+         * Get the replayed quantities, with pair products moved by the change in their pairs
+         */
+        List<StockAsOfItemDTO> getItems() {
+            pairUnits.forEach((key, count) -> {
+                StockAsOfItemDTO item = items.get(key);
+                item.setQuantity(item.getQuantity() + pairs(count[1]) - pairs(count[0]));
+                count[0] = count[1];
+            });
+            return items.values().stream()
+                    .sorted(Comparator.comparing(StockAsOfItemDTO::getBoxBarcode).thenComparing(StockAsOfItemDTO::getProductName))
+                    .collect(Collectors.toList());
+        }
+
+        List<StockAsOfUnitDTO> getUnits() {
+            return units.values().stream()
+                    .sorted(Comparator.comparing(StockAsOfUnitDTO::getProductBarcode))
+                    .collect(Collectors.toList());
+        }
+
+        private StockAsOfItemDTO item(String boxBarcode, String productName) {
+            return items.computeIfAbsent(itemKey(boxBarcode, productName),
+                    key -> new StockAsOfItemDTO(boxBarcode, productName, 0));
+        }
+
+        // Same rounding as StockService.syncCurrentStockWithInStock
+        private static int pairs(int units) {
+            return units > 0 ? (units + 1) / 2 : 0;
+        }
+    }
+
+    private static String itemKey(String boxBarcode, String productName) {
+        return boxBarcode + "\n" + productName;
+    }
+}
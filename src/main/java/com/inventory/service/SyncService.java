@@ -1,20 +1,18 @@
 package com.inventory.service;
 
 import com.inventory.model.CurrentStock;
-import com.inventory.model.ProductCatalog;
 import com.inventory.repository.CurrentStockRepository;
-import com.inventory.repository.ProductCatalogRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.annotation.Isolation;
 
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.ZoneId;
-import java.util.List;
 import java.util.Optional;
 
 /**
@@ -25,8 +23,17 @@ public class SyncService {
     
     private static final Logger logger = LoggerFactory.getLogger(SyncService.class);
     
-    @Autowired
-    private ProductCatalogRepository productCatalogRepository;
+    private static final String CATALOG_SYNC_JOB = "catalog-sync";
+    
+    // Catalog products without a stock entry, with their highest box number
+    private static final String INSERT_MISSING_STOCK =
+            "INSERT INTO current_stock (box_barcode, product_name, quantity, last_updated, box_number) " +
+            "SELECT pc.box_barcode, pc.product_name, 0, ?, " +
+            "COALESCE((SELECT MAX(bn.box_number) FROM box_number bn " +
+            "WHERE bn.box_barcode = pc.box_barcode AND bn.product_name = pc.product_name), 0) " +
+            "FROM product_catalog pc " +
+            "WHERE NOT EXISTS (SELECT 1 FROM current_stock cs " +
+            "WHERE cs.box_barcode = pc.box_barcode AND cs.product_name = pc.product_name)";
     
     @Autowired
     private CurrentStockRepository currentStockRepository;
@@ -34,71 +41,42 @@ public class SyncService {
     @Autowired
     private BoxNumberService boxNumberService;
     
+    @Autowired
+    private AdvisoryLockService advisoryLockService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
     /**
      * Synchronize CurrentStock with ProductCatalog
-     * This ensures every product in the catalog has a corresponding stock entry
+     * Creates a zero-quantity stock entry for every catalog product without one, in one statement.
+     * The box number is the product's highest allocated box number, or 0.
+     * @return Number of stock entries created
      */
     @Transactional
-    public void syncCurrentStockWithCatalog() {
-        logger.info("Starting synchronization of CurrentStock with ProductCatalog");
-        
-        try {
-            // Get all products from catalog
-            List<ProductCatalog> allProducts = productCatalogRepository.findAll();
-            int created = 0;
-            
-            for (ProductCatalog product : allProducts) {
-                try {
-                    String boxBarcode = product.getBoxBarcode();
-                    String productName = product.getProductName();
-                    
-                    // Check if stock entry exists
-                    Optional<CurrentStock> stockOpt = currentStockRepository.findByBoxBarcodeAndProductName(
-                            boxBarcode, productName);
-                    
-                    if (stockOpt.isEmpty()) {
-                        // Create new stock entry with zero quantity
-                        CurrentStock newStock = new CurrentStock();
-                        newStock.setBoxBarcode(boxBarcode);
-                        newStock.setProductName(productName);
-                        newStock.setQuantity(0);
-                        newStock.setLastUpdated(ZonedDateTime.now(ZoneId.of("Asia/Bangkok")));
-                        
-                        // Get highest box number if available
-                        Integer highestBoxNumber = boxNumberService.getHighestBoxNumber(boxBarcode, productName);
-                        if (highestBoxNumber != null) {
-                            newStock.setBoxNumber(highestBoxNumber);
-                        }
-                        
-                        currentStockRepository.save(newStock);
-                        created++;
-                    }
-                } catch (Exception e) {
-                    logger.error("Error processing product {}: {}", product.getBoxBarcode(), e.getMessage(), e);
-                    // Continue with next product
-                }
-            }
-            
-            logger.info("Completed synchronization of CurrentStock with ProductCatalog. Created {} new stock entries", created);
-        } catch (Exception e) {
-            logger.error("Error during stock synchronization: {}", e.getMessage(), e);
+    public int syncCurrentStockWithCatalog() {
+        // Instances starting together run the sync once; the others skip it
+        if (!advisoryLockService.tryLockJob(CATALOG_SYNC_JOB)) {
+            logger.info("Stock synchronization is already running on another instance");
+            return 0;
         }
-    }
-    
-    /**
-     * Run synchronization on application startup and daily at midnight
-     */
-    @Scheduled(cron = "0 0 0 * * ?")
-    public void scheduledSync() {
-        syncCurrentStockWithCatalog();
+        
+        int created = jdbcTemplate.update(INSERT_MISSING_STOCK, Timestamp.from(Instant.now()));
+        
+        logger.info("Completed synchronization of CurrentStock with ProductCatalog. Created {} new stock entries", created);
+        return created;
     }
     
     /**
      * Create or update stock entry for a specific product
-     * Uses SERIALIZABLE isolation to prevent race conditions
+     * Serialized per product by an advisory lock taken before any read, in READ COMMITTED so the
+     * reads after the lock wait see the rows committed by the previous holder
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public synchronized CurrentStock createOrUpdateStock(String boxBarcode, String productName) {
+    @Transactional
+    public CurrentStock createOrUpdateStock(String boxBarcode, String productName) {
+        // Concurrent calls for the same product wait here instead of on a JVM monitor
+        advisoryLockService.lockProduct(boxBarcode);
+        
         Optional<CurrentStock> stockOpt = currentStockRepository.findByBoxBarcodeAndProductName(
                 boxBarcode, productName);
         
@@ -0,0 +1,116 @@
+package com.inventory.util;
+
+/**
+ * Utility class for pair detection on paired products (SN=2)
+ *
+ * Two units are considered a pair when the last number in their barcodes follows
+ * the odd/even rule (odd pairs with odd+1, even pairs with even-1). Barcodes without
+ * a usable number fall back to the suffix rule (same barcode except for a last
+ * character of A/B or 1/2).
+ *
+ * Instead of comparing a new barcode against every unit of the box barcode, the
+ * normalized number is stored per unit as its pair key, so the partner can be found
+ * with a single indexed lookup.
+ */
+public class BarcodePairUtils {
+
+    /**
+     * Get the pair key of a barcode
+     * The pair key is the last number in the barcode without leading zeros
+     * @param barcode The product barcode
+     * @return The pair key, or null if the barcode has no number that fits in an int
+     */
+    public static String pairKey(String barcode) {
+        Integer number = extractPairNumber(barcode);
+        return number != null ? String.valueOf(number) : null;
+    }
+
+    /**
+     * Get the pair key of the unit that would be paired with this barcode
+     * Odd numbers are paired with number+1, even numbers with number-1
+     * @param barcode The product barcode
+     * @return The partner's pair key, or null if the barcode has no usable number
+     */
+    public static String partnerPairKey(String barcode) {
+        Integer number = extractPairNumber(barcode);
+        if (number == null) {
+            return null;
+        }
+
+        long partner = number % 2 != 0 ? (long) number + 1 : (long) number - 1;
+
+        // The partner must also be a valid pair key
+        if (partner < 0 || partner > Integer.MAX_VALUE) {
+            return null;
+        }
+        return String.valueOf(partner);
+    }
+
+    /**
+     * Get the partner barcode for barcodes without a usable number
+     * The partner has the same characters except for the last one (A/B or 1/2)
+     * @param barcode The product barcode
+     * @return The partner barcode, or null if the last character is not a pair pattern
+     */
+    public static String fallbackPartnerBarcode(String barcode) {
+        if (barcode == null || barcode.isEmpty()) {
+            return null;
+        }
+
+        String prefix = barcode.substring(0, barcode.length() - 1);
+        char last = barcode.charAt(barcode.length() - 1);
+
+        // Check for common pair patterns: A/B, 1/2
+        switch (last) {
+            case 'A':
+                return prefix + 'B';
+            case 'B':
+                return prefix + 'A';
+            case '1':
+                return prefix + '2';
+            case '2':
+                return prefix + '1';
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Extract the last number in a barcode
+     * @param barcode The product barcode
+     * @return The number, or null if there is no number or it does not fit in an int
+     */
+    private static Integer extractPairNumber(String barcode) {
+        if (barcode == null || barcode.isEmpty()) {
+            return null;
+        }
+
+        // Find the last sequence of digits in the barcode
+        int end = barcode.length();
+        while (end > 0 && !isAsciiDigit(barcode.charAt(end - 1))) {
+            end--;
+        }
+        if (end == 0) {
+            return null;
+        }
+
+        int start = end;
+        while (start > 0 && isAsciiDigit(barcode.charAt(start - 1))) {
+            start--;
+        }
+
+        try {
+            return Integer.parseInt(barcode.substring(start, end));
+        } catch (NumberFormatException e) {
+            // Number is too large for the odd/even rule
+            return null;
+        }
+    }
+
+    /**
+     * Check if a character is a digit (0-9)
+     */
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -1,11 +1,6 @@
 package com.inventory.util;
 
 import com.inventory.exception.InvalidInputException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Random;
-import java.time.ZonedDateTime;
-import java.time.ZoneId;
 
 /**
  * Utility class for common inventory operations
@@ -37,13 +32,11 @@ public class InventoryUtils {
     }
     
     /**
-     * Generate a unique order ID
+     * Generate a unique, time-ordered order ID
+     * @see OrderIdGenerator
      */
     public static String generateOrderId(String prefix) {
-        String timestamp = ZonedDateTime.now(ZoneId.of("Asia/Bangkok")).format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String random = String.format("%04d", new Random().nextInt(10000));
-        
-        return prefix + "-" + timestamp + "-" + random;
+        return OrderIdGenerator.nextId(prefix);
     }
     
     /**
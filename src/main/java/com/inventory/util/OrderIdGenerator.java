@@ -0,0 +1,103 @@
+package com.inventory.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generator of unique, time-ordered order IDs
+ *
+ * IDs are 64-bit Snowflake-style values: milliseconds since 2024-01-01 (41 bits), the node ID of
+ * the instance (10 bits) and a per-millisecond sequence (12 bits), written as 13 Crockford base32
+ * characters. The fixed width makes string order equal to creation order, so new IDs are appended
+ * at the end of order_id indexes instead of landing on random pages.
+ *
+ * The node ID (0-1023) is assigned by OrderNodeLeaseService at startup: the configured
+ * inventory.node-id (INVENTORY_NODE_ID), or a node ID leased from Postgres for as long as the
+ * instance keeps renewing the lease. No ID is issued without a node ID or after its lease ran out,
+ * since two instances sharing a node ID could issue the same ID.
+ */
+public final class OrderIdGenerator {
+
+    // 2024-01-01T00:00:00Z
+    private static final long EPOCH_MS = 1704067200000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    // Node ID and the wall-clock time until which it may be used; null until assigned
+    private static volatile NodeLease nodeLease;
+
+    // Last issued (milliseconds << SEQUENCE_BITS | sequence)
+    private static final AtomicLong lastState = new AtomicLong();
+
+    private OrderIdGenerator() {
+    }
+
+    /**
+     * Use a node ID until the given time
+     * @param nodeId The node ID, 0-1023
+     * @param validUntilMillis Epoch milliseconds until which the node ID is held, Long.MAX_VALUE if configured
+     */
+    public static void useNodeId(long nodeId, long validUntilMillis) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE + ": " + nodeId);
+        }
+        nodeLease = new NodeLease(nodeId, validUntilMillis);
+    }
+
+    /**
+     * Generate the next ID
+     * Lock-free and strictly increasing on this node, also if the clock moves backwards.
+     * @throws IllegalStateException if no node ID is assigned or its lease ran out
+     */
+    public static long nextId() {
+        NodeLease lease = nodeLease;
+        long wallClock = System.currentTimeMillis();
+        if (lease == null || wallClock > lease.validUntilMillis) {
+            throw new IllegalStateException("No node ID held for order IDs; set INVENTORY_NODE_ID or check the node lease");
+        }
+        long now = wallClock - EPOCH_MS;
+        while (true) {
+            long last = lastState.get();
+            long lastMs = last >>> SEQUENCE_BITS;
+            long next;
+            if (now > lastMs) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // Same millisecond or clock behind: take the next sequence, rolling into the next millisecond
+                next = last + 1;
+            }
+            if (lastState.compareAndSet(last, next)) {
+                long ms = next >>> SEQUENCE_BITS;
+                long sequence = next & MAX_SEQUENCE;
+                return (ms << (NODE_BITS + SEQUENCE_BITS)) | (lease.nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    /**
+     * Generate the next ID as a prefixed string, e.g. SALES-0H5GS1Q8G0XK2
+     */
+    public static String nextId(String prefix) {
+        return prefix + "-" + encode(nextId());
+    }
+
+    /**
+     * Encode an ID as fixed-width Crockford base32
+     */
+    static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = CROCKFORD[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private record NodeLease(long nodeId, long validUntilMillis) {
+    }
+}
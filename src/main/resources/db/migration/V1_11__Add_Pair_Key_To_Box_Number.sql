@@ -0,0 +1,12 @@
+-- Add pair_key column used for constant-time pair detection on paired products (SN=2)
+-- pair_key is the last number in product_barcode without leading zeros (NULL if it does not fit in an int)
+ALTER TABLE box_number ADD COLUMN IF NOT EXISTS pair_key VARCHAR(20);
+
+-- Backfill existing rows using the same rule as BarcodePairUtils.pairKey
+UPDATE box_number
+SET pair_key = CAST(CAST(substring(product_barcode FROM '([0-9]+)[^0-9]*$') AS NUMERIC) AS TEXT)
+WHERE product_barcode ~ '[0-9]'
+  AND CAST(substring(product_barcode FROM '([0-9]+)[^0-9]*$') AS NUMERIC) <= 2147483647;
+
+-- Index pair lookups per box barcode
+CREATE INDEX IF NOT EXISTS idx_box_number_box_barcode_pair_key ON box_number (box_barcode, pair_key);
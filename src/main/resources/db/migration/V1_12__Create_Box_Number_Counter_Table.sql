@@ -0,0 +1,20 @@
+-- Per-product counter for box number allocation
+-- Replaces MAX(box_number) + 1 so numbers are reserved with one atomic UPDATE ... RETURNING
+CREATE TABLE IF NOT EXISTS box_number_counter (
+    id BIGSERIAL PRIMARY KEY,
+    box_barcode VARCHAR(255) NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    last_box_number INTEGER NOT NULL,
+    last_updated TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_box_number_counter_product UNIQUE (box_barcode, product_name)
+);
+
+-- Seed counters from the existing box numbers
+INSERT INTO box_number_counter (box_barcode, product_name, last_box_number)
+SELECT box_barcode, product_name, MAX(box_number)
+FROM box_number
+GROUP BY box_barcode, product_name
+ON CONFLICT (box_barcode, product_name) DO NOTHING;
+
+-- Index used by the highest box number lookup
+CREATE INDEX IF NOT EXISTS idx_box_number_product_box_number ON box_number (box_barcode, product_name, box_number);
@@ -0,0 +1,18 @@
+-- Outbox for log entries
+-- Entries are written in the business transaction and moved to logs in batches
+CREATE TABLE IF NOT EXISTS logs_outbox (
+    outbox_id BIGSERIAL PRIMARY KEY,
+    box_barcode VARCHAR(255) NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    product_barcode VARCHAR(255),
+    operation VARCHAR(255) NOT NULL,
+    timestamp TIMESTAMPTZ,
+    note VARCHAR(255),
+    box_number INTEGER,
+    order_id VARCHAR(255),
+    quantity INTEGER NOT NULL DEFAULT 1
+);
+
+-- Indexes used by the read-your-writes lookups
+CREATE INDEX IF NOT EXISTS idx_logs_outbox_product_barcode ON logs_outbox (product_barcode);
+CREATE INDEX IF NOT EXISTS idx_logs_outbox_box_barcode_order_id ON logs_outbox (box_barcode, order_id);
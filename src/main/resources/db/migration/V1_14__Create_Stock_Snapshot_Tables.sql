@@ -0,0 +1,43 @@
+-- Point-in-time inventory snapshots
+-- Inventory as of any time is the nearest earlier snapshot plus the logs written after it
+CREATE TABLE IF NOT EXISTS stock_snapshot (
+    snapshot_id BIGSERIAL PRIMARY KEY,
+    snapshot_time TIMESTAMPTZ NOT NULL,
+    tx_snapshot TEXT,
+    created_at TIMESTAMPTZ,
+    product_count INTEGER,
+    unit_count INTEGER,
+    CONSTRAINT uk_stock_snapshot_time UNIQUE (snapshot_time)
+);
+
+-- On-hand quantity per product
+CREATE TABLE IF NOT EXISTS stock_snapshot_quantity (
+    id BIGSERIAL PRIMARY KEY,
+    snapshot_id BIGINT NOT NULL REFERENCES stock_snapshot(snapshot_id) ON DELETE CASCADE,
+    box_barcode VARCHAR(255) NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL
+);
+
+-- Location of each serialized unit (in_stock or lent)
+CREATE TABLE IF NOT EXISTS stock_snapshot_unit (
+    id BIGSERIAL PRIMARY KEY,
+    snapshot_id BIGINT NOT NULL REFERENCES stock_snapshot(snapshot_id) ON DELETE CASCADE,
+    product_barcode VARCHAR(255) NOT NULL,
+    box_barcode VARCHAR(255) NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    location VARCHAR(20) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_stock_snapshot_quantity_snapshot ON stock_snapshot_quantity (snapshot_id, box_barcode);
+CREATE INDEX IF NOT EXISTS idx_stock_snapshot_unit_snapshot ON stock_snapshot_unit (snapshot_id, box_barcode);
+
+-- Indexes for the log replay window
+CREATE INDEX IF NOT EXISTS idx_logs_timestamp ON logs (timestamp);
+CREATE INDEX IF NOT EXISTS idx_logs_product_barcode ON logs (product_barcode);
+
+-- Id of the transaction that wrote each log, kept when an entry moves from the outbox to logs
+-- Log timestamps are set before commit, so replay uses the snapshot's visible transactions instead
+ALTER TABLE logs ADD COLUMN IF NOT EXISTS xid XID8 DEFAULT pg_current_xact_id();
+ALTER TABLE logs_outbox ADD COLUMN IF NOT EXISTS xid XID8 DEFAULT pg_current_xact_id();
+CREATE INDEX IF NOT EXISTS idx_logs_xid ON logs (xid);
@@ -0,0 +1,2 @@
+-- Index for the stock aging report: groups by box barcode and buckets by added timestamp
+CREATE INDEX IF NOT EXISTS idx_in_stock_box_barcode_added ON in_stock (box_barcode, added_timestamp);
@@ -0,0 +1,26 @@
+-- Daily sales totals per shop, employee and product (days in Asia/Bangkok)
+-- Replaces DATE(timestamp) scans of the sales table in reports
+CREATE TABLE IF NOT EXISTS sales_daily (
+    id BIGSERIAL PRIMARY KEY,
+    sales_date DATE NOT NULL,
+    shop_name VARCHAR(255) NOT NULL,
+    employee_id VARCHAR(255) NOT NULL,
+    box_barcode VARCHAR(255) NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    sales_count BIGINT NOT NULL,
+    quantity BIGINT NOT NULL,
+    last_updated TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_sales_daily_key UNIQUE (sales_date, shop_name, employee_id, box_barcode, product_name)
+);
+
+-- Range lookups of the rebuild job
+CREATE INDEX IF NOT EXISTS idx_sales_timestamp ON sales (timestamp);
+
+-- Initial build from the existing sales
+INSERT INTO sales_daily (sales_date, shop_name, employee_id, box_barcode, product_name, sales_count, quantity, last_updated)
+SELECT CAST(timestamp AT TIME ZONE 'Asia/Bangkok' AS DATE), shop_name, employee_id, box_barcode, product_name,
+       COUNT(*), COALESCE(SUM(quantity), 0), CURRENT_TIMESTAMP
+FROM sales
+WHERE timestamp IS NOT NULL
+GROUP BY 1, shop_name, employee_id, box_barcode, product_name
+ON CONFLICT (sales_date, shop_name, employee_id, box_barcode, product_name) DO NOTHING;
@@ -0,0 +1,28 @@
+-- Daily lent and broken totals per shop, employee and product (days in Asia/Bangkok)
+-- Sales totals stay in sales_daily; reports read both
+CREATE TABLE IF NOT EXISTS movement_daily (
+    id BIGSERIAL PRIMARY KEY,
+    movement_date DATE NOT NULL,
+    operation VARCHAR(255) NOT NULL,
+    shop_name VARCHAR(255) NOT NULL,
+    employee_id VARCHAR(255) NOT NULL,
+    box_barcode VARCHAR(255) NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    line_count BIGINT NOT NULL,
+    quantity BIGINT NOT NULL,
+    last_updated TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_movement_daily_key UNIQUE (movement_date, operation, shop_name, employee_id, box_barcode, product_name)
+);
+
+-- Initial build from the logs; lent lines take shop and employee from their order
+INSERT INTO movement_daily (movement_date, operation, shop_name, employee_id, box_barcode, product_name, line_count, quantity, last_updated)
+SELECT CAST(l.timestamp AT TIME ZONE 'Asia/Bangkok' AS DATE), l.operation,
+       COALESCE(li.shop_name, ''), COALESCE(li.employee_id, ''), l.box_barcode, l.product_name,
+       COUNT(*), COALESCE(SUM(l.quantity), 0), CURRENT_TIMESTAMP
+FROM (SELECT operation, timestamp, box_barcode, product_name, order_id, quantity FROM logs
+      UNION ALL
+      SELECT operation, timestamp, box_barcode, product_name, order_id, quantity FROM logs_outbox) l
+LEFT JOIN lent_id li ON l.operation = 'lent' AND li.lent_id = l.order_id
+WHERE l.operation IN ('lent', 'broken') AND l.timestamp IS NOT NULL
+GROUP BY 1, l.operation, 3, 4, l.box_barcode, l.product_name
+ON CONFLICT (movement_date, operation, shop_name, employee_id, box_barcode, product_name) DO NOTHING;
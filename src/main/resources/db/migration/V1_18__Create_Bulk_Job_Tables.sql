@@ -0,0 +1,31 @@
+-- Background bulk operations and their failed items
+CREATE TABLE IF NOT EXISTS bulk_job (
+    job_id VARCHAR(255) PRIMARY KEY,
+    type VARCHAR(255) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    order_id VARCHAR(255),
+    request TEXT NOT NULL,
+    total_items INTEGER NOT NULL,
+    processed_items INTEGER NOT NULL,
+    failed_items INTEGER NOT NULL,
+    error TEXT,
+    result TEXT,
+    created_by VARCHAR(255),
+    created_at TIMESTAMPTZ NOT NULL,
+    started_at TIMESTAMPTZ,
+    finished_at TIMESTAMPTZ,
+    heartbeat_at TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS idx_bulk_job_status ON bulk_job (status);
+
+CREATE TABLE IF NOT EXISTS bulk_job_error (
+    id BIGSERIAL PRIMARY KEY,
+    job_id VARCHAR(255) NOT NULL REFERENCES bulk_job (job_id) ON DELETE CASCADE,
+    item_index INTEGER NOT NULL,
+    item VARCHAR(255) NOT NULL,
+    message TEXT,
+    timestamp TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_bulk_job_error_job_id ON bulk_job_error (job_id, item_index);
@@ -0,0 +1,15 @@
+-- Stored responses of order submissions, keyed by the client's Idempotency-Key header
+CREATE TABLE IF NOT EXISTS idempotency_key (
+    idempotency_key VARCHAR(512) PRIMARY KEY,
+    request_path VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64),
+    status VARCHAR(32) NOT NULL,
+    response_status INTEGER,
+    response_body TEXT,
+    content_type VARCHAR(255),
+    location VARCHAR(1024),
+    created_at TIMESTAMPTZ NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_key_expires_at ON idempotency_key (expires_at);
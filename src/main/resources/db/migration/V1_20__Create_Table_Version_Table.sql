@@ -0,0 +1,33 @@
+-- Change counters of the tables behind the polled read endpoints, used for their ETags
+-- Bumped by triggers in the writing transaction, so every write path and every instance sees the same versions
+CREATE TABLE IF NOT EXISTS table_version (
+    table_name VARCHAR(64) PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO table_version (table_name)
+VALUES ('current_stock'), ('in_stock'), ('product_catalog'), ('lent'), ('lent_id')
+ON CONFLICT (table_name) DO NOTHING;
+
+-- Bump the version of the trigger's table once per transaction
+-- The triggers are deferred, so the row lock on table_version is only held while the transaction commits
+CREATE OR REPLACE FUNCTION bump_table_version() RETURNS trigger AS $$
+BEGIN
+    IF current_setting('inventory.version_bumped_' || TG_TABLE_NAME, true) IS DISTINCT FROM 'on' THEN
+        PERFORM set_config('inventory.version_bumped_' || TG_TABLE_NAME, 'on', true);
+        UPDATE table_version SET version = version + 1 WHERE table_name = TG_TABLE_NAME;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE CONSTRAINT TRIGGER trg_current_stock_version AFTER INSERT OR UPDATE OR DELETE ON current_stock
+    DEFERRABLE INITIALLY DEFERRED FOR EACH ROW EXECUTE FUNCTION bump_table_version();
+CREATE CONSTRAINT TRIGGER trg_in_stock_version AFTER INSERT OR UPDATE OR DELETE ON in_stock
+    DEFERRABLE INITIALLY DEFERRED FOR EACH ROW EXECUTE FUNCTION bump_table_version();
+CREATE CONSTRAINT TRIGGER trg_product_catalog_version AFTER INSERT OR UPDATE OR DELETE ON product_catalog
+    DEFERRABLE INITIALLY DEFERRED FOR EACH ROW EXECUTE FUNCTION bump_table_version();
+CREATE CONSTRAINT TRIGGER trg_lent_version AFTER INSERT OR UPDATE OR DELETE ON lent
+    DEFERRABLE INITIALLY DEFERRED FOR EACH ROW EXECUTE FUNCTION bump_table_version();
+CREATE CONSTRAINT TRIGGER trg_lent_id_version AFTER INSERT OR UPDATE OR DELETE ON lent_id
+    DEFERRABLE INITIALLY DEFERRED FOR EACH ROW EXECUTE FUNCTION bump_table_version();
@@ -0,0 +1,5 @@
+-- Lease of the request that reserved a key; a retry may take over an IN_PROGRESS key once it has run out,
+-- so a request that crashed without releasing its key does not block the key until it expires
+ALTER TABLE idempotency_key ADD COLUMN IF NOT EXISTS locked_until TIMESTAMPTZ;
+
+UPDATE idempotency_key SET locked_until = created_at + INTERVAL '2 minutes' WHERE status = 'IN_PROGRESS';
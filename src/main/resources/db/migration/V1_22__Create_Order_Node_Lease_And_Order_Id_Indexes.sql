@@ -0,0 +1,16 @@
+-- Node IDs of the order ID generator, leased by running instances
+-- An instance without a configured node ID takes a free one at startup and renews its lease while it runs
+CREATE TABLE IF NOT EXISTS order_node_lease (
+    node_id INTEGER PRIMARY KEY,
+    instance_id VARCHAR(255),
+    leased_until TIMESTAMPTZ NOT NULL DEFAULT '-infinity'
+);
+
+INSERT INTO order_node_lease (node_id)
+SELECT generate_series(0, 1023)
+ON CONFLICT (node_id) DO NOTHING;
+
+-- Lookups of order lines by order ID
+CREATE INDEX IF NOT EXISTS idx_sales_order_id ON sales (order_id);
+CREATE INDEX IF NOT EXISTS idx_lent_order_id ON lent (order_id);
+CREATE INDEX IF NOT EXISTS idx_logs_order_id ON logs (order_id);
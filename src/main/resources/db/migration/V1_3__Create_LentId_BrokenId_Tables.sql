@@ -1,19 +1,19 @@
 -- Create lent_id table
-CREATE TABLE lent_id (
-    lent_id VARCHAR(50) PRIMARY KEY,
-    employee_id VARCHAR(50) NOT NULL,
-    shop_name VARCHAR(100) NOT NULL,
-    timestamp TIMESTAMP NOT NULL,
-    note TEXT,
-    status VARCHAR(20) NOT NULL
+CREATE TABLE IF NOT EXISTS lent_id (
+    lent_id VARCHAR(255) PRIMARY KEY,
+    employee_id VARCHAR(255) NOT NULL,
+    shop_name VARCHAR(255) NOT NULL,
+    timestamp TIMESTAMPTZ NOT NULL,
+    note VARCHAR(255),
+    status VARCHAR(255) NOT NULL
 );
 
 -- Create broken_id table
-CREATE TABLE broken_id (
-    broken_id VARCHAR(50) PRIMARY KEY,
-    timestamp TIMESTAMP NOT NULL,
-    note TEXT
+CREATE TABLE IF NOT EXISTS broken_id (
+    broken_id VARCHAR(255) PRIMARY KEY,
+    timestamp TIMESTAMPTZ NOT NULL,
+    note VARCHAR(255)
 );
 
 -- Add order_id column to logs table if not already exists
-ALTER TABLE logs ADD COLUMN IF NOT EXISTS order_id VARCHAR(50); 
\ No newline at end of file
+ALTER TABLE logs ADD COLUMN IF NOT EXISTS order_id VARCHAR(255);
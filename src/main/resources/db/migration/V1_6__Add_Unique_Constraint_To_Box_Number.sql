@@ -1,2 +1,2 @@
--- Add unique constraint to product_barcode in box_number table
-ALTER TABLE box_number ADD CONSTRAINT uk_box_number_product_barcode UNIQUE (product_barcode); 
\ No newline at end of file
+-- Intentionally empty
+-- box_number.product_barcode is not unique, see V1_5.
@@ -1,8 +1,8 @@
 -- Create a table to track barcode status
-CREATE TABLE barcode_status (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+CREATE TABLE IF NOT EXISTS barcode_status (
+    id BIGSERIAL PRIMARY KEY,
     product_barcode VARCHAR(255) NOT NULL,
-    status VARCHAR(50) NOT NULL,
-    last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    status VARCHAR(255) NOT NULL,
+    last_updated TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
     CONSTRAINT uk_barcode_status_product_barcode UNIQUE (product_barcode)
-); 
\ No newline at end of file
+);
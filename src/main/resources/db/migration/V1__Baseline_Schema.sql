@@ -0,0 +1,125 @@
+-- Baseline schema, replacing schema.sql and Hibernate schema generation at startup
+-- Column types match the entity mappings so Hibernate can validate the schema.
+-- Databases created before migrations were enabled are baselined at this version and skip this script.
+
+-- Products and the number of serial numbers per unit (0 = none, 1 = single, 2 = pair)
+CREATE TABLE IF NOT EXISTS product_catalog (
+    box_barcode VARCHAR(255) PRIMARY KEY,
+    product_name VARCHAR(255) NOT NULL,
+    number_sn INTEGER NOT NULL CHECK (number_sn IN (0, 1, 2))
+);
+
+CREATE TABLE IF NOT EXISTS current_stock (
+    stock_id BIGSERIAL PRIMARY KEY,
+    box_barcode VARCHAR(255) NOT NULL REFERENCES product_catalog(box_barcode),
+    product_name VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL DEFAULT 0,
+    last_updated TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    box_number INTEGER
+);
+
+-- Serialized units on hand
+CREATE TABLE IF NOT EXISTS in_stock (
+    id BIGSERIAL PRIMARY KEY,
+    box_barcode VARCHAR(255) NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    product_barcode VARCHAR(255) UNIQUE,
+    box_number INTEGER,
+    added_timestamp TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS box_number (
+    id BIGSERIAL PRIMARY KEY,
+    box_barcode VARCHAR(255) NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    box_number INTEGER NOT NULL,
+    product_barcode VARCHAR(255),
+    last_updated TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS logs (
+    logs_id BIGSERIAL PRIMARY KEY,
+    box_barcode VARCHAR(255) NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    product_barcode VARCHAR(255),
+    operation VARCHAR(255) NOT NULL,
+    timestamp TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    note VARCHAR(255),
+    box_number INTEGER,
+    order_id VARCHAR(255),
+    quantity INTEGER NOT NULL DEFAULT 1
+);
+
+CREATE TABLE IF NOT EXISTS bulk_logs (
+    bulk_id BIGSERIAL PRIMARY KEY,
+    box_barcode VARCHAR(255) NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL,
+    operation VARCHAR(255) NOT NULL,
+    date DATE NOT NULL
+);
+
+-- Sales orders and their lines
+CREATE TABLE IF NOT EXISTS invoice (
+    invoice_id BIGSERIAL PRIMARY KEY,
+    invoice VARCHAR(255) NOT NULL,
+    employee_id VARCHAR(255) NOT NULL,
+    shop_name VARCHAR(255) NOT NULL,
+    timestamp TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    last_modified TIMESTAMPTZ,
+    edit_count INTEGER DEFAULT 0,
+    edit_history TEXT
+);
+
+CREATE TABLE IF NOT EXISTS sales (
+    sales_id BIGSERIAL PRIMARY KEY,
+    invoice_id BIGINT NOT NULL,
+    box_barcode VARCHAR(255) NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    product_barcode VARCHAR(255),
+    employee_id VARCHAR(255) NOT NULL,
+    shop_name VARCHAR(255) NOT NULL,
+    timestamp TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    box_number INTEGER,
+    note VARCHAR(255),
+    quantity INTEGER DEFAULT 1,
+    order_id VARCHAR(255),
+    isdirectsales BOOLEAN DEFAULT TRUE
+);
+
+-- Lent order lines
+CREATE TABLE IF NOT EXISTS lent (
+    lent_id BIGSERIAL PRIMARY KEY,
+    box_barcode VARCHAR(255) NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    product_barcode VARCHAR(255),
+    employee_id VARCHAR(255) NOT NULL,
+    shop_name VARCHAR(255) NOT NULL,
+    timestamp TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    box_number INTEGER,
+    note VARCHAR(255),
+    status VARCHAR(255) DEFAULT 'lent',
+    quantity INTEGER DEFAULT 1,
+    order_id VARCHAR(255)
+);
+
+-- Broken order lines
+CREATE TABLE IF NOT EXISTS broken (
+    broken_id BIGSERIAL PRIMARY KEY,
+    box_barcode VARCHAR(255) NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    product_barcode VARCHAR(255),
+    condition VARCHAR(255),
+    timestamp TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    box_number INTEGER,
+    note VARCHAR(255),
+    quantity INTEGER DEFAULT 1,
+    order_id VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGSERIAL PRIMARY KEY,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    access VARCHAR(255) NOT NULL
+);
@@ -0,0 +1,62 @@
+package com.inventory;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Base class for tests that run the application against a real Postgres database
+ * The migrations are applied once per test run to an emptied schema of the test database.
+ * Subclasses must also be annotated with
+ * {@code @EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")}.
+ * Needs TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/inventory_test
+ * (TEST_POSTGRES_USER and TEST_POSTGRES_PASSWORD default to postgres).
+ */
+@SpringBootTest(classes = InventoryManagementApplication.class)
+public abstract class PostgresIntegrationTest {
+
+    protected static final String SCHEMA = "integration_test";
+
+    private static boolean migrated = false;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        migrate();
+        registry.add("spring.datasource.url", () -> url() + "?currentSchema=" + SCHEMA);
+        registry.add("spring.datasource.username", PostgresIntegrationTest::user);
+        registry.add("spring.datasource.password", PostgresIntegrationTest::password);
+        registry.add("spring.flyway.enabled", () -> "false");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("logging.level.org.hibernate.SQL", () -> "INFO");
+        registry.add("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", () -> "INFO");
+        registry.add("logging.level.org.springframework.data", () -> "INFO");
+        registry.add("server.port", () -> "0");
+    }
+
+    private static synchronized void migrate() {
+        if (migrated) {
+            return;
+        }
+        Flyway flyway = Flyway.configure()
+                .dataSource(url(), user(), password())
+                .schemas(SCHEMA)
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+        migrated = true;
+    }
+
+    private static String url() {
+        return System.getenv("TEST_POSTGRES_URL");
+    }
+
+    private static String user() {
+        return System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres");
+    }
+
+    private static String password() {
+        return System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", "postgres");
+    }
+}
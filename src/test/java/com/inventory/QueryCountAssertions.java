@@ -0,0 +1,64 @@
+package com.inventory;
+
+import com.inventory.config.QueryCounter;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Assertions on the number of SQL statements a piece of code runs
+ * Counts statements on the calling thread through the instrumented DataSource, so the Spring
+ * context under test must use the application DataSource (inventory.sql.instrumentation.enabled).
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    /**
+     * Run the code and fail if it executes more than the given number of SQL statements
+     */
+    public static void assertMaxQueries(long maxStatements, Executable work) {
+        assertMaxQueries(maxStatements, () -> {
+            work.execute();
+            return null;
+        });
+    }
+
+    /**
+     * Run the code and fail if it executes more than the given number of SQL statements
+     * @return The result of the code
+     */
+    public static <T> T assertMaxQueries(long maxStatements, ThrowingSupplier<T> work) {
+        T result;
+        QueryCounter.Scope scope = QueryCounter.open();
+        try {
+            result = work.get();
+        } catch (Throwable e) {
+            throw new AssertionError("Code under query count failed: " + e.getMessage(), e);
+        } finally {
+            scope.close();
+        }
+        if (scope.getStatements() > maxStatements) {
+            fail("Expected at most " + maxStatements + " SQL statements but " + scope.getStatements()
+                    + " were executed (" + scope.getRows() + " rows fetched)");
+        }
+        return result;
+    }
+
+    /**
+     * Count the SQL statements the code executes
+     */
+    public static long countQueries(Executable work) {
+        QueryCounter.Scope scope = QueryCounter.open();
+        try {
+            work.execute();
+        } catch (Throwable e) {
+            throw new AssertionError("Code under query count failed: " + e.getMessage(), e);
+        } finally {
+            scope.close();
+        }
+        return scope.getStatements();
+    }
+}
@@ -0,0 +1,60 @@
+package com.inventory;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the migrations build a schema the entity mappings validate against
+ * The migrations run on an empty schema of the test database, then the app starts with
+ * Hibernate in validate mode. Needs a Postgres database:
+ * TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/inventory_test
+ * (TEST_POSTGRES_USER and TEST_POSTGRES_PASSWORD default to postgres).
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class SchemaMigrationTest {
+
+    private static final String SCHEMA = "migration_test";
+
+    private static Flyway flyway;
+
+    @BeforeAll
+    static void cleanSchema() {
+        flyway = Flyway.configure()
+                .dataSource(System.getenv("TEST_POSTGRES_URL"),
+                        System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres"),
+                        System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", "postgres"))
+                .schemas(SCHEMA)
+                .cleanDisabled(false)
+                .load();
+        flyway.clean();
+    }
+
+    @Test
+    void migrations_ShouldBuildSchemaThatEntitiesValidate() {
+        MigrateResult result = flyway.migrate();
+        assertTrue(result.success);
+        assertEquals(0, flyway.info().pending().length);
+
+        // Fails to start if an entity does not match the migrated schema
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(InventoryManagementApplication.class).run(
+                "--spring.datasource.url=" + System.getenv("TEST_POSTGRES_URL") + "?currentSchema=" + SCHEMA,
+                "--spring.datasource.username=" + System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres"),
+                "--spring.datasource.password=" + System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", "postgres"),
+                "--spring.flyway.enabled=false",
+                "--spring.jpa.hibernate.ddl-auto=validate",
+                "--server.port=0",
+                "--spring.jpa.show-sql=false")) {
+            assertTrue(context.isActive());
+        }
+
+        // Applying the migrations again changes nothing
+        assertEquals(0, flyway.migrate().migrationsExecuted);
+    }
+}
@@ -0,0 +1,48 @@
+package com.inventory.config;
+
+import com.inventory.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void preHandle_ShouldRejectWhenLimitAndQueueAreFull() {
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(meterRegistry, "bulk", 1, 0, 10, 3);
+        MockHttpServletRequest first = new MockHttpServletRequest("POST", "/api/stock/add-bulk");
+        assertTrue(interceptor.preHandle(first, new MockHttpServletResponse(), null));
+
+        TooManyRequestsException rejected = assertThrows(TooManyRequestsException.class, () ->
+                interceptor.preHandle(new MockHttpServletRequest("POST", "/api/stock/add-bulk"), new MockHttpServletResponse(), null));
+        assertEquals(3, rejected.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.counter("inventory.admission.rejected", "class", "bulk").count());
+
+        // The permit is returned when the first request completes
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), null, null);
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/api/stock/add-bulk"), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void preHandle_ShouldRejectQueuedRequestAfterMaxWait() {
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(meterRegistry, "write", 1, 5, 20, 1);
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/api/stock/add"), new MockHttpServletResponse(), null));
+
+        assertThrows(TooManyRequestsException.class, () ->
+                interceptor.preHandle(new MockHttpServletRequest("POST", "/api/stock/add"), new MockHttpServletResponse(), null));
+        assertEquals(0.0, meterRegistry.get("inventory.admission.queued").gauge().value());
+    }
+
+    @Test
+    void preHandle_ShouldNotLimitReads() {
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(meterRegistry, "write", 1, 0, 10, 1);
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("POST", "/api/stock/add"), new MockHttpServletResponse(), null));
+
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/stock"), new MockHttpServletResponse(), null));
+    }
+}
@@ -0,0 +1,102 @@
+package com.inventory.config;
+
+import com.inventory.model.TableVersion;
+import com.inventory.repository.TableVersionRepository;
+import com.inventory.service.ChangeVersionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConditionalGetInterceptorTest {
+
+    private TableVersionRepository tableVersionRepository;
+    private ChangeVersionService changeVersionService;
+    private ConditionalGetInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        tableVersionRepository = mock(TableVersionRepository.class);
+        changeVersionService = new ChangeVersionService();
+        ReflectionTestUtils.setField(changeVersionService, "tableVersionRepository", tableVersionRepository);
+        interceptor = new ConditionalGetInterceptor(changeVersionService, ChangeVersionService.STOCK);
+        versions(1, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        ReplicaRoutingDataSource.clearReadFromPrimary();
+    }
+
+    @Test
+    void preHandle_ShouldAnswerNotModifiedWhileVersionIsUnchanged() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/stock"), first, null));
+        String etag = first.getHeader("ETag");
+        assertNotNull(etag);
+
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/api/stock");
+        conditional.addHeader("If-None-Match", etag);
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(conditional, second, null));
+        assertEquals(304, second.getStatus());
+    }
+
+    @Test
+    void preHandle_ShouldServeFullResponseAfterChange() {
+        String etag = changeVersionService.etag(ChangeVersionService.STOCK);
+        versions(1, 2, 1);
+
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/api/stock");
+        conditional.addHeader("If-None-Match", etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(conditional, response, null));
+        assertEquals(200, response.getStatus());
+        assertNotEquals(etag, response.getHeader("ETag"));
+    }
+
+    @Test
+    void preHandle_ShouldIgnoreChangesToOtherTables() {
+        String etag = changeVersionService.etag(ChangeVersionService.STOCK);
+        versions(1, 1, 5);
+
+        assertEquals(etag, changeVersionService.etag(ChangeVersionService.STOCK));
+    }
+
+    @Test
+    void preHandle_ShouldKeepFullResponseReadsOnPrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionName("com.inventory.service.CurrentStockFilterService.findCurrentStock");
+        assertTrue(ReplicaRoutingDataSource.isReplicaEligible());
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/stock/filter");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(request, response, null));
+        assertFalse(ReplicaRoutingDataSource.isReplicaEligible());
+
+        interceptor.afterCompletion(request, response, null, null);
+        assertTrue(ReplicaRoutingDataSource.isReplicaEligible());
+    }
+
+    private void versions(long currentStock, long inStock, long lent) {
+        when(tableVersionRepository.findAll()).thenReturn(List.of(
+                version("current_stock", currentStock),
+                version("in_stock", inStock),
+                version("lent", lent)));
+    }
+
+    private static TableVersion version(String table, long version) {
+        TableVersion tableVersion = new TableVersion();
+        tableVersion.setTableName(table);
+        tableVersion.setVersion(version);
+        return tableVersion;
+    }
+}
@@ -0,0 +1,154 @@
+package com.inventory.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.model.IdempotencyKey;
+import com.inventory.service.IdempotencyService;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IdempotencyFilterTest {
+
+    private static final String PATH = "/api/sales";
+    private static final String KEY = "anonymous:order-1";
+    private static final String BODY = "{\"shopName\":\"Shop A\",\"productBarcodes\":[\"1001\",\"1002\"]}";
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @InjectMocks
+    private IdempotencyFilter idempotencyFilter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void firstRequest_ShouldStoreHashOfFullBodyEvenWhenHandlerReadsPart() throws Exception {
+        when(idempotencyService.reserve(KEY, PATH)).thenReturn(true);
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                // Read only the start of the body
+                byte[] start = new byte[5];
+                assertEquals(5, request.getInputStream().read(start));
+                assertEquals("{\"sho", new String(start, StandardCharsets.UTF_8));
+                response.setStatus(201);
+                response.getWriter().write("{\"saleId\":\"S1\"}");
+            }
+        });
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        idempotencyFilter.doFilter(request(BODY), response, chain);
+
+        ArgumentCaptor<String> hash = ArgumentCaptor.forClass(String.class);
+        verify(idempotencyService).complete(eq(KEY), hash.capture(), eq(201), eq("{\"saleId\":\"S1\"}"), any(), any());
+        assertEquals(hashOf(BODY), hash.getValue());
+        verify(idempotencyService, never()).release(anyString());
+        assertEquals(201, response.getStatus());
+        assertEquals("{\"saleId\":\"S1\"}", response.getContentAsString());
+    }
+
+    @Test
+    void retry_ShouldReplayStoredResponseForSameBody() throws Exception {
+        when(idempotencyService.reserve(KEY, PATH)).thenReturn(false);
+        when(idempotencyService.find(KEY)).thenReturn(Optional.of(completed(BODY)));
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        idempotencyFilter.doFilter(request(BODY), response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(201, response.getStatus());
+        assertEquals("true", response.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals("/api/sales/S1", response.getHeader(HttpHeaders.LOCATION));
+        assertEquals("{\"saleId\":\"S1\"}", response.getContentAsString());
+        verify(idempotencyService, never()).complete(anyString(), anyString(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void retry_ShouldRejectDifferentBodyWith422() throws Exception {
+        when(idempotencyService.reserve(KEY, PATH)).thenReturn(false);
+        when(idempotencyService.find(KEY)).thenReturn(Optional.of(completed(BODY)));
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        idempotencyFilter.doFilter(request(BODY.replace("1002", "1003")), response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(422, response.getStatus());
+        assertNull(response.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void retry_ShouldReturn409WhileFirstAttemptIsInFlight() throws Exception {
+        IdempotencyKey inFlight = new IdempotencyKey();
+        inFlight.setIdempotencyKey(KEY);
+        inFlight.setRequestPath(PATH);
+        inFlight.setStatus(IdempotencyService.IN_PROGRESS);
+        when(idempotencyService.reserve(KEY, PATH)).thenReturn(false);
+        when(idempotencyService.find(KEY)).thenReturn(Optional.of(inFlight));
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        idempotencyFilter.doFilter(request(BODY), response, chain);
+
+        assertNull(chain.getRequest());
+        assertEquals(409, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    private static MockHttpServletRequest request(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", PATH);
+        request.addHeader(IdempotencyFilter.HEADER, "order-1");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static IdempotencyKey completed(String body) throws Exception {
+        IdempotencyKey entry = new IdempotencyKey();
+        entry.setIdempotencyKey(KEY);
+        entry.setRequestPath(PATH);
+        entry.setRequestHash(hashOf(body));
+        entry.setStatus(IdempotencyService.COMPLETED);
+        entry.setResponseStatus(201);
+        entry.setResponseBody("{\"saleId\":\"S1\"}");
+        entry.setContentType("application/json");
+        entry.setLocation("/api/sales/S1");
+        return entry;
+    }
+
+    private static String hashOf(String body) throws Exception {
+        return HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
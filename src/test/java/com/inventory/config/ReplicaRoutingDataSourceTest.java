@@ -0,0 +1,97 @@
+package com.inventory.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final ResultSet lagResult = mock(ResultSet.class);
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        Statement statement = mock(Statement.class);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(lagResult);
+        when(lagResult.next()).thenReturn(true);
+
+        routingDataSource = new ReplicaRoutingDataSource(primary, replica, new SimpleMeterRegistry(), 2000, 60000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        ReplicaRoutingDataSource.clearReadFromPrimary();
+    }
+
+    @Test
+    void getConnection_ShouldUseReplicaForReadOnlyServiceTransactions() throws SQLException {
+        when(lagResult.getLong(1)).thenReturn(100L);
+        routingDataSource.checkReplicaLag();
+
+        startTransaction("com.inventory.service.ReportService.getStockAging", true);
+        assertSame(replicaConnection, routingDataSource.getConnection());
+
+        startTransaction("com.inventory.service.StockService.addStock", false);
+        assertSame(primaryConnection, routingDataSource.getConnection());
+
+        // Spring Data's default read-only transaction around a single repository call
+        startTransaction("org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById", true);
+        assertSame(primaryConnection, routingDataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_ShouldUsePrimaryWhenReplicaLagsOrFails() throws SQLException {
+        startTransaction("com.inventory.service.ReportService.getStockAging", true);
+
+        when(lagResult.getLong(1)).thenReturn(5000L);
+        routingDataSource.checkReplicaLag();
+        assertSame(primaryConnection, routingDataSource.getConnection());
+
+        when(lagResult.getLong(1)).thenReturn(0L);
+        routingDataSource.checkReplicaLag();
+        assertTrue(routingDataSource.isReplicaUsable());
+
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        assertFalse(routingDataSource.isReplicaUsable());
+    }
+
+    @Test
+    void getConnection_ShouldUsePrimaryWhileRequestReadsFromPrimary() throws SQLException {
+        when(lagResult.getLong(1)).thenReturn(100L);
+        routingDataSource.checkReplicaLag();
+        startTransaction("com.inventory.service.CurrentStockFilterService.findCurrentStock", true);
+
+        ReplicaRoutingDataSource.readFromPrimary();
+        assertSame(primaryConnection, routingDataSource.getConnection());
+
+        ReplicaRoutingDataSource.clearReadFromPrimary();
+        assertSame(replicaConnection, routingDataSource.getConnection());
+    }
+
+    private void startTransaction(String name, boolean readOnly) {
+        TransactionSynchronizationManager.setCurrentTransactionName(name);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+}
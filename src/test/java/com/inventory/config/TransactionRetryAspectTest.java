@@ -0,0 +1,137 @@
+package com.inventory.config;
+
+import com.inventory.exception.InvalidInputException;
+import com.inventory.service.InventoryMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionRetryAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final InventoryMetrics inventoryMetrics = new InventoryMetrics(meterRegistry);
+
+    private final TransactionRetryAspect aspect = new TransactionRetryAspect();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(aspect, "inventoryMetrics", inventoryMetrics);
+        ReflectionTestUtils.setField(aspect, "enabled", true);
+        ReflectionTestUtils.setField(aspect, "maxAttempts", 3);
+        ReflectionTestUtils.setField(aspect, "initialBackoffMs", 1L);
+        ReflectionTestUtils.setField(aspect, "maxBackoffMs", 2L);
+    }
+
+    @Test
+    void retryOnSerializationFailure_ShouldRetryUntilSuccess() {
+        FlakyService target = new FlakyService(2, "40001");
+
+        assertEquals("done", proxy(target).run());
+        assertEquals(3, target.calls);
+        assertEquals(2.0, meterRegistry.counter("inventory.tx.serialization.retries", "operation", "FlakyService.run").count());
+    }
+
+    @Test
+    void retryOnSerializationFailure_ShouldGiveUpAfterMaxAttempts() {
+        FlakyService target = new FlakyService(10, "40P01");
+
+        assertThrows(CannotAcquireLockException.class, () -> proxy(target).run());
+        assertEquals(3, target.calls);
+        assertEquals(1.0, meterRegistry.counter("inventory.tx.serialization.exhausted", "operation", "FlakyService.run").count());
+    }
+
+    @Test
+    void retryOnSerializationFailure_ShouldNotRetryOtherErrors() {
+        FlakyService lockTimeout = new FlakyService(1, "55P03");
+        assertThrows(CannotAcquireLockException.class, () -> proxy(lockTimeout).run());
+        assertEquals(1, lockTimeout.calls);
+
+        FlakyService invalid = new FlakyService(1, null);
+        assertThrows(InvalidInputException.class, () -> proxy(invalid).run());
+        assertEquals(1, invalid.calls);
+    }
+
+    @Test
+    void retryOnSerializationFailure_ShouldCountStockOperationAbortedAtCommitAsConflict() {
+        FlakyService target = new FlakyService(1, "40001", inventoryMetrics);
+
+        assertEquals("done", proxy(target).run());
+        assertEquals(1, meterRegistry.find("inventory.stock.operation").tags("outcome", "conflict").timer().count());
+        assertEquals(1, meterRegistry.find("inventory.stock.operation").tags("outcome", "success").timer().count());
+        assertNull(meterRegistry.find("inventory.stock.operation").tags("outcome", "rolled-back").timer());
+        assertEquals(1.0, meterRegistry.counter("inventory.tx.serialization.failures",
+                "operation", "add", "sku", "unknown").count());
+    }
+
+    private FlakyService proxy(FlakyService target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        return factory.getProxy();
+    }
+
+    @Transactional
+    static class FlakyService {
+
+        private final int failures;
+        private final String sqlState;
+        private final InventoryMetrics inventoryMetrics;
+        int calls;
+
+        FlakyService(int failures, String sqlState) {
+            this(failures, sqlState, null);
+        }
+
+        // With metrics, each call runs a stock operation and fails as its commit would
+        FlakyService(int failures, String sqlState, InventoryMetrics inventoryMetrics) {
+            this.failures = failures;
+            this.sqlState = sqlState;
+            this.inventoryMetrics = inventoryMetrics;
+        }
+
+        public String run() {
+            calls++;
+            if (inventoryMetrics != null) {
+                return commitStockOperation(calls > failures);
+            }
+            if (calls <= failures) {
+                if (sqlState == null) {
+                    throw new InvalidInputException("bad input");
+                }
+                throw new CannotAcquireLockException("conflict", new SQLException("conflict", sqlState));
+            }
+            return "done";
+        }
+
+        private String commitStockOperation(boolean commits) {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                inventoryMetrics.recordStockOperation("add", 1, () -> "saved");
+                for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                    if (commits) {
+                        synchronization.afterCommit();
+                    }
+                    synchronization.afterCompletion(commits
+                            ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+                }
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+            if (!commits) {
+                throw new CannotAcquireLockException("could not serialize access", new SQLException("conflict", sqlState));
+            }
+            return "done";
+        }
+    }
+}
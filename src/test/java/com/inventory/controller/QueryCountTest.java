@@ -0,0 +1,82 @@
+package com.inventory.controller;
+
+import com.inventory.InventoryManagementApplication;
+import com.inventory.model.CurrentStock;
+import com.inventory.model.ProductCatalog;
+import com.inventory.repository.CurrentStockRepository;
+import com.inventory.repository.ProductCatalogRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.ZonedDateTime;
+
+import static com.inventory.QueryCountAssertions.assertMaxQueries;
+import static com.inventory.QueryCountAssertions.countQueries;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Query budgets of list endpoints: the statement count must not grow with the number of rows
+ */
+@SpringBootTest(classes = InventoryManagementApplication.class)
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.properties")
+@WithMockUser
+public class QueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductCatalogRepository productCatalogRepository;
+
+    @Autowired
+    private CurrentStockRepository currentStockRepository;
+
+    @AfterEach
+    void cleanUp() {
+        currentStockRepository.deleteAll();
+        productCatalogRepository.deleteAll();
+    }
+
+    @Test
+    public void getAllStock_ShouldNotQueryPerRow() throws Exception {
+        createProducts(0, 3);
+        long few = countQueries(() -> mockMvc.perform(get("/api/stock")).andExpect(status().isOk()));
+
+        createProducts(3, 30);
+        assertMaxQueries(few, () -> mockMvc.perform(get("/api/stock")).andExpect(status().isOk()));
+    }
+
+    @Test
+    public void getAllProducts_ShouldStayWithinBudget() throws Exception {
+        createProducts(0, 25);
+
+        assertMaxQueries(3, () -> mockMvc.perform(get("/api/products").param("sort", "productName")).andExpect(status().isOk()));
+    }
+
+    private void createProducts(int from, int to) {
+        for (int i = from; i < to; i++) {
+            ProductCatalog product = new ProductCatalog();
+            product.setBoxBarcode("QC" + i);
+            product.setProductName("Query Count " + i);
+            product.setNumberSn(0);
+            productCatalogRepository.save(product);
+
+            CurrentStock stock = new CurrentStock();
+            stock.setBoxBarcode(product.getBoxBarcode());
+            stock.setProductName(product.getProductName());
+            stock.setQuantity(i + 1);
+            stock.setLastUpdated(ZonedDateTime.now());
+            currentStockRepository.save(stock);
+        }
+        assertEquals(to, productCatalogRepository.count());
+    }
+}
@@ -0,0 +1,115 @@
+package com.inventory.repository;
+
+import com.inventory.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for box number allocation from the per-product counter row
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class BoxNumberCounterRepositoryTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private BoxNumberCounterRepository boxNumberCounterRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void allocateBoxNumbers_ShouldStartNewProductAtOne() {
+        String boxBarcode = newBoxBarcode();
+
+        assertEquals(1, boxNumberCounterRepository.allocateBoxNumbers(boxBarcode, "New Product", 1));
+        assertEquals(2, boxNumberCounterRepository.allocateBoxNumbers(boxBarcode, "New Product", 1));
+    }
+
+    @Test
+    void allocateBoxNumbers_ShouldSeedCounterFromExistingBoxNumbers() {
+        String boxBarcode = newBoxBarcode();
+        for (int boxNumber : new int[]{1, 2, 7}) {
+            jdbcTemplate.update("INSERT INTO box_number (box_barcode, product_name, box_number) VALUES (?, ?, ?)",
+                    boxBarcode, "Existing Product", boxNumber);
+        }
+
+        // The first allocation continues after the highest existing box number
+        assertEquals(8, boxNumberCounterRepository.allocateBoxNumbers(boxBarcode, "Existing Product", 1));
+    }
+
+    @Test
+    void allocateBoxNumbers_ShouldReserveContiguousBlocks() {
+        String boxBarcode = newBoxBarcode();
+
+        // Blocks 1-3, 4-5 and 6-9, each identified by its last number
+        assertEquals(3, boxNumberCounterRepository.allocateBoxNumbers(boxBarcode, "Block Product", 3));
+        assertEquals(5, boxNumberCounterRepository.allocateBoxNumbers(boxBarcode, "Block Product", 2));
+        assertEquals(9, boxNumberCounterRepository.allocateBoxNumbers(boxBarcode, "Block Product", 4));
+
+        // Products are counted separately
+        assertEquals(1, boxNumberCounterRepository.allocateBoxNumbers(boxBarcode, "Other Product", 1));
+    }
+
+    @Test
+    void allocateBoxNumbers_ShouldGiveConcurrentCallersDisjointBlocks() throws Exception {
+        String boxBarcode = newBoxBarcode();
+        int workers = 8;
+        int allocationsPerWorker = 10;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+
+        try {
+            List<Future<List<int[]>>> results = new ArrayList<>();
+            for (int worker = 0; worker < workers; worker++) {
+                int count = worker % 3 + 1;
+                results.add(executor.submit(() -> {
+                    start.await(10, TimeUnit.SECONDS);
+                    List<int[]> blocks = new ArrayList<>();
+                    for (int i = 0; i < allocationsPerWorker; i++) {
+                        int last = boxNumberCounterRepository.allocateBoxNumbers(boxBarcode, "Busy Product", count);
+                        blocks.add(new int[]{last - count + 1, last});
+                    }
+                    return blocks;
+                }));
+            }
+            start.countDown();
+
+            // Every number from 1 to the total is handed out exactly once
+            int total = 0;
+            boolean[] seen = new boolean[workers * allocationsPerWorker * 3 + 1];
+            for (Future<List<int[]>> result : results) {
+                for (int[] block : result.get(30, TimeUnit.SECONDS)) {
+                    for (int boxNumber = block[0]; boxNumber <= block[1]; boxNumber++) {
+                        assertFalse(seen[boxNumber], "Box number allocated twice: " + boxNumber);
+                        seen[boxNumber] = true;
+                        total++;
+                    }
+                }
+            }
+            for (int boxNumber = 1; boxNumber <= total; boxNumber++) {
+                assertTrue(seen[boxNumber], "Box number skipped: " + boxNumber);
+            }
+            assertEquals(total, boxNumberCounterRepository.findByBoxBarcodeAndProductName(boxBarcode, "Busy Product")
+                    .orElseThrow().getLastBoxNumber());
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static String newBoxBarcode() {
+        return "BOXTEST-" + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,177 @@
+package com.inventory.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrency test for advisory locks across app instances
+ * Each "instance" has its own data source, so its transactions use separate database sessions.
+ * Needs a Postgres database: TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/inventory_test
+ * (TEST_POSTGRES_USER and TEST_POSTGRES_PASSWORD default to postgres).
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class AdvisoryLockServiceTest {
+
+    private Instance instanceA;
+    private Instance instanceB;
+
+    @BeforeEach
+    void setUp() {
+        instanceA = new Instance();
+        instanceB = new Instance();
+    }
+
+    @Test
+    void tryLockBarcodes_ShouldReportBarcodesHeldByAnotherInstance() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<List<String>> holder = executor.submit(() -> instanceA.tx.execute(status -> {
+                List<String> contended = instanceA.locks.tryLockBarcodes(Arrays.asList("LOCKTEST-1", "LOCKTEST-2"));
+                locked.countDown();
+                await(release);
+                return contended;
+            }));
+
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+            List<String> contended = instanceB.tx.execute(status ->
+                    instanceB.locks.tryLockBarcodes(Arrays.asList("LOCKTEST-2", "LOCKTEST-3")));
+            assertEquals(Collections.singletonList("LOCKTEST-2"), contended);
+
+            // Locks are released when the holding transaction commits
+            release.countDown();
+            assertTrue(holder.get(10, TimeUnit.SECONDS).isEmpty());
+
+            List<String> afterRelease = instanceB.tx.execute(status ->
+                    instanceB.locks.tryLockBarcodes(Arrays.asList("LOCKTEST-1", "LOCKTEST-2")));
+            assertTrue(afterRelease.isEmpty());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void tryLockBarcodes_ShouldGrantEachBarcodeToOneTransaction() throws Exception {
+        int workers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch attempted = new CountDownLatch(workers);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger winners = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+
+        try {
+            for (int i = 0; i < workers; i++) {
+                Instance instance = i % 2 == 0 ? instanceA : instanceB;
+                executor.submit(() -> instance.tx.execute(status -> {
+                    await(start);
+                    List<String> contended = instance.locks.tryLockBarcodes(Collections.singletonList("LOCKTEST-RACE"));
+                    if (contended.isEmpty()) {
+                        winners.incrementAndGet();
+                    }
+                    attempted.countDown();
+                    // Hold the lock until every worker has tried
+                    await(release);
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            assertTrue(attempted.await(10, TimeUnit.SECONDS));
+            assertEquals(1, winners.get());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void lockProduct_ShouldTimeOutWhileAnotherInstanceHoldsIt() throws Exception {
+        ReflectionTestUtils.setField(instanceB.locks, "lockTimeoutMs", 200L);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            executor.submit(() -> instanceA.tx.execute(status -> {
+                instanceA.locks.lockProduct("LOCKTEST-BOX");
+                locked.countDown();
+                await(release);
+                return null;
+            }));
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+            assertThrows(DataAccessException.class, () ->
+                    instanceB.tx.execute(status -> {
+                        instanceB.locks.lockProduct("LOCKTEST-BOX");
+                        return null;
+                    }));
+            assertEquals(1.0, instanceB.meters.counter("inventory.lock.timeouts", "type", "product").count());
+            assertEquals(1, instanceB.meters.timer("inventory.lock.wait", "type", "product").count());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void lockKey_ShouldSeparateNamespaces() {
+        assertEquals(AdvisoryLockService.lockKey("barcode", "SN0001"), AdvisoryLockService.lockKey("barcode", "SN0001"));
+        assertNotEquals(AdvisoryLockService.lockKey("barcode", "SN0001"), AdvisoryLockService.lockKey("product", "SN0001"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One simulated app instance with its own connections and meters
+     */
+    private static class Instance {
+        private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        private final AdvisoryLockService locks = new AdvisoryLockService();
+        private final TransactionTemplate tx;
+
+        private Instance() {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                    System.getenv("TEST_POSTGRES_URL"),
+                    System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres"),
+                    System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", "postgres"));
+            tx = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+            ReflectionTestUtils.setField(locks, "jdbcTemplate", new JdbcTemplate(dataSource));
+            ReflectionTestUtils.setField(locks, "meterRegistry", meters);
+            ReflectionTestUtils.setField(locks, "lockTimeoutMs", 5000L);
+        }
+    }
+}
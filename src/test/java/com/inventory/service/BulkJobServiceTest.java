@@ -0,0 +1,287 @@
+package com.inventory.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.dto.StockAdditionDTO;
+import com.inventory.exception.InvalidInputException;
+import com.inventory.model.BulkJob;
+import com.inventory.model.BulkJobError;
+import com.inventory.model.ProductCatalog;
+import com.inventory.repository.BulkJobErrorRepository;
+import com.inventory.repository.BulkJobRepository;
+import com.inventory.repository.CurrentStockRepository;
+import com.inventory.repository.ProductCatalogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for chunked execution of bulk jobs
+ * The job row and the error table are kept in memory; changes made in a transaction are applied
+ * only when it commits, like the checkpoint and errors in the database.
+ */
+class BulkJobServiceTest {
+
+    private static final String BOX_BARCODE = "BOX001";
+
+    @Mock
+    private BulkJobRepository bulkJobRepository;
+
+    @Mock
+    private BulkJobErrorRepository bulkJobErrorRepository;
+
+    @Mock
+    private ProductCatalogRepository productCatalogRepository;
+
+    @Mock
+    private CurrentStockRepository currentStockRepository;
+
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private BulkJobService bulkJobService;
+
+    private BulkJob job;
+
+    // Committed errors, and the checkpoint and errors of the open transaction
+    private final List<BulkJobError> errors = new ArrayList<>();
+    private final List<BulkJobError> pendingErrors = new ArrayList<>();
+    private int[] pendingCheckpoint;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(bulkJobService, "chunkSize", 2);
+        ReflectionTestUtils.setField(bulkJobService, "transactionTemplate", new TransactionTemplate(transactionManager));
+
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        doAnswer(invocation -> {
+            if (pendingCheckpoint != null) {
+                job.setProcessedItems(pendingCheckpoint[0]);
+                job.setFailedItems(job.getFailedItems() + pendingCheckpoint[1]);
+            }
+            errors.addAll(pendingErrors);
+            clearPending();
+            return null;
+        }).when(transactionManager).commit(any());
+        doAnswer(invocation -> {
+            clearPending();
+            return null;
+        }).when(transactionManager).rollback(any());
+
+        when(bulkJobRepository.save(any(BulkJob.class))).thenAnswer(invocation -> {
+            job = invocation.getArgument(0);
+            return job;
+        });
+        when(bulkJobRepository.findById(anyString())).thenAnswer(invocation -> Optional.ofNullable(job));
+        when(bulkJobRepository.checkpoint(anyString(), anyInt(), anyInt(), anyInt(), any())).thenAnswer(invocation -> {
+            int from = invocation.getArgument(1);
+            if (job.getProcessedItems() != from) {
+                return 0;
+            }
+            pendingCheckpoint = new int[]{invocation.getArgument(2), invocation.getArgument(3)};
+            return 1;
+        });
+        when(bulkJobErrorRepository.save(any(BulkJobError.class))).thenAnswer(invocation -> {
+            pendingErrors.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(currentStockRepository.findByBoxBarcode(BOX_BARCODE)).thenReturn(Collections.emptyList());
+
+        // Odd numbers pair with the next number, even numbers with the previous one
+        when(stockService.findPairBarcode(anyString())).thenAnswer(invocation -> {
+            long number = Long.parseLong(invocation.getArgument(0));
+            return String.valueOf(number % 2 == 0 ? number - 1 : number + 1);
+        });
+    }
+
+    private void clearPending() {
+        pendingCheckpoint = null;
+        pendingErrors.clear();
+    }
+
+    @Test
+    void submit_ShouldQueueJobAndGroupPairBarcodes() throws Exception {
+        mockProduct(2);
+
+        BulkJob submitted = bulkJobService.submitStockAddition(addition("1001", "2001", "1002", "2002"));
+
+        assertEquals(BulkJobService.QUEUED, submitted.getStatus());
+        assertEquals(4, submitted.getTotalItems());
+        assertEquals(0, submitted.getProcessedItems());
+        StockAdditionDTO stored = objectMapper.readValue(submitted.getRequest(), StockAdditionDTO.class);
+        assertEquals(Arrays.asList("1001", "1002", "2001", "2002"), stored.getProductBarcodes());
+    }
+
+    @Test
+    void run_ShouldCommitItemsInChunksAndComplete() throws Exception {
+        mockProduct(1);
+        startJob(addition("11", "13", "15", "17", "19"));
+
+        run();
+
+        assertEquals(Arrays.asList(
+                Arrays.asList("11", "13"),
+                Arrays.asList("15", "17"),
+                List.of("19")), addedChunks());
+        assertEquals(BulkJobService.COMPLETED, job.getStatus());
+        assertEquals(5, job.getProcessedItems());
+        assertEquals(0, job.getFailedItems());
+        assertNotNull(job.getFinishedAt());
+        assertNotNull(job.getResult());
+    }
+
+    @Test
+    void run_ShouldRetryFailedChunkItemByItem() throws Exception {
+        mockProduct(1);
+        failWhenAdding("13");
+        startJob(addition("11", "13", "15"));
+
+        run();
+
+        assertEquals(Arrays.asList(
+                Arrays.asList("11", "13"),
+                List.of("11"),
+                List.of("13"),
+                List.of("15")), addedChunks());
+        assertEquals(BulkJobService.COMPLETED, job.getStatus());
+        assertEquals(3, job.getProcessedItems());
+        assertEquals(1, job.getFailedItems());
+        assertEquals(1, errors.size());
+        assertEquals("13", errors.get(0).getItem());
+        assertEquals(1, errors.get(0).getItemIndex());
+    }
+
+    @Test
+    void run_ShouldKeepPairsTogetherInChunksAndRetries() throws Exception {
+        mockProduct(2);
+        failWhenAdding("2001");
+        // Already grouped at submit; the second chunk of 2 items is extended so no pair is split
+        startJob(addition("1001", "1002", "3001", "2001", "2002"));
+
+        run();
+
+        assertEquals(Arrays.asList(
+                Arrays.asList("1001", "1002"),
+                Arrays.asList("3001", "2001", "2002"),
+                List.of("3001"),
+                Arrays.asList("2001", "2002")), addedChunks());
+        assertEquals(BulkJobService.COMPLETED, job.getStatus());
+        assertEquals(5, job.getProcessedItems());
+        assertEquals(2, job.getFailedItems());
+        assertEquals(Arrays.asList("2001", "2002"),
+                errors.stream().map(BulkJobError::getItem).collect(Collectors.toList()));
+    }
+
+    @Test
+    void run_ShouldMarkJobFailedWhenRequestCannotBeRead() {
+        mockProduct(1);
+        job = new BulkJob();
+        job.setJobId("job-1");
+        job.setType(BulkJobService.STOCK_ADD);
+        job.setStatus(BulkJobService.RUNNING);
+        job.setRequest("not json");
+        job.setProcessedItems(0);
+        job.setFailedItems(0);
+
+        run();
+
+        assertEquals(BulkJobService.FAILED, job.getStatus());
+        assertNotNull(job.getError());
+        assertNotNull(job.getFinishedAt());
+        verify(stockService, never()).addStockBulk(any());
+    }
+
+    @Test
+    void run_ShouldStopWhenAnotherInstanceTookTheJobOver() throws Exception {
+        mockProduct(1);
+        startJob(addition("11", "13", "15"));
+        // Another instance commits the first chunk first
+        doAnswer(invocation -> {
+            job.setProcessedItems(2);
+            return 0;
+        }).when(bulkJobRepository).checkpoint(anyString(), eq(0), anyInt(), anyInt(), any());
+
+        run();
+
+        assertEquals(BulkJobService.RUNNING, job.getStatus());
+        verify(stockService, never()).addStockBulk(any());
+    }
+
+    private void mockProduct(int numberSn) {
+        ProductCatalog product = new ProductCatalog();
+        product.setBoxBarcode(BOX_BARCODE);
+        product.setProductName("Test Product");
+        product.setNumberSn(numberSn);
+        when(productCatalogRepository.findById(BOX_BARCODE)).thenReturn(Optional.of(product));
+    }
+
+    private static StockAdditionDTO addition(String... barcodes) {
+        StockAdditionDTO request = new StockAdditionDTO();
+        request.setBoxBarcode(BOX_BARCODE);
+        request.setProductBarcodes(new ArrayList<>(Arrays.asList(barcodes)));
+        request.setQuantity(barcodes.length);
+        return request;
+    }
+
+    private void startJob(StockAdditionDTO request) throws Exception {
+        job = new BulkJob();
+        job.setJobId("job-1");
+        job.setType(BulkJobService.STOCK_ADD);
+        job.setStatus(BulkJobService.RUNNING);
+        job.setRequest(objectMapper.writeValueAsString(request));
+        job.setTotalItems(request.getProductBarcodes().size());
+        job.setProcessedItems(0);
+        job.setFailedItems(0);
+    }
+
+    private void failWhenAdding(String barcode) {
+        when(stockService.addStockBulk(any())).thenAnswer(invocation -> {
+            StockAdditionDTO part = invocation.getArgument(0);
+            if (part.getProductBarcodes().contains(barcode)) {
+                throw new InvalidInputException("Product barcode already exists in stock: " + barcode);
+            }
+            return Collections.emptyList();
+        });
+    }
+
+    private void run() {
+        ReflectionTestUtils.invokeMethod(bulkJobService, "run", job.getJobId());
+    }
+
+    private List<List<String>> addedChunks() {
+        ArgumentCaptor<StockAdditionDTO> captor = ArgumentCaptor.forClass(StockAdditionDTO.class);
+        verify(stockService, atLeastOnce()).addStockBulk(captor.capture());
+        return captor.getAllValues().stream()
+                .map(part -> new ArrayList<>(part.getProductBarcodes()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,134 @@
+package com.inventory.service;
+
+import com.inventory.InventoryManagementApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cross-instance cache invalidation test with two app contexts sharing one Postgres database
+ * Needs a Postgres database: TEST_POSTGRES_URL=jdbc:postgresql://localhost:5432/inventory_test
+ * (TEST_POSTGRES_USER and TEST_POSTGRES_PASSWORD default to postgres).
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class CacheInvalidationServiceTest {
+
+    private static ConfigurableApplicationContext instanceA;
+    private static ConfigurableApplicationContext instanceB;
+
+    private static final Map<String, String> cacheA = new ConcurrentHashMap<>();
+    private static final Map<String, String> cacheB = new ConcurrentHashMap<>();
+
+    @BeforeAll
+    static void startInstances() {
+        instanceA = startInstance();
+        instanceB = startInstance();
+
+        instanceA.getBean(CacheInvalidationService.class)
+                .register(CacheInvalidationService.CATALOG, cacheA::remove, cacheA::clear);
+        instanceB.getBean(CacheInvalidationService.class)
+                .register(CacheInvalidationService.CATALOG, cacheB::remove, cacheB::clear);
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        if (instanceA != null) {
+            instanceA.close();
+        }
+        if (instanceB != null) {
+            instanceB.close();
+        }
+    }
+
+    @BeforeEach
+    void fillCaches() {
+        cacheA.clear();
+        cacheB.clear();
+        cacheA.put("BOX001", "cached");
+        cacheA.put("BOX002", "cached");
+        cacheB.put("BOX001", "cached");
+        cacheB.put("BOX002", "cached");
+    }
+
+    @Test
+    void publish_ShouldEvictKeyOnBothInstancesAfterCommit() {
+        transaction(instanceA).executeWithoutResult(status ->
+                instanceA.getBean(CacheInvalidationService.class).publish(CacheInvalidationService.CATALOG, "BOX001"));
+
+        assertFalse(cacheA.containsKey("BOX001"));
+        assertTrue(waitFor(() -> !cacheB.containsKey("BOX001")));
+        assertTrue(cacheB.containsKey("BOX002"));
+    }
+
+    @Test
+    void publish_ShouldNotEvictAnythingWhenTransactionRollsBack() throws InterruptedException {
+        transaction(instanceA).executeWithoutResult(status -> {
+            instanceA.getBean(CacheInvalidationService.class).publish(CacheInvalidationService.CATALOG, "BOX001");
+            status.setRollbackOnly();
+        });
+
+        Thread.sleep(1000);
+        assertTrue(cacheA.containsKey("BOX001"));
+        assertTrue(cacheB.containsKey("BOX001"));
+    }
+
+    @Test
+    void listener_ShouldClearCachesAfterReconnect() {
+        // Drop the listener connections of both instances
+        instanceA.getBean(JdbcTemplate.class).queryForList(
+                "SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE application_name = ?",
+                CacheInvalidationService.LISTENER_APPLICATION_NAME);
+
+        assertTrue(waitFor(() -> cacheA.isEmpty() && cacheB.isEmpty()));
+
+        // The reconnected listener receives messages again
+        cacheB.put("BOX003", "cached");
+        transaction(instanceA).executeWithoutResult(status ->
+                instanceA.getBean(CacheInvalidationService.class).publish(CacheInvalidationService.CATALOG, "BOX003"));
+        assertTrue(waitFor(() -> !cacheB.containsKey("BOX003")));
+    }
+
+    private static ConfigurableApplicationContext startInstance() {
+        return new SpringApplicationBuilder(InventoryManagementApplication.class).run(
+                "--spring.datasource.url=" + System.getenv("TEST_POSTGRES_URL"),
+                "--spring.datasource.username=" + System.getenv().getOrDefault("TEST_POSTGRES_USER", "postgres"),
+                "--spring.datasource.password=" + System.getenv().getOrDefault("TEST_POSTGRES_PASSWORD", "postgres"),
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--cache.invalidation.poll-interval-ms=100",
+                "--cache.invalidation.reconnect-delay-ms=200");
+    }
+
+    private static TransactionTemplate transaction(ConfigurableApplicationContext context) {
+        return new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    private static boolean waitFor(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return condition.getAsBoolean();
+    }
+}
@@ -0,0 +1,76 @@
+package com.inventory.service;
+
+import com.inventory.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the table version triggers behind the ETags
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class ChangeVersionServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private ChangeVersionService changeVersionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void etag_ShouldChangeOnceForTransactionWritingSeveralRows() {
+        long before = version("product_catalog");
+        String etag = changeVersionService.etag(ChangeVersionService.CATALOG);
+
+        // Native SQL, which no JPA listener sees
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                insertProduct();
+            }
+            jdbcTemplate.update("UPDATE product_catalog SET number_sn = 1 WHERE product_name LIKE 'Version Test %'");
+        });
+
+        assertEquals(before + 1, version("product_catalog"));
+        assertNotEquals(etag, changeVersionService.etag(ChangeVersionService.CATALOG));
+    }
+
+    @Test
+    void etag_ShouldNotChangeWhenTransactionRollsBack() {
+        String etag = changeVersionService.etag(ChangeVersionService.STOCK, ChangeVersionService.CATALOG);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            insertProduct();
+            status.setRollbackOnly();
+        });
+
+        assertEquals(etag, changeVersionService.etag(ChangeVersionService.STOCK, ChangeVersionService.CATALOG));
+    }
+
+    @Test
+    void etag_ShouldIgnoreChangesToOtherTables() {
+        String etag = changeVersionService.etag(ChangeVersionService.LENT);
+
+        insertProduct();
+
+        assertEquals(etag, changeVersionService.etag(ChangeVersionService.LENT));
+    }
+
+    private void insertProduct() {
+        String boxBarcode = "VERSIONTEST-" + UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO product_catalog (box_barcode, product_name, number_sn) VALUES (?, ?, 0)",
+                boxBarcode, "Version Test " + boxBarcode);
+    }
+
+    private long version(String table) {
+        return jdbcTemplate.queryForObject("SELECT version FROM table_version WHERE table_name = ?", Long.class, table);
+    }
+}
@@ -0,0 +1,66 @@
+package com.inventory.service;
+
+import com.inventory.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for idempotency key reservations and their leases
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class IdempotencyServiceTest extends PostgresIntegrationTest {
+
+    private static final String PATH = "/api/sales";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reserve_ShouldRejectKeyWhileLeaseIsHeld() {
+        String key = newKey();
+
+        assertTrue(idempotencyService.reserve(key, PATH));
+        assertFalse(idempotencyService.reserve(key, PATH));
+    }
+
+    @Test
+    void reserve_ShouldTakeOverKeyWhoseLeaseRanOut() {
+        String key = newKey();
+        assertTrue(idempotencyService.reserve(key, PATH));
+
+        // The first request crashed without completing or releasing the key
+        expireLease(key);
+
+        assertTrue(idempotencyService.reserve(key, PATH));
+        assertEquals(IdempotencyService.IN_PROGRESS, idempotencyService.find(key).orElseThrow().getStatus());
+        assertFalse(idempotencyService.reserve(key, PATH));
+    }
+
+    @Test
+    void reserve_ShouldKeepCompletedResponseAfterLease() {
+        String key = newKey();
+        assertTrue(idempotencyService.reserve(key, PATH));
+        idempotencyService.complete(key, "hash", 201, "{}", "application/json", null);
+        expireLease(key);
+
+        assertFalse(idempotencyService.reserve(key, PATH));
+        assertEquals(IdempotencyService.COMPLETED, idempotencyService.find(key).orElseThrow().getStatus());
+    }
+
+    private void expireLease(String key) {
+        jdbcTemplate.update("UPDATE idempotency_key SET locked_until = now() - INTERVAL '1 second' WHERE idempotency_key = ?", key);
+    }
+
+    private static String newKey() {
+        return "test:" + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,119 @@
+package com.inventory.service;
+
+import com.inventory.exception.InvalidInputException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that stock operation metrics follow the outcome of the transaction
+ */
+class InventoryMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InventoryMetrics inventoryMetrics = new InventoryMetrics(meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void recordStockOperation_ShouldRecordSuccessOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        inventoryMetrics.recordStockOperation("add", 3, () -> "saved");
+        assertNull(meterRegistry.find("inventory.stock.units").counter());
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(3.0, meterRegistry.counter("inventory.stock.units", "operation", "add", "sku", "unknown").count());
+        assertEquals(1, timerCount("add", "success"));
+    }
+
+    @Test
+    void recordStockOperation_ShouldNotCountUnitsWhenTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        inventoryMetrics.recordStockOperation("add", 3, () -> "saved");
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertNull(meterRegistry.find("inventory.stock.units").counter());
+        assertEquals(0, timerCount("add", "success"));
+        assertEquals(1, timerCount("add", "rolled-back"));
+    }
+
+    @Test
+    void recordStockOperation_ShouldRecordFailureAfterCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThrows(InvalidInputException.class, () -> inventoryMetrics.recordStockOperation("remove", 1, () -> {
+            throw new InvalidInputException("Quantity must be greater than zero");
+        }));
+        assertEquals(0, timerCount("remove", "invalid"));
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(1, timerCount("remove", "invalid"));
+    }
+
+    @Test
+    void recordStockOperation_ShouldCountConflictRaisedAtCommit() {
+        inventoryMetrics.startTransaction();
+        TransactionSynchronizationManager.initSynchronization();
+
+        inventoryMetrics.recordStockOperation("add", 3, () -> "saved");
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(0, timerCount("add", "rolled-back"));
+
+        // The commit failed with 40001, seen only outside the transaction
+        inventoryMetrics.endTransaction(true);
+        assertEquals(1, timerCount("add", "conflict"));
+        assertEquals(0, timerCount("add", "rolled-back"));
+        assertEquals(1.0, meterRegistry.counter("inventory.tx.serialization.failures",
+                "operation", "add", "sku", "unknown").count());
+    }
+
+    @Test
+    void recordStockOperation_ShouldRecordRollbackAtBoundaryWithoutConflict() {
+        inventoryMetrics.startTransaction();
+        TransactionSynchronizationManager.initSynchronization();
+
+        inventoryMetrics.recordStockOperation("add", 3, () -> "saved");
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        inventoryMetrics.endTransaction(false);
+
+        assertEquals(1, timerCount("add", "rolled-back"));
+        assertNull(meterRegistry.find("inventory.tx.serialization.failures").counter());
+    }
+
+    @Test
+    void recordStockOperation_ShouldRecordImmediatelyWithoutTransaction() {
+        inventoryMetrics.recordStockOperation("add", 2, () -> "saved");
+
+        assertEquals(2.0, meterRegistry.counter("inventory.stock.units", "operation", "add", "sku", "unknown").count());
+        assertEquals(1, timerCount("add", "success"));
+    }
+
+    private static void complete(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private long timerCount(String operation, String outcome) {
+        Timer timer = meterRegistry.find("inventory.stock.operation")
+                .tags("operation", operation, "outcome", outcome)
+                .timer();
+        return timer != null ? timer.count() : 0;
+    }
+}
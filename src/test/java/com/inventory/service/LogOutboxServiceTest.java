@@ -0,0 +1,127 @@
+package com.inventory.service;
+
+import com.inventory.PostgresIntegrationTest;
+import com.inventory.model.Logs;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the log outbox against Postgres, with the outbox enabled
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class LogOutboxServiceTest extends PostgresIntegrationTest {
+
+    private static final int ENTRIES = 1200;
+    private static final int DRAINERS = 4;
+
+    @Autowired
+    private LogsService logsService;
+
+    @Autowired
+    private LogOutboxService logOutboxService;
+
+    @Autowired
+    private ReportCubeService reportCubeService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void drainOutbox_ShouldMoveEachCommittedEntryExactlyOnce() throws Exception {
+        String note = "outbox-test-" + UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ENTRIES; i++) {
+                logsService.createLog("OUTBOX-BOX", "Outbox Product", note + "-SN" + i, "add", note);
+            }
+        });
+
+        // Each entry is in the outbox, or already moved by the scheduled job
+        assertEquals(ENTRIES, count("logs_outbox", note) + count("logs", note));
+
+        // Several drainers at once, like several app instances next to the scheduled job
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(DRAINERS);
+        try {
+            List<Future<?>> drains = new ArrayList<>();
+            for (int i = 0; i < DRAINERS; i++) {
+                drains.add(executor.submit(() -> {
+                    start.await(10, TimeUnit.SECONDS);
+                    for (int round = 0; round < 10; round++) {
+                        logOutboxService.drainOutbox();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> drain : drains) {
+                drain.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(0, count("logs_outbox", note));
+        assertEquals(ENTRIES, count("logs", note));
+        assertEquals(ENTRIES, jdbcTemplate.queryForObject(
+                "SELECT count(DISTINCT product_barcode) FROM logs WHERE note = ?", Integer.class, note));
+    }
+
+    @Test
+    void record_ShouldLeaveNoEntryWhenTransactionRollsBack() {
+        String note = "outbox-rollback-" + UUID.randomUUID();
+        transactionTemplate.executeWithoutResult(status -> {
+            logsService.createLog("OUTBOX-BOX", "Outbox Product", note + "-SN", "add", note);
+            status.setRollbackOnly();
+        });
+
+        logOutboxService.drainOutbox();
+
+        assertEquals(0, count("logs_outbox", note));
+        assertEquals(0, count("logs", note));
+    }
+
+    @Test
+    void record_ShouldCountEntrySavedAgainOnlyOnce() {
+        // Without a transaction the entry is saved to logs directly
+        String boxBarcode = "OUTBOX-" + UUID.randomUUID();
+        Logs log = new Logs();
+        log.setBoxBarcode(boxBarcode);
+        log.setProductName("Outbox Product");
+        log.setOperation(ReportCubeService.BROKEN);
+        log.setTimestamp(ZonedDateTime.now(ZoneId.of("Asia/Bangkok")));
+        log.setQuantity(1);
+        Logs saved = logOutboxService.record(log);
+
+        // Callers set the box number after createLog and save the same entry again
+        saved.setBoxNumber(3);
+        logOutboxService.record(saved);
+
+        LocalDate today = LocalDate.now(ZoneId.of("Asia/Bangkok"));
+        assertEquals(1, reportCubeService.getTotals(ReportCubeService.BROKEN, today, today, null, null, boxBarcode).getCount());
+    }
+
+    private int count(String table, String note) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table + " WHERE note = ?", Integer.class, note);
+    }
+}
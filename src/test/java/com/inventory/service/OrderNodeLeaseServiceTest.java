@@ -0,0 +1,75 @@
+package com.inventory.service;
+
+import com.inventory.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the order ID node leases
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class OrderNodeLeaseServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private OrderNodeLeaseService orderNodeLeaseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void assignNodeId_ShouldLeaseDifferentNodeIdPerInstance() {
+        OrderNodeLeaseService other = newInstance();
+        other.assignNodeId();
+
+        long nodeId = leasedNodeId(orderNodeLeaseService);
+        long otherNodeId = leasedNodeId(other);
+        assertTrue(nodeId >= 0);
+        assertTrue(otherNodeId >= 0);
+        assertNotEquals(nodeId, otherNodeId);
+    }
+
+    @Test
+    void renewLease_ShouldLeaseNewNodeIdWhenLeaseWasTakenOver() {
+        OrderNodeLeaseService other = newInstance();
+        other.assignNodeId();
+        long lostNodeId = leasedNodeId(other);
+
+        // The lease ran out and another instance took the node ID
+        jdbcTemplate.update("UPDATE order_node_lease SET instance_id = 'other', leased_until = now() + interval '5 minutes' " +
+                "WHERE node_id = ?", lostNodeId);
+        other.renewLease();
+
+        assertNotEquals(lostNodeId, leasedNodeId(other));
+        assertNotEquals(leasedNodeId(orderNodeLeaseService), leasedNodeId(other));
+    }
+
+    @Test
+    void assignNodeId_ShouldUseConfiguredNodeIdWithoutLease() {
+        OrderNodeLeaseService configured = newInstance();
+        ReflectionTestUtils.setField(configured, "configuredNodeId", "7");
+        Integer leases = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM order_node_lease WHERE leased_until > now()", Integer.class);
+
+        configured.assignNodeId();
+
+        assertEquals(-1L, leasedNodeId(configured));
+        assertEquals(leases, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM order_node_lease WHERE leased_until > now()", Integer.class));
+    }
+
+    private OrderNodeLeaseService newInstance() {
+        OrderNodeLeaseService service = new OrderNodeLeaseService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "leaseSeconds", 300L);
+        return service;
+    }
+
+    private static long leasedNodeId(OrderNodeLeaseService service) {
+        return (Long) ReflectionTestUtils.getField(service, "leasedNodeId");
+    }
+}
@@ -0,0 +1,237 @@
+package com.inventory.service;
+
+import com.inventory.dto.ScanDTO;
+import com.inventory.dto.ScanSessionDTO;
+import com.inventory.dto.ScanSessionStatusDTO;
+import com.inventory.dto.StockAdditionDTO;
+import com.inventory.exception.InvalidInputException;
+import com.inventory.model.Invoice;
+import com.inventory.model.ProductCatalog;
+import com.inventory.repository.BrokenIdRepository;
+import com.inventory.repository.InvoiceRepository;
+import com.inventory.repository.LendRepository;
+import com.inventory.repository.ProductCatalogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for scan session micro-batches and order IDs
+ */
+class ScanSessionServiceTest {
+
+    private static final String BOX_BARCODE = "BOX001";
+
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private SalesOrderService salesOrderService;
+
+    @Mock
+    private BrokenOrderService brokenOrderService;
+
+    @Mock
+    private LentOrderService lentOrderService;
+
+    @Mock
+    private InStockService inStockService;
+
+    @Mock
+    private ProductCatalogRepository productCatalogRepository;
+
+    @Mock
+    private LendRepository lendRepository;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private BrokenIdRepository brokenIdRepository;
+
+    @Mock
+    private CacheInvalidationService cacheInvalidationService;
+
+    @InjectMocks
+    private ScanSessionService scanSessionService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(scanSessionService, "batchSize", 2);
+        ReflectionTestUtils.setField(scanSessionService, "flushIntervalMs", 0L);
+        ReflectionTestUtils.setField(scanSessionService, "pairWaitMs", 60_000L);
+        ReflectionTestUtils.setField(scanSessionService, "idleTimeoutMinutes", 30L);
+
+        // Odd numbers pair with the next number, even numbers with the previous one
+        when(stockService.findPairBarcode(anyString())).thenAnswer(invocation -> {
+            long number = Long.parseLong(invocation.getArgument(0));
+            return String.valueOf(number % 2 == 0 ? number - 1 : number + 1);
+        });
+        when(invoiceRepository.findByInvoice(anyString())).thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    void flush_ShouldKeepPairsTogetherInBatches() {
+        String sessionId = openAddSession(2);
+        scan(sessionId, "1001", "3001", "1002");
+
+        // 3001 waits for its pair; the batch of 2 holds the pair 1001/1002
+        scanSessionService.flushDueSessions();
+        assertEquals(List.of(Arrays.asList("1001", "1002")), addedBatches());
+
+        scan(sessionId, "3002");
+        scanSessionService.flushDueSessions();
+        assertEquals(Arrays.asList(
+                Arrays.asList("1001", "1002"),
+                Arrays.asList("3001", "3002")), addedBatches());
+    }
+
+    @Test
+    void flush_ShouldRetryPairAsOneUnit() {
+        String sessionId = openAddSession(2);
+        when(stockService.addStockBulk(any())).thenAnswer(invocation -> {
+            StockAdditionDTO part = invocation.getArgument(0);
+            if (part.getProductBarcodes().contains("3001")) {
+                throw new InvalidInputException("Product barcode already exists in stock: 3001");
+            }
+            return Collections.emptyList();
+        });
+        ReflectionTestUtils.setField(scanSessionService, "batchSize", 4);
+        scan(sessionId, "1001", "1002", "3001", "3002");
+
+        ScanSessionStatusDTO status = scanSessionService.closeSession(sessionId);
+
+        assertEquals(Arrays.asList(
+                Arrays.asList("1001", "1002", "3001", "3002"),
+                Arrays.asList("1001", "1002"),
+                Arrays.asList("3001", "3002")), addedBatches());
+        assertEquals(2, status.getCommitted());
+        assertEquals(2, status.getFailed());
+    }
+
+    @Test
+    void closeSession_ShouldCommitUnpairedBarcode() {
+        String sessionId = openAddSession(2);
+        scan(sessionId, "5001");
+
+        scanSessionService.flushDueSessions();
+        verify(stockService, never()).addStockBulk(any());
+
+        ScanSessionStatusDTO status = scanSessionService.closeSession(sessionId);
+        assertEquals(List.of(List.of("5001")), addedBatches());
+        assertEquals(1, status.getCommitted());
+    }
+
+    @Test
+    void flush_ShouldCommitUnpairedBarcodeAloneAfterPairWait() {
+        ReflectionTestUtils.setField(scanSessionService, "pairWaitMs", 0L);
+        String sessionId = openAddSession(2);
+        scan(sessionId, "5001");
+
+        scanSessionService.flushDueSessions();
+
+        assertEquals(List.of(List.of("5001")), addedBatches());
+        assertEquals(0, scanSessionService.getSession(sessionId).getPending());
+    }
+
+    @Test
+    void submitScans_ShouldResolveEachPairBarcodeOnce() {
+        String sessionId = openAddSession(2);
+        scan(sessionId, "1001", "3001", "1002");
+
+        // Flushes while 3001 waits for its pair do not look pairs up again
+        scanSessionService.flushDueSessions();
+        scanSessionService.flushDueSessions();
+        scan(sessionId, "3002");
+        scanSessionService.closeSession(sessionId);
+
+        verify(stockService, times(4)).findPairBarcode(anyString());
+    }
+
+    @Test
+    void openSession_ShouldRejectExistingOrderIdWithoutAppend() {
+        when(invoiceRepository.findByInvoice("SO-1")).thenReturn(Collections.singletonList(new Invoice()));
+
+        InvalidInputException rejected = assertThrows(InvalidInputException.class,
+                () -> scanSessionService.openSession(saleSession("SO-1", false)));
+        assertTrue(rejected.getMessage().contains("SO-1"));
+
+        ScanSessionStatusDTO status = scanSessionService.openSession(saleSession("SO-1", true));
+        assertEquals("SO-1", status.getOrderId());
+    }
+
+    @Test
+    void openSession_ShouldRejectOrderIdOfAnotherOpenSession() {
+        scanSessionService.openSession(saleSession("SO-2", false));
+
+        assertThrows(InvalidInputException.class, () -> scanSessionService.openSession(saleSession("SO-2", false)));
+    }
+
+    @Test
+    void openSession_ShouldRejectExistingBrokenOrderIdWithoutAppend() {
+        when(brokenIdRepository.existsById("BR-1")).thenReturn(true);
+        ScanSessionDTO request = new ScanSessionDTO();
+        request.setMode("broken");
+        request.setOrderId("BR-1");
+        request.setCondition("damaged");
+
+        assertThrows(InvalidInputException.class, () -> scanSessionService.openSession(request));
+    }
+
+    private String openAddSession(int numberSn) {
+        ProductCatalog product = new ProductCatalog();
+        product.setBoxBarcode(BOX_BARCODE);
+        product.setProductName("Test Product");
+        product.setNumberSn(numberSn);
+        when(productCatalogRepository.findById(BOX_BARCODE)).thenReturn(Optional.of(product));
+
+        ScanSessionDTO request = new ScanSessionDTO();
+        request.setMode("add");
+        request.setBoxBarcode(BOX_BARCODE);
+        return scanSessionService.openSession(request).getSessionId();
+    }
+
+    private static ScanSessionDTO saleSession(String orderId, boolean appendToOrder) {
+        ScanSessionDTO request = new ScanSessionDTO();
+        request.setMode("sale");
+        request.setOrderId(orderId);
+        request.setShopName("Shop A");
+        request.setAppendToOrder(appendToOrder);
+        return request;
+    }
+
+    private void scan(String sessionId, String... barcodes) {
+        List<ScanDTO> scans = new ArrayList<>();
+        for (String barcode : barcodes) {
+            ScanDTO scan = new ScanDTO();
+            scan.setBarcode(barcode);
+            scans.add(scan);
+        }
+        scanSessionService.submitScans(sessionId, scans);
+    }
+
+    private List<List<String>> addedBatches() {
+        ArgumentCaptor<StockAdditionDTO> captor = ArgumentCaptor.forClass(StockAdditionDTO.class);
+        verify(stockService, atLeastOnce()).addStockBulk(captor.capture());
+        return captor.getAllValues().stream()
+                .map(part -> new ArrayList<>(part.getProductBarcodes()))
+                .collect(Collectors.toList());
+    }
+}
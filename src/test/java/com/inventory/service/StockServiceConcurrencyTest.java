@@ -0,0 +1,143 @@
+package com.inventory.service;
+
+import com.inventory.PostgresIntegrationTest;
+import com.inventory.util.InventoryUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that concurrent stock changes of one product queue on the product lock instead of
+ * failing with serialization errors and being retried
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class StockServiceConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int WORKERS = 12;
+    private static final int CHANGES_PER_WORKER = 4;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void addStock_ShouldSerializeConcurrentAdditionsWithoutRetries() throws Exception {
+        String boxBarcode = newProduct();
+        double retriesBefore = retries();
+
+        runConcurrently(boxBarcode, (worker, i) ->
+                stockService.addStock(boxBarcode, serial(boxBarcode, worker, i), 1, "Concurrent add"));
+
+        assertEquals(WORKERS * CHANGES_PER_WORKER, quantity(boxBarcode));
+        assertEquals(WORKERS * CHANGES_PER_WORKER, jdbcTemplate.queryForObject(
+                "SELECT count(DISTINCT box_number) FROM box_number WHERE box_barcode = ?", Integer.class, boxBarcode));
+        assertEquals(retriesBefore, retries());
+    }
+
+    @Test
+    void removeStock_ShouldSerializeConcurrentRemovalsWithoutRetries() throws Exception {
+        String boxBarcode = newProduct();
+        for (int worker = 0; worker < WORKERS; worker++) {
+            for (int i = 0; i < CHANGES_PER_WORKER; i++) {
+                stockService.addStock(boxBarcode, serial(boxBarcode, worker, i), 1, "Stock for removal");
+            }
+        }
+        double retriesBefore = retries();
+
+        runConcurrently(boxBarcode, (worker, i) ->
+                stockService.removeStock(boxBarcode, serial(boxBarcode, worker, i), 1, "Concurrent remove"));
+
+        assertEquals(0, quantity(boxBarcode));
+        assertEquals(retriesBefore, retries());
+    }
+
+    @Test
+    void moveStock_ShouldSerializeConcurrentMovesWithoutRetries() throws Exception {
+        String boxBarcode = newProduct();
+        for (int worker = 0; worker < WORKERS; worker++) {
+            for (int i = 0; i < CHANGES_PER_WORKER; i++) {
+                stockService.addStock(boxBarcode, serial(boxBarcode, worker, i), 1, "Stock for moves");
+            }
+        }
+        double retriesBefore = retries();
+
+        runConcurrently(boxBarcode, (worker, i) ->
+                stockService.moveStock(boxBarcode, serial(boxBarcode, worker, i), 1, "sales", "EMP-CONC",
+                        "Concurrency Shop", null, "Concurrent move", InventoryUtils.generateOrderId("SALES")));
+
+        assertEquals(0, quantity(boxBarcode));
+        assertEquals(WORKERS * CHANGES_PER_WORKER, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM sales WHERE box_barcode = ?", Integer.class, boxBarcode));
+        assertEquals(retriesBefore, retries());
+    }
+
+    private interface StockChange {
+        void apply(int worker, int i);
+    }
+
+    private void runConcurrently(String boxBarcode, StockChange change) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int worker = 0; worker < WORKERS; worker++) {
+                int current = worker;
+                results.add(executor.submit(() -> {
+                    start.await(10, TimeUnit.SECONDS);
+                    for (int i = 0; i < CHANGES_PER_WORKER; i++) {
+                        change.apply(current, i);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private String newProduct() {
+        String boxBarcode = "CONCTEST-" + UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO product_catalog (box_barcode, product_name, number_sn) VALUES (?, ?, 1)",
+                boxBarcode, "Concurrency Test " + boxBarcode);
+        return boxBarcode;
+    }
+
+    private static String serial(String boxBarcode, int worker, int i) {
+        return boxBarcode + "-SN" + (worker * CHANGES_PER_WORKER + i);
+    }
+
+    private int quantity(String boxBarcode) {
+        return jdbcTemplate.queryForObject(
+                "SELECT quantity FROM current_stock WHERE box_barcode = ?", Integer.class, boxBarcode);
+    }
+
+    private double retries() {
+        return meterRegistry.find("inventory.tx.serialization.retries").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+}
@@ -0,0 +1,95 @@
+package com.inventory.service;
+
+import com.inventory.dto.StockAsOfItemDTO;
+import com.inventory.dto.StockAsOfUnitDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the as-of replay of logs on top of a stock snapshot
+ */
+class StockSnapshotServiceTest {
+
+    private static final String PAIR_BOX = "BOX-PAIR";
+    private static final String SINGLE_BOX = "BOX-SINGLE";
+
+    private final Set<String> pairedProducts = Collections.singleton(PAIR_BOX);
+
+    @Test
+    void pairProductUnitsAreCountedAsPairs() {
+        StockSnapshotService.Replay replay = new StockSnapshotService.Replay(pairedProducts, true);
+
+        // One pair added, unit by unit
+        replay.apply(PAIR_BOX, "Pair", "1001", "add", null, 1);
+        replay.apply(PAIR_BOX, "Pair", "1002", "add", null, 1);
+
+        assertEquals(1, quantity(replay.getItems(), PAIR_BOX));
+        List<StockAsOfUnitDTO> units = replay.getUnits();
+        assertEquals(2, units.size());
+        assertTrue(units.stream().allMatch(unit -> StockSnapshotService.IN_STOCK.equals(unit.getLocation())));
+    }
+
+    @Test
+    void pairProductReplayStartsFromSnapshotQuantity() {
+        StockSnapshotService.Replay replay = new StockSnapshotService.Replay(pairedProducts, false);
+        replay.addQuantity(PAIR_BOX, "Pair", 3);
+        replay.addPairUnits(PAIR_BOX, "Pair", 6);
+
+        // Two pairs added, then one pair sold
+        for (int barcode = 2001; barcode <= 2004; barcode++) {
+            replay.apply(PAIR_BOX, "Pair", String.valueOf(barcode), "add", null, 1);
+        }
+        replay.apply(PAIR_BOX, "Pair", "2001", "sold", null, 1);
+        replay.apply(PAIR_BOX, "Pair", "2002", "sold", null, 1);
+
+        assertEquals(4, quantity(replay.getItems(), PAIR_BOX));
+    }
+
+    @Test
+    void pairProductHalfPairRoundsUp() {
+        StockSnapshotService.Replay replay = new StockSnapshotService.Replay(pairedProducts, false);
+        replay.addQuantity(PAIR_BOX, "Pair", 1);
+        replay.addPairUnits(PAIR_BOX, "Pair", 2);
+
+        // One unit of the pair is lent
+        replay.apply(PAIR_BOX, "Pair", "3001", "lent", null, 1);
+
+        assertEquals(1, quantity(replay.getItems(), PAIR_BOX));
+    }
+
+    @Test
+    void productCreationLogsAreNotStock() {
+        StockSnapshotService.Replay replay = new StockSnapshotService.Replay(pairedProducts, true);
+
+        replay.apply(PAIR_BOX, "Pair", "4001", "add", ProductService.PRODUCT_CREATED_NOTE, 1);
+        replay.apply(PAIR_BOX, "Pair", "4002", "add", ProductService.PRODUCT_CREATED_NOTE, 1);
+        replay.apply(SINGLE_BOX, "Single", "5001", "add", ProductService.PRODUCT_CREATED_NOTE, 1);
+
+        assertTrue(replay.getItems().isEmpty());
+        assertTrue(replay.getUnits().isEmpty());
+    }
+
+    @Test
+    void singleProductUsesLoggedQuantity() {
+        StockSnapshotService.Replay replay = new StockSnapshotService.Replay(pairedProducts, false);
+        replay.addQuantity(SINGLE_BOX, "Single", 10);
+
+        replay.apply(SINGLE_BOX, "Single", "StP", "add", null, 5);
+        replay.apply(SINGLE_BOX, "Single", "StP", "sold", null, 3);
+
+        assertEquals(12, quantity(replay.getItems(), SINGLE_BOX));
+    }
+
+    private static int quantity(List<StockAsOfItemDTO> items, String boxBarcode) {
+        return items.stream()
+                .filter(item -> boxBarcode.equals(item.getBoxBarcode()))
+                .mapToInt(StockAsOfItemDTO::getQuantity)
+                .findFirst()
+                .orElseThrow();
+    }
+}
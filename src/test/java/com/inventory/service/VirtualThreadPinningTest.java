@@ -0,0 +1,95 @@
+package com.inventory.service;
+
+import com.inventory.PostgresIntegrationTest;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pinning check for the stock paths on virtual threads
+ * Concurrent adds to one product wait on its advisory lock; a JFR stream records every
+ * jdk.VirtualThreadPinned event meanwhile, and none may come from com.inventory code.
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class VirtualThreadPinningTest extends PostgresIntegrationTest {
+
+    private static final int WORKERS = 16;
+    private static final int ADDS_PER_WORKER = 5;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void stockPaths_ShouldNotPinVirtualThreads() throws Exception {
+        String boxBarcode = "PINTEST-" + UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO product_catalog (box_barcode, product_name, number_sn) VALUES (?, ?, 1)",
+                boxBarcode, "Pinning Test " + boxBarcode);
+
+        List<String> pinned = new CopyOnWriteArrayList<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> {
+                if (hasApplicationFrame(event)) {
+                    pinned.add(describe(event));
+                }
+            });
+            recording.startAsync();
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> adds = new ArrayList<>();
+                for (int worker = 0; worker < WORKERS; worker++) {
+                    int first = worker * ADDS_PER_WORKER;
+                    adds.add(executor.submit(() -> {
+                        for (int i = first; i < first + ADDS_PER_WORKER; i++) {
+                            stockService.addStock(boxBarcode, boxBarcode + "-SN" + i, 1, "Pinning test");
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> add : adds) {
+                    add.get(120, TimeUnit.SECONDS);
+                }
+            }
+
+            // Let the stream deliver the events recorded so far
+            recording.stop();
+        }
+
+        assertEquals(WORKERS * ADDS_PER_WORKER, jdbcTemplate.queryForObject(
+                "SELECT quantity FROM current_stock WHERE box_barcode = ?", Integer.class, boxBarcode));
+        assertTrue(pinned.isEmpty(), "Virtual threads pinned in application code:\n" + String.join("\n", pinned));
+    }
+
+    private static boolean hasApplicationFrame(RecordedEvent event) {
+        return event.getStackTrace() != null && event.getStackTrace().getFrames().stream()
+                .anyMatch(frame -> frame.getMethod().getType().getName().startsWith("com.inventory."));
+    }
+
+    private static String describe(RecordedEvent event) {
+        return event.getStackTrace().getFrames().stream()
+                .limit(20)
+                .map(RecordedFrame::getMethod)
+                .map(method -> "  at " + method.getType().getName() + "." + method.getName())
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,36 @@
+package com.inventory.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BarcodePairUtilsTest {
+
+    @Test
+    void pairKey_ShouldNormalizeLastNumber() {
+        assertEquals("7", BarcodePairUtils.pairKey("SN0007"));
+        assertEquals("12", BarcodePairUtils.pairKey("AB12CD"));
+        assertEquals("34", BarcodePairUtils.pairKey("A12B34C"));
+        assertNull(BarcodePairUtils.pairKey("NODIGITS"));
+        assertNull(BarcodePairUtils.pairKey("SN99999999999"));
+        assertNull(BarcodePairUtils.pairKey(null));
+    }
+
+    @Test
+    void partnerPairKey_ShouldFollowOddEvenRule() {
+        // Odd pairs with odd+1, even pairs with even-1
+        assertEquals("8", BarcodePairUtils.partnerPairKey("SN0007"));
+        assertEquals("7", BarcodePairUtils.partnerPairKey("SN0008"));
+        assertEquals(BarcodePairUtils.pairKey("SN0008"), BarcodePairUtils.partnerPairKey("SN0007"));
+        assertNull(BarcodePairUtils.partnerPairKey("SN0000"));
+        assertNull(BarcodePairUtils.partnerPairKey("NODIGITS"));
+    }
+
+    @Test
+    void fallbackPartnerBarcode_ShouldSwapPairSuffix() {
+        assertEquals("ABCB", BarcodePairUtils.fallbackPartnerBarcode("ABCA"));
+        assertEquals("ABCA", BarcodePairUtils.fallbackPartnerBarcode("ABCB"));
+        assertNull(BarcodePairUtils.fallbackPartnerBarcode("ABCC"));
+        assertNull(BarcodePairUtils.fallbackPartnerBarcode(""));
+    }
+}
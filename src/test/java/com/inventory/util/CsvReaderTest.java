@@ -0,0 +1,44 @@
+package com.inventory.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @Test
+    void next_ShouldParseQuotedFieldsAndLineEnds() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(
+                "\uFEFFbox_barcode,product_name\r\nA1,\"Box, \"\"large\"\"\"\nA2,\"two\nlines\"\r\n\nA3,"));
+
+        assertEquals(List.of("box_barcode", "product_name"), reader.next());
+        assertEquals(1, reader.getRecordLine());
+        assertEquals(List.of("A1", "Box, \"large\""), reader.next());
+        assertEquals(2, reader.getRecordLine());
+        assertEquals(List.of("A2", "two\nlines"), reader.next());
+        assertEquals(3, reader.getRecordLine());
+        assertEquals(List.of(""), reader.next());
+        assertEquals(List.of("A3", ""), reader.next());
+        assertEquals(6, reader.getRecordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_ShouldRejectUnterminatedQuote() {
+        CsvReader reader = new CsvReader(new StringReader("A1,\"open"));
+        assertThrows(IOException.class, reader::next);
+    }
+
+    @Test
+    void escape_ShouldRoundTrip() throws IOException {
+        String value = "Box, \"large\"\nsecond line";
+        assertEquals("plain", CsvReader.escape("plain"));
+        assertEquals("", CsvReader.escape(null));
+        assertEquals(List.of(value, "plain"),
+                new CsvReader(new StringReader(CsvReader.escape(value) + ",plain")).next());
+    }
+}